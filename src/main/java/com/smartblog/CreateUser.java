@@ -1,27 +1,30 @@
 package com.smartblog;
 
 import com.smartblog.bootstrap.AppBootstrap;
+import com.smartblog.infrastructure.logging.AppLogger;
 
 public class CreateUser {
+    private static final AppLogger log = AppLogger.get(CreateUser.class);
+
     public static void main(String[] args) {
         var ctx = AppBootstrap.start();
         
         // Create admin user
         try {
             long id = ctx.userService.register("admin", "admin@smartblog.com", "admin123", "ADMIN");
-            System.out.println("Created admin user with ID: " + id);
-            System.out.println("Login with username: admin, password: admin123");
+            log.info("Created admin user with ID: {}", id);
+            log.info("Login with username: admin, password: admin123");
         } catch (Exception e) {
-            System.out.println("Admin user already exists");
+            log.info("Admin user already exists");
         }
         
         // Create author user
         try {
             long id = ctx.userService.register("author", "author@smartblog.com", "author123", "AUTHOR");
-            System.out.println("Created author user with ID: " + id);
-            System.out.println("Login with username: author, password: author123");
+            log.info("Created author user with ID: {}", id);
+            log.info("Login with username: author, password: author123");
         } catch (Exception e) {
-            System.out.println("Author user already exists");
+            log.info("Author user already exists");
         }
     }
 }
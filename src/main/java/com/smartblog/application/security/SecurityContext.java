@@ -1,6 +1,7 @@
 
 package com.smartblog.application.security;
 
+import com.smartblog.core.model.Role;
 import com.smartblog.core.model.User;
 
 public final class SecurityContext {
@@ -10,6 +11,11 @@ public final class SecurityContext {
     public static User getUser() { return currentUser; }
     public static void logout() { currentUser = null; }
 
+    /** The current user's role, or null when nobody is logged in. */
+    public static Role role() {
+        return currentUser != null && currentUser.getRole() != null ? Role.valueOf(currentUser.getRole()) : null;
+    }
+
     public static boolean isAdmin() {
         return currentUser != null && "ADMIN".equals(currentUser.getRole());
     }
@@ -3,11 +3,31 @@ package com.smartblog.application.service;
 
 import com.smartblog.core.dto.CommentDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CommentService {
     long add(long postId, long userId, String content);
     boolean edit(long commentId, String content);
+
+    /**
+     * Applies the edit only if the comment is still at {@code expectedVersion} and returns the new version;
+     * throws {@link com.smartblog.core.exceptions.ConcurrentEditException} with the current comment otherwise.
+     */
+    long edit(long commentId, long expectedVersion, String content);
     boolean remove(long commentId);
+
+    /** Undeletes a comment of the current user (any comment for admins), from the archive if need be. */
+    boolean restore(long commentId);
     List<CommentDTO> listForPost(long postId, int page, int size);
+
+    /**
+     * The newest {@code n} comments of each post, newest first, for previews over many posts at once.
+     * Posts without comments have no entry.
+     */
+    Map<Long, List<CommentDTO>> latestForPosts(Collection<Long> postIds, int n);
+
+    /** Comments per post, counted in one query for all the posts. Posts without comments have no entry. */
+    Map<Long, Long> countForPosts(Collection<Long> postIds);
 }
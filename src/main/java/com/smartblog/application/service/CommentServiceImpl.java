@@ -1,34 +1,61 @@
 package com.smartblog.application.service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.smartblog.application.security.SecurityContext;
 import com.smartblog.core.dto.CommentDTO;
+import com.smartblog.core.exceptions.ConcurrentEditException;
 import com.smartblog.core.exceptions.NotAuthorizedException;
 import com.smartblog.core.exceptions.NotFoundException;
 import com.smartblog.core.exceptions.ValidationException;
 import com.smartblog.core.mapper.CommentMapper;
 import com.smartblog.core.model.Comment;
 import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.id.SnowflakeIdGenerator;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.infrastructure.repository.api.ArchiveRepository;
 import com.smartblog.infrastructure.repository.api.CommentRepository;
 import com.smartblog.infrastructure.repository.api.PostRepository;
 import com.smartblog.infrastructure.repository.api.UserRepository;
 import com.smartblog.infrastructure.repository.nosql.CommentRepositoryMongo;
 
 public class CommentServiceImpl implements CommentService {
+    private static final AppLogger log = AppLogger.get(CommentServiceImpl.class);
+
     private final CommentRepository comments;
     private final PostRepository posts;
     private final UserRepository users;
     private final CommentRepositoryMongo mongoComments;
+    private final SnowflakeIdGenerator ids;
+    /** null when there is no archive (in-memory mode) */
+    private final ArchiveRepository archive;
+    /** null when there is no post_view read model (in-memory mode) */
+    private final PostViewProjector projector;
 
-    public CommentServiceImpl(CommentRepository comments, PostRepository posts, UserRepository users) {
-        this(comments, posts, users, null);
+    public CommentServiceImpl(CommentRepository comments, PostRepository posts, UserRepository users,
+                              CommentRepositoryMongo mongoComments, SnowflakeIdGenerator ids) {
+        this(comments, posts, users, mongoComments, ids, null);
     }
 
     public CommentServiceImpl(CommentRepository comments, PostRepository posts, UserRepository users,
-                              CommentRepositoryMongo mongoComments) {
+                              CommentRepositoryMongo mongoComments, SnowflakeIdGenerator ids, ArchiveRepository archive) {
+        this(comments, posts, users, mongoComments, ids, archive, null);
+    }
+
+    public CommentServiceImpl(CommentRepository comments, PostRepository posts, UserRepository users,
+                              CommentRepositoryMongo mongoComments, SnowflakeIdGenerator ids, ArchiveRepository archive,
+                              PostViewProjector projector) {
         this.comments = comments; this.posts = posts; this.users = users;
         this.mongoComments = mongoComments;
+        this.ids = ids;
+        this.archive = archive;
+        this.projector = projector;
     }
 
     @Override
@@ -36,52 +63,93 @@ public class CommentServiceImpl implements CommentService {
         if (content == null || content.isBlank()) throw new ValidationException("Comment cannot be empty");
         posts.findById(postId).orElseThrow(() -> new NotFoundException("Post not found"));
         users.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
-        Comment c = new Comment((int) postId, (int) userId, content);
-        int createdId;
+        Comment c = new Comment(postId, userId, content);
+        c.setId(ids.nextId());
         try {
-            createdId = (int) comments.create(c);
-            System.out.println("[CommentService] MySQL create returned id=" + createdId);
+            comments.create(c);
+            log.debug("MySQL create stored id={}", c.getId());
         } catch (Exception ex) {
-            System.err.println("[CommentService] ERROR creating comment in MySQL: " + ex.getMessage());
-            ex.printStackTrace();
+            log.error("Error creating comment in MySQL: {}", ex.getMessage(), ex);
             throw ex;
         }
-        c.setId(createdId);
+        // MySQL is the source of truth: MongoDB only gets comments that MySQL has stored
         if (mongoComments != null) {
             try {
                 mongoComments.save(c);
             } catch (Exception ex) {
-                System.err.println("[CommentService] Warning: failed to write comment to MongoDB: " + ex.getMessage());
-                ex.printStackTrace();
+                log.warn("Failed to write comment to MongoDB: {}", ex.getMessage(), ex);
             }
         }
-        return (long) createdId;
+        if (projector != null) projector.refreshComments(postId);
+        return c.getId();
     }
 
     @Override
     public boolean edit(long commentId, String content) {
         if (content == null || content.isBlank()) throw new ValidationException("Comment cannot be empty");
-        var c = comments.findById(commentId).orElseThrow(() -> new NotFoundException("Comment not found"));
         User cur = SecurityContext.getUser();
         if (cur == null) throw new NotAuthorizedException("Authentication required");
-        boolean owner = cur.getUserId() == c.getUserId();
-        if (!(SecurityContext.isAdmin() || owner)) {
-            throw new NotAuthorizedException("Not allowed to edit this comment");
+        Comment c = new Comment();
+        c.setId(commentId);
+        c.setContent(content);
+        if (!comments.updateIfPermitted(c, cur.getId(), SecurityContext.isAdmin())) {
+            throw rejected(commentId, "Not allowed to edit this comment");
         }
+        return true;
+    }
+
+    @Override
+    public long edit(long commentId, long expectedVersion, String content) {
+        if (content == null || content.isBlank()) throw new ValidationException("Comment cannot be empty");
+        User cur = SecurityContext.getUser();
+        if (cur == null) throw new NotAuthorizedException("Authentication required");
+        Comment c = new Comment();
+        c.setId(commentId);
         c.setContent(content);
-        return comments.update(c);
+        c.setVersion(expectedVersion);
+        if (!comments.updateIfCurrent(c, cur.getId(), SecurityContext.isAdmin())) {
+            Comment current = comments.findById(commentId).orElseThrow(() -> new NotFoundException("Comment not found"));
+            boolean owner = cur.getId() != null && cur.getId() == current.getUserId();
+            if (!(SecurityContext.isAdmin() || owner)) throw new NotAuthorizedException("Not allowed to edit this comment");
+            throw new ConcurrentEditException("Comment was changed by someone else", expectedVersion, current.getVersion(), current);
+        }
+        return c.getVersion();
     }
 
     @Override
     public boolean remove(long commentId) {
-        var c = comments.findById(commentId).orElseThrow(() -> new NotFoundException("Comment not found"));
         User cur = SecurityContext.getUser();
         if (cur == null) throw new NotAuthorizedException("Authentication required");
-        boolean owner = cur.getUserId() == c.getUserId();
-        if (!(SecurityContext.isAdmin() || owner)) {
-            throw new NotAuthorizedException("Not allowed to remove this comment");
+        // the delete hands back the post, whose comment count changed
+        long postId = comments.softDeleteIfPermitted(commentId, cur.getId(), SecurityContext.isAdmin())
+                .orElseThrow(() -> rejected(commentId, "Not allowed to remove this comment"));
+        if (projector != null) projector.refreshComments(postId);
+        return true;
+    }
+
+    /** Hot undelete first; an archived comment comes back only while its post is live. */
+    @Override
+    public boolean restore(long commentId) {
+        User cur = SecurityContext.getUser();
+        if (cur == null) throw new NotAuthorizedException("Authentication required");
+        boolean admin = SecurityContext.isAdmin();
+        if (comments.restoreIfPermitted(commentId, cur.getId(), admin)
+                || archive != null && archive.restoreComment(commentId, cur.getId(), admin)) {
+            if (projector != null) comments.findById(commentId).ifPresent(c -> projector.refreshComments(c.getPostId()));
+            return true;
         }
-        return comments.softDelete(commentId);
+        if (comments.findById(commentId).isPresent()) throw new ValidationException("Comment is not deleted");
+        var archived = archive == null ? null : archive.findComment(commentId).orElse(null);
+        if (archived == null) throw new NotFoundException("Deleted comment not found");
+        if (posts.findById(archived.getPostId()).isEmpty()) throw new NotFoundException("Post not found");
+        throw new NotAuthorizedException("Not allowed to restore this comment");
+    }
+
+    /** Ownership is checked by the UPDATE itself; the comment is only read to explain a zero-row result. */
+    private RuntimeException rejected(long commentId, String notAllowed) {
+        return comments.findById(commentId).isPresent()
+                ? new NotAuthorizedException(notAllowed)
+                : new NotFoundException("Comment not found");
     }
 
     @Override
@@ -96,4 +164,28 @@ public class CommentServiceImpl implements CommentService {
                 .map(c -> CommentMapper.toDTO(c, users.findById(c.getUserId()).orElse(null)))
                 .toList();
     }
-}
\ No newline at end of file
+
+    @Override
+    public Map<Long, Long> countForPosts(Collection<Long> postIds) {
+        return mongoComments != null ? mongoComments.countByPosts(postIds) : comments.countByPosts(postIds);
+    }
+
+    /** One query for the comments of all the posts and one for all their commenters. */
+    @Override
+    public Map<Long, List<CommentDTO>> latestForPosts(Collection<Long> postIds, int n) {
+        Map<Long, List<Comment>> latest = mongoComments != null
+                ? mongoComments.latestByPosts(postIds, n)
+                : comments.latestByPosts(postIds, n);
+        Set<Long> commenterIds = latest.values().stream()
+                .flatMap(List::stream)
+                .map(Comment::getUserId)
+                .collect(Collectors.toSet());
+        Map<Long, User> commenters = users.findByIds(commenterIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, List<CommentDTO>> out = new LinkedHashMap<>();
+        latest.forEach((postId, list) -> out.put(postId, list.stream()
+                .map(c -> CommentMapper.toDTO(c, commenters.get(c.getUserId())))
+                .toList()));
+        return out;
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartblog.application.service;
+
+import com.smartblog.core.dto.ResultCount;
+import com.smartblog.core.model.PostStatus;
+
+/**
+ * Totals for paged views. Exact while the matches are few enough to count cheaply, otherwise an
+ * estimate flagged {@link ResultCount#approximate()}.
+ */
+public interface CountService {
+
+    /** Posts matching the {@link PostService#searchCombined} filters; all null or blank counts every post. */
+    default ResultCount countPosts(String keyword, String authorName, String tagName) {
+        return countPosts(keyword, authorName, tagName, PostStatus.ANY);
+    }
+    ResultCount countPosts(String keyword, String authorName, String tagName, PostStatus status);
+
+    /** Live posts of one author with the given status; always exact. */
+    ResultCount countPostsByAuthor(long authorId, PostStatus status);
+}
@@ -0,0 +1,73 @@
+package com.smartblog.application.service;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartblog.core.dto.ResultCount;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.infrastructure.repository.api.PostRepository;
+import com.smartblog.infrastructure.repository.api.PostViewRepository;
+
+/**
+ * Counts up to {@code exactLimit} matches exactly (the count stops reading there, so it costs no more
+ * than one page of that size). Past the limit the total comes from table and index statistics,
+ * rounded to three significant digits since more precision would be false. Results are cached briefly
+ * so paging through one search counts once.
+ *
+ * With the post_view read model on, the totals come from post_view, the table the pages of results
+ * are read from, so a total always agrees with the pages it is shown with.
+ */
+public class CountServiceImpl implements CountService {
+    private static final AppLogger log = AppLogger.get(CountServiceImpl.class);
+
+    private final PostRepository posts;
+    // null when the post_view read model is disabled
+    private final PostViewRepository views;
+    private final int exactLimit;
+    private final Cache<String, ResultCount> cache;
+
+    public CountServiceImpl(PostRepository posts) {
+        this(posts, null, 1000, Duration.ofSeconds(30));
+    }
+
+    public CountServiceImpl(PostRepository posts, PostViewRepository views, int exactLimit, Duration ttl) {
+        this.posts = posts;
+        this.views = views;
+        this.exactLimit = exactLimit;
+        this.cache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(1000).build();
+    }
+
+    @Override
+    public ResultCount countPosts(String keyword, String authorName, String tagName, PostStatus status) {
+        String k = normalize(keyword), t = normalize(tagName), a = normalize(authorName);
+        return cache.get(k + '\u0000' + t + '\u0000' + a + '\u0000' + status, key -> {
+            long counted = views != null
+                    ? views.countCombined(k, t, a, status, exactLimit + 1)
+                    : posts.countCombined(k, t, a, status, exactLimit + 1);
+            if (counted <= exactLimit) return new ResultCount(counted, false);
+            long estimated = views != null ? views.estimateCombined(k, t, a, status) : posts.estimateCombined(k, t, a, status);
+            // more than exactLimit match for certain, whatever the statistics say
+            long estimate = Math.max(estimated, exactLimit + 1L);
+            log.debug("countPosts -> over {} matches, estimated {}", exactLimit, estimate);
+            return new ResultCount(roundToSignificant(estimate, 3), true);
+        });
+    }
+
+    /** One author's posts are few and sit together in the author index, so they are always counted. */
+    @Override
+    public ResultCount countPostsByAuthor(long authorId, PostStatus status) {
+        return new ResultCount(posts.countByAuthor(authorId, status), false);
+    }
+
+    private static String normalize(String filter) {
+        return filter == null || filter.isBlank() ? "" : filter;
+    }
+
+    private static long roundToSignificant(long value, int digits) {
+        if (value <= 0) return value;
+        long scale = (long) Math.pow(10, Math.max(0, (int) Math.log10(value) + 1 - digits));
+        return Math.round((double) value / scale) * scale;
+    }
+}
@@ -3,25 +3,58 @@ package com.smartblog.application.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.smartblog.core.dto.PostDTO;
 import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
 
 
 
 
 public interface PostService {
     long createDraft(long authorId, String title, String content);
+    long createDraft(long authorId, String title, String content, Set<String> tagNames);
     boolean publish(long postId);
+
+    /**
+     * Publishes only if the post is still at {@code expectedVersion} and returns the new version, as
+     * {@link #update(long, long, String, String, boolean)} does for edits.
+     */
+    long publish(long postId, long expectedVersion);
     boolean update(long postId, String title, String content, boolean published);
+
+    /**
+     * Applies the edit only if the post is still at {@code expectedVersion} and returns the new version;
+     * throws {@link com.smartblog.core.exceptions.ConcurrentEditException} with the current post otherwise.
+     */
+    long update(long postId, long expectedVersion, String title, String content, boolean published);
+    boolean update(long postId, String title, String content, boolean published, Set<String> tagNames);
     boolean softDelete(long postId);
+
+    /**
+     * Undeletes a post of the current user (any post for admins), bringing it back from the archive
+     * with its comments and tags if it was archived already.
+     */
+    boolean restore(long postId);
     Optional<Post> getDomain(long id);
     Optional<PostDTO> getView(long id);
-    List<PostDTO> list(int page, int size);
-    List<PostDTO> search(String keyword, int page, int size);
-    List<PostDTO> listByAuthor(long authorId, int page, int size);
+    default List<PostDTO> list(int page, int size) { return list(PostStatus.ANY, page, size); }
+    default List<PostDTO> search(String keyword, int page, int size) { return search(keyword, PostStatus.ANY, page, size); }
+    default List<PostDTO> listByAuthor(long authorId, int page, int size) {
+        return listByAuthor(authorId, PostStatus.ANY, page, size);
+    }
+
+    /** Pages of posts with the given status, filtered by the database so they come back full. */
+    List<PostDTO> list(PostStatus status, int page, int size);
+    List<PostDTO> search(String keyword, PostStatus status, int page, int size);
+    List<PostDTO> listByAuthor(long authorId, PostStatus status, int page, int size);
     List<PostDTO> searchByTag(String tag, int page, int size);
     List<PostDTO> searchByAuthorName(String authorName, int page, int size);
-    List<PostDTO> searchCombined(String keyword, String tag, String authorName, String sortBy, int page, int size);
+    default List<PostDTO> searchCombined(String keyword, String authorName, String tagName, String sortBy, int page, int size) {
+        return searchCombined(keyword, authorName, tagName, PostStatus.ANY, sortBy, page, size);
+    }
+    List<PostDTO> searchCombined(String keyword, String authorName, String tagName, PostStatus status, String sortBy,
+                                 int page, int size);
 
 }
@@ -1,29 +1,62 @@
 package com.smartblog.application.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.smartblog.application.security.SecurityContext;
 import com.smartblog.application.util.Perf;
 import com.smartblog.core.dto.PostDTO;
+import com.smartblog.core.exceptions.ConcurrentEditException;
 import com.smartblog.core.exceptions.NotAuthorizedException;
 import com.smartblog.core.exceptions.NotFoundException;
 import com.smartblog.core.exceptions.ValidationException;
 import com.smartblog.core.mapper.PostMapper;
 import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.core.model.PostView;
 import com.smartblog.core.model.User;
 import com.smartblog.infrastructure.caching.CacheManager;
+import com.smartblog.infrastructure.id.SnowflakeIdGenerator;
+import com.smartblog.infrastructure.jdbc.TransactionManager;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.infrastructure.repository.api.ArchiveRepository;
 import com.smartblog.infrastructure.repository.api.PostRepository;
 import com.smartblog.infrastructure.repository.api.TagRepository;
 import com.smartblog.infrastructure.repository.api.UserRepository;
 
 public class PostServiceImpl implements PostService {
+    private static final AppLogger log = AppLogger.get(PostServiceImpl.class);
+
     private final PostRepository posts;
     private final UserRepository users;
     private final TagRepository tags;
+    private final TransactionManager tx;
+    private final SnowflakeIdGenerator ids;
+    /** null when there is no archive (in-memory mode) */
+    private final ArchiveRepository archive;
+    /** null when there is no post_view read model (in-memory mode); lists then read the source tables */
+    private final PostViewProjector projector;
+
+    public PostServiceImpl(PostRepository posts, UserRepository users, TagRepository tags,
+                           TransactionManager tx, SnowflakeIdGenerator ids) {
+        this(posts, users, tags, tx, ids, null);
+    }
 
-    public PostServiceImpl(PostRepository posts, UserRepository users, TagRepository tags) {
-        this.posts = posts; this.users = users; this.tags = tags;
+    public PostServiceImpl(PostRepository posts, UserRepository users, TagRepository tags,
+                           TransactionManager tx, SnowflakeIdGenerator ids, ArchiveRepository archive) {
+        this(posts, users, tags, tx, ids, archive, null);
+    }
+
+    public PostServiceImpl(PostRepository posts, UserRepository users, TagRepository tags,
+                           TransactionManager tx, SnowflakeIdGenerator ids, ArchiveRepository archive,
+                           PostViewProjector projector) {
+        this.posts = posts; this.users = users; this.tags = tags; this.tx = tx; this.ids = ids;
+        this.archive = archive;
+        this.projector = projector;
     }
 
     @Override
@@ -35,10 +68,37 @@ public class PostServiceImpl implements PostService {
         p.setTitle(title);
         p.setContent(content);
         p.setPublished(false);
-        long postId = posts.create(p);
-        System.out.println("PostService.createDraft -> created id=" + postId + " title=" + title);
-        p.setId(postId);
-        CacheManager.postCache.put(postId, p);
+        p.setId(ids.nextId());
+        long postId = tx.call(() -> {
+            long id = posts.create(p);
+            project(id);
+            return id;
+        });
+        log.debug("createDraft -> created id={} title={}", postId, title);
+        CacheManager.putPost(p);
+        return postId;
+    }
+
+    /** Creates the draft and assigns its tags in one transaction. */
+    @Override
+    public long createDraft(long authorId, String title, String content, Set<String> tagNames) {
+        validateTitle(title); validateContent(content);
+        var wanted = TagServiceImpl.toTags(tagNames);
+        Post p = new Post();
+        p.setAuthorId(authorId);
+        p.setTitle(title);
+        p.setContent(content);
+        p.setPublished(false);
+        p.setId(ids.nextId());
+        long postId = tx.call(() -> {
+            users.findById(authorId).orElseThrow(() -> new NotFoundException("Author not found"));
+            long id = posts.create(p);
+            tags.setTagsForPost(id, wanted);
+            project(id);
+            return id;
+        });
+        log.debug("createDraft -> created id={} with {} tags", postId, wanted.size());
+        CacheManager.putPost(p);
         return postId;
     }
 
@@ -47,64 +107,167 @@ public class PostServiceImpl implements PostService {
         if (!SecurityContext.isAdmin()) {
             throw new NotAuthorizedException("Only admins may publish posts");
         }
-        var p = posts.findById(postId).orElseThrow(() -> new NotFoundException("Post not found"));
-        p.setPublished(true);
-        boolean result = posts.update(p);
-        System.out.println("PostService.publish -> postId=" + postId + " result=" + result);
-        if (result) {
-            CacheManager.postCache.put(postId, p);
+        if (!writeAndProject(() -> posts.publish(postId), v -> v.published(postId))) {
+            throw new NotFoundException("Post not found");
+        }
+        log.debug("publish -> postId={}", postId);
+        CacheManager.invalidatePost(postId);
+        return true;
+    }
+
+    @Override
+    public long publish(long postId, long expectedVersion) {
+        if (!SecurityContext.isAdmin()) {
+            throw new NotAuthorizedException("Only admins may publish posts");
+        }
+        if (!writeAndProject(() -> posts.publishIfCurrent(postId, expectedVersion), v -> v.published(postId))) {
+            Post current = posts.findById(postId).orElseThrow(() -> new NotFoundException("Post not found"));
+            CacheManager.putPost(current);
+            throw new ConcurrentEditException("Post was changed by someone else", expectedVersion, current.getVersion(), current);
         }
-        return result;
+        log.debug("publish -> postId={} version {} -> {}", postId, expectedVersion, expectedVersion + 1);
+        CacheManager.invalidatePost(postId);
+        return expectedVersion + 1;
     }
 
+    /** One conditional UPDATE; the post is only read when it matched nothing, to report why. */
     @Override
     public boolean update(long postId, String title, String content, boolean published) {
         validateTitle(title); validateContent(content);
-        var p = posts.findById(postId).orElseThrow(() -> new NotFoundException("Post not found"));
-
         User cur = SecurityContext.getUser();
         if (cur == null) throw new NotAuthorizedException("Authentication required");
-        boolean owner = cur.getId() != null && cur.getId().equals(p.getAuthorId());
-        if (!(SecurityContext.isAdmin() || owner)) {
-            throw new NotAuthorizedException("Not allowed to update this post");
+
+        Post p = new Post();
+        p.setId(postId);
+        p.setTitle(title); p.setContent(content); p.setPublished(published);
+        if (!writeAndProject(() -> posts.updateIfPermitted(p, cur.getId(), SecurityContext.isAdmin()), v -> v.edited(p))) {
+            throw rejected(postId, "Not allowed to update this post");
         }
+        log.debug("update -> postId={} published={}", postId, published);
+        CacheManager.invalidatePost(postId);
+        return true;
+    }
 
+    /**
+     * Compare-and-set edit: one UPDATE that also requires the post to still be at
+     * {@code expectedVersion}. On a miss the post is read once to report not-found, not-allowed or,
+     * with the current post attached, a concurrent edit.
+     */
+    @Override
+    public long update(long postId, long expectedVersion, String title, String content, boolean published) {
+        validateTitle(title); validateContent(content);
+        User cur = SecurityContext.getUser();
+        if (cur == null) throw new NotAuthorizedException("Authentication required");
+
+        Post p = new Post();
+        p.setId(postId);
         p.setTitle(title); p.setContent(content); p.setPublished(published);
-        boolean result = posts.update(p);
-        System.out.println("PostService.update -> postId=" + postId + " published=" + published + " result=" + result);
-        if (result) {
-            CacheManager.postCache.put(postId, p);
+        // set inside the block: a retried transaction must compare against the version the editor read again
+        if (!writeAndProject(() -> {
+            p.setVersion(expectedVersion);
+            return posts.updateIfCurrent(p, cur.getId(), SecurityContext.isAdmin());
+        }, v -> v.edited(p))) {
+            Post current = posts.findById(postId).orElseThrow(() -> new NotFoundException("Post not found"));
+            boolean owner = cur.getId() != null && cur.getId().equals(current.getAuthorId());
+            if (!(SecurityContext.isAdmin() || owner)) throw new NotAuthorizedException("Not allowed to update this post");
+            CacheManager.putPost(current);
+            throw new ConcurrentEditException("Post was changed by someone else", expectedVersion, current.getVersion(), current);
         }
-        return result;
+        log.debug("update -> postId={} version {} -> {}", postId, expectedVersion, p.getVersion());
+        // the cached row is still right apart from this edit only if it was the version we replaced
+        CacheManager.editPost(postId, c -> c.getVersion() == expectedVersion ? edited(c, p) : null);
+        return p.getVersion();
+    }
+
+    private static Post edited(Post cached, Post edit) {
+        Post next = new Post(cached.getId(), cached.getAuthorId(), edit.getTitle(), edit.getContent(), edit.isPublished(),
+                cached.getCreatedAt(), LocalDateTime.now(), cached.getDeletedAt());
+        next.setVersion(edit.getVersion());
+        return next;
+    }
+
+    /** Updates the post and replaces its tags in one transaction. */
+    @Override
+    public boolean update(long postId, String title, String content, boolean published, Set<String> tagNames) {
+        var wanted = TagServiceImpl.toTags(tagNames);
+        return tx.call(() -> {
+            boolean result = update(postId, title, content, published);
+            if (result) {
+                tags.setTagsForPost(postId, wanted);
+                if (projector != null) projector.refreshTags(postId);
+            }
+            return result;
+        });
     }
 
     @Override
     public boolean softDelete(long postId) {
-        var p = posts.findById(postId).orElseThrow(() -> new NotFoundException("Post not found"));
         User cur = SecurityContext.getUser();
         if (cur == null) throw new NotAuthorizedException("Authentication required");
-        boolean owner = cur.getId() != null && cur.getId().equals(p.getAuthorId());
-        if (!(SecurityContext.isAdmin() || owner)) {
-            throw new NotAuthorizedException("Not allowed to delete this post");
+        if (!writeAndProject(() -> posts.softDeleteIfPermitted(postId, cur.getId(), SecurityContext.isAdmin()),
+                v -> v.deleted(postId))) {
+            throw rejected(postId, "Not allowed to delete this post");
         }
-        boolean result = posts.softDelete(postId);
-        if (result) {
-            CacheManager.postCache.invalidate(postId);
+        CacheManager.invalidatePost(postId);
+        return true;
+    }
+
+    /** Hot undelete first; only a post the archiver already moved is looked up in the archive. */
+    @Override
+    public boolean restore(long postId) {
+        User cur = SecurityContext.getUser();
+        if (cur == null) throw new NotAuthorizedException("Authentication required");
+        boolean admin = SecurityContext.isAdmin();
+        if (!posts.restoreIfPermitted(postId, cur.getId(), admin)
+                && (archive == null || !archive.restorePost(postId, cur.getId(), admin))) {
+            if (posts.findById(postId).isPresent()) throw new ValidationException("Post is not deleted");
+            if (archive != null && archive.findPost(postId).isPresent()) {
+                throw new NotAuthorizedException("Not allowed to restore this post");
+            }
+            throw new NotFoundException("Deleted post not found");
         }
-        return result;
+        log.debug("restore -> postId={}", postId);
+        project(postId);
+        CacheManager.invalidatePost(postId);
+        return true;
+    }
+
+    /**
+     * Runs the write and, if it applied, applies the same change to the post's post_view row in the
+     * same transaction.
+     */
+    private boolean writeAndProject(Supplier<Boolean> write, Consumer<PostViewProjector> projection) {
+        return tx.call(() -> {
+            boolean applied = write.get();
+            if (applied && projector != null) projection.accept(projector);
+            return applied;
+        });
+    }
+
+    /** Projects the post in full: after creating or restoring it. */
+    private void project(long postId) {
+        if (projector != null) projector.refresh(postId);
+    }
+
+    /** Why a conditional write matched no row: the post is gone, or it belongs to someone else. */
+    private RuntimeException rejected(long postId, String notAllowed) {
+        return posts.findById(postId).isPresent()
+                ? new NotAuthorizedException(notAllowed)
+                : new NotFoundException("Post not found");
     }
 
     @Override
     public Optional<Post> getDomain(long id) {
-        var cached = CacheManager.postCache.getIfPresent(id);
+        Post cached = CacheManager.getPost(id);
         if (cached != null) {
-            return Optional.of((Post) cached);
+            return Optional.of(cached);
         }
         Optional<Post> post = posts.findById(id);
-        post.ifPresent(p -> CacheManager.postCache.put(id, p));
+        post.ifPresent(CacheManager::putPost);
         return post;
     }
 
+    /** Single-post reads stay on the source tables, so an editor never opens a body the view has not caught up with. */
     @Override
     public Optional<PostDTO> getView(long id) {
         var op = getDomain(id);
@@ -116,31 +279,36 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
-    public List<PostDTO> list(int page, int size) {
-        return posts.list(page, size).stream()
+    public List<PostDTO> list(PostStatus status, int page, int size) {
+        if (projector != null) return fromViews(projector.views().list(status, page, size));
+        return posts.list(status, page, size).stream()
                 .map(p -> {
-                    CacheManager.postCache.put(p.getId(), p);
+                    CacheManager.putPost(p);
                     return PostMapper.toDTO(p, users.findById(p.getAuthorId()).orElse(null), tags.listByPost(p.getId()));
                 })
                 .toList();
     }
 
     @Override
-    public List<PostDTO> search(String keyword, int page, int size) {
-        List<Post> results = Perf.measure("SearchPosts", () -> posts.search(keyword, page, size));
+    public List<PostDTO> search(String keyword, PostStatus status, int page, int size) {
+        if (projector != null) {
+            return fromViews(Perf.measure("SearchPosts", () -> projector.views().search(keyword, status, page, size)));
+        }
+        List<Post> results = Perf.measure("SearchPosts", () -> posts.search(keyword, status, page, size));
         return results.stream()
                 .map(p -> {
-                    CacheManager.postCache.put(p.getId(), p);
+                    CacheManager.putPost(p);
                     return PostMapper.toDTO(p, users.findById(p.getAuthorId()).orElse(null), tags.listByPost(p.getId()));
                 })
                 .toList();
     }
 
     @Override
-    public List<PostDTO> listByAuthor(long authorId, int page, int size) {
-        return posts.listByAuthor(authorId, page, size).stream()
+    public List<PostDTO> listByAuthor(long authorId, PostStatus status, int page, int size) {
+        if (projector != null) return fromViews(projector.views().listByAuthor(authorId, status, page, size));
+        return posts.listByAuthor(authorId, status, page, size).stream()
                 .map(p -> {
-                    CacheManager.postCache.put(p.getId(), p);
+                    CacheManager.putPost(p);
                     return PostMapper.toDTO(p, users.findById(p.getAuthorId()).orElse(null), tags.listByPost(p.getId()));
                 })
                 .toList();
@@ -148,21 +316,26 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public List<PostDTO> searchByAuthorName(String authorName, int page, int size) {
+        if (projector != null) return fromViews(projector.views().searchByAuthorName(authorName, page, size));
         List<Post> results = posts.searchByAuthorName(authorName, page, size);
         return results.stream()
                 .map(p -> {
-                    CacheManager.postCache.put(p.getId(), p);
+                    CacheManager.putPost(p);
                     return PostMapper.toDTO(p, users.findById(p.getAuthorId()).orElse(null), tags.listByPost(p.getId()));
                 })
                 .toList();
     }
 
     @Override
-    public List<PostDTO> searchCombined(String keyword, String authorName, String tagName, String sortBy, int page, int size) {
-        List<Post> results = posts.searchCombined(keyword, tagName, authorName, sortBy, page, size);
+    public List<PostDTO> searchCombined(String keyword, String authorName, String tagName, PostStatus status, String sortBy,
+                                        int page, int size) {
+        if (projector != null) {
+            return fromViews(projector.views().searchCombined(keyword, tagName, authorName, status, sortBy, page, size));
+        }
+        List<Post> results = posts.searchCombined(keyword, tagName, authorName, status, sortBy, page, size);
         return results.stream()
                 .map(p -> {
-                    CacheManager.postCache.put(p.getId(), p);
+                    CacheManager.putPost(p);
                     return PostMapper.toDTO(p, users.findById(p.getAuthorId()).orElse(null), tags.listByPost(p.getId()));
                 })
                 .toList();
@@ -170,15 +343,21 @@ public class PostServiceImpl implements PostService {
 
     @Override
     public List<PostDTO> searchByTag(String tagName, int page, int size) {
+        if (projector != null) return fromViews(projector.views().searchByTag(tagName, page, size));
         List<Post> results = posts.searchByTag(tagName, page, size);
         return results.stream()
                 .map(p -> {
-                    CacheManager.postCache.put(p.getId(), p);
+                    CacheManager.putPost(p);
                     return PostMapper.toDTO(p, users.findById(p.getAuthorId()).orElse(null), tags.listByPost(p.getId()));
                 })
                 .toList();
     }
 
+    /** post_view rows carry the author and tags already: no lookups per post. */
+    private static List<PostDTO> fromViews(List<PostView> views) {
+        return views.stream().map(PostMapper::toDTO).toList();
+    }
+
     private void validateTitle(String t) {
         if (t == null || t.isBlank()) {
             throw new ValidationException("Title required");
@@ -0,0 +1,129 @@
+package com.smartblog.application.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostView;
+import com.smartblog.core.model.Tag;
+import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.infrastructure.repository.api.CommentRepository;
+import com.smartblog.infrastructure.repository.api.PostRepository;
+import com.smartblog.infrastructure.repository.api.PostViewRepository;
+import com.smartblog.infrastructure.repository.api.TagRepository;
+import com.smartblog.infrastructure.repository.api.UserRepository;
+
+/**
+ * Keeps the post_view read model in step with posts, users, post_tags, tags and comments.
+ *
+ * PostService and TagService call it inside the transaction of the write it follows. Unsharded,
+ * post_view is in the same database as everything else, so the source rows and the view row commit
+ * together. Sharded, post_view is on the global shard with users and tags: tag changes still commit
+ * with it, but post writes commit on their shard first. Comment counts are refreshed right after the
+ * comment write. A view write that fails after its source write leaves the row stale until the
+ * post's next write or a {@link #rebuild}.
+ *
+ * New and restored posts are projected in full from the source tables. Edits, publishing and deletes
+ * only write what they changed, from values the caller already holds, instead of reading the post,
+ * its author, tags and comment count back. Every write sets values rather than adjusting them, so
+ * repeating one (e.g. when a transaction is retried) is harmless.
+ */
+public class PostViewProjector {
+    private static final AppLogger log = AppLogger.get(PostViewProjector.class);
+
+    private final PostViewRepository views;
+    private final PostRepository posts;
+    private final UserRepository users;
+    private final TagRepository tags;
+    private final CommentRepository comments;
+
+    public PostViewProjector(PostViewRepository views, PostRepository posts, UserRepository users,
+                             TagRepository tags, CommentRepository comments) {
+        this.views = views; this.posts = posts; this.users = users; this.tags = tags; this.comments = comments;
+    }
+
+    public PostViewRepository views() { return views; }
+
+    /** Rewrites the post's row, or removes it once the post is deleted. */
+    public void refresh(long postId) {
+        posts.findById(postId).ifPresentOrElse(p -> project(List.of(p)), () -> views.delete(postId));
+    }
+
+    /** After an edit: the title, body and status of {@code edit} replace the row's. */
+    public void edited(Post edit) {
+        views.updateContent(edit.getId(), edit.getTitle(), edit.getContent(), edit.isPublished());
+    }
+
+    public void published(long postId) {
+        views.markPublished(postId);
+    }
+
+    public void deleted(long postId) {
+        views.delete(postId);
+    }
+
+    public void refreshComments(long postId) {
+        views.updateCommentCount(postId, comments.countByPosts(List.of(postId)).getOrDefault(postId, 0L));
+    }
+
+    public void refreshTags(long postId) {
+        views.updateTags(postId, tags.listByPost(postId).stream().map(Tag::getName).toList());
+    }
+
+    public void renameTag(String oldName, String newName) {
+        views.renameTag(oldName, newName);
+    }
+
+    public void removeTag(String name) {
+        views.removeTag(name);
+    }
+
+    /**
+     * Regenerates every row from the source tables, {@code chunkSize} posts at a time with one query
+     * each for their authors, tags and comment counts, then drops the rows of posts that are gone.
+     * The view stays readable throughout. A post deleted while the rebuild runs may be written back
+     * and shows until the next rebuild.
+     *
+     * @return the number of posts written
+     */
+    public long rebuild(int chunkSize) {
+        LocalDateTime started = views.now();
+        long written = 0;
+        List<Post> chunk = new ArrayList<>(chunkSize);
+        try (Stream<Post> all = posts.streamAll()) {
+            for (Post p : (Iterable<Post>) all::iterator) {
+                chunk.add(p);
+                if (chunk.size() == chunkSize) {
+                    project(chunk);
+                    written += chunk.size();
+                    chunk.clear();
+                    log.info("post_view rebuild: {} posts written", written);
+                }
+            }
+        }
+        project(chunk);
+        written += chunk.size();
+        int removed = views.deleteRefreshedBefore(started);
+        log.info("post_view rebuilt: {} posts written, {} stale rows removed", written, removed);
+        return written;
+    }
+
+    private void project(List<Post> batch) {
+        if (batch.isEmpty()) return;
+        List<Long> ids = batch.stream().map(Post::getId).toList();
+        Map<Long, User> authors = users.findByIds(batch.stream().map(Post::getAuthorId).distinct().toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, List<Tag>> tagsByPost = tags.listByPosts(ids);
+        Map<Long, Long> commentCounts = comments.countByPosts(ids);
+        views.upsertAll(batch.stream()
+                .map(p -> PostView.of(p, authors.get(p.getAuthorId()), tagsByPost.getOrDefault(p.getId(), List.of()),
+                        commentCounts.getOrDefault(p.getId(), 0L)))
+                .toList());
+    }
+}
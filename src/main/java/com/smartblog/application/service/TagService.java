@@ -4,6 +4,7 @@ package com.smartblog.application.service;
 import com.smartblog.core.dto.TagDTO;
 
 import java.util.List;
+import java.util.Set;
 
 public interface TagService {
     long create(String name);
@@ -13,6 +14,7 @@ public interface TagService {
     boolean assignToPost(long postId, long tagId);
     boolean removeFromPost(long postId, long tagId);
     List<TagDTO> listForPost(long postId);
+    List<TagDTO> setTagsForPost(long postId, Set<String> names);
     List<TagDTO> list();
 }
 
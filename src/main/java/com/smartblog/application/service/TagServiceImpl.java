@@ -8,13 +8,28 @@ import com.smartblog.core.exceptions.NotFoundException;
 import com.smartblog.core.exceptions.ValidationException;
 import com.smartblog.core.mapper.TagMapper;
 import com.smartblog.core.model.Tag;
+import com.smartblog.infrastructure.jdbc.TransactionManager;
 import com.smartblog.infrastructure.repository.api.TagRepository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class TagServiceImpl implements TagService {
     private final TagRepository tags;
-    public TagServiceImpl(TagRepository tags) { this.tags = tags; }
+    private final TransactionManager tx;
+    /** null when there is no post_view read model (in-memory mode) */
+    private final PostViewProjector projector;
+
+    public TagServiceImpl(TagRepository tags) { this(tags, TransactionManager.none(), null); }
+
+    /** Tag changes and the post_view rows they touch commit together; both live on the global database. */
+    public TagServiceImpl(TagRepository tags, TransactionManager tx, PostViewProjector projector) {
+        this.tags = tags; this.tx = tx; this.projector = projector;
+    }
 
     @Override
     public long create(String name) {
@@ -36,8 +51,13 @@ public class TagServiceImpl implements TagService {
         String newSlug = SlugUtil.toSlug(newName);
         if (tags.findBySlug(newSlug).filter(x -> !x.getId().equals(tagId)).isPresent())
             throw new DuplicateException("Slug already in use");
+        String oldName = t.getName();
         t.setName(newName.trim()); t.setSlug(newSlug);
-        return tags.update(t);
+        return tx.call(() -> {
+            boolean renamed = tags.update(t);
+            if (renamed && projector != null) projector.renameTag(oldName, t.getName());
+            return renamed;
+        });
     }
     @Override
     public List<TagDTO> list() {
@@ -47,13 +67,62 @@ public class TagServiceImpl implements TagService {
                 .toList();
     }
 
-    @Override public boolean delete(long tagId) { return tags.delete(tagId); }
+    @Override
+    public boolean delete(long tagId) {
+        if (projector == null) return tags.delete(tagId);
+        return tx.call(() -> {
+            var name = tags.findById(tagId).map(Tag::getName);
+            boolean deleted = tags.delete(tagId);
+            if (deleted) name.ifPresent(projector::removeTag);
+            return deleted;
+        });
+    }
+
     @Override public List<TagDTO> listAll() { return tags.listAll().stream().map(TagMapper::toDTO).toList(); }
-    @Override public boolean assignToPost(long postId, long tagId) { return tags.addTagToPost(postId, tagId); }
-    @Override public boolean removeFromPost(long postId, long tagId) { return tags.removeTagFromPost(postId, tagId); }
+    @Override public boolean assignToPost(long postId, long tagId) { return linked(postId, () -> tags.addTagToPost(postId, tagId)); }
+    @Override public boolean removeFromPost(long postId, long tagId) { return linked(postId, () -> tags.removeTagFromPost(postId, tagId)); }
     @Override public List<TagDTO> listForPost(long postId) { return tags.listByPost(postId).stream().map(TagMapper::toDTO).toList(); }
 
-    private void validateName(String name) {
+    /**
+     * Replaces the post's tags with {@code names}, creating missing tags on the fly.
+     * Names that map to the same slug collapse into one tag.
+     */
+    @Override
+    public List<TagDTO> setTagsForPost(long postId, Set<String> names) {
+        try {
+            var wanted = toTags(names);
+            return tx.call(() -> {
+                var result = tags.setTagsForPost(postId, wanted);
+                if (projector != null) projector.refreshTags(postId);
+                return result.stream().map(TagMapper::toDTO).toList();
+            });
+        } catch (RuntimeException r) {
+            if ("duplicate".equals(r.getMessage())) throw new DuplicateException("Tag already exists");
+            throw r;
+        }
+    }
+
+    /** Runs a change to the post's tag links and, if it applied, rewrites the post's tags in post_view. */
+    private boolean linked(long postId, Supplier<Boolean> change) {
+        return tx.call(() -> {
+            boolean changed = change.get();
+            if (changed && projector != null) projector.refreshTags(postId);
+            return changed;
+        });
+    }
+
+    /** Validates and slugs tag names, collapsing names that share a slug. */
+    static Collection<Tag> toTags(Set<String> names) {
+        Map<String, Tag> bySlug = new LinkedHashMap<>();
+        for (String name : names) {
+            validateName(name);
+            String slug = SlugUtil.toSlug(name);
+            bySlug.putIfAbsent(slug, new Tag(null, name.trim(), slug));
+        }
+        return bySlug.values();
+    }
+
+    private static void validateName(String name) {
         if (name == null || name.isBlank()) throw new ValidationException("Tag name required");
         if (name.length() > 100) throw new ValidationException("Tag name too long");
     }
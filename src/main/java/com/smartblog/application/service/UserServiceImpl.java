@@ -12,9 +12,11 @@ import com.smartblog.core.exceptions.NotFoundException;
 import com.smartblog.core.exceptions.ValidationException;
 import com.smartblog.core.mapper.UserMapper;
 import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.infrastructure.repository.api.UserRepository;
 
 public class UserServiceImpl implements UserService {
+    private static final AppLogger log = AppLogger.get(UserServiceImpl.class);
 
     private final UserRepository repo;
 
@@ -84,36 +86,33 @@ public class UserServiceImpl implements UserService {
     @Override
     public Optional<User> authenticate(String username, String rawPassword) {
         var u = repo.findByUsername(username);
-        System.out.println("[auth] attempt username='" + username + "' present=" + u.isPresent());
+        log.debug("[auth] attempt username='{}' present={}", username, u.isPresent());
         if (u.isEmpty()) return Optional.empty();
         String stored = u.get().getPasswordHash();
-        System.out.println("[auth] stored-password-present=" + (stored != null));
-        System.out.println("[auth] stored-hash=" + (stored != null ? stored.substring(0, Math.min(20, stored.length())) + "..." : "null"));
-        System.out.println("[auth] rawPassword=" + (rawPassword != null ? rawPassword : "null"));
-        System.out.println("[auth] rawPassword-length=" + (rawPassword != null ? rawPassword.length() : 0));
+        log.debug("[auth] stored-password-present={}", stored != null);
         try {
             // Normal case: stored value is a BCrypt hash
             boolean ok = BCrypt.checkpw(rawPassword, stored);
-            System.out.println("[auth] bcrypt-check=" + ok);
+            log.debug("[auth] bcrypt-check={}", ok);
             if (ok) return u;
             // Not matching
             return Optional.empty();
         } catch (IllegalArgumentException iae) {
             // Legacy or malformed hash (for example plaintext stored). Fallback: compare directly
-            System.out.println("[auth] bcrypt threw IllegalArgumentException, trying plaintext fallback");
+            log.debug("[auth] bcrypt threw IllegalArgumentException, trying plaintext fallback");
             if (stored != null && stored.equals(rawPassword)) {
-                System.out.println("[auth] plaintext matched; upgrading to bcrypt");
+                log.debug("[auth] plaintext matched; upgrading to bcrypt");
                 // Upgrade: replace plaintext with bcrypt hash to harden stored credential
                 try {
                     u.get().setPasswordHash(BCrypt.hashpw(rawPassword, BCrypt.gensalt()));
                     repo.update(u.get());
-                    System.out.println("[auth] upgraded password hash for user=" + username);
+                    log.info("[auth] upgraded password hash for user={}", username);
                 } catch (Exception ex) {
-                    System.out.println("[auth] failed to upgrade password hash: " + ex.getMessage());
+                    log.warn("[auth] failed to upgrade password hash: {}", ex.getMessage());
                 }
                 return u;
             }
-            System.out.println("[auth] plaintext fallback did not match");
+            log.debug("[auth] plaintext fallback did not match");
             return Optional.empty();
         }
     }
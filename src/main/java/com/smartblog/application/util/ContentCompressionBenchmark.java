@@ -0,0 +1,185 @@
+package com.smartblog.application.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.smartblog.bootstrap.AppBootstrap;
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.compression.ContentCodec;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Measures what compressed post bodies ({@link ContentCodec}) save on our own corpus.
+ *
+ * <ol>
+ *   <li>Corpus: every post body encoded in process, giving the bytes stored plain and compressed, the
+ *       bodies past InnoDB's in-row limit (they cost whole overflow pages) and the codec's CPU time.</li>
+ *   <li>Database: the size on disk of posts and post_view, how their bodies are stored now, and the
+ *       InnoDB page reads (buffer pool requests, reads from disk, bytes read) of a full scan and of
+ *       sampled single-post reads of posts and of the first list pages of post_view, followed by
+ *       the pages of each table then held in the buffer pool.</li>
+ * </ol>
+ *
+ * Run it before and after the posts-compress-content backfill (BackfillRunner) and a PostViewRebuild,
+ * which stores post_view's bodies the same way, and compare the database section; the corpus section
+ * predicts it. Page counters are server-wide, so run it on an
+ * otherwise idle server. Sharded, the database section covers the global shard (db.url) only.
+ *
+ * Usage: {@code ContentCompressionBenchmark [sampleSize]}
+ */
+public class ContentCompressionBenchmark {
+    private static final AppLogger log = AppLogger.get(ContentCompressionBenchmark.class);
+
+    // a DYNAMIC row must fit half a 16 KB page; longer bodies move off-page in whole 16 KB pages
+    private static final int IN_ROW_LIMIT = 8000;
+    // post_view reads: the first list pages, as browsed; deeper OFFSETs would measure the skipping instead
+    private static final int LIST_PAGES = 20;
+    private static final int LIST_PAGE_SIZE = 50;
+
+    // both tables store bodies in content / content_format / content_compressed (ContentCodec)
+    private static final List<String> TABLES = List.of("posts", "post_view");
+
+    private static final SqlQuery<long[]> TABLE_SIZE = SqlQuery.of("Benchmark tableSize",
+            "SELECT DATA_LENGTH, INDEX_LENGTH FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+            rs -> new long[]{rs.getLong(1), rs.getLong(2)});
+    private static final SqlQuery<Map.Entry<String, Long>> PAGE_COUNTERS = SqlQuery.of("Benchmark pageCounters", """
+            SELECT VARIABLE_NAME, VARIABLE_VALUE FROM performance_schema.global_status
+            WHERE VARIABLE_NAME IN ('Innodb_buffer_pool_read_requests', 'Innodb_buffer_pool_reads', 'Innodb_data_read')
+        """, rs -> Map.entry(rs.getString(1), rs.getLong(2)));
+    // walks the whole buffer pool: fine on a benchmark server, not on a busy production one
+    private static final SqlQuery<long[]> POOL_PAGES = SqlQuery.of("Benchmark bufferPoolPages", """
+            SELECT COUNT(*), IFNULL(SUM(DATA_SIZE), 0) FROM information_schema.INNODB_BUFFER_PAGE
+            WHERE TABLE_NAME = CONCAT('`', DATABASE(), '`.`', ?, '`')
+        """, rs -> new long[]{rs.getLong(1), rs.getLong(2)});
+
+    public static void main(String[] args) {
+        int sampleSize = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        var ctx = AppBootstrap.start(WorkClass.REPORTING);
+        var bench = new PerformanceBenchmark();
+
+        log.info("1. Encoding the corpus (threshold {} bytes)...", ContentCodec.threshold());
+        Corpus corpus = bench.record("Encode every post body", () -> corpus(ctx.postRepo.streamAll(), sampleSize));
+        log.info("Corpus: {} posts, {} at or above the threshold", corpus.posts, corpus.compressible);
+        log.info("Corpus: {} body bytes plain, {} as stored ({}%)", corpus.plainBytes, corpus.storedBytes,
+                percent(corpus.storedBytes, corpus.plainBytes));
+        log.info("Corpus: {} bodies past the in-row limit plain, {} as stored", corpus.offPagePlain, corpus.offPageStored);
+        List<ContentCodec.Encoded> compressed = corpus.compressed;
+        bench.record("Decode " + compressed.size() + " compressed bodies",
+                () -> compressed.stream().mapToLong(e -> e.decode().length()).sum());
+
+        if (ctx.ds == null) {
+            log.info("In-memory mode: no database to measure");
+        } else {
+            JdbcTemplate jdbc = new JdbcTemplate(ctx.ds);
+            log.info("2. Measuring posts and post_view in the database...");
+            for (String table : TABLES) {
+                jdbc.query(SqlQuery.of("Benchmark analyze " + table, "ANALYZE TABLE " + table, rs -> rs.getString(4)));
+                jdbc.queryOne(TABLE_SIZE, table).ifPresent(s -> log.info("{}: {} data bytes, {} index bytes", table, s[0], s[1]));
+                jdbc.query(stored(table)).forEach(s -> log.info("{}: {}", table, s));
+            }
+
+            Map<String, Long> before = counters(jdbc);
+            bench.record("Full scan of posts", () -> {
+                try (Stream<Post> all = ctx.postRepo.streamAll()) {
+                    return all.count();
+                }
+            });
+            logPageReads("Full scan", before, counters(jdbc));
+
+            before = counters(jdbc);
+            bench.record("Read " + corpus.sample.size() + " sampled posts by id",
+                    () -> corpus.sample.stream().filter(id -> ctx.postRepo.findById(id).isPresent()).count());
+            logPageReads("Sampled reads", before, counters(jdbc));
+
+            if (ctx.postViewProjector == null) {
+                log.info("post_view is not in use (postView.enabled=false): no list pages to read");
+            } else {
+                var views = ctx.postViewProjector.views();
+                before = counters(jdbc);
+                bench.record("Read " + LIST_PAGES + " post_view list pages of " + LIST_PAGE_SIZE, () -> {
+                    long rows = 0;
+                    for (int page = 1; page <= LIST_PAGES; page++) {
+                        rows += views.list(PostStatus.ANY, page, LIST_PAGE_SIZE).size();
+                    }
+                    return rows;
+                });
+                logPageReads("post_view list pages", before, counters(jdbc));
+            }
+
+            for (String table : TABLES) {
+                jdbc.queryOne(POOL_PAGES, table).ifPresent(p ->
+                        log.info("Buffer pool: {} pages of {} resident, {} bytes of data in them", p[0], table, p[1]));
+            }
+        }
+
+        log.info("\n{}", bench.generateReport().toFormattedString());
+        log.info("Run this again after the posts-compress-content backfill and a PostViewRebuild have completed to compare.");
+    }
+
+    private static final class Corpus {
+        long posts, compressible, plainBytes, storedBytes, offPagePlain, offPageStored;
+        final List<ContentCodec.Encoded> compressed = new ArrayList<>();
+        final List<Long> sample = new ArrayList<>();
+    }
+
+    private static Corpus corpus(Stream<Post> posts, int sampleSize) {
+        Corpus c = new Corpus();
+        try (posts) {
+            posts.forEach(p -> {
+                int plain = p.getContent().getBytes(StandardCharsets.UTF_8).length;
+                ContentCodec.Encoded stored = ContentCodec.encode(p.getContent());
+                c.posts++;
+                c.plainBytes += plain;
+                c.storedBytes += stored.storedBytes();
+                if (ContentCodec.threshold() > 0 && plain >= ContentCodec.threshold()) c.compressible++;
+                if (plain > IN_ROW_LIMIT) c.offPagePlain++;
+                if (stored.storedBytes() > IN_ROW_LIMIT) c.offPageStored++;
+                if (stored.format() == ContentCodec.COMPRESSED) c.compressed.add(stored);
+                // reservoir sample of ids, so the reads are spread over the whole table
+                if (c.sample.size() < sampleSize) {
+                    c.sample.add(p.getId());
+                } else {
+                    long slot = ThreadLocalRandom.current().nextLong(c.posts);
+                    if (slot < sampleSize) c.sample.set((int) slot, p.getId());
+                }
+            });
+        }
+        return c;
+    }
+
+    private static SqlQuery<String> stored(String table) {
+        return SqlQuery.of("Benchmark storedFormats " + table, """
+                SELECT content_format, COUNT(*), SUM(LENGTH(content) + IFNULL(LENGTH(content_compressed), 0))
+                FROM %s GROUP BY content_format ORDER BY content_format
+            """.formatted(table),
+                rs -> String.format("format %d: %d posts, %d body bytes", rs.getInt(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    private static Map<String, Long> counters(JdbcTemplate jdbc) {
+        return jdbc.query(PAGE_COUNTERS).stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private static void logPageReads(String what, Map<String, Long> before, Map<String, Long> after) {
+        log.info("{}: {} buffer pool page requests, {} pages read from disk, {} bytes read", what,
+                delta("Innodb_buffer_pool_read_requests", before, after),
+                delta("Innodb_buffer_pool_reads", before, after),
+                delta("Innodb_data_read", before, after));
+    }
+
+    private static long delta(String counter, Map<String, Long> before, Map<String, Long> after) {
+        return after.getOrDefault(counter, 0L) - before.getOrDefault(counter, 0L);
+    }
+
+    private static String percent(long part, long whole) {
+        return whole == 0 ? "-" : String.format("%.1f", part * 100.0 / whole);
+    }
+}
@@ -3,13 +3,17 @@ package com.smartblog.application.util;
 
 import java.util.function.Supplier;
 
+import com.smartblog.infrastructure.logging.AppLogger;
+
 public final class Perf {
+    private static final AppLogger log = AppLogger.get(Perf.class);
 
     public static <T> T measure(String label, Supplier<T> supplier) {
+        if (!log.isDebugEnabled()) return supplier.get();
         long start = System.nanoTime();
         T result = supplier.get();
         long end = System.nanoTime();
-        System.out.println(label + " took " + (end - start) / 1_000_000 + " ms");
+        log.debug("{} took {} ms", label, (end - start) / 1_000_000);
         return result;
     }
 }
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
 
+import com.smartblog.infrastructure.logging.AppLogger;
+
 /**
  * Performance benchmarking utility for Epic 4.
  * Records query execution times and generates comparison reports.
@@ -14,6 +16,7 @@ import java.util.function.Supplier;
  * BenchmarkReport report = bench.generateReport();
  */
 public class PerformanceBenchmark {
+    private static final AppLogger log = AppLogger.get(PerformanceBenchmark.class);
 
     private final List<BenchmarkResult> results = new ArrayList<>();
 
@@ -31,7 +34,7 @@ public class PerformanceBenchmark {
         double durationMs = (endTime - startTime) / 1_000_000.0;
         results.add(new BenchmarkResult(testName, durationMs));
 
-        System.out.println(String.format("[BENCHMARK] %s took %.3f ms", testName, durationMs));
+        log.info("[BENCHMARK] {} took {} ms", testName, String.format("%.3f", durationMs));
         return result;
     }
 
@@ -65,7 +68,7 @@ public class PerformanceBenchmark {
         double avgDurationMs = (totalNanos / (double) iterations) / 1_000_000.0;
         results.add(new BenchmarkResult(testName + " (avg of " + iterations + " runs)", avgDurationMs));
 
-        System.out.println(String.format("[BENCHMARK] %s average: %.3f ms", testName, avgDurationMs));
+        log.info("[BENCHMARK] {} average: {} ms", testName, String.format("%.3f", avgDurationMs));
         return result;
     }
 
@@ -2,6 +2,10 @@ package com.smartblog.application.util;
 
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.PostDTO;
+import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.SqlMetrics;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.logging.AppLogger;
 
 import java.util.List;
 
@@ -13,30 +17,32 @@ import java.util.List;
  * 2. Caching (already implemented with Caffeine)
  * 3. Query optimization
  *
- * Run this BEFORE and AFTER applying the V2__performance_indexes.sql migration.
+ * Run this BEFORE and AFTER applying the V4__composite_indexes.sql migration
+ * ({@link com.smartblog.infrastructure.migration.IndexAdvisor} explains why each index is there).
  */
 public class PerformanceTestRunner {
+    private static final AppLogger log = AppLogger.get(PerformanceTestRunner.class);
 
     public static void main(String[] args) {
-        System.out.println("Starting Performance Benchmark Tests...\n");
+        log.info("Starting Performance Benchmark Tests...");
 
-        var ctx = AppBootstrap.start();
+        var ctx = AppBootstrap.start(WorkClass.REPORTING);
         var bench = new PerformanceBenchmark();
 
         // Test 1: List all posts (tests basic query performance)
-        System.out.println("\n1. Testing list all posts...");
+        log.info("1. Testing list all posts...");
         bench.recordAverage("List 100 posts",
                 () -> ctx.postService.list(1, 100),
                 5);
 
         // Test 2: Search by keyword (tests full-text search)
-        System.out.println("\n2. Testing keyword search...");
+        log.info("2. Testing keyword search...");
         bench.recordAverage("Search posts by keyword 'java'",
                 () -> ctx.postService.search("java", 1, 100),
                 5);
 
         // Test 3: List posts by author (tests author_id index)
-        System.out.println("\n3. Testing posts by author...");
+        log.info("3. Testing posts by author...");
         var author = ctx.userService.findByUsername("author").orElse(null);
         if (author != null) {
             bench.recordAverage("List posts by author",
@@ -45,19 +51,19 @@ public class PerformanceTestRunner {
         }
 
         // Test 4: Search with tag filter (tests JOIN performance)
-        System.out.println("\n4. Testing search with tag filter...");
+        log.info("4. Testing search with tag filter...");
         bench.recordAverage("Search by tag 'JavaFX'",
                 () -> ctx.postService.searchByTag("JavaFX", 1, 100),
                 5);
 
         // Test 5: Combined search (tests multiple indexes)
-        System.out.println("\n5. Testing combined search...");
+        log.info("5. Testing combined search...");
         bench.recordAverage("Combined search (keyword + tag + sort)",
                 () -> ctx.postService.searchCombined("java", null, "JavaFX", "date_desc", 1, 100),
                 5);
 
         // Test 6: List comments for post (tests comment indexes)
-        System.out.println("\n6. Testing comments retrieval...");
+        log.info("6. Testing comments retrieval...");
         List<PostDTO> posts = ctx.postService.list(1, 1);
         if (!posts.isEmpty()) {
             long postId = posts.get(0).id();
@@ -67,32 +73,31 @@ public class PerformanceTestRunner {
         }
 
         // Test 7: List all tags (tests tag query performance)
-        System.out.println("\n7. Testing tag listing...");
+        log.info("7. Testing tag listing...");
         bench.recordAverage("List all tags",
                 () -> ctx.tagService.listAll(),
                 5);
 
         // Test 8: Cache performance test (second run should be faster)
-        System.out.println("\n8. Testing cache performance...");
+        log.info("8. Testing cache performance...");
         bench.record("First search (no cache)",
                 () -> ctx.postService.search("test", 1, 50));
         bench.record("Second search (with cache)",
                 () -> ctx.postService.search("test", 1, 50));
 
         // Generate and print report
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("GENERATING PERFORMANCE REPORT");
-        System.out.println("=".repeat(80) + "\n");
+        log.info("GENERATING PERFORMANCE REPORT");
 
         var report = bench.generateReport();
-        System.out.println(report.toFormattedString());
+        log.info("\n{}", report.toFormattedString());
+        DataSourceFactory.poolMetrics().values().forEach(m -> log.info("Pool {}", m));
+        SqlMetrics.snapshot().values().stream().limit(10).forEach(s -> log.info("SQL {}", s));
 
         // Save report to file (optional)
         saveReportToFile(report);
 
-        System.out.println("\nBenchmark complete!");
-        System.out.println("Run this again AFTER applying V2__performance_indexes.sql migration");
-        System.out.println("to see the performance improvements.\n");
+        log.info("Benchmark complete!");
+        log.info("Run this again AFTER applying V4__composite_indexes.sql migration to see the performance improvements.");
     }
 
     private static void saveReportToFile(PerformanceBenchmark.BenchmarkReport report) {
@@ -106,9 +111,9 @@ public class PerformanceTestRunner {
                     report.toFormattedString()
             );
 
-            System.out.println("\n✓ Report saved to: " + filename);
+            log.info("Report saved to: {}", filename);
         } catch (Exception e) {
-            System.err.println("Failed to save report: " + e.getMessage());
+            log.error("Failed to save report: {}", e.getMessage());
         }
     }
 }
\ No newline at end of file
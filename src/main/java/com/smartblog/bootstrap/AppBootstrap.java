@@ -2,42 +2,80 @@
 package com.smartblog.bootstrap;
 
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 import java.util.Properties;
 
 import javax.sql.DataSource;
 
 import com.smartblog.application.service.CommentService;
 import com.smartblog.application.service.CommentServiceImpl;
+import com.smartblog.application.service.CountService;
+import com.smartblog.application.service.CountServiceImpl;
 import com.smartblog.application.service.PostService;
 import com.smartblog.application.service.PostServiceImpl;
+import com.smartblog.application.service.PostViewProjector;
 import com.smartblog.application.service.TagService;
 import com.smartblog.application.service.TagServiceImpl;
 import com.smartblog.application.service.UserService;
 import com.smartblog.application.service.UserServiceImpl;
+import com.smartblog.infrastructure.caching.CacheManager;
+import com.smartblog.infrastructure.compression.ContentCodec;
 import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.NPlusOneDetector;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.id.SnowflakeIdGenerator;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.RetryPolicy;
+import com.smartblog.infrastructure.jdbc.TransactionManager;
+import com.smartblog.infrastructure.migration.BackfillRunner;
 import com.smartblog.infrastructure.migration.MigrationRunner;
 import com.smartblog.infrastructure.repository.api.CommentRepository;
 import com.smartblog.infrastructure.repository.api.PostRepository;
 import com.smartblog.infrastructure.repository.api.TagRepository;
 import com.smartblog.infrastructure.repository.api.UserRepository;
+import com.smartblog.infrastructure.repository.jdbc.ArchiveRepositoryJdbc;
 import com.smartblog.infrastructure.repository.jdbc.CommentRepositoryJdbc;
 import com.smartblog.infrastructure.repository.jdbc.PostRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.PostViewRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.ShardedCommentRepository;
+import com.smartblog.infrastructure.repository.jdbc.ShardedPostRepository;
 import com.smartblog.infrastructure.repository.jdbc.TagRepositoryJdbc;
 import com.smartblog.infrastructure.repository.jdbc.UserRepositoryJdbc;
+import com.smartblog.infrastructure.repository.memory.CommentRepositoryMemory;
+import com.smartblog.infrastructure.repository.memory.InMemoryStore;
+import com.smartblog.infrastructure.repository.memory.PostRepositoryMemory;
+import com.smartblog.infrastructure.repository.memory.TagRepositoryMemory;
+import com.smartblog.infrastructure.repository.memory.UserRepositoryMemory;
+import com.smartblog.infrastructure.shard.ShardMap;
 
 /**
  * Starts the infrastructure:
  * - Loads properties
  * - Builds Hikari DataSource
- * - Runs Flyway migrations
+ * - Runs Flyway migrations, then starts pending backfills in the background
  * - Wires repositories and services
  *
  * Use from your UI main() or tests to get service instances.
+ * Benchmarks, dashboards and batch jobs call {@link #start(WorkClass)} so their
+ * repositories draw from a separate connection pool.
+ *
+ * With {@code repository.type=memory} no database is touched: repositories are the in-memory
+ * implementations over one process-wide {@link InMemoryStore}.
+ *
+ * In dev mode services are wrapped so the {@link NPlusOneDetector} sees each call as one operation.
  */
 public class AppBootstrap {
 
+    // one directory (and refresher thread) per process; start() is called repeatedly by the UI
+    private static ShardMap shardMap;
+    private static InMemoryStore memoryStore;
+
     public static final class Context {
+        /** null in in-memory mode */
         public final DataSource ds;
+        /** null unless db.shards.urls is configured */
+        public final ShardMap shardMap;
 
         public final UserRepository userRepo;
         public final PostRepository postRepo;
@@ -48,21 +86,32 @@ public class AppBootstrap {
         public final PostService postService;
         public final CommentService commentService;
         public final TagService tagService;
+        public final CountService countService;
+        /** null in in-memory mode and with postView.enabled=false */
+        public final PostViewProjector postViewProjector;
 
-        private Context(DataSource ds,
+        private Context(DataSource ds, ShardMap shardMap,
                         UserRepository userRepo, PostRepository postRepo,
                         CommentRepository commentRepo, TagRepository tagRepo,
                         UserService userService, PostService postService,
-                        CommentService commentService, TagService tagService) {
-            this.ds = ds;
+                        CommentService commentService, TagService tagService,
+                        CountService countService, PostViewProjector postViewProjector) {
+            this.ds = ds; this.shardMap = shardMap;
             this.userRepo = userRepo; this.postRepo = postRepo;
             this.commentRepo = commentRepo; this.tagRepo = tagRepo;
             this.userService = userService; this.postService = postService;
             this.commentService = commentService; this.tagService = tagService;
+            this.countService = countService;
+            this.postViewProjector = postViewProjector;
         }
     }
 
     public static Context start() {
+        return start(WorkClass.INTERACTIVE);
+    }
+
+    /** Wires repositories and services on the connection pool for the given class of work. */
+    public static Context start(WorkClass work) {
         try {
             Properties props = new Properties();
             try (InputStream in = AppBootstrap.class.getClassLoader().getResourceAsStream("application.properties")) {
@@ -75,13 +124,39 @@ public class AppBootstrap {
                     props.load(localIn);
                 }
             }
-            DataSource ds = DataSourceFactory.get(props);
-            MigrationRunner.migrate(ds, props);
+            NPlusOneDetector.configure(props);
+            ContentCodec.setThreshold(Integer.parseInt(props.getProperty("content.compressThreshold", "2048")));
+            boolean postView = Boolean.parseBoolean(props.getProperty("postView.enabled", "true"));
+            // compressed posts.content is not searchable: only compress rows while post_view serves the searches
+            ContentCodec.setStoreCompressed(postView);
+            CacheManager.configure(props);
+            if ("memory".equalsIgnoreCase(props.getProperty("repository.type", "jdbc").trim())) {
+                // the store is private to this process: any worker id is unique
+                return inMemory(memoryStore(), new SnowflakeIdGenerator(
+                        Integer.parseInt(props.getProperty("id.workerId", "0").trim())));
+            }
+            DataSource ds = DataSourceFactory.get(props, work);
+            JdbcTemplate.setDefaultBatchSize(Integer.parseInt(props.getProperty("db.batch.size", "500")));
+            RetryPolicy retryPolicy = RetryPolicy.fromProperties(props);
+            JdbcTemplate.setRetryPolicy(retryPolicy);
+            // every shard through this class's pools, like ds
+            List<DataSource> shards = DataSourceFactory.shards(props, work);
+            MigrationRunner.migrate(shards, props);
+            BackfillRunner.startInBackground(props);
 
             // repositories
+            ShardMap shardMap = shardMap(props, work);
             var userRepo = new UserRepositoryJdbc(ds);
-            var postRepo = new PostRepositoryJdbc(ds);
-            var commentRepo = new CommentRepositoryJdbc(ds);
+            PostRepository postRepo;
+            CommentRepository commentRepo;
+            if (shardMap != null) {
+                var shardedPosts = new ShardedPostRepository(shardMap);
+                postRepo = shardedPosts;
+                commentRepo = new ShardedCommentRepository(shardMap, shardedPosts);
+            } else {
+                postRepo = new PostRepositoryJdbc(ds);
+                commentRepo = new CommentRepositoryJdbc(ds);
+            }
             com.smartblog.infrastructure.repository.nosql.CommentRepositoryMongo mongoCommentRepo = null;
             boolean nosqlEnabled = Boolean.parseBoolean(props.getProperty("comments.nosql.enabled", "false"));
             if (nosqlEnabled) {
@@ -90,16 +165,69 @@ public class AppBootstrap {
                 mongoCommentRepo = new com.smartblog.infrastructure.repository.nosql.CommentRepositoryMongo(uri, dbName);
             }
             var tagRepo = new TagRepositoryJdbc(ds);
+            var archiveRepo = new ArchiveRepositoryJdbc(shards);
+            // on the global database next to users and tags, also when sharded
+            PostViewProjector projector = postView
+                    ? new PostViewProjector(new PostViewRepositoryJdbc(ds), postRepo, userRepo, tagRepo, commentRepo)
+                    : null;
 
             // services
+            var ids = SnowflakeIdGenerator.fromProperties(props, shards.get(0));
+            var tx = new TransactionManager(ds, retryPolicy);
             var userService = new UserServiceImpl(userRepo);
-            var postService = new PostServiceImpl(postRepo, userRepo, tagRepo);
-            var commentService = new CommentServiceImpl(commentRepo, postRepo, userRepo, mongoCommentRepo);
-            var tagService = new TagServiceImpl(tagRepo);
+            var postService = new PostServiceImpl(postRepo, userRepo, tagRepo, tx, ids, archiveRepo, projector);
+            var commentService = new CommentServiceImpl(commentRepo, postRepo, userRepo, mongoCommentRepo, ids, archiveRepo,
+                    projector);
+            var tagService = new TagServiceImpl(tagRepo, tx, projector);
+            var countService = new CountServiceImpl(postRepo, projector != null ? projector.views() : null,
+                    Integer.parseInt(props.getProperty("count.exactLimit", "1000")),
+                    Duration.ofSeconds(Long.parseLong(props.getProperty("count.cacheSeconds", "30"))));
 
-            return new Context(ds, userRepo, postRepo, commentRepo, tagRepo, userService, postService, commentService, tagService);
+            // with the N+1 detector on, each service call is one tracked operation
+            return new Context(ds, shardMap, userRepo, postRepo, commentRepo, tagRepo,
+                    NPlusOneDetector.track(UserService.class, userService),
+                    NPlusOneDetector.track(PostService.class, postService),
+                    NPlusOneDetector.track(CommentService.class, commentService),
+                    NPlusOneDetector.track(TagService.class, tagService),
+                    NPlusOneDetector.track(CountService.class, countService),
+                    projector);
         } catch (Exception e) {
             throw new RuntimeException("Bootstrap failed", e);
         }
     }
+
+    /**
+     * Wires services over in-memory repositories backed by {@code store}, e.g. to measure
+     * application cost without the database in benchmarks.
+     */
+    public static Context inMemory(InMemoryStore store, SnowflakeIdGenerator ids) {
+        var userRepo = new UserRepositoryMemory(store);
+        var postRepo = new PostRepositoryMemory(store);
+        var commentRepo = new CommentRepositoryMemory(store);
+        var tagRepo = new TagRepositoryMemory(store);
+        return new Context(null, null, userRepo, postRepo, commentRepo, tagRepo,
+                new UserServiceImpl(userRepo),
+                new PostServiceImpl(postRepo, userRepo, tagRepo, TransactionManager.none(), ids),
+                new CommentServiceImpl(commentRepo, postRepo, userRepo, null, ids),
+                new TagServiceImpl(tagRepo),
+                new CountServiceImpl(postRepo),
+                null);
+    }
+
+    private static synchronized InMemoryStore memoryStore() {
+        if (memoryStore == null) memoryStore = new InMemoryStore();
+        return memoryStore;
+    }
+
+    /** The process-wide directory, on the INTERACTIVE pools; other classes get a view over their own. */
+    private static synchronized ShardMap shardMap(Properties props, WorkClass work) {
+        List<DataSource> interactive = DataSourceFactory.shards(props);
+        if (shardMap == null && interactive.size() > 1) {
+            shardMap = new ShardMap(interactive,
+                    Long.parseLong(props.getProperty("db.shards.directoryRefreshMs", "10000")),
+                    Long.parseLong(props.getProperty("db.shards.lockWaitMs", "5000")));
+        }
+        if (shardMap == null || work == WorkClass.INTERACTIVE) return shardMap;
+        return shardMap.withPools(DataSourceFactory.shards(props, work));
+    }
 }
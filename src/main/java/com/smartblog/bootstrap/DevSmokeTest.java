@@ -2,31 +2,34 @@ package com.smartblog.bootstrap;
 
 import com.smartblog.core.dto.PostDTO;
 import com.smartblog.core.exceptions.NotAuthorizedException;
+import com.smartblog.infrastructure.logging.AppLogger;
 
 public class DevSmokeTest {
+    private static final AppLogger log = AppLogger.get(DevSmokeTest.class);
+
     public static void main(String[] args) {
         var ctx = AppBootstrap.start();
 
         long uid;
         try {
             uid = ctx.userService.register("prodAndy", "prod.andy@example.com", "S3cure_Pass!", "AUTHOR");
-            System.out.println("Created user id: " + uid);
+            log.info("Created user id: {}", uid);
         } catch (RuntimeException e) {
             uid = ctx.userService.findByUsername("prodAndy").orElseThrow().id();
-            System.out.println("Existing user id: " + uid);
+            log.info("Existing user id: {}", uid);
         }
 
         long pid = ctx.postService.createDraft(uid, "Production-grade Phase 2", "This is a real blogging platform.");
-        System.out.println("Created post id: " + pid);
+        log.info("Created post id: {}", pid);
 
         try {
             ctx.postService.publish(pid);
         } catch (NotAuthorizedException nae) {
-            System.out.println("Publish skipped: " + nae.getMessage());
+            log.info("Publish skipped: {}", nae.getMessage());
         }
 
         for (PostDTO p : ctx.postService.list(1, 10)) {
-            System.out.println("Post: " + p.id() + " | " + p.title() + " | published=" + p.published());
+            log.info("Post: {} | {} | published={}", p.id(), p.title(), p.published());
         }
 
         long tagId;
@@ -40,11 +43,11 @@ public class DevSmokeTest {
                     .orElseThrow(() -> e);
         }
         ctx.tagService.assignToPost(pid, tagId);
-        System.out.println("Tag 'JavaFX' added to post " + pid);
+        log.info("Tag 'JavaFX' added to post {}", pid);
 
         long cid = ctx.commentService.add(pid, uid, "Looks great!");
-        System.out.println("Comment id: " + cid);
+        log.info("Comment id: {}", cid);
 
-        System.out.println("Comments: " + ctx.commentService.listForPost(pid, 1, 10).size());
+        log.info("Comments: {}", ctx.commentService.listForPost(pid, 1, 10).size());
     }
 }
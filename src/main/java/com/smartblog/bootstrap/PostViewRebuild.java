@@ -0,0 +1,27 @@
+package com.smartblog.bootstrap;
+
+import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Regenerates the post_view read model from posts, users, post_tags, tags and comments, while the
+ * application keeps running on it. Run on the background pool.
+ *
+ * Usage: {@code PostViewRebuild [chunkSize]}
+ */
+public class PostViewRebuild {
+    private static final AppLogger log = AppLogger.get(PostViewRebuild.class);
+
+    public static void main(String[] args) {
+        int chunkSize = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        var ctx = AppBootstrap.start(WorkClass.BACKGROUND);
+        if (ctx.postViewProjector == null) {
+            log.warn("post_view is not in use (in-memory repositories or postView.enabled=false); nothing to rebuild");
+            return;
+        }
+        long posts = ctx.postViewProjector.rebuild(chunkSize);
+        log.info("post_view rebuilt for {} posts", posts);
+        DataSourceFactory.close();
+    }
+}
@@ -1,8 +1,10 @@
 package com.smartblog.core.demo;
 
-import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.bootstrap.AppBootstrap.Context;
+import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.UserDTO;
+import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.logging.AppLogger;
 
 import java.sql.SQLException;
 
@@ -11,6 +13,8 @@ import java.sql.SQLException;
  * Uses the service layer + Hikari + Flyway so it mirrors real app wiring.
  */
 public class DemoRunner {
+    private static final AppLogger log = AppLogger.get(DemoRunner.class);
+
     public static void main(String[] args) throws SQLException {
         Context ctx = AppBootstrap.start();
 
@@ -22,23 +26,23 @@ public class DemoRunner {
         if (existing.isPresent()) {
             UserDTO dto = existing.get();
             userId = dto.id();
-            System.out.println("User already exists: id=" + userId + " username=" + dto.username());
+            log.info("User already exists: id={} username={}", userId, dto.username());
         } else {
             userId = users.register(username, "teacher.andy@example.com", "P@ssw0rd!", "AUTHOR");
-            System.out.println("Created user id=" + userId);
+            log.info("Created user id={}", userId);
         }
 
         users.get(userId).ifPresent(u ->
-                System.out.println("Fetched: " + u.username() + " " + u.email()));
+                log.info("Fetched: {} {}", u.username(), u.email()));
 
         boolean updated = users.updateProfile(userId, "andy.updated@example.com");
-        System.out.println("Profile updated: " + updated);
+        log.info("Profile updated: {}", updated);
 
-        System.out.println("All users (first page):");
+        log.info("All users (first page):");
         users.list(1, 10).forEach(u ->
-                System.out.println(" - " + u.id() + " " + u.username() + " " + u.email()));
+                log.info(" - {} {} {}", u.id(), u.username(), u.email()));
 
-        // Close pool on exit
-        ctx.ds.unwrap(com.zaxxer.hikari.HikariDataSource.class).close();
+        // Close pools (primary and any replicas) on exit
+        DataSourceFactory.close();
     }
 }
@@ -6,6 +6,7 @@ import java.util.List;
 /**
  * DTO: Represents a blog post for UI/API.
  * Includes derived info (author username) and tag names for convenience.
+ * {@code commentCount} is null when the post was not read from the post_view read model.
  */
 public record PostDTO(
         Long id,
@@ -13,5 +14,7 @@ public record PostDTO(
         String content,
         String authorUsername,
         boolean published,
-        List<String> tags
+        List<String> tags,
+        String excerpt,
+        Integer commentCount
 ) {}
@@ -0,0 +1,21 @@
+package com.smartblog.core.dto;
+
+import java.text.NumberFormat;
+
+/**
+ * DTO: Total number of results for "page X of Y".
+ * {@code approximate} is set when the total is an estimate rather than a count, to be shown as "~12,400".
+ */
+public record ResultCount(
+        long value,
+        boolean approximate
+) {
+    public int pages(int pageSize) {
+        return (int) Math.max(1, (value + pageSize - 1) / pageSize);
+    }
+
+    /** "1,234" or "~12,400". */
+    public String display() {
+        return (approximate ? "~" : "") + NumberFormat.getIntegerInstance().format(value);
+    }
+}
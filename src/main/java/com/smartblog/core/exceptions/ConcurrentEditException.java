@@ -0,0 +1,25 @@
+package com.smartblog.core.exceptions;
+
+/**
+ * Used when a versioned update lost the race: someone else changed the row since it was read.
+ * Carries the current state so the caller can merge or reload instead of overwriting it.
+ */
+public class ConcurrentEditException extends RuntimeException {
+    private final long expectedVersion;
+    private final long currentVersion;
+    private final transient Object current;
+
+    public ConcurrentEditException(String msg, long expectedVersion, long currentVersion, Object current) {
+        super(msg);
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+        this.current = current;
+    }
+
+    public long getExpectedVersion() { return expectedVersion; }
+
+    public long getCurrentVersion() { return currentVersion; }
+
+    /** The row as it is now, e.g. {@code getCurrent(Post.class)}. */
+    public <T> T getCurrent(Class<T> type) { return type.cast(current); }
+}
@@ -11,8 +11,8 @@ import com.smartblog.core.model.User;
 public final class CommentMapper {
     private CommentMapper() {}
     public static CommentDTO toDTO(Comment c, User commenter) {
-        Long id = c.getId() == 0 ? null : Long.valueOf(c.getId());
-        Long postId = Long.valueOf(c.getPostId());
+        Long id = c.getId() == 0 ? null : c.getId();
+        Long postId = c.getPostId();
         return new CommentDTO(
             id,
             postId,
@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.smartblog.core.dto.PostDTO;
 import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostView;
 import com.smartblog.core.model.Tag;
 import com.smartblog.core.model.User;
 
@@ -20,7 +21,22 @@ public final class PostMapper {
                 p.getContent(),
                 author != null ? author.getUsername() : null,
                 p.isPublished(),
-                tags != null ? tags.stream().map(Tag::getName).toList() : List.of()
+                tags != null ? tags.stream().map(Tag::getName).toList() : List.of(),
+                PostView.excerpt(p.getContent()),
+                null
+        );
+    }
+
+    public static PostDTO toDTO(PostView v) {
+        return new PostDTO(
+                v.postId(),
+                v.title(),
+                v.content(),
+                v.authorUsername(),
+                v.published(),
+                v.tagNames(),
+                v.excerpt(),
+                (int) v.commentCount()
         );
     }
 }
@@ -13,18 +13,19 @@ import java.time.LocalDateTime;
  */
 public class Comment {
 
-    private int id;
-    private int postId;
-    private int userId;
+    private long id;
+    private long postId;
+    private long userId;
     private String mongoId;
     private String content;
 
     private LocalDateTime createdAt;
     private LocalDateTime deletedAt;
+    private long version;
 
     public Comment() {}
 
-    public Comment(int id, int postId, int userId, String content,
+    public Comment(long id, long postId, long userId, String content,
                    LocalDateTime createdAt, LocalDateTime deletedAt) {
         this.id = id;
         this.postId = postId;
@@ -34,25 +35,25 @@ public class Comment {
         this.deletedAt = deletedAt;
     }
 
-    public Comment(int postId, int userId, String content) {
+    public Comment(long postId, long userId, String content) {
         this(0, postId, userId, content, null, null);
     }
 
-    public int getId() { return id; }
+    public long getId() { return id; }
 
-    public void setId(int id) { this.id = id; }
+    public void setId(long id) { this.id = id; }
 
-    public int getCommentId() { return id; }
+    public long getCommentId() { return id; }
 
-    public void setCommentId(int commentId) { this.id = commentId; }
+    public void setCommentId(long commentId) { this.id = commentId; }
 
-    public int getPostId() { return postId; }
+    public long getPostId() { return postId; }
 
-    public void setPostId(int postId) { this.postId = postId; }
+    public void setPostId(long postId) { this.postId = postId; }
 
-    public int getUserId() { return userId; }
+    public long getUserId() { return userId; }
 
-    public void setUserId(int userId) { this.userId = userId; }
+    public void setUserId(long userId) { this.userId = userId; }
 
     public String getMongoId() { return mongoId; }
 
@@ -69,4 +70,8 @@ public class Comment {
     public LocalDateTime getDeletedAt() { return deletedAt; }
 
     public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+
+    public long getVersion() { return version; }
+
+    public void setVersion(long version) { this.version = version; }
 }
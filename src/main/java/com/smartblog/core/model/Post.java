@@ -19,6 +19,8 @@ public class Post {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime deletedAt;
+    // bumped by every update; versioned updates only apply to the version they were read at
+    private long version;
 
     public Post() {}
 
@@ -47,14 +49,6 @@ public class Post {
         this.id = id;
     }
 
-    public int getPostId() {
-        return id == null ? 0 : id.intValue();
-    }
-
-    public void setPostId(int postId) {
-        this.id = (long) postId;
-    }
-
     public Long getAuthorId() {
         return authorId;
     }
@@ -63,14 +57,6 @@ public class Post {
         this.authorId = authorId;
     }
 
-    public int getUserId() {
-        return authorId == null ? 0 : authorId.intValue();
-    }
-
-    public void setUserId(int userId) {
-        this.authorId = (long) userId;
-    }
-
     public String getTitle() {
         return title;
     }
@@ -118,4 +104,12 @@ public class Post {
     public void setDeletedAt(LocalDateTime deletedAt) {
         this.deletedAt = deletedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
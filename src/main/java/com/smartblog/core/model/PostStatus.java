@@ -0,0 +1,16 @@
+package com.smartblog.core.model;
+
+/**
+ * Publication filter for post listings and searches.
+ */
+public enum PostStatus {
+
+    PUBLISHED,
+    DRAFT,
+    ANY;
+
+    /** Whether a post with the given published flag passes this filter. */
+    public boolean matches(boolean published) {
+        return this == ANY || published == (this == PUBLISHED);
+    }
+}
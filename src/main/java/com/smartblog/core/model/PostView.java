@@ -0,0 +1,43 @@
+package com.smartblog.core.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A row of the post_view read model: a live post together with what list screens show about it,
+ * so a listing reads one table instead of joining users, post_tags and tags.
+ */
+public record PostView(
+        long postId,
+        long authorId,
+        String authorUsername,
+        String title,
+        String content,
+        String excerpt,
+        List<String> tagNames,
+        long commentCount,
+        boolean published,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public static final int EXCERPT_LENGTH = 200;
+
+    public static PostView of(Post p, User author, List<Tag> tags, long commentCount) {
+        return new PostView(p.getId(), p.getAuthorId(), author != null ? author.getUsername() : null,
+                p.getTitle(), p.getContent(), excerpt(p.getContent()),
+                tags.stream().map(Tag::getName).toList(), commentCount,
+                p.isPublished(), p.getCreatedAt(), p.getUpdatedAt());
+    }
+
+    /** The first {@link #EXCERPT_LENGTH} characters of the body's {@link #text}. */
+    public static String excerpt(String html) {
+        String text = text(html);
+        return text.length() <= EXCERPT_LENGTH ? text : text.substring(0, EXCERPT_LENGTH);
+    }
+
+    /** The body's text, markup stripped and whitespace collapsed: what keyword searches on post_view match. */
+    public static String text(String html) {
+        if (html == null) return "";
+        return html.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ").strip();
+    }
+}
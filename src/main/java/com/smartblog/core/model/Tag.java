@@ -26,10 +26,6 @@ public class Tag {
 
     public void setId(Long id) { this.id = id; }
 
-    public int getTagId() { return id == null ? 0 : id.intValue(); }
-
-    public void setTagId(int tagId) { this.id = (long) tagId; }
-
     public String getName() { return name; }
 
     public void setName(String name) { this.name = name; }
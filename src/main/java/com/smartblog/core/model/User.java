@@ -54,14 +54,6 @@ public class User {
         this.id = id;
     }
 
-    public int getUserId() {
-        return id == null ? 0 : id.intValue();
-    }
-
-    public void setUserId(int userId) {
-        this.id = (long) userId;
-    }
-
     public String getUsername() {
         return username;
     }
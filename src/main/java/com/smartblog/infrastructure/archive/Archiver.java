@@ -0,0 +1,188 @@
+package com.smartblog.infrastructure.archive;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Year;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.infrastructure.migration.MigrationRunner;
+
+/**
+ * Moves posts and comments soft-deleted more than {@code archive.retentionDays} ago from the hot tables
+ * into the *_archive tables, so listings and their indexes only carry rows that can still be shown.
+ *
+ * Work is done in chunks of {@code archive.chunkSize} rows, each in its own short transaction, with
+ * {@code archive.pauseMs} between chunks so the job never holds locks long or saturates the primary.
+ * A post takes its comments and tag links with it; comments deleted on their own are archived alone.
+ * Rows are copied with INSERT IGNORE before they are deleted, so an interrupted run can simply be repeated.
+ *
+ * With {@code db.partitioning.enabled} the job also keeps a comments partition ready for next year.
+ *
+ * Usage: {@code Archiver}
+ */
+public final class Archiver {
+    private static final AppLogger log = AppLogger.get(Archiver.class);
+
+    private static final String POST_COLUMNS = "id, author_id, title, content, published, created_at, updated_at, deleted_at, version, "
+            + "content_format, content_compressed";
+    private static final String COMMENT_COLUMNS = "id, post_id, user_id, content, created_at, deleted_at, version";
+
+    // oldest deletions first; FOR UPDATE keeps an undelete from racing the move
+    private static final SqlQuery<Long> EXPIRED_POSTS = SqlQuery.of("Archive expiredPosts",
+            "SELECT id FROM posts WHERE deleted_at < NOW() - INTERVAL ? DAY ORDER BY deleted_at LIMIT ? FOR UPDATE",
+            rs -> rs.getLong(1));
+    private static final SqlQuery<Long> EXPIRED_COMMENTS = SqlQuery.of("Archive expiredComments",
+            "SELECT id FROM comments WHERE deleted_at < NOW() - INTERVAL ? DAY ORDER BY deleted_at LIMIT ? FOR UPDATE",
+            rs -> rs.getLong(1));
+    private static final SqlQuery<String> COMMENT_PARTITIONS = SqlQuery.of("Archive commentPartitions", """
+            SELECT partition_name FROM information_schema.partitions
+            WHERE table_schema = DATABASE() AND table_name = 'comments' AND partition_name IS NOT NULL
+        """, rs -> rs.getString(1));
+
+    private final List<DataSource> shards;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    public record Result(int posts, int comments) {}
+
+    /** {@code shards} as from {@code DataSourceFactory.shards}: shard 0 also holds post_tags. */
+    public Archiver(List<DataSource> shards, int retentionDays, int chunkSize, long pauseMs) {
+        if (retentionDays < 0 || chunkSize <= 0) throw new IllegalArgumentException("Invalid archive settings");
+        this.shards = shards;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    public static Archiver fromProperties(List<DataSource> shards, Properties props) {
+        return new Archiver(shards,
+                Integer.parseInt(props.getProperty("archive.retentionDays", "30")),
+                Integer.parseInt(props.getProperty("archive.chunkSize", "200")),
+                Long.parseLong(props.getProperty("archive.pauseMs", "250")));
+    }
+
+    /** Archives everything past retention on every shard. */
+    public Result run() {
+        int posts = 0, comments = 0;
+        for (int s = 0; s < shards.size(); s++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shards.get(s));
+            int n;
+            while ((n = archivePosts(s, jdbc)) > 0) {
+                posts += n;
+                pause();
+            }
+            while ((n = archiveComments(jdbc)) > 0) {
+                comments += n;
+                pause();
+            }
+        }
+        log.info("Archived {} posts and {} comments deleted more than {} days ago", posts, comments, retentionDays);
+        return new Result(posts, comments);
+    }
+
+    /** One chunk of expired posts with their comments and tag links; returns the number of posts moved. */
+    private int archivePosts(int shard, JdbcTemplate jdbc) {
+        List<Long> ids = jdbc.inTransaction("Archive posts", con -> {
+            List<Long> expired = JdbcTemplate.query(con, EXPIRED_POSTS, retentionDays, chunkSize);
+            if (expired.isEmpty()) return expired;
+            String in = JdbcTemplate.placeholders(expired.size());
+            Object[] params = expired.toArray();
+            JdbcTemplate.update(con, "INSERT IGNORE INTO comments_archive(" + COMMENT_COLUMNS + ") SELECT "
+                    + COMMENT_COLUMNS + " FROM comments WHERE post_id IN (" + in + ")", params);
+            JdbcTemplate.update(con, "DELETE FROM comments WHERE post_id IN (" + in + ")", params);
+            // unsharded, post_tags cascades from posts and has to move first
+            if (shard == 0) moveTags(con, in, params);
+            JdbcTemplate.update(con, "INSERT IGNORE INTO posts_archive(" + POST_COLUMNS + ") SELECT "
+                    + POST_COLUMNS + " FROM posts WHERE id IN (" + in + ")", params);
+            JdbcTemplate.update(con, "DELETE FROM posts WHERE id IN (" + in + ")", params);
+            return expired;
+        });
+        // sharded, the links live on the global shard; if this fails they stay there, pointing at nothing
+        if (shard != 0 && !ids.isEmpty()) {
+            String in = JdbcTemplate.placeholders(ids.size());
+            new JdbcTemplate(shards.get(0)).inTransaction("Archive post tags", con -> {
+                moveTags(con, in, ids.toArray());
+                return null;
+            });
+        }
+        return ids.size();
+    }
+
+    private static void moveTags(Connection con, String in, Object[] postIds) throws SQLException {
+        JdbcTemplate.update(con, "INSERT IGNORE INTO post_tags_archive(post_id, tag_id) "
+                + "SELECT post_id, tag_id FROM post_tags WHERE post_id IN (" + in + ")", postIds);
+        JdbcTemplate.update(con, "DELETE FROM post_tags WHERE post_id IN (" + in + ")", postIds);
+    }
+
+    /** One chunk of comments deleted on their own; returns the number moved. */
+    private int archiveComments(JdbcTemplate jdbc) {
+        return jdbc.inTransaction("Archive comments", con -> {
+            List<Long> expired = JdbcTemplate.query(con, EXPIRED_COMMENTS, retentionDays, chunkSize);
+            if (expired.isEmpty()) return 0;
+            String in = JdbcTemplate.placeholders(expired.size());
+            Object[] params = expired.toArray();
+            JdbcTemplate.update(con, "INSERT IGNORE INTO comments_archive(" + COMMENT_COLUMNS + ") SELECT "
+                    + COMMENT_COLUMNS + " FROM comments WHERE id IN (" + in + ")", params);
+            JdbcTemplate.update(con, "DELETE FROM comments WHERE id IN (" + in + ")", params);
+            return expired.size();
+        });
+    }
+
+    /**
+     * Splits next year's partition out of pmax if it is not there yet, so pmax stays empty and
+     * the split is a metadata-only change. Only for the partitioned (unsharded) schema.
+     */
+    public void ensureCommentPartitions() {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.get(0));
+        List<String> existing = jdbc.query(COMMENT_PARTITIONS);
+        if (!existing.contains("pmax")) {
+            log.warn("comments is not partitioned; run with db.partitioning.enabled=true migrations first");
+            return;
+        }
+        int next = Year.now().getValue() + 1;
+        for (int year = Year.now().getValue(); year <= next; year++) {
+            if (existing.contains("p" + year)) continue;
+            jdbc.update("Archive addPartition", "ALTER TABLE comments REORGANIZE PARTITION pmax INTO ("
+                    + "PARTITION p" + year + " VALUES LESS THAN ('" + (year + 1) + "-01-01'), "
+                    + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+            log.info("Added comments partition p{}", year);
+        }
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) return;
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Archiving interrupted", e);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties p = new Properties();
+        try (var in = Archiver.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (in == null) throw new IllegalStateException("application.properties not found on classpath");
+            p.load(in);
+        }
+        // the background pools, so interactive connections stay free on every shard
+        List<DataSource> shards = DataSourceFactory.shards(p, WorkClass.BACKGROUND);
+        MigrationRunner.migrate(shards, p);
+
+        Archiver archiver = fromProperties(shards, p);
+        archiver.run();
+        if (Boolean.parseBoolean(p.getProperty("db.partitioning.enabled", "false")) && shards.size() == 1) {
+            archiver.ensureCommentPartitions();
+        }
+        DataSourceFactory.close();
+    }
+}
@@ -1,17 +1,36 @@
-
 package com.smartblog.infrastructure.caching;
 
+import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.smartblog.core.model.Post;
+import com.smartblog.infrastructure.compression.ContentCodec;
 
 public final class CacheManager {
 
+    // posts pushed out of postCache by size, with large bodies compressed (ContentCodec), so several
+    // times as many fit in the same heap; expired posts are not kept
+    private static final Cache<Long, ColdPost> coldPosts =
+            Caffeine.newBuilder()
+                    .expireAfterWrite(10, TimeUnit.MINUTES)
+                    .maximumSize(5000)
+                    .build();
+
+    /**
+     * Posts that were read recently, as is. Use {@link #getPost}, {@link #putPost}, {@link #editPost}
+     * and {@link #invalidatePost} rather than the cache itself, so the cold tier stays in step.
+     */
     public static final Cache<Long, Object> postCache =
             Caffeine.newBuilder()
                     .expireAfterWrite(10, TimeUnit.MINUTES)
                     .maximumSize(500)
+                    .evictionListener((Long id, Object post, RemovalCause cause) -> {
+                        if (cause == RemovalCause.SIZE && post instanceof Post p) coldPosts.put(id, ColdPost.of(p));
+                    })
                     .build();
 
     public static final Cache<Long, Object> userCache =
@@ -20,12 +39,68 @@ public final class CacheManager {
                     .maximumSize(1000)
                     .build();
 
+    // a cold post: body encoded apart from a copy of the post without it
+    private record ColdPost(Post rest, ContentCodec.Encoded body) {
+        static ColdPost of(Post p) {
+            Post rest = new Post(p.getId(), p.getAuthorId(), p.getTitle(), null, p.isPublished(),
+                    p.getCreatedAt(), p.getUpdatedAt(), p.getDeletedAt());
+            rest.setVersion(p.getVersion());
+            return new ColdPost(rest, ContentCodec.encode(p.getContent()));
+        }
+
+        // the entry has been removed from the tier, so the copy is ours to complete
+        Post toPost() {
+            rest.setContent(body.decode());
+            return rest;
+        }
+    }
+
+        /** Applies cache.posts.hotSize and cache.posts.coldSize. */
+        public static void configure(Properties props) {
+                long hot = Long.parseLong(props.getProperty("cache.posts.hotSize", "500"));
+                long cold = Long.parseLong(props.getProperty("cache.posts.coldSize", "5000"));
+                postCache.policy().eviction().ifPresent(e -> e.setMaximum(hot));
+                coldPosts.policy().eviction().ifPresent(e -> e.setMaximum(cold));
+        }
+
+        /** The cached post, or null. A cold post is decompressed and moves back to the hot tier. */
+        public static Post getPost(long id) {
+                if (postCache.getIfPresent(id) instanceof Post p) return p;
+                ColdPost cold = coldPosts.asMap().remove(id);
+                if (cold == null) return null;
+                Post p = cold.toPost();
+                putPost(p);
+                return p;
+        }
+
+        /**
+         * Caches a post unless the cache already holds a newer version of it, so a slow read
+         * finishing after an edit cannot put the old row back.
+         */
+        public static void putPost(Post post) {
+                postCache.asMap().merge(post.getId(), post, (cached, fresh) ->
+                        cached instanceof Post c && c.getVersion() > ((Post) fresh).getVersion() ? cached : fresh);
+                coldPosts.invalidate(post.getId());
+        }
+
+        /** Replaces the cached post with {@code edit} of it, or drops it where {@code edit} returns null. */
+        public static void editPost(long id, UnaryOperator<Post> edit) {
+                postCache.asMap().computeIfPresent(id, (k, cached) -> cached instanceof Post c ? edit.apply(c) : null);
+                coldPosts.invalidate(id);
+        }
+
+        public static void invalidatePost(long id) {
+                postCache.invalidate(id);
+                coldPosts.invalidate(id);
+        }
+
         /**
          * Clear all application caches managed here.
          * Can be used by diagnostics or benchmarks to force cold runs.
          */
         public static void clearAll() {
                 postCache.invalidateAll();
+                coldPosts.invalidateAll();
                 userCache.invalidateAll();
         }
 }
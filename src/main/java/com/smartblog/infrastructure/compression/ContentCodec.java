@@ -0,0 +1,120 @@
+package com.smartblog.infrastructure.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage format of post bodies, in posts and in post_view. Bodies of at least {@link #threshold()}
+ * UTF-8 bytes are stored deflated in content_compressed, with content left empty and content_format
+ * set to {@link #COMPRESSED}; shorter ones stay plain in content.
+ *
+ * Rows are only written compressed while {@link #storesCompressed()}: posts.content is not searchable
+ * once compressed, so AppBootstrap turns it on only with the post_view read model, whose content_text
+ * column serves every keyword search and count.
+ *
+ * Compressed bytes are in the format of MySQL's COMPRESS(): the uncompressed length as four
+ * little-endian bytes, then a zlib stream. The backfill compresses existing rows in SQL, and
+ * {@code UNCOMPRESS(content_compressed)} reads a body back from the mysql client.
+ */
+public final class ContentCodec {
+
+    public static final int PLAIN = 0;
+    public static final int COMPRESSED = 1;
+
+    // in bytes; 0 turns compression off for new writes (stored bodies are still read)
+    private static volatile int threshold = 2048;
+    // false writes rows plain whatever the threshold; encode() (e.g. for the post cache) is unaffected
+    private static volatile boolean storeCompressed = true;
+
+    private ContentCodec() {}
+
+    /** A body as stored: {@code text} when PLAIN, {@code compressed} (and empty text) when COMPRESSED. */
+    public record Encoded(int format, String text, byte[] compressed) {
+        public String decode() { return ContentCodec.decode(format, text, compressed); }
+
+        /** Bytes the body takes in its row. */
+        public int storedBytes() {
+            return format == COMPRESSED ? compressed.length : text.getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    /** Set from content.compressThreshold at startup. */
+    public static void setThreshold(int bytes) {
+        if (bytes < 0) throw new IllegalArgumentException("content.compressThreshold must be >= 0");
+        threshold = bytes;
+    }
+
+    public static int threshold() { return threshold; }
+
+    /** Set at startup: on with postView.enabled, off without it. */
+    public static void setStoreCompressed(boolean enabled) {
+        storeCompressed = enabled;
+    }
+
+    public static boolean storesCompressed() { return storeCompressed && threshold > 0; }
+
+    /** How a body is written to a row: {@link #encode} while {@link #storesCompressed()}, else plain. */
+    public static Encoded encodeForStorage(String content) {
+        return storeCompressed ? encode(content) : new Encoded(PLAIN, content, null);
+    }
+
+    /** Compresses {@code content} when it is at least the threshold and compressing makes it smaller. */
+    public static Encoded encode(String content) {
+        int min = threshold;
+        // a char is at most three UTF-8 bytes: most short bodies are settled without encoding them
+        if (content == null || min == 0 || content.length() * 3L < min) return new Encoded(PLAIN, content, null);
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < min) return new Encoded(PLAIN, content, null);
+        byte[] compressed = compress(utf8);
+        return compressed.length < utf8.length ? new Encoded(COMPRESSED, "", compressed) : new Encoded(PLAIN, content, null);
+    }
+
+    public static String decode(int format, String text, byte[] compressed) {
+        return format == COMPRESSED ? new String(uncompress(compressed), StandardCharsets.UTF_8) : text;
+    }
+
+    static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 16);
+            out.writeBytes(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(data.length).array());
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] uncompress(byte[] stored) {
+        if (stored == null || stored.length == 0) return new byte[0];
+        // COMPRESS() keeps the top two bits of the length word clear
+        int length = ByteBuffer.wrap(stored, 0, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0x3FFFFFFF;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 4, stored.length - 4);
+            byte[] data = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int read = inflater.inflate(data, n, length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != length) throw new IllegalStateException("Compressed body is truncated: " + n + " of " + length + " bytes");
+            return data;
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Body decompression failed", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
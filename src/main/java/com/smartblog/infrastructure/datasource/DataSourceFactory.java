@@ -1,7 +1,12 @@
-
 package com.smartblog.infrastructure.datasource;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.sql.DataSource;
 
@@ -9,14 +14,33 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 /**
- * Factory for creating and managing a singleton HikariCP DataSource.
+ * Factory for creating and managing the application's HikariCP DataSources.
  * Configures connection pooling from application properties.
+ *
+ * When {@code db.replica.urls} lists one or more replicas, the interactive DataSource is a
+ * {@link RoutingDataSource} over the primary pool and one read-only pool per replica.
+ *
+ * Background and reporting work get separate pools ({@link #get(Properties, WorkClass)}), so a
+ * benchmark or migration can only exhaust its own connections. {@link #poolMetrics()} reports
+ * per-pool saturation.
+ *
+ * When {@code db.shards.urls} lists additional MySQL instances, {@link #shards(Properties, WorkClass)}
+ * returns the class's DataSource as shard 0 followed by one pool of that class per extra shard, so the
+ * bulkheads hold on every shard.
+ *
+ * Unless {@code db.instrumentation.enabled=false}, every DataSource handed out is wrapped in an
+ * {@link InstrumentedDataSource} feeding {@link SqlMetrics}; {@code db.slowQueryMs} sets the slow-query threshold.
  */
 public final class DataSourceFactory {
-    private static HikariDataSource ds;
+    private static DataSource ds;
+    private static AutoCloseable dsPools;
+    private static final Map<WorkClass, DataSource> classPools = new EnumMap<>(WorkClass.class);
+    private static final Map<WorkClass, List<DataSource>> shardPools = new EnumMap<>(WorkClass.class);
+    private static final List<HikariDataSource> extraPools = new ArrayList<>();
+    private static final Map<String, PoolMetrics> metrics = new ConcurrentHashMap<>();
 
     /**
-     * Gets or creates the singleton DataSource instance.
+     * Gets or creates the singleton interactive DataSource instance.
      * 
      * @param props application properties containing database configuration
      * @return configured DataSource instance
@@ -24,24 +48,138 @@ public final class DataSourceFactory {
     public static synchronized DataSource get(Properties props) {
         if (ds != null) return ds;
 
-        HikariConfig cfg = new HikariConfig();
-        cfg.setJdbcUrl(props.getProperty("db.url"));
-        cfg.setUsername(props.getProperty("db.user"));
-        cfg.setPassword(props.getProperty("db.password"));
-        cfg.setMaximumPoolSize(Integer.parseInt(props.getProperty("db.pool.max", "15")));
-        cfg.setMinimumIdle(Integer.parseInt(props.getProperty("db.pool.min", "2")));
-        cfg.setIdleTimeout(Long.parseLong(props.getProperty("db.pool.idleTimeoutMs", "600000")));
-        cfg.setMaxLifetime(Long.parseLong(props.getProperty("db.pool.maxLifetimeMs", "1800000")));
-        cfg.setPoolName("SmartBlog-HikariPool");
-
-        ds = new HikariDataSource(cfg);
+        HikariDataSource primary = pool("SmartBlog-HikariPool", props.getProperty("db.url"), props, "db.pool", false);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        String urls = props.getProperty("db.replica.urls", "");
+        int n = 0;
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) continue;
+            replicas.add(pool("SmartBlog-Replica-" + (++n), url.trim(), props, "db.replica.pool", true));
+        }
+
+        SqlMetrics.setSlowQueryThresholdMs(Long.parseLong(props.getProperty("db.slowQueryMs", "250")));
+        DataSource raw;
+        if (replicas.isEmpty()) {
+            raw = primary;
+        } else {
+            raw = new RoutingDataSource(primary, replicas,
+                    RoutingDataSource.Balance.valueOf(props.getProperty("db.replica.balance", "ROUND_ROBIN").trim().toUpperCase()),
+                    Long.parseLong(props.getProperty("db.replica.stickyMs", "2000")),
+                    Long.parseLong(props.getProperty("db.replica.maxLagSeconds", "5")),
+                    Long.parseLong(props.getProperty("db.replica.checkIntervalMs", "5000")));
+        }
+        dsPools = (AutoCloseable) raw;
+        ds = instrument(raw, props);
         return ds;
     }
 
     /**
-     * Closes the DataSource if it exists.
+     * Gets or creates the pool for a class of work. INTERACTIVE is {@link #get(Properties)};
+     * the others are created on first use from {@code db.pool.<class>.*}.
+     * Reporting connects to {@code db.pool.reporting.url} (read-only) when set, otherwise to {@code db.url}.
+     */
+    public static synchronized DataSource get(Properties props, WorkClass work) {
+        if (work == WorkClass.INTERACTIVE) return get(props);
+        DataSource existing = classPools.get(work);
+        if (existing != null) return existing;
+
+        String prefix = "db.pool." + work.key();
+        String url = props.getProperty(prefix + ".url", "");
+        boolean readOnly = !url.isBlank();
+        HikariDataSource pool = pool("SmartBlog-" + work.key() + "-pool",
+                readOnly ? url.trim() : props.getProperty("db.url"), props, prefix, readOnly);
+        extraPools.add(pool);
+        DataSource out = instrument(pool, props);
+        classPools.put(work, out);
+        return out;
+    }
+
+    /** The INTERACTIVE shards: {@code shards(props, WorkClass.INTERACTIVE)}. */
+    public static synchronized List<DataSource> shards(Properties props) {
+        return shards(props, WorkClass.INTERACTIVE);
+    }
+
+    /**
+     * Returns every shard for a class of work, shard 0 being {@link #get(Properties, WorkClass)}.
+     * A single-element list means sharding is off. The other shards get their own pool per class,
+     * from {@code db.shards.pool.*} for INTERACTIVE and {@code db.pool.<class>.*} for the others.
+     */
+    public static synchronized List<DataSource> shards(Properties props, WorkClass work) {
+        List<DataSource> all = new ArrayList<>();
+        all.add(get(props, work));
+        all.addAll(shardPools.computeIfAbsent(work, w -> {
+            List<DataSource> pools = new ArrayList<>();
+            boolean interactive = w == WorkClass.INTERACTIVE;
+            String name = interactive ? "SmartBlog-Shard-" : "SmartBlog-" + w.key() + "-Shard-";
+            String prefix = interactive ? "db.shards.pool" : "db.pool." + w.key();
+            int n = 0;
+            for (String url : props.getProperty("db.shards.urls", "").split(",")) {
+                if (url.isBlank()) continue;
+                HikariDataSource pool = pool(name + (++n), url.trim(), props, prefix, false);
+                extraPools.add(pool);
+                pools.add(instrument(pool, props));
+            }
+            return pools;
+        }));
+        return all;
+    }
+
+    /** Saturation metrics of every pool created so far, by pool name. */
+    public static Map<String, PoolMetrics> poolMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    /**
+     * Builds a pool from {@code <prefix>.max}, {@code .min}, {@code .connectionTimeoutMs}, {@code .idleTimeoutMs}
+     * and {@code .maxLifetimeMs}, each falling back to the {@code db.pool.*} value.
+     */
+    private static HikariDataSource pool(String name, String url, Properties props, String prefix, boolean readOnly) {
+        HikariConfig cfg = new HikariConfig();
+        cfg.setJdbcUrl(url);
+        cfg.setUsername(props.getProperty(readOnly ? "db.replica.user" : "db.user", props.getProperty("db.user")));
+        cfg.setPassword(props.getProperty(readOnly ? "db.replica.password" : "db.password", props.getProperty("db.password")));
+        cfg.setMaximumPoolSize(Integer.parseInt(poolProperty(props, prefix, "max", "15")));
+        cfg.setMinimumIdle(Integer.parseInt(poolProperty(props, prefix, "min", "2")));
+        cfg.setConnectionTimeout(Long.parseLong(poolProperty(props, prefix, "connectionTimeoutMs", "30000")));
+        cfg.setIdleTimeout(Long.parseLong(poolProperty(props, prefix, "idleTimeoutMs", "600000")));
+        cfg.setMaxLifetime(Long.parseLong(poolProperty(props, prefix, "maxLifetimeMs", "1800000")));
+        cfg.setPoolName(name);
+        cfg.setReadOnly(readOnly);
+        cfg.setMetricsTrackerFactory((poolName, stats) -> {
+            PoolMetrics m = new PoolMetrics(poolName, stats);
+            metrics.put(poolName, m);
+            return m;
+        });
+        // lets Connector/J collapse JDBC batches into multi-row INSERTs (used by the createAll/updateAll APIs)
+        cfg.addDataSourceProperty("rewriteBatchedStatements", props.getProperty("db.batch.rewrite", "true"));
+        return new HikariDataSource(cfg);
+    }
+
+    private static DataSource instrument(DataSource raw, Properties props) {
+        boolean enabled = Boolean.parseBoolean(props.getProperty("db.instrumentation.enabled", "true"));
+        return enabled ? new InstrumentedDataSource(raw) : raw;
+    }
+
+    private static String poolProperty(Properties props, String prefix, String key, String def) {
+        return props.getProperty(prefix + "." + key, props.getProperty("db.pool." + key, def));
+    }
+
+    /**
+     * Closes every DataSource created by this factory.
      */
     public static synchronized void close() {
-        if (ds != null) ds.close();
+        if (dsPools != null) {
+            try {
+                dsPools.close();
+            } catch (Exception e) {
+                throw new RuntimeException("DataSource close failed", e);
+            }
+        }
+        extraPools.forEach(HikariDataSource::close);
+        extraPools.clear();
+        classPools.clear();
+        shardPools.clear();
+        metrics.clear();
     }
 }
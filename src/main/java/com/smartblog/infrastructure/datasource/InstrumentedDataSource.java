@@ -0,0 +1,263 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource decorator that times every statement executed through its connections and feeds
+ * {@link SqlMetrics}: call count, latency histogram, rows read or affected, and the pool wait of the
+ * connection checkout (charged to the first statement run on that connection).
+ *
+ * Connections, statements and result sets are JDK dynamic proxies; everything except the execute
+ * methods, parameter setters, {@code ResultSet.next()} and the closes passes straight through.
+ * A slow statement that returned a result set is logged when the result set (or its statement) is
+ * closed or the statement runs again, so the entry carries the rows actually read.
+ */
+public final class InstrumentedDataSource implements ReadRoutingDataSource, AutoCloseable {
+    private static final Set<String> EXECUTE = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final DataSource delegate;
+
+    public InstrumentedDataSource(DataSource delegate) { this.delegate = delegate; }
+
+    public DataSource getDelegate() { return delegate; }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection con = delegate.getConnection();
+        return wrap(con, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection con = delegate.getConnection(username, password);
+        return wrap(con, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        if (!(delegate instanceof ReadRoutingDataSource r)) return getConnection();
+        long start = System.nanoTime();
+        Connection con = r.getReadConnection();
+        return wrap(con, System.nanoTime() - start);
+    }
+
+    private static Connection wrap(Connection con, long waitNanos) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(con, waitNanos));
+    }
+
+    private static Object invoke(Object target, Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private long pendingWaitNanos;
+        private Connection self;
+
+        ConnectionHandler(Connection target, long waitNanos) {
+            this.target = target;
+            this.pendingWaitNanos = waitNanos;
+        }
+
+        long takeWait() {
+            long w = pendingWaitNanos;
+            pendingWaitNanos = 0;
+            return w;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            self = (Connection) proxy;
+            Object result = InstrumentedDataSource.invoke(target, m, args);
+            return switch (m.getName()) {
+                case "prepareStatement", "prepareCall" -> wrapStatement((Statement) result, (String) args[0]);
+                case "createStatement" -> wrapStatement((Statement) result, null);
+                default -> result;
+            };
+        }
+
+        private Statement wrapStatement(Statement st, String sql) {
+            Class<?> type = st instanceof CallableStatement ? CallableStatement.class
+                    : st instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(st, sql, this));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final ConnectionHandler connection;
+        // redacted: type (and length for strings) of each bound parameter, never the value
+        private final List<String> params = new ArrayList<>();
+        // a slow query waiting for its rows to be read before it is logged
+        private SlowRead slow;
+
+        StatementHandler(Statement target, String sql, ConnectionHandler connection) {
+            this.target = target;
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            String name = m.getName();
+            if (EXECUTE.contains(name)) {
+                logSlow();
+                return execute(m, args);
+            }
+            if (name.equals("close")) logSlow();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bindParam(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params.clear();
+            } else if (name.equals("getConnection")) {
+                return connection.self;
+            } else if (name.equals("getResultSet")) {
+                StatementStats stats = SqlMetrics.stats(SqlMetrics.normalize(sql));
+                return wrapResultSet((ResultSet) InstrumentedDataSource.invoke(target, m, args), stats, slow);
+            }
+            return InstrumentedDataSource.invoke(target, m, args);
+        }
+
+        private Object execute(Method m, Object[] args) throws Throwable {
+            String text = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            String normalized = SqlMetrics.normalize(text);
+            StatementStats stats = SqlMetrics.stats(normalized);
+            NPlusOneDetector.onStatement(normalized);
+            long wait = connection.takeWait();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(target, m, args);
+            } catch (Throwable t) {
+                SqlMetrics.record(stats, System.nanoTime() - start, 0, wait, true, params.toString());
+                throw t;
+            }
+            long nanos = System.nanoTime() - start;
+            // execute() answers true when the result is a result set, fetched with getResultSet
+            boolean query = result instanceof ResultSet || result == Boolean.TRUE;
+            if (!query) {
+                SqlMetrics.record(stats, nanos, affected(result), wait, false, params.toString());
+                return result;
+            }
+            if (SqlMetrics.recordQuery(stats, nanos, wait)) slow = new SlowRead(stats, nanos, params.toString());
+            return result instanceof ResultSet rs ? wrapResultSet(rs, stats, slow) : result;
+        }
+
+        private void logSlow() {
+            if (slow == null) return;
+            slow.log();
+            slow = null;
+        }
+
+        private void bindParam(int index, Object value) {
+            while (params.size() < index) params.add("?");
+            String redacted = value == null ? "NULL"
+                    : value instanceof String s ? "String(" + s.length() + ")"
+                    : value.getClass().getSimpleName();
+            params.set(index - 1, redacted);
+        }
+
+        private static long affected(Object result) {
+            if (result instanceof Integer n) return Math.max(0, n);
+            if (result instanceof Long n) return Math.max(0, n);
+            long total = 0;
+            if (result instanceof int[] counts) for (int c : counts) total += Math.max(0, c);
+            if (result instanceof long[] counts) for (long c : counts) total += Math.max(0, c);
+            return total;
+        }
+
+        /** {@code slow} is null unless the query that produced {@code rs} was slow. */
+        private static ResultSet wrapResultSet(ResultSet rs, StatementStats stats, SlowRead slow) {
+            if (rs == null) return null;
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, m, args) -> {
+                        Object result = InstrumentedDataSource.invoke(rs, m, args);
+                        if (result == Boolean.TRUE && m.getName().equals("next")) {
+                            stats.addRows(1);
+                            if (slow != null) slow.rows++;
+                        } else if (slow != null && m.getName().equals("close")) {
+                            slow.log();
+                        }
+                        return result;
+                    });
+        }
+    }
+
+    /** A slow query and the rows read from it so far; logged once. */
+    private static final class SlowRead {
+        private final StatementStats stats;
+        private final long nanos;
+        private final String params;
+        long rows;
+        private boolean logged;
+
+        SlowRead(StatementStats stats, long nanos, String params) {
+            this.stats = stats;
+            this.nanos = nanos;
+            this.params = params;
+        }
+
+        void log() {
+            if (logged) return;
+            logged = true;
+            SqlMetrics.logSlow(stats, nanos, rows, params);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException { return delegate.getLogWriter(); }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException { delegate.setLogWriter(out); }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException { delegate.setLoginTimeout(seconds); }
+
+    @Override
+    public int getLoginTimeout() throws SQLException { return delegate.getLoginTimeout(); }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException { return delegate.getParentLogger(); }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable c) c.close();
+    }
+}
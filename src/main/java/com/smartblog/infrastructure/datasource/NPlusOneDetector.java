@@ -0,0 +1,208 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Development-mode N+1 query detector.
+ *
+ * Statements executed through an {@link InstrumentedDataSource} are counted per normalized SQL within
+ * the current logical operation (a UI navigation, a service call; see {@link #begin(String)} and
+ * {@link #track(Class, Object)}). When one statement runs more than {@code threshold} times in an
+ * operation it is flagged once and logged with the call-site stack.
+ *
+ * Nested operations join the outermost one, and threads started inside an operation (virtual threads
+ * of a scatter-gather, for instance) count towards it too. Statements listed in the baseline resource
+ * are reported as known; {@link #assertNoNewNPlusOne(String, Supplier)} fails only on the others,
+ * so tests can stop new N+1 patterns without first fixing every old one.
+ *
+ * Configured from {@code dev.nplusone.*}; enabled by default when {@code app.env=DEV}.
+ */
+public final class NPlusOneDetector {
+    private static final AppLogger log = AppLogger.get(NPlusOneDetector.class);
+
+    /** One statement that ran more than the threshold within one operation. */
+    public record Finding(String operation, String sql, int count, List<StackTraceElement> callSite, boolean known) {
+        @Override
+        public String toString() {
+            return String.format("%s: ran %d+ times in %s: %s%s", known ? "Known N+1" : "N+1", count, operation,
+                    sql, callSite.stream().map(e -> "\n\tat " + e).collect(Collectors.joining()));
+        }
+    }
+
+    private static final int FINDINGS_KEPT = 100;
+    // frames of the detector and the JDBC plumbing are not the call site anyone wants to see
+    private static final List<String> PLUMBING = List.of(
+            "com.smartblog.infrastructure.datasource.", "com.smartblog.infrastructure.jdbc.");
+
+    private static final InheritableThreadLocal<Scope> CURRENT = new InheritableThreadLocal<>();
+    private static final ConcurrentLinkedDeque<Finding> FINDINGS = new ConcurrentLinkedDeque<>();
+    private static volatile boolean enabled;
+    private static volatile int threshold = 5;
+    private static volatile Set<String> baseline = Set.of();
+
+    private NPlusOneDetector() {}
+
+    /** Reads {@code dev.nplusone.enabled}, {@code .threshold} and {@code .baseline} (classpath resource). */
+    public static void configure(Properties props) {
+        boolean dev = "DEV".equalsIgnoreCase(props.getProperty("app.env", "").trim());
+        enabled = Boolean.parseBoolean(props.getProperty("dev.nplusone.enabled", String.valueOf(dev)));
+        threshold = Integer.parseInt(props.getProperty("dev.nplusone.threshold", "5"));
+        String resource = props.getProperty("dev.nplusone.baseline", "nplusone-baseline.txt");
+        try (InputStream in = NPlusOneDetector.class.getClassLoader().getResourceAsStream(resource)) {
+            baseline = in == null ? Set.of() : readBaseline(in);
+        } catch (IOException e) {
+            throw new RuntimeException("N+1 baseline load failed", e);
+        }
+    }
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean on) { enabled = on; }
+
+    public static void setThreshold(int n) { threshold = n; }
+
+    /** Baseline format: one normalized SQL statement per line; blank lines and {@code #} comments are skipped. */
+    static Set<String> readBaseline(InputStream in) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().map(String::trim)
+                    .filter(l -> !l.isEmpty() && !l.startsWith("#"))
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+    }
+
+    /**
+     * Starts a logical operation on this thread; close it when the operation ends. Inside an already
+     * running operation this joins it. A no-op while the detector is disabled.
+     */
+    public static Scope begin(String operation) {
+        return begin(operation, false);
+    }
+
+    private static Scope begin(String operation, boolean force) {
+        if (!enabled && !force) return Scope.NONE;
+        Scope outer = CURRENT.get();
+        if (outer != null && !outer.closed) return Scope.NONE;
+        Scope scope = new Scope(operation);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /** Runs {@code work} as one logical operation. */
+    public static <T> T operation(String operation, Supplier<T> work) {
+        var scope = begin(operation);
+        try {
+            return work.get();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Wraps a service so that every interface method call is one logical operation named
+     * {@code Interface.method}. Returns {@code target} itself while the detector is disabled.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T track(Class<T> type, T target) {
+        if (!enabled) return target;
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, m, args) -> {
+            if (m.getDeclaringClass() == Object.class) return m.invoke(target, args);
+            var scope = begin(type.getSimpleName() + "." + m.getName());
+            try {
+                return m.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                scope.close();
+            }
+        });
+    }
+
+    /**
+     * Opt-in test assertion: runs {@code work} as an operation, with detection on even if disabled, and
+     * throws AssertionError if a statement outside the baseline ran more than the threshold.
+     */
+    public static <T> T assertNoNewNPlusOne(String operation, Supplier<T> work) {
+        Scope scope = begin(operation, true);
+        if (scope == Scope.NONE) throw new IllegalStateException("assertNoNewNPlusOne cannot run inside another operation");
+        T result;
+        try {
+            result = work.get();
+        } finally {
+            scope.close();
+        }
+        List<Finding> fresh = scope.findings.stream().filter(f -> !f.known()).toList();
+        if (!fresh.isEmpty()) {
+            throw new AssertionError("New N+1 query pattern(s) in " + operation + ":\n"
+                    + fresh.stream().map(Finding::toString).collect(Collectors.joining("\n")));
+        }
+        return result;
+    }
+
+    /** Called by {@link InstrumentedDataSource} for every executed statement. */
+    static void onStatement(String normalizedSql) {
+        Scope scope = CURRENT.get();
+        if (scope == null || scope.closed) return;
+        int n = scope.counts.computeIfAbsent(normalizedSql, k -> new AtomicInteger()).incrementAndGet();
+        if (n == threshold + 1) flag(scope, normalizedSql, n);
+    }
+
+    private static void flag(Scope scope, String sql, int count) {
+        List<StackTraceElement> site = Arrays.stream(new Throwable().getStackTrace())
+                .filter(e -> e.getClassName().startsWith("com.smartblog."))
+                .filter(e -> PLUMBING.stream().noneMatch(p -> e.getClassName().startsWith(p)))
+                .limit(12)
+                .toList();
+        Finding f = new Finding(scope.operation, sql, count, site, baseline.contains(sql));
+        scope.findings.add(f);
+        FINDINGS.addFirst(f);
+        while (FINDINGS.size() > FINDINGS_KEPT) FINDINGS.pollLast();
+        if (f.known()) log.debug("{}", f);
+        else log.warn("{}", f);
+    }
+
+    /** Most recent findings, newest first. */
+    public static List<Finding> findings() {
+        return List.copyOf(FINDINGS);
+    }
+
+    public static void reset() { FINDINGS.clear(); }
+
+    /** A logical operation; statement counts are kept per scope. */
+    public static final class Scope implements AutoCloseable {
+        static final Scope NONE = new Scope(null);
+
+        private final String operation;
+        private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        private final List<Finding> findings = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean closed;
+
+        private Scope(String operation) { this.operation = operation; }
+
+        @Override
+        public void close() {
+            if (this == NONE || closed) return;
+            closed = true;
+            if (CURRENT.get() == this) CURRENT.remove();
+        }
+    }
+}
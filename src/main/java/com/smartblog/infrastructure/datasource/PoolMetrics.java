@@ -0,0 +1,72 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Saturation counters for one Hikari pool, fed by Hikari's metrics tracker hooks.
+ * A pool whose callers are queueing shows {@link #getPending()} &gt; 0, a rising
+ * {@link #getAverageAcquireMs()} and, once the connection timeout is hit, {@link #getTimeouts()}.
+ */
+public final class PoolMetrics implements IMetricsTracker {
+    private final String pool;
+    private final PoolStats stats;
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+
+    PoolMetrics(String pool, PoolStats stats) {
+        this.pool = pool;
+        this.stats = stats;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquires.increment();
+        acquireNanos.add(elapsedAcquiredNanos);
+        maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionTimeout() { timeouts.increment(); }
+
+    public String getPool() { return pool; }
+
+    public int getActive() { return stats.getActiveConnections(); }
+
+    public int getIdle() { return stats.getIdleConnections(); }
+
+    public int getMax() { return stats.getMaxConnections(); }
+
+    /** Threads currently waiting for a connection. */
+    public int getPending() { return stats.getPendingThreads(); }
+
+    /** Share of the pool in use, 0..1. */
+    public double getSaturation() {
+        int max = getMax();
+        return max == 0 ? 0 : (double) getActive() / max;
+    }
+
+    public long getAcquireCount() { return acquires.sum(); }
+
+    public double getAverageAcquireMs() {
+        long n = acquires.sum();
+        return n == 0 ? 0 : acquireNanos.sum() / 1_000_000.0 / n;
+    }
+
+    public double getMaxAcquireMs() { return maxAcquireNanos.get() / 1_000_000.0; }
+
+    /** Callers that gave up after the pool's connection timeout. */
+    public long getTimeouts() { return timeouts.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s active=%d/%d idle=%d pending=%d acquire[count=%d avg=%.3f ms max=%.3f ms] timeouts=%d",
+                pool, getActive(), getMax(), getIdle(), getPending(),
+                getAcquireCount(), getAverageAcquireMs(), getMaxAcquireMs(), getTimeouts());
+    }
+}
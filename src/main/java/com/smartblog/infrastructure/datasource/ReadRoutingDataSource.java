@@ -0,0 +1,14 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * A DataSource that may serve read-only statements from somewhere other than {@link #getConnection()},
+ * e.g. a read replica. {@code JdbcTemplate} uses {@link #getReadConnection()} for SELECTs outside a unit of work.
+ */
+public interface ReadRoutingDataSource extends DataSource {
+    Connection getReadConnection() throws SQLException;
+}
@@ -0,0 +1,260 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource that sends writes to the primary pool and lets read-only callers use replica pools.
+ *
+ * <ul>
+ *   <li>{@link #getConnection()} always returns a primary connection. A write statement run on it
+ *       (and the commit after one) starts a read-your-writes window for the calling thread: for
+ *       {@code stickyMs} afterwards that thread's reads stay on the primary as well. Checking out a
+ *       primary connection without writing, e.g. for a read-only transaction, does not.</li>
+ *   <li>{@link #getReadConnection()} picks a healthy replica, round-robin or least active connections,
+ *       and falls back to the primary when none is usable.</li>
+ *   <li>A background monitor checks every replica's replication lag and takes replicas that lag by
+ *       more than {@code maxLagSeconds}, or cannot be reached, out of rotation until they recover.</li>
+ * </ul>
+ */
+public final class RoutingDataSource implements ReadRoutingDataSource, AutoCloseable {
+    private static final AppLogger log = AppLogger.get(RoutingDataSource.class);
+
+    public enum Balance { ROUND_ROBIN, LEAST_CONNECTIONS }
+
+    private static final class Replica {
+        final HikariDataSource pool;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource pool) { this.pool = pool; }
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Balance balance;
+    private final long stickyNanos;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private static final Set<String> WRITES = Set.of("executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    // per thread: one thread's writes say nothing about what another thread needs to read back
+    private final ThreadLocal<Long> lastWriteNanos = new ThreadLocal<>();
+    private final ScheduledExecutorService monitor;
+
+    public RoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Balance balance,
+                             long stickyMs, long maxLagSeconds, long checkIntervalMs) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.balance = balance;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+        this.maxLagSeconds = maxLagSeconds;
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SmartBlog-ReplicaMonitor");
+            t.setDaemon(true);
+            return t;
+        });
+        monitor.scheduleWithFixedDelay(this::checkReplicas, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Primary connection; used for writes, transactions and anything not explicitly read-only. */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return tracked(primary.getConnection());
+    }
+
+    /**
+     * Connection for a read-only statement: a healthy replica unless a recent write on this thread
+     * pins its reads to the primary.
+     */
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        Long wrote = lastWriteNanos.get();
+        if (wrote != null && System.nanoTime() - wrote < stickyNanos) return primary.getConnection();
+        for (int tries = 0; tries < replicas.size(); tries++) {
+            Replica r = pick();
+            if (r == null) break;
+            try {
+                return r.pool.getConnection();
+            } catch (SQLException e) {
+                r.healthy = false;
+                log.warn("Replica {} unavailable, taking it out of rotation: {}", r.pool.getPoolName(), e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private void markWrite() {
+        lastWriteNanos.set(System.nanoTime());
+    }
+
+    /** Wraps a primary connection so that its write statements, and the commit after them, mark a write. */
+    private Connection tracked(Connection con) {
+        boolean[] wrote = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, m, args) -> {
+                    if (m.getName().equals("commit") && wrote[0]) {
+                        Object result = invoke(con, m, args);
+                        markWrite();
+                        wrote[0] = false;
+                        return result;
+                    }
+                    Object result = invoke(con, m, args);
+                    return switch (m.getName()) {
+                        case "prepareStatement", "prepareCall" ->
+                                tracked((Statement) result, (String) args[0], (Connection) proxy, wrote);
+                        case "createStatement" -> tracked((Statement) result, null, (Connection) proxy, wrote);
+                        default -> result;
+                    };
+                });
+    }
+
+    private Statement tracked(Statement st, String sql, Connection con, boolean[] wrote) {
+        Class<?> type = st instanceof CallableStatement ? CallableStatement.class
+                : st instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, m, args) -> {
+                    String name = m.getName();
+                    if (name.equals("getConnection")) return con;
+                    Object result = invoke(st, m, args);
+                    String text = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                    if (WRITES.contains(name) || name.equals("execute") && !isQuery(text)) {
+                        wrote[0] = true;
+                        markWrite();
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean isQuery(String sql) {
+        if (sql == null) return false;
+        String head = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return head.startsWith("SELECT") || head.startsWith("SHOW") || head.startsWith("EXPLAIN")
+                || head.startsWith("WITH") || head.startsWith("(");
+    }
+
+    private static Object invoke(Object target, Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Replica pick() {
+        List<Replica> healthy = replicas.stream().filter(r -> r.healthy).toList();
+        if (healthy.isEmpty()) return null;
+        if (balance == Balance.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int bestActive = Integer.MAX_VALUE;
+            for (Replica r : healthy) {
+                var mx = r.pool.getHikariPoolMXBean();
+                int active = mx != null ? mx.getActiveConnections() : 0;
+                if (active < bestActive) { best = r; bestActive = active; }
+            }
+            return best;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    private void checkReplicas() {
+        for (Replica r : replicas) {
+            boolean ok;
+            try (var con = r.pool.getConnection()) {
+                long lag = replicationLag(con);
+                ok = lag >= 0 && lag <= maxLagSeconds;
+                if (!ok) log.warn("Replica {} lag {} s exceeds {} s", r.pool.getPoolName(), lag, maxLagSeconds);
+            } catch (SQLException e) {
+                ok = false;
+                log.warn("Replica {} health check failed: {}", r.pool.getPoolName(), e.getMessage());
+            } catch (RuntimeException e) {
+                ok = false;
+                log.warn("Replica {} health check failed: {}", r.pool.getPoolName(), e.getMessage());
+            }
+            if (ok && !r.healthy) log.info("Replica {} back in rotation", r.pool.getPoolName());
+            r.healthy = ok;
+        }
+    }
+
+    /**
+     * Seconds behind the source, 0 for a server that is not replicating (e.g. a second local
+     * instance used for testing), -1 when replication is configured but stopped.
+     */
+    private static long replicationLag(Connection con) throws SQLException {
+        String[][] variants = {
+                {"SHOW REPLICA STATUS", "Seconds_Behind_Source"},
+                {"SHOW SLAVE STATUS", "Seconds_Behind_Master"}
+        };
+        SQLException last = null;
+        for (String[] v : variants) {
+            try (var st = con.createStatement(); var rs = st.executeQuery(v[0])) {
+                if (!rs.next()) return 0;
+                long lag = rs.getLong(v[1]);
+                return rs.wasNull() ? -1 : lag;
+            } catch (SQLException e) {
+                last = e; // older servers only know the SLAVE wording
+            }
+        }
+        throw last;
+    }
+
+    public HikariDataSource getPrimary() { return primary; }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(r -> r.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        monitor.shutdownNow();
+        for (Replica r : replicas) r.pool.close();
+        primary.close();
+    }
+
+    // ---- DataSource plumbing: delegate to the primary ----------------------
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return tracked(primary.getConnection(username, password));
+    }
+
+    @Override public PrintWriter getLogWriter() throws SQLException { return primary.getLogWriter(); }
+
+    @Override public void setLogWriter(PrintWriter out) throws SQLException { primary.setLogWriter(out); }
+
+    @Override public void setLoginTimeout(int seconds) throws SQLException { primary.setLoginTimeout(seconds); }
+
+    @Override public int getLoginTimeout() throws SQLException { return primary.getLoginTimeout(); }
+
+    @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException { return primary.getParentLogger(); }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Per-statement SQL metrics and the slow-query log, fed by {@link InstrumentedDataSource}.
+ *
+ * Statements are grouped by normalized SQL: literals become {@code ?}, IN lists of any length
+ * collapse to {@code IN (?...)} and whitespace is squeezed, so one query shape is one entry.
+ * Slow queries are logged with their bound parameters redacted to type (and string length); a slow
+ * SELECT is logged once its result set is closed, with the rows it returned.
+ */
+public final class SqlMetrics {
+    private static final AppLogger log = AppLogger.get(SqlMetrics.class);
+
+    /** One execution that crossed the slow-query threshold. */
+    public record SlowQuery(Instant at, String sql, double ms, long rows, String params) {}
+
+    private static final int SLOW_LOG_SIZE = 200;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, StatementStats> STATS = new ConcurrentHashMap<>();
+    private static final ConcurrentLinkedDeque<SlowQuery> SLOW = new ConcurrentLinkedDeque<>();
+    // raw SQL -> normalized; prepared SQL repeats, so normalizing once per distinct string is enough
+    private static final Cache<String, String> NORMALIZED = Caffeine.newBuilder().maximumSize(5_000).build();
+    private static volatile long slowNanos = 250_000_000L;
+
+    private SqlMetrics() {}
+
+    public static void setSlowQueryThresholdMs(long ms) { slowNanos = ms * 1_000_000L; }
+
+    public static long getSlowQueryThresholdMs() { return slowNanos / 1_000_000L; }
+
+    static String normalize(String sql) {
+        if (sql == null) return "(unknown)";
+        return NORMALIZED.get(sql, s -> {
+            String n = STRING_LITERAL.matcher(s).replaceAll("?");
+            n = NUMBER_LITERAL.matcher(n).replaceAll("?");
+            n = IN_LIST.matcher(n).replaceAll("IN (?...)");
+            return WHITESPACE.matcher(n).replaceAll(" ").trim();
+        });
+    }
+
+    static StatementStats stats(String normalizedSql) {
+        return STATS.computeIfAbsent(normalizedSql, StatementStats::new);
+    }
+
+    /** An execution that changed {@code rows} rows, or failed. */
+    static void record(StatementStats stats, long nanos, long rows, long waitNanos, boolean failed, String params) {
+        stats.record(nanos, rows, waitNanos, failed);
+        if (isSlow(nanos)) logSlow(stats, nanos, rows, params);
+    }
+
+    /**
+     * An execution that returned a result set, whose rows are added as they are read. If it was slow,
+     * the caller logs it with {@link #logSlow} once the rows are read.
+     */
+    static boolean recordQuery(StatementStats stats, long nanos, long waitNanos) {
+        stats.record(nanos, 0, waitNanos, false);
+        return isSlow(nanos);
+    }
+
+    private static boolean isSlow(long nanos) {
+        return nanos >= slowNanos;
+    }
+
+    static void logSlow(StatementStats stats, long nanos, long rows, String params) {
+        var slow = new SlowQuery(Instant.now(), stats.getSql(), nanos / 1_000_000.0, rows, params);
+        SLOW.addFirst(slow);
+        while (SLOW.size() > SLOW_LOG_SIZE) SLOW.pollLast();
+        log.warn("Slow query {} ms rows={} params={} sql={}",
+                String.format("%.1f", slow.ms()), rows, params, stats.getSql());
+    }
+
+    /** Statements seen so far, slowest total time first. */
+    public static Map<String, StatementStats> snapshot() {
+        Map<String, StatementStats> out = new LinkedHashMap<>();
+        STATS.values().stream()
+                .sorted(Comparator.comparingDouble(StatementStats::getTotalMs).reversed())
+                .forEach(s -> out.put(s.getSql(), s));
+        return out;
+    }
+
+    /** Most recent slow queries, newest first. */
+    public static List<SlowQuery> slowQueries() {
+        return List.copyOf(SLOW);
+    }
+
+    public static void reset() {
+        STATS.clear();
+        SLOW.clear();
+    }
+}
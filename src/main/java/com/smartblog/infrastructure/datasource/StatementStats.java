@@ -0,0 +1,95 @@
+package com.smartblog.infrastructure.datasource;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one normalized SQL statement, recorded by {@link InstrumentedDataSource}.
+ * Latencies go into a fixed-bucket histogram, so percentiles are bucket upper bounds.
+ */
+public final class StatementStats {
+    /** Upper bounds of the histogram buckets in ms; a last, open-ended bucket catches the rest. */
+    static final long[] BUCKETS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final String sql;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histogram = new LongAdder[BUCKETS_MS.length + 1];
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder poolWaitNanos = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    StatementStats(String sql) {
+        this.sql = sql;
+        for (int i = 0; i < histogram.length; i++) histogram[i] = new LongAdder();
+    }
+
+    void record(long nanos, long rowCount, long waitNanos, boolean failed) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram[bucket(nanos)].increment();
+        if (rowCount > 0) rows.add(rowCount);
+        if (waitNanos > 0) poolWaitNanos.add(waitNanos);
+        if (failed) errors.increment();
+    }
+
+    void addRows(long n) { rows.add(n); }
+
+    private static int bucket(long nanos) {
+        long ms = nanos / 1_000_000;
+        for (int i = 0; i < BUCKETS_MS.length; i++) if (ms < BUCKETS_MS[i]) return i;
+        return BUCKETS_MS.length;
+    }
+
+    public String getSql() { return sql; }
+
+    public long getCount() { return count.sum(); }
+
+    public double getTotalMs() { return totalNanos.sum() / 1_000_000.0; }
+
+    public double getAverageMs() {
+        long n = count.sum();
+        return n == 0 ? 0 : getTotalMs() / n;
+    }
+
+    public double getMaxMs() { return maxNanos.get() / 1_000_000.0; }
+
+    /**
+     * Latency below which {@code percentile} (0..100) of the executions fell, as a bucket upper bound;
+     * the max is reported for the open-ended bucket.
+     */
+    public double getPercentileMs(double percentile) {
+        long n = count.sum();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS_MS.length; i++) {
+            seen += histogram[i].sum();
+            if (seen >= rank) return BUCKETS_MS[i];
+        }
+        return getMaxMs();
+    }
+
+    /** Execution counts per bucket, aligned with {@link #BUCKETS_MS} plus the open-ended bucket. */
+    public long[] getHistogram() {
+        long[] out = new long[histogram.length];
+        for (int i = 0; i < out.length; i++) out[i] = histogram[i].sum();
+        return out;
+    }
+
+    /** Rows read by queries plus rows affected by updates. */
+    public long getRows() { return rows.sum(); }
+
+    /** Time spent waiting for a pooled connection before this statement's first execution on it. */
+    public double getPoolWaitMs() { return poolWaitNanos.sum() / 1_000_000.0; }
+
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d avg=%.3f ms p95=%.0f ms max=%.3f ms rows=%d poolWait=%.3f ms errors=%d | %s",
+                getCount(), getAverageMs(), getPercentileMs(95), getMaxMs(), getRows(), getPoolWaitMs(), getErrors(), sql);
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartblog.infrastructure.datasource;
+
+/**
+ * Kinds of database work, each served by its own connection pool (bulkhead) so that
+ * benchmarks, migrations and dashboards cannot exhaust the connections the UI needs.
+ *
+ * Pool settings are read from {@code db.pool.<name>.*} (e.g. {@code db.pool.background.max}),
+ * falling back to the {@code db.pool.*} defaults.
+ */
+public enum WorkClass {
+    /** UI requests: the primary pool (and read replicas when configured). */
+    INTERACTIVE,
+    /** Migrations, backfills, resharding: long-running, small pool, patient timeout. */
+    BACKGROUND,
+    /** Benchmarks and dashboard aggregates: small pool, optionally pointed at a replica. */
+    REPORTING;
+
+    /** Property key segment, e.g. {@code background}. */
+    public String key() { return name().toLowerCase(); }
+}
@@ -0,0 +1,111 @@
+package com.smartblog.infrastructure.id;
+
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * Time-ordered 64-bit id generator (Snowflake layout).
+ *
+ * <pre>
+ *  0 | 41 bits: ms since 2024-01-01T00:00Z | 10 bits: worker id | 12 bits: sequence
+ * </pre>
+ *
+ * Ids are unique across nodes as long as every node runs with its own worker id: {@code id.workerId}
+ * when set, otherwise one leased from the database ({@link WorkerIdLease}). Ids sort by creation
+ * time and are available before the row is written, so inserts can be batched.
+ *
+ * The clock is kept monotonic: if the wall clock steps back, or 4096 ids are drawn within one
+ * millisecond, the generator keeps counting on its own logical time instead of waiting or repeating.
+ * State lives in a single AtomicLong updated by CAS, so callers never block.
+ */
+public final class SnowflakeIdGenerator {
+    public static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // one lease per process; start() is called repeatedly by the UI
+    private static SnowflakeIdGenerator leased;
+
+    private final long workerId;
+    /** null when the worker id is configured */
+    private final WorkerIdLease lease;
+    private final LongSupplier clock;
+    // (ms since epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int workerId) {
+        this(workerId, null, System::currentTimeMillis);
+    }
+
+    /** With {@code clock} (epoch ms) in place of the wall clock, so tests can step it back. */
+    SnowflakeIdGenerator(int workerId, LongSupplier clock) {
+        this(workerId, null, clock);
+    }
+
+    private SnowflakeIdGenerator(int workerId, WorkerIdLease lease, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+        this.lease = lease;
+        this.clock = clock;
+    }
+
+    /**
+     * Uses {@code id.workerId} when set, otherwise leases a worker id from id_worker_leases on
+     * {@code leases} for {@code id.lease.ttlSeconds}; the lease is released at shutdown.
+     *
+     * @param leases the global database, or null when there is none to lease from
+     * @throws IllegalStateException when there is neither, so an instance never starts with a guessed id
+     */
+    public static SnowflakeIdGenerator fromProperties(Properties props, DataSource leases) {
+        String configured = props.getProperty("id.workerId");
+        if (configured != null && !configured.isBlank()) return new SnowflakeIdGenerator(Integer.parseInt(configured.trim()));
+        if (leases == null) throw new IllegalStateException("id.workerId is not set and there is no database to lease one from");
+        synchronized (SnowflakeIdGenerator.class) {
+            if (leased == null) {
+                WorkerIdLease lease = WorkerIdLease.acquire(leases,
+                        Integer.parseInt(props.getProperty("id.lease.ttlSeconds", "60")));
+                Runtime.getRuntime().addShutdownHook(new Thread(lease::close, "SmartBlog-WorkerIdLease-Release"));
+                leased = new SnowflakeIdGenerator(lease.workerId(), lease, System::currentTimeMillis);
+            }
+            return leased;
+        }
+    }
+
+    /** @throws IllegalStateException when the worker id was leased and the lease has lapsed */
+    public long nextId() {
+        if (lease != null) lease.ensureHeld();
+        while (true) {
+            long prev = state.get();
+            long prevMs = prev >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MS;
+            long next;
+            if (now > prevMs) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // same millisecond, or the clock went back: continue after the last id
+                next = prev + 1;
+            }
+            if (state.compareAndSet(prev, next)) {
+                long ms = next >>> SEQUENCE_BITS;
+                long seq = next & SEQUENCE_MASK;
+                return (ms << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | seq;
+            }
+        }
+    }
+
+    public long getWorkerId() { return workerId; }
+
+    /** Creation time encoded in an id produced by this layout. */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH_MS);
+    }
+}
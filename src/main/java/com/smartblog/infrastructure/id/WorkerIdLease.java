@@ -0,0 +1,157 @@
+package com.smartblog.infrastructure.id;
+
+import java.net.InetAddress;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * A Snowflake worker id leased from the id_worker_leases table (global database), for instances
+ * that run without {@code id.workerId}.
+ *
+ * The lease takes the lowest expired worker id, or the next unused one, and is renewed every third
+ * of its time to live by a daemon thread. {@link #ensureHeld()} fails once the lease may have
+ * lapsed (a renewal failed or came too late), before the database could hand the id to another
+ * instance, so two running instances never draw ids with the same worker id.
+ */
+public final class WorkerIdLease implements AutoCloseable {
+    private static final AppLogger log = AppLogger.get(WorkerIdLease.class);
+
+    // concurrent starts may pick the same next worker id; the loser tries again
+    private static final int ACQUIRE_ATTEMPTS = 5;
+
+    private static final String RECLAIM = """
+            UPDATE id_worker_leases SET owner = ?, expires_at = NOW(3) + INTERVAL ? SECOND
+            WHERE expires_at < NOW(3) ORDER BY worker_id LIMIT 1
+        """;
+    private static final SqlQuery<Integer> OWNED = SqlQuery.of("WorkerIdLease owned",
+            "SELECT worker_id FROM id_worker_leases WHERE owner = ?", rs -> rs.getInt(1));
+    private static final SqlQuery<Integer> NEXT_UNUSED = SqlQuery.of("WorkerIdLease nextUnused",
+            "SELECT COALESCE(MAX(worker_id) + 1, 0) FROM id_worker_leases", rs -> rs.getInt(1));
+    private static final String INSERT =
+            "INSERT INTO id_worker_leases (worker_id, owner, expires_at) VALUES (?, ?, NOW(3) + INTERVAL ? SECOND)";
+    private static final String RENEW =
+            "UPDATE id_worker_leases SET expires_at = NOW(3) + INTERVAL ? SECOND WHERE worker_id = ? AND owner = ?";
+    private static final String RELEASE =
+            "UPDATE id_worker_leases SET expires_at = NOW(3) WHERE worker_id = ? AND owner = ?";
+
+    private final JdbcTemplate jdbc;
+    private final String owner;
+    private final int ttlSeconds;
+    private final int workerId;
+    private final ScheduledExecutorService heartbeat;
+    // System.nanoTime() after which the database may consider the lease expired
+    private volatile long heldUntilNanos;
+
+    private WorkerIdLease(JdbcTemplate jdbc, String owner, int ttlSeconds, int workerId, long heldUntilNanos) {
+        this.jdbc = jdbc;
+        this.owner = owner;
+        this.ttlSeconds = ttlSeconds;
+        this.workerId = workerId;
+        this.heldUntilNanos = heldUntilNanos;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SmartBlog-WorkerIdLease");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, ttlSeconds * 1000L / 3);
+        heartbeat.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leases a worker id for {@code ttlSeconds}, renewed until {@link #close()}.
+     *
+     * @throws IllegalStateException when every worker id is leased or the table cannot be reached
+     */
+    public static WorkerIdLease acquire(DataSource ds, int ttlSeconds) {
+        if (ttlSeconds < 3) throw new IllegalArgumentException("id.lease.ttlSeconds must be >= 3");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        String owner = ownerName();
+        RuntimeException last = null;
+        for (int attempt = 0; attempt < ACQUIRE_ATTEMPTS; attempt++) {
+            long start = System.nanoTime();
+            try {
+                int workerId = jdbc.inTransaction("WorkerIdLease acquire", con -> take(con, owner, ttlSeconds));
+                log.info("Leased worker id {} as {} for {}s", workerId, owner, ttlSeconds);
+                return new WorkerIdLease(jdbc, owner, ttlSeconds, workerId, start + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            } catch (RuntimeException e) {
+                if (!"duplicate".equals(e.getMessage())) {
+                    throw new IllegalStateException("Cannot lease a worker id; set id.workerId explicitly", e);
+                }
+                last = e;
+            }
+        }
+        throw new IllegalStateException("Cannot lease a worker id after " + ACQUIRE_ATTEMPTS + " attempts", last);
+    }
+
+    private static int take(Connection con, String owner, int ttlSeconds) throws SQLException {
+        if (JdbcTemplate.update(con, RECLAIM, owner, ttlSeconds) == 1) {
+            return JdbcTemplate.query(con, OWNED, owner).get(0);
+        }
+        List<Integer> next = JdbcTemplate.query(con, NEXT_UNUSED);
+        int workerId = next.isEmpty() ? 0 : next.get(0);
+        if (workerId > SnowflakeIdGenerator.MAX_WORKER_ID) {
+            throw new IllegalStateException("All " + (SnowflakeIdGenerator.MAX_WORKER_ID + 1) + " worker ids are leased");
+        }
+        JdbcTemplate.update(con, INSERT, workerId, owner, ttlSeconds);
+        return workerId;
+    }
+
+    public int workerId() { return workerId; }
+
+    /** Throws once the lease may have lapsed; the generator then stops issuing ids. */
+    public void ensureHeld() {
+        if (System.nanoTime() - heldUntilNanos > 0) {
+            throw new IllegalStateException("Lease on worker id " + workerId + " has lapsed");
+        }
+    }
+
+    private void renew() {
+        long start = System.nanoTime();
+        try {
+            if (jdbc.update("WorkerIdLease renew", RENEW, ttlSeconds, workerId, owner) == 1) {
+                heldUntilNanos = start + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            } else {
+                // taken over after we failed to renew in time: never issue ids with it again
+                heldUntilNanos = start;
+                heartbeat.shutdown();
+                log.error("Lost the lease on worker id {}; no more ids will be issued", workerId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Renewing the lease on worker id {} failed: {}", workerId, e.getMessage());
+        }
+    }
+
+    /** Stops renewing and frees the worker id for the next instance. */
+    @Override
+    public void close() {
+        heartbeat.shutdownNow();
+        heldUntilNanos = System.nanoTime();
+        try {
+            jdbc.update("WorkerIdLease release", RELEASE, workerId, owner);
+        } catch (RuntimeException e) {
+            log.warn("Releasing worker id {} failed, it frees up in {}s: {}", workerId, ttlSeconds, e.getMessage());
+        }
+    }
+
+    private static String ownerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        // unique per start, also when a pid is reused
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Work executed against a single connection inside a transaction opened by
+ * {@link JdbcTemplate#inTransaction(String, ConnectionCallback)}.
+ */
+@FunctionalInterface
+public interface ConnectionCallback<T> {
+    T doInConnection(Connection con) throws SQLException;
+}
@@ -0,0 +1,466 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+import com.smartblog.infrastructure.datasource.ReadRoutingDataSource;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Small JDBC execution layer shared by the JDBC repositories.
+ * Owns the connection / statement / result-set lifecycle, binds positional parameters,
+ * applies fetch-size hints and records per-query timings.
+ *
+ * Self-contained operations are retried on transient errors according to {@link #setRetryPolicy}.
+ * SELECTs go through {@link ReadRoutingDataSource#getReadConnection()} when replicas are configured.
+ * Operations join the connection of an enclosing {@link TransactionManager} block, if any.
+ *
+ * Failures are rethrown as RuntimeException("&lt;query name&gt; failed", cause), matching the
+ * repositories' existing contract; duplicate keys (MySQL error 1062) on inserts, batches and
+ * {@link #inTransaction} become RuntimeException("duplicate", cause) so services can keep translating
+ * them to DuplicateException. Other constraint violations (foreign keys, NOT NULL) are ordinary failures.
+ */
+public class JdbcTemplate {
+    private static final AppLogger log = AppLogger.get(JdbcTemplate.class);
+    private static final Map<String, QueryStats> STATS = new ConcurrentHashMap<>();
+    private static volatile int defaultBatchSize = 500;
+    private static volatile RetryPolicy retryPolicy = RetryPolicy.none();
+
+    private final DataSource ds;
+
+    public JdbcTemplate(DataSource ds) { this.ds = ds; }
+
+    public DataSource getDataSource() { return ds; }
+
+    /** Runs a SELECT and maps every row. */
+    public <T> List<T> query(SqlQuery<T> q, Object... params) {
+        return retrying(q.name(), true, () -> doQuery(q, params));
+    }
+
+    private <T> List<T> doQuery(SqlQuery<T> q, Object... params) {
+        long start = System.nanoTime();
+        try (var lease = readLease(); var ps = lease.con().prepareStatement(q.sql())) {
+            if (q.fetchSize() > 0) ps.setFetchSize(q.fetchSize());
+            bind(ps, params);
+            List<T> out = new ArrayList<>();
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) out.add(q.mapper().map(rs));
+            }
+            return out;
+        } catch (SQLException e) {
+            throw translate(q.name(), e);
+        } finally {
+            record(q.name(), start);
+        }
+    }
+
+    /** Runs a SELECT expected to return at most one row. */
+    public <T> Optional<T> queryOne(SqlQuery<T> q, Object... params) {
+        return retrying(q.name(), true, () -> doQueryOne(q, params));
+    }
+
+    private <T> Optional<T> doQueryOne(SqlQuery<T> q, Object... params) {
+        long start = System.nanoTime();
+        try (var lease = readLease(); var ps = lease.con().prepareStatement(q.sql())) {
+            bind(ps, params);
+            try (var rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(q.mapper().map(rs)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw translate(q.name(), e);
+        } finally {
+            record(q.name(), start);
+        }
+    }
+
+    /**
+     * Runs a SELECT as a MySQL streaming result set: rows are read from the socket one at a time as the
+     * consumer pulls them, so memory stays constant however many rows match.
+     *
+     * The statement and its connection stay open until the stream is closed; use try-with-resources.
+     * While it is open the connection cannot run other statements, so do not stream inside a
+     * {@link TransactionManager} block that still has work to do. Not retried, since rows may already
+     * have been consumed.
+     */
+    public <T> Stream<T> stream(SqlQuery<T> q, Object... params) {
+        long start = System.nanoTime();
+        Lease lease = null;
+        PreparedStatement ps = null;
+        ResultSet rs;
+        // until the stream owns them, any failure (also a RuntimeException from routing or bind) closes them
+        boolean handedOver = false;
+        try {
+            lease = readLease();
+            ps = lease.con().prepareStatement(q.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J's signal for row-by-row streaming instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            bind(ps, params);
+            rs = ps.executeQuery();
+            handedOver = true;
+        } catch (SQLException e) {
+            throw translate(q.name(), e);
+        } finally {
+            if (!handedOver) closeQuietly(ps, lease);
+        }
+        var cursor = new Cursor<>(q, rs);
+        Lease held = lease;
+        PreparedStatement stmt = ps;
+        return StreamSupport.stream(cursor, false).onClose(() -> {
+            closeQuietly(rs, stmt, held);
+            record(q.name() + " stream", start);
+        });
+    }
+
+    /** Pulls one row per {@code tryAdvance}, which is what gives the stream its backpressure. */
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final SqlQuery<T> q;
+        private final ResultSet rs;
+
+        Cursor(SqlQuery<T> q, ResultSet rs) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.q = q;
+            this.rs = rs;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) return false;
+                action.accept(q.mapper().map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw translate(q.name(), e);
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable r : resources) {
+            if (r == null) continue;
+            try { r.close(); } catch (Exception e) { log.warn("Close failed: {}", e.getMessage()); }
+        }
+    }
+
+    /** Runs an INSERT/UPDATE/DELETE and returns the affected row count. */
+    public int update(String name, String sql, Object... params) {
+        return retrying(name, false, () -> doUpdate(name, sql, params));
+    }
+
+    private int doUpdate(String name, String sql, Object... params) {
+        long start = System.nanoTime();
+        try (var lease = lease(); var ps = lease.con().prepareStatement(sql)) {
+            bind(ps, params);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw translate(name, e);
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /** Runs an INSERT and returns the generated key, or -1 if none was returned. */
+    public long insert(String name, String sql, Object... params) {
+        return retrying(name, false, () -> doInsert(name, sql, params));
+    }
+
+    private long doInsert(String name, String sql, Object... params) {
+        long start = System.nanoTime();
+        try (var lease = lease(); var ps = lease.con().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, params);
+            ps.executeUpdate();
+            try (var rs = ps.getGeneratedKeys()) { return rs.next() ? rs.getLong(1) : -1; }
+        } catch (SQLException e) {
+            throw translateWrite(name, e);
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /**
+     * Runs an INSERT whose key was assigned by the caller, so no generated-key round trip is needed.
+     * Duplicate keys become RuntimeException("duplicate") like {@link #insert}.
+     */
+    public int insertAssigned(String name, String sql, Object... params) {
+        return retrying(name, false, () -> {
+            long start = System.nanoTime();
+            try (var lease = lease(); var ps = lease.con().prepareStatement(sql)) {
+                bind(ps, params);
+                return ps.executeUpdate();
+            } catch (SQLException e) {
+                throw translateWrite(name, e);
+            } finally {
+                record(name, start);
+            }
+        });
+    }
+
+    /**
+     * Inserts all items with JDBC batching, one transaction per chunk of {@link #getDefaultBatchSize()} rows.
+     * With {@code rewriteBatchedStatements} enabled the driver sends each chunk as a multi-row INSERT.
+     *
+     * @return generated keys in the same order as {@code items}
+     */
+    public <T> List<Long> batchInsert(String name, String sql, List<T> items, Function<T, Object[]> params) {
+        List<Long> keys = new ArrayList<>(items.size());
+        for (List<Long> chunk : runBatches(name, sql, items, params, true, (ps, counts) -> {
+            List<Long> chunkKeys = new ArrayList<>(counts.length);
+            try (var rs = ps.getGeneratedKeys()) {
+                while (rs.next()) chunkKeys.add(rs.getLong(1));
+            }
+            return chunkKeys;
+        })) {
+            keys.addAll(chunk);
+        }
+        return keys;
+    }
+
+    /**
+     * Runs an UPDATE for every item with JDBC batching, one transaction per chunk.
+     *
+     * @return total number of affected rows (statements the driver reports without a count are counted once)
+     */
+    public <T> int batchUpdate(String name, String sql, List<T> items, Function<T, Object[]> params) {
+        int total = 0;
+        for (int[] counts : runBatches(name, sql, items, params, false, (ps, counts) -> counts)) {
+            for (int c : counts) total += c == Statement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+        }
+        return total;
+    }
+
+    public static int getDefaultBatchSize() { return defaultBatchSize; }
+
+    /** Sets the chunk size used by {@link #batchInsert} and {@link #batchUpdate} (db.batch.size). */
+    public static void setDefaultBatchSize(int size) {
+        if (size <= 0) throw new IllegalArgumentException("batch size must be positive");
+        defaultBatchSize = size;
+    }
+
+    /**
+     * Runs {@code work} on one connection in a single transaction, committing on success and
+     * rolling back on any failure. Inside a {@link TransactionManager} block the work joins the
+     * bound connection and the outer block commits. Use the static
+     * {@code query/update/batch(Connection, ...)} helpers inside the callback.
+     */
+    public <T> T inTransaction(String name, ConnectionCallback<T> work) {
+        return retrying(name, false, () -> doInTransaction(name, work));
+    }
+
+    private <T> T doInTransaction(String name, ConnectionCallback<T> work) {
+        long start = System.nanoTime();
+        try (var lease = lease()) {
+            return lease.transactional(work);
+        } catch (SQLException e) {
+            throw translateWrite(name, e);
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /** Runs a SELECT on a caller-managed connection. */
+    public static <T> List<T> query(Connection con, SqlQuery<T> q, Object... params) throws SQLException {
+        try (var ps = con.prepareStatement(q.sql())) {
+            if (q.fetchSize() > 0) ps.setFetchSize(q.fetchSize());
+            bind(ps, params);
+            List<T> out = new ArrayList<>();
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) out.add(q.mapper().map(rs));
+            }
+            return out;
+        }
+    }
+
+    /** Runs an INSERT/UPDATE/DELETE on a caller-managed connection. */
+    public static int update(Connection con, String sql, Object... params) throws SQLException {
+        try (var ps = con.prepareStatement(sql)) {
+            bind(ps, params);
+            return ps.executeUpdate();
+        }
+    }
+
+    /** Sends every parameter row of {@code sql} as one JDBC batch on a caller-managed connection. */
+    public static int[] batch(Connection con, String sql, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) return new int[0];
+        try (var ps = con.prepareStatement(sql)) {
+            for (Object[] row : rows) {
+                bind(ps, row);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }
+    }
+
+    /** Builds "?,?,?" for an IN list of {@code n} parameters. */
+    public static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+
+    public static RetryPolicy getRetryPolicy() { return retryPolicy; }
+
+    /** Sets the policy used to re-run operations that failed with a deadlock, lock wait timeout or connection reset. */
+    public static void setRetryPolicy(RetryPolicy policy) { retryPolicy = policy; }
+
+    /** Snapshot of the timings recorded so far, keyed by query name. */
+    public static Map<String, QueryStats> queryStats() {
+        return Collections.unmodifiableMap(STATS);
+    }
+
+    public static void resetStats() { STATS.clear(); }
+
+    /**
+     * A connection for one operation: the one bound by {@link TransactionManager} when present
+     * (left open on close), otherwise a fresh pooled checkout.
+     */
+    private record Lease(Connection con, boolean owned) implements AutoCloseable {
+        <T> T transactional(ConnectionCallback<T> work) throws SQLException {
+            if (!owned) return work.doInConnection(con);
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                T result = work.doInConnection(con);
+                con.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(con);
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (owned) con.close();
+        }
+    }
+
+    private Lease lease() throws SQLException {
+        Connection bound = TransactionManager.boundConnection(ds);
+        return bound != null ? new Lease(bound, false) : new Lease(ds.getConnection(), true);
+    }
+
+    // read-only statements outside a unit of work may be served by a replica
+    private Lease readLease() throws SQLException {
+        Connection bound = TransactionManager.boundConnection(ds);
+        if (bound != null) return new Lease(bound, false);
+        return new Lease(ds instanceof ReadRoutingDataSource r ? r.getReadConnection() : ds.getConnection(), true);
+    }
+
+    @FunctionalInterface
+    private interface ChunkResult<R> {
+        R accept(PreparedStatement ps, int[] counts) throws SQLException;
+    }
+
+    // each chunk is its own transaction, so a chunk rolled back by a deadlock is retried on its own
+    private <T, R> List<R> runBatches(String name, String sql, List<T> items, Function<T, Object[]> params,
+                                      boolean generatedKeys, ChunkResult<R> result) {
+        List<R> out = new ArrayList<>();
+        if (items == null || items.isEmpty()) return out;
+        int chunk = defaultBatchSize;
+        for (int from = 0; from < items.size(); from += chunk) {
+            List<T> slice = items.subList(from, Math.min(from + chunk, items.size()));
+            out.add(retrying(name, false, () -> runChunk(name, sql, slice, params, generatedKeys, result)));
+        }
+        return out;
+    }
+
+    private <T, R> R runChunk(String name, String sql, List<T> slice, Function<T, Object[]> params,
+                              boolean generatedKeys, ChunkResult<R> result) {
+        long start = System.nanoTime();
+        try (var lease = lease()) {
+            return lease.transactional(con -> {
+                try (var ps = generatedKeys
+                        ? con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                        : con.prepareStatement(sql)) {
+                    for (T item : slice) {
+                        bind(ps, params.apply(item));
+                        ps.addBatch();
+                    }
+                    return result.accept(ps, ps.executeBatch());
+                }
+            });
+        } catch (SQLException e) {
+            throw translateWrite(name, e);
+        } finally {
+            record(name + " batch", start);
+        }
+    }
+
+    /**
+     * Applies the retry policy to a self-contained operation. Inside a {@link TransactionManager}
+     * block a deadlock has rolled back the whole transaction, so the error is left for the block
+     * boundary to retry instead.
+     */
+    private <T> T retrying(String name, boolean idempotent, Supplier<T> op) {
+        if (TransactionManager.boundConnection(ds) != null) return op.get();
+        return retryPolicy.execute(name, idempotent, op);
+    }
+
+    // ER_DUP_ENTRY; SQLState 23000 alone also covers foreign key and NOT NULL violations
+    private static final int DUPLICATE_KEY = 1062;
+
+    /** True when {@code e}, its causes or (for batches) its chained exceptions include a duplicate key. */
+    static boolean isDuplicateKey(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            for (Throwable cur = next; cur != null; cur = cur.getCause()) {
+                if (cur instanceof SQLException sql && sql.getErrorCode() == DUPLICATE_KEY && "23000".equals(sql.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void rollbackQuietly(Connection con) {
+        try { con.rollback(); } catch (SQLException ex) { log.warn("Rollback failed: {}", ex.getMessage()); }
+    }
+
+    // ---- row helpers -------------------------------------------------------
+
+    /** Reads a DATETIME column as LocalDateTime without going through java.sql.Timestamp. */
+    public static LocalDateTime getDateTime(ResultSet rs, int column) throws SQLException {
+        return rs.getObject(column, LocalDateTime.class);
+    }
+
+    public static int offset(int page, int size) {
+        return Math.max(0, (page - 1) * size);
+    }
+
+    static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        if (params == null) return;
+        for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+    }
+
+    static RuntimeException translate(String name, SQLException e) {
+        return new RuntimeException(name + " failed", e);
+    }
+
+    /** {@link #translate}, except that a duplicate key becomes RuntimeException("duplicate"). */
+    static RuntimeException translateWrite(String name, SQLException e) {
+        return isDuplicateKey(e) ? new RuntimeException("duplicate", e) : translate(name, e);
+    }
+
+    static void record(String name, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        STATS.computeIfAbsent(name, k -> new QueryStats()).record(elapsed);
+        log.debug("{} took {} us", name, elapsed / 1_000);
+    }
+}
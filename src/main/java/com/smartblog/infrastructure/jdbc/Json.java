@@ -0,0 +1,177 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The little JSON the MySQL code reads and writes: JSON columns such as post_view.tag_names and
+ * {@code EXPLAIN FORMAT=JSON} plans. Keeps the MongoDB driver out of the JDBC code.
+ *
+ * {@link #parse} returns objects as {@code Map<String, Object>} in document order, arrays as
+ * {@code List<Object>}, strings, {@code Long} or {@code Double} numbers, booleans and null.
+ */
+public final class Json {
+    private final String s;
+    private int pos;
+
+    private Json(String s) { this.s = s; }
+
+    /** A JSON array of the strings, e.g. {@code ["java","sql"]}. */
+    public static String stringArray(List<String> values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            quote(values.get(i), sb);
+        }
+        return sb.append(']').toString();
+    }
+
+    /** The strings of a JSON array such as {@link #stringArray} writes; empty for null or blank. */
+    public static List<String> parseStringArray(String json) {
+        if (json == null || json.isBlank()) return List.of();
+        if (!(parse(json) instanceof List<?> list)) throw new IllegalArgumentException("not a JSON array: " + json);
+        return list.stream().map(String.class::cast).toList();
+    }
+
+    public static Object parse(String json) {
+        Json p = new Json(json);
+        Object value = p.value();
+        p.skipSpace();
+        if (p.pos != json.length()) throw p.error("trailing characters");
+        return value;
+    }
+
+    private static void quote(String value, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private Object value() {
+        skipSpace();
+        if (pos >= s.length()) throw error("unexpected end");
+        char c = s.charAt(pos);
+        return switch (c) {
+            case '{' -> object();
+            case '[' -> array();
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> number();
+        };
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        pos++;
+        skipSpace();
+        if (next('}')) return out;
+        do {
+            skipSpace();
+            String key = string();
+            skipSpace();
+            expect(':');
+            out.put(key, value());
+            skipSpace();
+        } while (next(','));
+        expect('}');
+        return out;
+    }
+
+    private List<Object> array() {
+        List<Object> out = new ArrayList<>();
+        pos++;
+        skipSpace();
+        if (next(']')) return out;
+        do {
+            out.add(value());
+            skipSpace();
+        } while (next(','));
+        expect(']');
+        return out;
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (pos < s.length()) {
+            char c = s.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= s.length()) break;
+            char e = s.charAt(pos++);
+            switch (e) {
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > s.length()) throw error("bad \\u escape");
+                    sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                    pos += 4;
+                }
+                default -> sb.append(e); // \" \\ \/
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    private Number number() {
+        int start = pos;
+        while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+        String text = s.substring(start, pos);
+        if (text.isEmpty()) throw error("unexpected character");
+        try {
+            return text.matches("-?\\d+") ? (Number) Long.parseLong(text) : (Number) Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("bad number " + text);
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!s.startsWith(word, pos)) throw error("unexpected character");
+        pos += word.length();
+        return value;
+    }
+
+    private void skipSpace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    /** Consumes {@code c} if it is next. */
+    private boolean next(char c) {
+        if (pos < s.length() && s.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!next(c)) throw error("expected '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String what) {
+        return new IllegalArgumentException("invalid JSON at " + pos + ": " + what);
+    }
+}
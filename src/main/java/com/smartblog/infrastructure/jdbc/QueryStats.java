@@ -0,0 +1,35 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-query execution counters recorded by {@link JdbcTemplate}.
+ */
+public final class QueryStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() { return count.sum(); }
+
+    public double getTotalMs() { return totalNanos.sum() / 1_000_000.0; }
+
+    public double getAverageMs() {
+        long n = count.sum();
+        return n == 0 ? 0 : getTotalMs() / n;
+    }
+
+    public double getMaxMs() { return maxNanos.get() / 1_000_000.0; }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d avg=%.3f ms max=%.3f ms", getCount(), getAverageMs(), getMaxMs());
+    }
+}
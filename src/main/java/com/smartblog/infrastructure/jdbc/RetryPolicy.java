@@ -0,0 +1,169 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Retries work that failed with a transient MySQL error, using full-jitter exponential backoff.
+ *
+ * Failures are classified from the SQLException chain (SQLState and MySQL vendor code):
+ * <ul>
+ *   <li>{@link Failure#ROLLED_BACK}: deadlock (1213 / 40001) or lock wait timeout (1205). The server
+ *       undid the work, so any autocommit statement or whole unit of work can be re-run.</li>
+ *   <li>{@link Failure#CONNECTION}: connection reset / link failure (SQLState 08xxx). The outcome of
+ *       a write is unknown, so only idempotent operations (reads) are retried.</li>
+ * </ul>
+ *
+ * A shared retry budget caps retries to roughly one per ten calls, so a struggling database is not
+ * hit with a retry storm. Counters are available from {@link #stats()}.
+ */
+public final class RetryPolicy {
+    private static final AppLogger log = AppLogger.get(RetryPolicy.class);
+    private static final Map<String, RetryStats> STATS = new ConcurrentHashMap<>();
+
+    // budget in tenths of a retry: every call deposits 1, every retry withdraws 10
+    private static final int BUDGET_DEPOSIT = 1;
+    private static final int BUDGET_COST = 10;
+
+    public enum Failure { ROLLED_BACK, CONNECTION, PERMANENT }
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int budgetCap;
+    private final AtomicInteger budget;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, int maxBudgetedRetries) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be >= 1");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budgetCap = maxBudgetedRetries * BUDGET_COST;
+        this.budget = new AtomicInteger(budgetCap);
+    }
+
+    /** A policy that never retries. */
+    public static RetryPolicy none() { return new RetryPolicy(1, 0, 0, 0); }
+
+    /** Reads db.retry.maxAttempts, db.retry.baseDelayMs, db.retry.maxDelayMs and db.retry.budget. */
+    public static RetryPolicy fromProperties(Properties props) {
+        return new RetryPolicy(
+                Integer.parseInt(props.getProperty("db.retry.maxAttempts", "3")),
+                Long.parseLong(props.getProperty("db.retry.baseDelayMs", "20")),
+                Long.parseLong(props.getProperty("db.retry.maxDelayMs", "500")),
+                Integer.parseInt(props.getProperty("db.retry.budget", "20")));
+    }
+
+    /**
+     * Runs {@code work}, re-running it on transient failures.
+     *
+     * @param idempotent whether the work may be repeated after a connection failure with unknown outcome
+     */
+    public <T> T execute(String name, boolean idempotent, Supplier<T> work) {
+        deposit();
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = work.get();
+                if (attempt > 1) stats(name).recovered(System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException e) {
+                Failure f = classify(e);
+                boolean retryable = f == Failure.ROLLED_BACK || (f == Failure.CONNECTION && idempotent);
+                if (!retryable) {
+                    if (attempt > 1) stats(name).exhausted(System.nanoTime() - start);
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    if (attempt > 1) stats(name).exhausted(System.nanoTime() - start);
+                    throw e;
+                }
+                if (!withdraw()) {
+                    stats(name).budgetRejected();
+                    stats(name).exhausted(System.nanoTime() - start);
+                    throw e;
+                }
+                long delay = backoff(attempt);
+                stats(name).retried();
+                log.warn("{} failed transiently ({}), retry {} of {} in {} ms",
+                        name, f, attempt, maxAttempts - 1, delay);
+                sleep(delay, e);
+            }
+        }
+    }
+
+    public static Failure classify(Throwable t) {
+        for (Throwable cur = t; cur != null; cur = cur.getCause()) {
+            if (!(cur instanceof SQLException)) continue;
+            for (SQLException sql = (SQLException) cur; sql != null; sql = sql.getNextException()) {
+                Failure f = classify(sql);
+                if (f != Failure.PERMANENT) return f;
+            }
+        }
+        return Failure.PERMANENT;
+    }
+
+    private static Failure classify(SQLException e) {
+        int code = e.getErrorCode();
+        String state = e.getSQLState();
+        if (code == 1213 || code == 1205 || e instanceof SQLTransactionRollbackException
+                || "40001".equals(state)) {
+            return Failure.ROLLED_BACK;
+        }
+        if (e instanceof SQLRecoverableException || e instanceof SQLTransientConnectionException
+                || (state != null && state.startsWith("08"))) {
+            return Failure.CONNECTION;
+        }
+        return Failure.PERMANENT;
+    }
+
+    public static Map<String, RetryStats> stats() {
+        return Collections.unmodifiableMap(STATS);
+    }
+
+    public static void resetStats() { STATS.clear(); }
+
+    private static RetryStats stats(String name) {
+        return STATS.computeIfAbsent(name, k -> new RetryStats());
+    }
+
+    // full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void deposit() {
+        if (budgetCap == 0) return;
+        budget.getAndUpdate(b -> Math.min(budgetCap, b + BUDGET_DEPOSIT));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            int b = budget.get();
+            if (b < BUDGET_COST) return false;
+            if (budget.compareAndSet(b, b - BUDGET_COST)) return true;
+        }
+    }
+
+    private static void sleep(long ms, RuntimeException cause) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation retry counters recorded by {@link RetryPolicy}.
+ * {@link #getLatency()} covers the whole call including backoff, for calls that needed at least one retry.
+ */
+public final class RetryStats {
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetRejected = new LongAdder();
+    private final QueryStats latency = new QueryStats();
+
+    void retried() { retries.increment(); }
+
+    void recovered(long nanos) {
+        recovered.increment();
+        latency.record(nanos);
+    }
+
+    void exhausted(long nanos) {
+        exhausted.increment();
+        latency.record(nanos);
+    }
+
+    void budgetRejected() { budgetRejected.increment(); }
+
+    /** Number of re-executions. */
+    public long getRetries() { return retries.sum(); }
+
+    /** Calls that failed transiently and then succeeded. */
+    public long getRecovered() { return recovered.sum(); }
+
+    /** Calls that still failed after the last attempt or once the budget ran out. */
+    public long getExhausted() { return exhausted.sum(); }
+
+    /** Retries refused because the retry budget was empty. */
+    public long getBudgetRejected() { return budgetRejected.sum(); }
+
+    public QueryStats getLatency() { return latency; }
+
+    @Override
+    public String toString() {
+        return String.format("retries=%d recovered=%d exhausted=%d budgetRejected=%d latency[%s]",
+                getRetries(), getRecovered(), getExhausted(), getBudgetRejected(), latency);
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an object.
+ * Implementations read columns by position, matching the explicit column list of their query.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,22 @@
+package com.smartblog.infrastructure.jdbc;
+
+/**
+ * A named, precompiled SELECT: SQL text with an explicit column list, the row mapper
+ * that reads those columns by position, and an optional fetch-size hint.
+ * Repositories keep these as constants so the SQL is built once per class, not per call.
+ *
+ * @param name label used in error messages and query timings (e.g. "Post findById")
+ * @param sql parameterized SQL
+ * @param mapper position-based row mapper
+ * @param fetchSize JDBC fetch-size hint, 0 to leave the driver default
+ */
+public record SqlQuery<T>(String name, String sql, RowMapper<T> mapper, int fetchSize) {
+
+    public static <T> SqlQuery<T> of(String name, String sql, RowMapper<T> mapper) {
+        return new SqlQuery<>(name, sql, mapper, 0);
+    }
+
+    public SqlQuery<T> withFetchSize(int rows) {
+        return new SqlQuery<>(name, sql, mapper, rows);
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartblog.infrastructure.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Unit of work spanning several repository calls.
+ *
+ * <pre>
+ * tx.run(() -&gt; { long id = posts.create(p); tags.setTagsForPost(id, wanted); });
+ * </pre>
+ *
+ * The connection is bound to the calling thread for the duration of the block, and every
+ * {@link JdbcTemplate} on the same DataSource joins it instead of checking out its own, so the
+ * block commits once. Nested blocks join the outer transaction. A RuntimeException rolls back and
+ * is rethrown unchanged, so services keep their exception translation.
+ *
+ * Binding uses a plain ThreadLocal and no monitors are held while JDBC runs, so blocks are safe to
+ * execute on virtual threads (each virtual thread gets its own binding).
+ */
+public final class TransactionManager {
+    private static final AppLogger log = AppLogger.get(TransactionManager.class);
+    private static final ThreadLocal<Bound> CURRENT = new ThreadLocal<>();
+
+    private record Bound(DataSource ds, Connection con) {}
+
+    private final DataSource ds;
+    private final RetryPolicy retry;
+
+    public TransactionManager(DataSource ds) { this(ds, RetryPolicy.none()); }
+
+    public TransactionManager(DataSource ds, RetryPolicy retry) { this.ds = ds; this.retry = retry; }
+
+    /** A manager that runs blocks without a transaction, for services wired without a DataSource. */
+    public static TransactionManager none() { return new TransactionManager(null); }
+
+    public void run(Runnable work) {
+        call(() -> { work.run(); return null; });
+    }
+
+    /**
+     * Runs the block in a transaction. An outermost block that is rolled back by a deadlock or lock
+     * wait timeout is re-run from the start, so it should not have side effects outside the database.
+     */
+    public <T> T call(Supplier<T> work) {
+        if (ds == null || CURRENT.get() != null) return work.get();
+        return retry.execute("unit of work", false, () -> callOnce(work));
+    }
+
+    private <T> T callOnce(Supplier<T> work) {
+
+        Connection con;
+        boolean autoCommit;
+        try {
+            con = ds.getConnection();
+            autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction begin failed", e);
+        }
+        CURRENT.set(new Bound(ds, con));
+        try {
+            T result = work.get();
+            con.commit();
+            return result;
+        } catch (SQLException e) {
+            rollback(con);
+            throw new RuntimeException("Transaction commit failed", e);
+        } catch (RuntimeException | Error e) {
+            rollback(con);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            try {
+                con.setAutoCommit(autoCommit);
+                con.close();
+            } catch (SQLException e) {
+                log.warn("Could not release transaction connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    public static boolean isActive() { return CURRENT.get() != null; }
+
+    /** The connection bound to this thread for {@code ds}, or null outside a unit of work. */
+    static Connection boundConnection(DataSource ds) {
+        Bound b = CURRENT.get();
+        return b != null && b.ds() == ds ? b.con() : null;
+    }
+
+    private static void rollback(Connection con) {
+        try { con.rollback(); } catch (SQLException ex) { log.warn("Rollback failed: {}", ex.getMessage()); }
+    }
+}
@@ -0,0 +1,59 @@
+package com.smartblog.infrastructure.logging;
+
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * Logging facade used instead of System.out in application code.
+ * Levels come from the SLF4J configuration (simplelogger.properties); every call is
+ * guarded so disabled levels cost neither formatting nor allocation of the message.
+ * Enabled events are handed to {@link AsyncLogAppender} and written off the caller's thread.
+ *
+ * Messages use SLF4J "{}" placeholders; a trailing Throwable argument is logged with its stack trace.
+ */
+public final class AppLogger {
+    private final Logger delegate;
+    private final String name;
+
+    private AppLogger(Logger delegate, String name) {
+        this.delegate = delegate;
+        this.name = name;
+    }
+
+    public static AppLogger get(Class<?> type) {
+        return new AppLogger(LoggerFactory.getLogger(type), type.getSimpleName());
+    }
+
+    public boolean isDebugEnabled() { return delegate.isDebugEnabled(); }
+    public boolean isInfoEnabled() { return delegate.isInfoEnabled(); }
+
+    public void debug(String format, Object... args) {
+        if (delegate.isDebugEnabled()) append("DEBUG", format, args);
+    }
+
+    /** Use when building the message itself is expensive. */
+    public void debug(Supplier<String> message) {
+        if (delegate.isDebugEnabled()) AsyncLogAppender.get().append("DEBUG", name, message.get(), null);
+    }
+
+    public void info(String format, Object... args) {
+        if (delegate.isInfoEnabled()) append("INFO", format, args);
+    }
+
+    public void warn(String format, Object... args) {
+        if (delegate.isWarnEnabled()) append("WARN", format, args);
+    }
+
+    public void error(String format, Object... args) {
+        if (delegate.isErrorEnabled()) append("ERROR", format, args);
+    }
+
+    private void append(String level, String format, Object[] args) {
+        FormattingTuple t = MessageFormatter.arrayFormat(format, args);
+        AsyncLogAppender.get().append(level, name, t.getMessage(), t.getThrowable());
+    }
+}
@@ -0,0 +1,178 @@
+package com.smartblog.infrastructure.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous appender behind {@link AppLogger}.
+ * Callers only enqueue an event on a bounded lock-free queue; a single daemon thread
+ * formats the events and writes them in batches to the log file (and optionally the console).
+ * When the queue is full events are dropped and counted instead of blocking the caller.
+ *
+ * Configured with system properties:
+ * - smartblog.log.file (default logs/smartblog.log)
+ * - smartblog.log.console (default true)
+ * - smartblog.log.queueCapacity (default 8192)
+ * - smartblog.log.batchSize (default 256)
+ */
+public final class AsyncLogAppender {
+
+    record LogEvent(long timestamp, String level, String logger, String thread, String message, Throwable error) {}
+
+    private static final DateTimeFormatter TS =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final class Holder {
+        static final AsyncLogAppender INSTANCE = new AsyncLogAppender(
+                System.getProperty("smartblog.log.file", "logs/smartblog.log"),
+                Boolean.parseBoolean(System.getProperty("smartblog.log.console", "true")),
+                Integer.getInteger("smartblog.log.queueCapacity", 8192),
+                Integer.getInteger("smartblog.log.batchSize", 256));
+    }
+
+    private final ConcurrentLinkedQueue<LogEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int capacity;
+    private final int batchSize;
+    private final boolean console;
+    private final Path file;
+    private final Thread writer;
+    private volatile boolean sleeping;
+    private volatile boolean running = true;
+    private BufferedWriter out;
+
+    private AsyncLogAppender(String file, boolean console, int capacity, int batchSize) {
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        this.console = console;
+        this.capacity = Math.max(16, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.writer = new Thread(this::drainLoop, "SmartBlog-AsyncLog");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "SmartBlog-AsyncLog-Shutdown"));
+    }
+
+    public static AsyncLogAppender get() { return Holder.INSTANCE; }
+
+    /**
+     * Enqueues an event without blocking.
+     *
+     * @return false if the queue was full and the event was dropped
+     */
+    boolean append(String level, String logger, String message, Throwable error) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        queue.offer(new LogEvent(System.currentTimeMillis(), level, logger, Thread.currentThread().getName(), message, error));
+        if (sleeping) LockSupport.unpark(writer);
+        return true;
+    }
+
+    /** Number of events dropped because the queue was full. */
+    public long getDroppedCount() { return dropped.get(); }
+
+    /** Number of events currently waiting to be written. */
+    public int getQueuedCount() { return size.get(); }
+
+    private void drainLoop() {
+        List<LogEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            drainTo(batch);
+            if (batch.isEmpty()) {
+                sleeping = true;
+                if (queue.isEmpty() && running) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                sleeping = false;
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+        closeFile();
+    }
+
+    private void drainTo(List<LogEvent> batch) {
+        LogEvent e;
+        while (batch.size() < batchSize && (e = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(e);
+        }
+    }
+
+    private void write(List<LogEvent> batch) {
+        StringBuilder sb = new StringBuilder(batch.size() * 96);
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            sb.append(TS.format(Instant.now())).append(" WARN  [SmartBlog-AsyncLog] ")
+              .append(AsyncLogAppender.class.getSimpleName()).append(" - dropped ")
+              .append(lost).append(" log events (queue full)").append(System.lineSeparator());
+        }
+        for (LogEvent e : batch) format(sb, e);
+        String text = sb.toString();
+
+        if (console) {
+            // a single write per batch keeps the synchronized stdout off the callers' threads
+            System.out.print(text);
+            System.out.flush();
+        }
+        if (file != null) {
+            try {
+                if (out == null) out = open();
+                out.write(text);
+                out.flush();
+            } catch (IOException ex) {
+                System.err.println("[AsyncLogAppender] could not write " + file + ": " + ex.getMessage());
+                closeFile();
+            }
+        }
+    }
+
+    private static void format(StringBuilder sb, LogEvent e) {
+        sb.append(TS.format(Instant.ofEpochMilli(e.timestamp()))).append(' ')
+          .append(String.format("%-5s", e.level())).append(" [").append(e.thread()).append("] ")
+          .append(e.logger()).append(" - ").append(e.message()).append(System.lineSeparator());
+        if (e.error() != null) {
+            StringWriter sw = new StringWriter();
+            e.error().printStackTrace(new PrintWriter(sw));
+            sb.append(sw);
+        }
+    }
+
+    private BufferedWriter open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try { out.close(); } catch (IOException ignored) {}
+        out = null;
+    }
+
+    private void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try { writer.join(2000); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartblog.infrastructure.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+
+/**
+ * Fills derived data (excerpts, hashes, counters, ...) into rows that existed before the schema change,
+ * a chunk of primary keys at a time. Run by {@link BackfillRunner}; new rows are expected to be written
+ * complete by the application, so a backfill only has to cover the ids that exist when it starts.
+ *
+ * {@link #apply} may run more than once for the same range after a crash, so it must be idempotent.
+ */
+public interface Backfill {
+
+    /** Checkpoint key; never reuse a name for a different backfill. */
+    String name();
+
+    /** Table walked in order of its {@code id} column. */
+    String table();
+
+    /**
+     * Backfills that undo this one. Their checkpoints are cleared whenever this one runs, so that
+     * switching back to them walks the table again instead of finding them completed.
+     */
+    default List<String> resets() { return List.of(); }
+
+    /** Fills the rows with {@code fromId < id <= toId}, inside the chunk's transaction; returns rows changed. */
+    int apply(Connection con, long fromId, long toId) throws SQLException;
+
+    /**
+     * A backfill that is a single UPDATE; {@code sql} ends with a range condition taking the two ids,
+     * e.g. {@code UPDATE posts SET excerpt=LEFT(content, 200) WHERE id > ? AND id <= ?}.
+     */
+    static Backfill sql(String name, String table, String sql) {
+        return sql(name, table, sql, List.of());
+    }
+
+    /** As {@link #sql(String, String, String)}, undoing the backfills named in {@code resets}. */
+    static Backfill sql(String name, String table, String sql, List<String> resets) {
+        return new Backfill() {
+            @Override public String name() { return name; }
+            @Override public String table() { return table; }
+            @Override public List<String> resets() { return resets; }
+            @Override public int apply(Connection con, long fromId, long toId) throws SQLException {
+                return JdbcTemplate.update(con, sql, fromId, toId);
+            }
+        };
+    }
+}
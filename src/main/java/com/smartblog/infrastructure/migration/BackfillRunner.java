@@ -0,0 +1,212 @@
+package com.smartblog.infrastructure.migration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import com.smartblog.infrastructure.compression.ContentCodec;
+import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Runs {@link Backfill}s online, after {@link MigrationRunner} and next to live traffic.
+ *
+ * Each backfill walks its table by primary key in chunks of {@code backfill.chunkSize} ids. A chunk is
+ * one short transaction that applies the backfill and advances the checkpoint in backfill_progress,
+ * so after a crash or restart the backfill resumes after the last committed chunk. Chunks are
+ * separated by {@code backfill.pauseMs}. Throughput and ETA are logged every
+ * {@code backfill.reportMs} and available from {@link #progress()}.
+ *
+ * Backfills run one at a time, shard by shard, on a single daemon thread over the BACKGROUND pool.
+ * A backfill that fails is logged and left at its checkpoint; the next start picks it up again.
+ */
+public final class BackfillRunner {
+    private static final AppLogger log = AppLogger.get(BackfillRunner.class);
+
+    // one runner per process; AppBootstrap.start() is called repeatedly
+    private static BackfillRunner started;
+
+    private static final SqlQuery<Checkpoint> CHECKPOINT = SqlQuery.of("Backfill checkpoint",
+            "SELECT last_id, rows_done, completed_at IS NOT NULL FROM backfill_progress WHERE name=?",
+            rs -> new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getBoolean(3)));
+    private static final String REGISTER =
+            "INSERT IGNORE INTO backfill_progress(name, table_name, last_id, rows_done) VALUES (?,?,0,0)";
+    private static final String ADVANCE = "UPDATE backfill_progress SET last_id=?, rows_done=rows_done+? WHERE name=?";
+    private static final String COMPLETE = "UPDATE backfill_progress SET completed_at=NOW() WHERE name=?";
+    private static final String RESET = "DELETE FROM backfill_progress WHERE name=?";
+
+    private static final String COMPRESS_CONTENT = "posts-compress-content";
+    private static final String DECOMPRESS_CONTENT = "posts-decompress-content";
+
+    private record Checkpoint(long lastId, long rowsDone, boolean completed) {}
+    private record Chunk(long lastId, long ids) {}
+
+    /** Where one backfill stands on one shard. {@code eta} is empty until a rate is known. */
+    public record Progress(String name, int shard, long idsDone, long idsTotal, double idsPerSecond,
+                           Optional<Duration> eta, boolean completed) {}
+
+    /**
+     * Every backfill the application knows about, in the order they run. Completed ones cost one
+     * checkpoint read per start; remove them once every environment has run them.
+     */
+    public static List<Backfill> registered() {
+        List<Backfill> backfills = new ArrayList<>();
+        // bodies written before V10; MySQL applies the SET assignments left to right, so content is
+        // compressed before it is emptied. Not version-bumped: the body reads back the same.
+        // The two undo each other: whichever runs clears the other's checkpoint, so every switch of
+        // the setting converts the rows written in the meantime.
+        int threshold = ContentCodec.threshold();
+        if (ContentCodec.storesCompressed()) {
+            backfills.add(Backfill.sql(COMPRESS_CONTENT, "posts", """
+                    UPDATE posts SET content_compressed=COMPRESS(content), content_format=%d, content=''
+                    WHERE content_format=%d AND LENGTH(content) >= %d AND id > ? AND id <= ?
+                """.formatted(ContentCodec.COMPRESSED, ContentCodec.PLAIN, threshold), List.of(DECOMPRESS_CONTENT)));
+        } else {
+            // compression off (postView.enabled=false or a 0 threshold): back to where posts' searches read bodies
+            backfills.add(Backfill.sql(DECOMPRESS_CONTENT, "posts", """
+                    UPDATE posts SET content=CONVERT(UNCOMPRESS(content_compressed) USING utf8mb4), content_format=%d,
+                        content_compressed=NULL
+                    WHERE content_format=%d AND id > ? AND id <= ?
+                """.formatted(ContentCodec.PLAIN, ContentCodec.COMPRESSED), List.of(COMPRESS_CONTENT)));
+        }
+        return backfills;
+    }
+
+    private final List<DataSource> shards;
+    private final List<Backfill> backfills;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long reportMs;
+    private final Map<String, Progress> progress = new ConcurrentHashMap<>();
+
+    public BackfillRunner(List<DataSource> shards, List<Backfill> backfills, int chunkSize, long pauseMs, long reportMs) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("backfill.chunkSize must be positive");
+        this.shards = shards;
+        this.backfills = backfills;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.reportMs = reportMs;
+    }
+
+    /**
+     * Starts the {@link #registered()} backfills on a background thread, once per process, unless
+     * {@code backfill.enabled=false}. Every shard is reached through its BACKGROUND pool.
+     */
+    public static synchronized Optional<BackfillRunner> startInBackground(Properties props) {
+        if (started != null) return Optional.of(started);
+        if (!Boolean.parseBoolean(props.getProperty("backfill.enabled", "true")) || registered().isEmpty()) {
+            return Optional.empty();
+        }
+        started = new BackfillRunner(DataSourceFactory.shards(props, WorkClass.BACKGROUND), registered(),
+                Integer.parseInt(props.getProperty("backfill.chunkSize", "1000")),
+                Long.parseLong(props.getProperty("backfill.pauseMs", "100")),
+                Long.parseLong(props.getProperty("backfill.reportMs", "10000")));
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "backfill");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.submit(started::runAll);
+        executor.shutdown();
+        return Optional.of(started);
+    }
+
+    /** Runs every backfill to completion on the calling thread. */
+    public void runAll() {
+        for (Backfill b : backfills) {
+            for (int s = 0; s < shards.size(); s++) {
+                try {
+                    run(b, s);
+                } catch (RuntimeException e) {
+                    log.error("Backfill {} on shard {} failed; it resumes from its checkpoint on the next start",
+                            b.name(), s, e);
+                }
+            }
+        }
+    }
+
+    /** Snapshot of every backfill started by this runner. */
+    public List<Progress> progress() {
+        return List.copyOf(progress.values());
+    }
+
+    private void run(Backfill b, int shard) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+        for (String undone : b.resets()) jdbc.update("Backfill reset", RESET, undone);
+        jdbc.update("Backfill register", REGISTER, b.name(), b.table());
+        Checkpoint cp = jdbc.queryOne(CHECKPOINT, b.name()).orElseThrow();
+        if (cp.completed()) return;
+
+        // the range ends at the ids present now; rows inserted later are the application's to fill
+        var upperBound = SqlQuery.of("Backfill upperBound " + b.name(),
+                "SELECT COALESCE(MAX(id), 0) FROM " + b.table(), rs -> rs.getLong(1));
+        var remaining = SqlQuery.of("Backfill remaining " + b.name(),
+                "SELECT COUNT(*) FROM " + b.table() + " WHERE id > ? AND id <= ?", rs -> rs.getLong(1));
+        // ids are sparse (snowflake), so a chunk is the next chunkSize ids rather than a fixed id span
+        var nextChunk = SqlQuery.of("Backfill chunk " + b.name(),
+                "SELECT MAX(id), COUNT(*) FROM (SELECT id FROM " + b.table()
+                        + " WHERE id > ? AND id <= ? ORDER BY id LIMIT ?) c",
+                rs -> new Chunk(rs.getLong(1), rs.getLong(2)));
+        long maxId = jdbc.queryOne(upperBound).orElse(0L);
+        long total = jdbc.queryOne(remaining, cp.lastId(), maxId).orElse(0L);
+        log.info("Backfill {} on shard {}: {} ids to go after id {}", b.name(), shard, total, cp.lastId());
+
+        long start = System.nanoTime(), lastReport = start;
+        long lastId = cp.lastId(), done = 0;
+        while (lastId < maxId) {
+            long from = lastId;
+            Chunk chunk = jdbc.queryOne(nextChunk, from, maxId, chunkSize).orElse(new Chunk(0, 0));
+            long to = chunk.lastId();
+            if (chunk.ids() == 0 || to <= from) break;
+            jdbc.inTransaction("Backfill " + b.name(), con -> {
+                int rows = b.apply(con, from, to);
+                return JdbcTemplate.update(con, ADVANCE, to, rows, b.name());
+            });
+            lastId = to;
+            done += chunk.ids();
+
+            long now = System.nanoTime();
+            Progress p = progress(b, shard, done, total, now - start, false);
+            progress.put(b.name() + "@" + shard, p);
+            if (Duration.ofNanos(now - lastReport).toMillis() >= reportMs) {
+                lastReport = now;
+                log.info("Backfill {} on shard {}: {}/{} ids, {}/s, ETA {}", b.name(), shard, done, total,
+                        Math.round(p.idsPerSecond()), p.eta().map(Duration::toString).orElse("unknown"));
+            }
+            pause();
+        }
+        jdbc.update("Backfill complete", COMPLETE, b.name());
+        progress.put(b.name() + "@" + shard, progress(b, shard, done, total, System.nanoTime() - start, true));
+        log.info("Backfill {} on shard {} completed: {} ids in {}", b.name(), shard, done,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static Progress progress(Backfill b, int shard, long done, long total, long elapsedNanos, boolean completed) {
+        double perSecond = elapsedNanos > 0 ? done * 1e9 / elapsedNanos : 0;
+        Optional<Duration> eta = completed ? Optional.of(Duration.ZERO)
+                : perSecond > 0 ? Optional.of(Duration.ofSeconds(Math.round(Math.max(0, total - done) / perSecond)))
+                : Optional.empty();
+        return new Progress(b.name(), shard, done, total, perSecond, eta, completed);
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) return;
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Backfill interrupted", e);
+        }
+    }
+}
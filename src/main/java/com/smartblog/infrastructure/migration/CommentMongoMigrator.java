@@ -1,21 +1,24 @@
 package com.smartblog.infrastructure.migration;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
 import org.bson.Document;
-import org.bson.types.ObjectId;
 
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.IndexOptions;
 import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.infrastructure.nosql.MongoClientFactory;
 
 /**
@@ -23,6 +26,22 @@ import com.smartblog.infrastructure.nosql.MongoClientFactory;
  * Run before enabling NoSQL to copy all comments with mysqlId reference tracking.
  */
 public class CommentMongoMigrator {
+    private static final AppLogger log = AppLogger.get(CommentMongoMigrator.class);
+
+    private static final int BATCH = 500;
+
+    // streamed row by row, so the table never has to fit in memory
+    private static final SqlQuery<Document> ALL_COMMENTS = SqlQuery.of("Comment migrate",
+            "SELECT id, post_id, user_id, content, created_at FROM comments ORDER BY id", rs -> {
+                java.sql.Timestamp ts = rs.getTimestamp(5);
+                return new Document()
+                        .append("mysqlId", rs.getLong(1))
+                        .append("postId", rs.getLong(2))
+                        .append("userId", rs.getLong(3))
+                        .append("content", rs.getString(4))
+                        .append("createdAt", ts != null ? ts.toInstant().toEpochMilli()
+                                : ZonedDateTime.now(ZoneOffset.UTC).toInstant().toEpochMilli());
+            });
 
     public static void main(String[] args) throws Exception {
         Properties p = new Properties();
@@ -35,13 +54,13 @@ public class CommentMongoMigrator {
         String mongoUri = p.getProperty("mongodb.uri", "mongodb://localhost:27017");
         String mongoDb = p.getProperty("mongodb.database", "smart_blog_nosql");
 
-        DataSource ds = DataSourceFactory.get(p);
+        DataSource ds = DataSourceFactory.get(p, WorkClass.BACKGROUND);
         
         MongoDatabase db = MongoClientFactory.getDatabase(mongoUri, mongoDb);
         migrateAll(ds, db);
 
         if (!enabled) {
-            System.out.println("Note: comments.nosql.enabled=false — you can enable it after migration.");
+            log.info("Note: comments.nosql.enabled=false — you can enable it after migration.");
         }
     }
 
@@ -58,34 +77,26 @@ public class CommentMongoMigrator {
         coll.createIndex(new Document("postId", 1), new IndexOptions().background(true));
         coll.createIndex(new Document("userId", 1), new IndexOptions().background(true));
         coll.createIndex(new Document("createdAt", 1), new IndexOptions().background(true));
+        // latestByPosts: match on postId, then newest first within each post
+        coll.createIndex(new Document("postId", 1).append("createdAt", -1), new IndexOptions().background(true));
 
-        String sql = "SELECT id, post_id, user_id, content, created_at FROM comments";
-        try (Connection c = ds.getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-            int migrated = 0;
-            while (rs.next()) {
-                long mysqlId = rs.getLong("id");
-                long postId = rs.getLong("post_id");
-                long userId = rs.getLong("user_id");
-                String content = rs.getString("content");
-                java.sql.Timestamp ts = rs.getTimestamp("created_at");
-
-                Document doc = new Document();
-                doc.append("mysqlId", mysqlId);
-                doc.append("postId", postId);
-                doc.append("userId", userId);
-                doc.append("content", content);
-                if (ts != null) {
-                    doc.append("createdAt", ts.toInstant().toEpochMilli());
-                } else {
-                    doc.append("createdAt", ZonedDateTime.now(ZoneOffset.UTC).toInstant().toEpochMilli());
+        List<Document> batch = new ArrayList<>(BATCH);
+        int migrated = 0;
+        try (Stream<Document> rows = new JdbcTemplate(ds).stream(ALL_COMMENTS)) {
+            for (Document doc : (Iterable<Document>) rows::iterator) {
+                batch.add(doc);
+                if (batch.size() == BATCH) {
+                    coll.insertMany(batch);
+                    migrated += batch.size();
+                    log.info("Migrated {} comments (last mysqlId={})", migrated, doc.get("mysqlId"));
+                    batch.clear();
                 }
-
-                coll.insertOne(doc);
-                ObjectId oid = doc.getObjectId("_id");
-                migrated++;
-                if (migrated % 500 == 0) System.out.println("Migrated " + migrated + " comments (last mysqlId=" + mysqlId + ", mongoId=" + oid + ")");
             }
-            System.out.println("Migration complete. Total migrated: " + migrated);
         }
+        if (!batch.isEmpty()) {
+            coll.insertMany(batch);
+            migrated += batch.size();
+        }
+        log.info("Migration complete. Total migrated: {}", migrated);
     }
 }
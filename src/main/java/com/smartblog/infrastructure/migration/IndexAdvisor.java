@@ -0,0 +1,495 @@
+package com.smartblog.infrastructure.migration;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import com.smartblog.bootstrap.AppBootstrap;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.jdbc.Json;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.infrastructure.repository.jdbc.CommentRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.PostRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.PostViewRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.ShardedPostRepository;
+import com.smartblog.infrastructure.repository.jdbc.TagRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.UserRepositoryJdbc;
+
+/**
+ * Index advisor: runs {@code EXPLAIN FORMAT=JSON} for every statement the JDBC repositories declare
+ * (their {@link SqlQuery} and SELECT/UPDATE/DELETE string constants) and reports full scans, filesorts
+ * and temporary tables.
+ *
+ * <ul>
+ *   <li>Parameters are bound to the most frequent value of the compared column, so plans reflect the
+ *       heaviest author, post or tag of the dataset rather than an arbitrary one.</li>
+ *   <li>For a scan or filesort it proposes a composite index: equality columns, then {@code IS NULL}
+ *       columns, then the ORDER BY column. Proposals already covered by an existing index are dropped.</li>
+ *   <li>Indexes that duplicate another one, or are a leftmost prefix of another (existing or proposed)
+ *       B-tree index, are flagged as redundant.</li>
+ *   <li>Proposals and drops are written as a candidate Flyway migration; review it before moving it
+ *       to {@code db/migration}.</li>
+ *   <li>Plans are remembered in {@code plans.properties}; a statement whose access type gets worse, loses
+ *       its index or starts to filesort or use a temporary table is reported as a regression next time.</li>
+ * </ul>
+ *
+ * Statements built at runtime ({@code searchCombined}) are not covered.
+ *
+ * Usage: {@code IndexAdvisor [outputDir]} (default {@code index-advisor}) against a database with representative data.
+ */
+public final class IndexAdvisor {
+    private static final AppLogger log = AppLogger.get(IndexAdvisor.class);
+
+    private static final List<Class<?>> REPOSITORIES = List.of(UserRepositoryJdbc.class, PostRepositoryJdbc.class,
+            CommentRepositoryJdbc.class, TagRepositoryJdbc.class, ShardedPostRepository.class,
+            PostViewRepositoryJdbc.class);
+
+    // MySQL join types from best to worst
+    private static final List<String> ACCESS_RANK = List.of("system", "const", "eq_ref", "ref", "fulltext",
+            "ref_or_null", "index_merge", "unique_subquery", "index_subquery", "range", "index", "ALL");
+
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)\\s*(SELECT|UPDATE|DELETE)\\b");
+    private static final Pattern TABLE_REF = Pattern.compile(
+            "(?i)\\b(?:FROM|JOIN|UPDATE)\\s+(\\w+)(?:\\s+(?:AS\\s+)?(?!(?:WHERE|JOIN|INNER|LEFT|RIGHT|ON|SET|ORDER|GROUP|LIMIT)\\b)(\\w+))?");
+    private static final Pattern COMPARED = Pattern.compile("(?is).*?(?:(\\w+)\\.)?(\\w+)\\s*(?:=|<=|>=|<>|<|>|LIKE)\\s*$");
+    private static final Pattern EQUALS_PARAM = Pattern.compile("(?i)(?:(\\w+)\\.)?(\\w+)\\s*=\\s*\\?");
+    private static final Pattern IS_NULL = Pattern.compile("(?i)(?:(\\w+)\\.)?(\\w+)\\s+IS\\s+NULL");
+    private static final Pattern ORDER_BY = Pattern.compile("(?i)\\bORDER\\s+BY\\s+(?:(\\w+)\\.)?(\\w+)");
+    private static final Pattern ENDS_LIMIT = Pattern.compile("(?i)\\bLIMIT\\s*$");
+    private static final Pattern ENDS_OFFSET = Pattern.compile("(?i)\\bOFFSET\\s*$");
+    private static final Pattern ENDS_AGAINST = Pattern.compile("(?i)\\bAGAINST\\s*\\(\\s*$");
+    private static final Pattern ENDS_LIKE = Pattern.compile("(?i)\\bLIKE\\s*$");
+    private static final Pattern SET_CLAUSE = Pattern.compile("(?i)\\bUPDATE\\b.*\\bSET\\b", Pattern.DOTALL);
+    private static final Pattern WHERE = Pattern.compile("(?is)\\bWHERE\\b(.*?)(?:\\bORDER\\s+BY\\b|\\bGROUP\\s+BY\\b|\\bLIMIT\\b|$)");
+
+    /** A repository statement. */
+    public record Shape(String name, String sql) {}
+
+    /** How one table is read in a plan. */
+    public record TableAccess(String table, String access, String key, long rows) {
+        boolean fullScan() { return "ALL".equals(access); }
+    }
+
+    public record Plan(Shape shape, List<TableAccess> tables, boolean filesort, boolean temporary) {
+        boolean problem() {
+            return filesort || temporary || tables.stream().anyMatch(TableAccess::fullScan);
+        }
+
+        String fingerprint() {
+            StringBuilder sb = new StringBuilder();
+            for (TableAccess t : tables) {
+                sb.append(t.table()).append('=').append(t.access()).append('/').append(t.key() == null ? "-" : t.key())
+                        .append('/').append(t.rows()).append(';');
+            }
+            if (filesort) sb.append("filesort;");
+            if (temporary) sb.append("temporary;");
+            return sb.toString();
+        }
+    }
+
+    /** An index, existing (from information_schema) or proposed. */
+    public record Index(String table, String name, List<String> columns, boolean unique, String type) {
+        String ddl() {
+            return "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ");";
+        }
+    }
+
+    public record Redundancy(Index index, Index coveredBy) {}
+
+    public record Report(List<Plan> plans, List<Index> proposed, List<Redundancy> redundant,
+                         List<String> regressions, List<String> failures) {}
+
+    private final DataSource ds;
+    private final Path outputDir;
+    private final Map<String, Object> samples = new HashMap<>();
+
+    public IndexAdvisor(DataSource ds, Path outputDir) {
+        this.ds = ds; this.outputDir = outputDir;
+    }
+
+    /** Explains every shape, writes {@code report.txt}, the candidate migration and {@code plans.properties}. */
+    public Report run() {
+        try (Connection con = ds.getConnection()) {
+            List<Plan> plans = new ArrayList<>();
+            List<String> failures = new ArrayList<>();
+            for (Shape shape : shapes()) {
+                try {
+                    plans.add(explain(con, shape));
+                } catch (SQLException e) {
+                    failures.add(shape.name() + ": " + e.getMessage());
+                }
+            }
+            List<Index> existing = existingIndexes(con);
+            List<Index> proposed = propose(plans, existing);
+            List<Index> all = new ArrayList<>(existing);
+            all.addAll(proposed);
+            List<Redundancy> redundant = redundant(existing, all);
+
+            Files.createDirectories(outputDir);
+            List<String> regressions = compareWithPrevious(plans);
+            Report report = new Report(plans, proposed, redundant, regressions, failures);
+            Files.writeString(outputDir.resolve("report.txt"), format(report));
+            Files.writeString(outputDir.resolve(nextVersion(con) + "__index_advisor.sql"), migration(proposed, redundant));
+            savePlans(plans);
+            return report;
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Index advisor failed", e);
+        }
+    }
+
+    /** SqlQuery and SQL string constants declared by the repositories, deduplicated by SQL. */
+    static List<Shape> shapes() {
+        Map<String, Shape> bySql = new LinkedHashMap<>();
+        for (Class<?> repo : REPOSITORIES) {
+            String prefix = repo.getSimpleName().replace("RepositoryJdbc", "").replace("Repository", "");
+            for (Field f : repo.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers())) continue;
+                Object value;
+                try {
+                    f.setAccessible(true);
+                    value = f.get(null);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    throw new RuntimeException("Reading " + repo.getSimpleName() + "." + f.getName() + " failed", e);
+                }
+                Shape shape = null;
+                if (value instanceof SqlQuery<?> q) shape = new Shape(q.name(), q.sql());
+                else if (value instanceof String s && EXPLAINABLE.matcher(s).lookingAt()) shape = new Shape(prefix + " " + f.getName(), s);
+                // format templates are completed per call; catalog lookups are not ours to index
+                if (shape != null && !shape.sql().contains("%s") && !shape.sql().contains("information_schema")) {
+                    bySql.putIfAbsent(squeeze(shape.sql()), shape);
+                }
+            }
+        }
+        return List.copyOf(bySql.values());
+    }
+
+    private Plan explain(Connection con, Shape shape) throws SQLException {
+        Map<String, String> aliases = aliases(shape.sql());
+        String json;
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN FORMAT=JSON " + shape.sql())) {
+            Object[] params = sampleParams(con, shape.sql(), aliases);
+            for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("EXPLAIN returned no plan");
+                json = rs.getString(1);
+            }
+        }
+        List<TableAccess> tables = new ArrayList<>();
+        boolean[] flags = new boolean[2];
+        walk(Json.parse(json), tables, flags);
+        return new Plan(shape, List.copyOf(tables), flags[0], flags[1]);
+    }
+
+    private static void walk(Object node, List<TableAccess> tables, boolean[] flags) {
+        if (node instanceof Map<?, ?> d) {
+            if (Boolean.TRUE.equals(d.get("using_filesort"))) flags[0] = true;
+            if (Boolean.TRUE.equals(d.get("using_temporary_table"))) flags[1] = true;
+            if (d.get("table_name") instanceof String table && d.get("access_type") instanceof String access) {
+                long rows = d.get("rows_examined_per_scan") instanceof Number n ? n.longValue() : -1;
+                tables.add(new TableAccess(table, access, d.get("key") instanceof String key ? key : null, rows));
+            }
+            for (Object v : d.values()) walk(v, tables, flags);
+        } else if (node instanceof List<?> list) {
+            for (Object v : list) walk(v, tables, flags);
+        }
+    }
+
+    /** alias (and table name) -> table name; the first table of the statement is also under "". */
+    static Map<String, String> aliases(String sql) {
+        Map<String, String> aliases = new HashMap<>();
+        Matcher m = TABLE_REF.matcher(sql);
+        while (m.find()) {
+            String table = m.group(1).toLowerCase();
+            aliases.putIfAbsent("", table);
+            aliases.put(table, table);
+            if (m.group(2) != null) aliases.put(m.group(2).toLowerCase(), table);
+        }
+        return aliases;
+    }
+
+    private Object[] sampleParams(Connection con, String sql, Map<String, String> aliases) {
+        List<Object> params = new ArrayList<>();
+        for (int i = sql.indexOf('?'); i >= 0; i = sql.indexOf('?', i + 1)) {
+            String before = sql.substring(0, i);
+            if (ENDS_LIMIT.matcher(before).find()) params.add(20);
+            else if (ENDS_OFFSET.matcher(before).find()) params.add(0);
+            else if (ENDS_AGAINST.matcher(before).find()) params.add("java");
+            else if (ENDS_LIKE.matcher(before).find()) params.add("%a%");
+            else if (SET_CLAUSE.matcher(before).find() && !WHERE.matcher(before).find()) {
+                params.add(null); // assigned values do not shape the plan
+            } else {
+                Matcher m = COMPARED.matcher(before);
+                String table = m.matches() ? aliases.get(m.group(1) == null ? "" : m.group(1).toLowerCase()) : null;
+                params.add(table == null ? null : sample(con, table, m.group(2)));
+            }
+        }
+        return params.toArray();
+    }
+
+    /** Most frequent non-null value of the column, e.g. the author with the most posts. */
+    private Object sample(Connection con, String table, String column) {
+        return samples.computeIfAbsent(table + "." + column, k -> {
+            String sql = "SELECT " + column + " FROM " + table + " WHERE " + column + " IS NOT NULL"
+                    + " GROUP BY " + column + " ORDER BY COUNT(*) DESC LIMIT 1";
+            try (PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getObject(1) : null;
+            } catch (SQLException e) {
+                log.debug("No sample for {}: {}", k, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private static List<Index> existingIndexes(Connection con) throws SQLException {
+        String sql = """
+                SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, INDEX_TYPE, COLUMN_NAME
+                FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE()
+                ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX
+            """;
+        Map<String, Index> byName = new LinkedHashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String table = rs.getString(1).toLowerCase();
+                String name = rs.getString(2);
+                var index = byName.computeIfAbsent(table + "." + name, k -> {
+                    try {
+                        return new Index(table, name, new ArrayList<>(), rs.getInt(3) == 0, rs.getString(4));
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Reading index " + k + " failed", e);
+                    }
+                });
+                index.columns().add(rs.getString(5).toLowerCase());
+            }
+        }
+        return byName.values().stream()
+                .map(i -> new Index(i.table(), i.name(), List.copyOf(i.columns()), i.unique(), i.type()))
+                .toList();
+    }
+
+    static List<Index> propose(List<Plan> plans, List<Index> existing) {
+        List<Index> proposed = new ArrayList<>();
+        for (Plan plan : plans) {
+            if (!plan.problem()) continue;
+            Map<String, String> aliases = aliases(plan.shape().sql());
+            for (TableAccess access : plan.tables()) {
+                if ("fulltext".equals(access.access())) continue;
+                String alias = access.table().toLowerCase();
+                boolean primary = aliases.getOrDefault(alias, "").equals(aliases.get(""));
+                List<String> columns = candidateColumns(plan.shape().sql(), alias, primary);
+                boolean ordersHere = plan.filesort() && orderedBy(plan.shape().sql(), alias, primary);
+                if (columns.isEmpty() || !(access.fullScan() || ordersHere)) continue;
+                String table = aliases.getOrDefault(alias, alias);
+                proposed.add(new Index(table, indexName(table, columns), columns, false, "BTREE"));
+            }
+        }
+        // keep the widest of proposals sharing a prefix, and only what no existing index already serves
+        // (a unique index on the leading columns already narrows the lookup to one row)
+        List<Index> kept = new ArrayList<>();
+        for (Index p : proposed) {
+            boolean covered = existing.stream().anyMatch(e -> serves(e, p) || (e.unique() && serves(p, e)))
+                    || proposed.stream().anyMatch(o -> serves(o, p) && o.columns().size() > p.columns().size())
+                    || kept.stream().anyMatch(k -> serves(k, p));
+            if (!covered) kept.add(p);
+        }
+        return kept;
+    }
+
+    /** Equality columns, then IS NULL columns, then the ORDER BY column (the primary key is implicit in InnoDB). */
+    private static List<String> candidateColumns(String sql, String alias, boolean primary) {
+        Set<String> columns = new LinkedHashSet<>();
+        Matcher where = WHERE.matcher(sql);
+        if (where.find()) {
+            String clause = where.group(1);
+            collect(EQUALS_PARAM.matcher(clause), alias, primary, columns);
+            if (columns.contains("id")) return List.of(); // primary key lookup
+            collect(IS_NULL.matcher(clause), alias, primary, columns);
+        }
+        Matcher order = ORDER_BY.matcher(sql);
+        if (order.find() && belongs(order.group(1), alias, primary) && !order.group(2).equalsIgnoreCase("id")) {
+            columns.add(order.group(2).toLowerCase());
+        }
+        return List.copyOf(columns);
+    }
+
+    private static boolean orderedBy(String sql, String alias, boolean primary) {
+        Matcher order = ORDER_BY.matcher(sql);
+        return order.find() && belongs(order.group(1), alias, primary);
+    }
+
+    private static void collect(Matcher m, String alias, boolean primary, Set<String> into) {
+        while (m.find()) {
+            if (belongs(m.group(1), alias, primary)) into.add(m.group(2).toLowerCase());
+        }
+    }
+
+    private static boolean belongs(String qualifier, String alias, boolean primary) {
+        return qualifier == null ? primary : qualifier.equalsIgnoreCase(alias);
+    }
+
+    private static String indexName(String table, List<String> columns) {
+        String name = "idx_" + table + "_" + String.join("_", columns);
+        return name.length() <= 64 ? name : name.substring(0, 64);
+    }
+
+    /** True if {@code index} can serve every lookup {@code wanted} would: same table and type, wanted is a leftmost prefix. */
+    private static boolean serves(Index index, Index wanted) {
+        return index.table().equals(wanted.table())
+                && index.type().equals(wanted.type())
+                && index.columns().size() >= wanted.columns().size()
+                && index.columns().subList(0, wanted.columns().size()).equals(wanted.columns());
+    }
+
+    static List<Redundancy> redundant(List<Index> existing, List<Index> all) {
+        List<Redundancy> out = new ArrayList<>();
+        for (Index index : existing) {
+            if (index.name().equals("PRIMARY")) continue;
+            for (Index other : all) {
+                if (other == index || !serves(other, index)) continue;
+                boolean identical = other.columns().equals(index.columns());
+                boolean redundant = identical
+                        // of two identical indexes flag one: the non-unique one, else the later name
+                        ? (!index.unique() || other.unique()) && (index.unique() != other.unique() || index.name().compareTo(other.name()) > 0)
+                        : !index.unique() && "BTREE".equals(index.type());
+                if (redundant) {
+                    out.add(new Redundancy(index, other));
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    private List<String> compareWithPrevious(List<Plan> plans) throws IOException {
+        Path file = outputDir.resolve("plans.properties");
+        if (!Files.exists(file)) return List.of();
+        Properties previous = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            previous.load(in);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Plan plan : plans) {
+            String before = previous.getProperty(plan.shape().name());
+            if (before == null || before.equals(plan.fingerprint())) continue;
+            List<String> reasons = new ArrayList<>();
+            Map<String, String[]> old = new HashMap<>();
+            for (String part : before.split(";")) {
+                int eq = part.indexOf('=');
+                if (eq > 0) old.put(part.substring(0, eq), part.substring(eq + 1).split("/"));
+            }
+            for (TableAccess t : plan.tables()) {
+                String[] was = old.get(t.table());
+                if (was == null) continue;
+                if (ACCESS_RANK.indexOf(t.access()) > ACCESS_RANK.indexOf(was[0])) {
+                    reasons.add(t.table() + " " + was[0] + " -> " + t.access());
+                }
+                if (!"-".equals(was[1]) && t.key() == null) reasons.add(t.table() + " no longer uses " + was[1]);
+            }
+            if (plan.filesort() && !before.contains("filesort;")) reasons.add("now uses filesort");
+            if (plan.temporary() && !before.contains("temporary;")) reasons.add("now uses a temporary table");
+            if (!reasons.isEmpty()) regressions.add(plan.shape().name() + ": " + String.join(", ", reasons));
+        }
+        return regressions;
+    }
+
+    private void savePlans(List<Plan> plans) throws IOException {
+        Properties props = new Properties();
+        for (Plan plan : plans) props.setProperty(plan.shape().name(), plan.fingerprint());
+        try (Writer out = Files.newBufferedWriter(outputDir.resolve("plans.properties"))) {
+            props.store(out, "IndexAdvisor plans; compared on the next run to report regressions");
+        }
+    }
+
+    /** {@code V<n>} after the highest applied Flyway version. */
+    private static String nextVersion(Connection con) {
+        try (PreparedStatement ps = con.prepareStatement("SELECT version FROM flyway_schema_history WHERE version IS NOT NULL");
+             ResultSet rs = ps.executeQuery()) {
+            int max = 0;
+            while (rs.next()) max = Math.max(max, Integer.parseInt(rs.getString(1).split("\\.")[0]));
+            return "V" + (max + 1);
+        } catch (SQLException | NumberFormatException e) {
+            return "V_next";
+        }
+    }
+
+    private static String migration(List<Index> proposed, List<Redundancy> redundant) {
+        StringBuilder sb = new StringBuilder("-- Candidate migration generated by IndexAdvisor on ")
+                .append(LocalDateTime.now().withNano(0)).append('\n')
+                .append("-- Review, rename to the next version and move to db/migration to apply.\n\n");
+        for (Index index : proposed) sb.append(index.ddl()).append('\n');
+        if (!redundant.isEmpty()) sb.append('\n');
+        for (Redundancy r : redundant) {
+            sb.append("-- ").append(r.index().name()).append(" is covered by ").append(r.coveredBy().name()).append('\n')
+                    .append("DROP INDEX ").append(r.index().name()).append(" ON ").append(r.index().table()).append(";\n");
+        }
+        return sb.toString();
+    }
+
+    static String format(Report report) {
+        StringBuilder sb = new StringBuilder("Index advisor report ").append(LocalDateTime.now().withNano(0)).append("\n\n");
+        sb.append("Plans with full scans, filesorts or temporary tables:\n");
+        for (Plan plan : report.plans()) {
+            if (!plan.problem()) continue;
+            sb.append("  ").append(plan.shape().name()).append(": ");
+            for (TableAccess t : plan.tables()) {
+                sb.append(t.table()).append(' ').append(t.access())
+                        .append(t.key() == null ? "" : " (" + t.key() + ")").append(" ~").append(t.rows()).append(" rows; ");
+            }
+            if (plan.filesort()) sb.append("filesort; ");
+            if (plan.temporary()) sb.append("temporary table; ");
+            sb.append("\n    ").append(squeeze(plan.shape().sql())).append('\n');
+        }
+        sb.append("\nProposed indexes:\n");
+        report.proposed().forEach(i -> sb.append("  ").append(i.ddl()).append('\n'));
+        sb.append("\nRedundant indexes:\n");
+        report.redundant().forEach(r -> sb.append("  ").append(r.index().table()).append('.').append(r.index().name())
+                .append(r.index().columns()).append(" covered by ").append(r.coveredBy().name())
+                .append(r.coveredBy().columns()).append('\n'));
+        sb.append("\nPlan regressions since the last run:\n");
+        report.regressions().forEach(r -> sb.append("  ").append(r).append('\n'));
+        if (!report.failures().isEmpty()) {
+            sb.append("\nStatements that could not be explained:\n");
+            report.failures().forEach(f -> sb.append("  ").append(f).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    private static String squeeze(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    public static void main(String[] args) {
+        var ctx = AppBootstrap.start(WorkClass.REPORTING);
+        if (ctx.ds == null) {
+            log.error("IndexAdvisor needs a database (repository.type is memory)");
+            return;
+        }
+        Path out = Path.of(args.length > 0 ? args[0] : "index-advisor");
+        Report report = new IndexAdvisor(ctx.ds, out).run();
+        log.info("\n{}", format(report));
+        report.regressions().forEach(r -> log.warn("Plan regression: {}", r));
+        log.info("Report, candidate migration and plans written to {}", out.toAbsolutePath());
+    }
+}
@@ -1,6 +1,7 @@
 
 package com.smartblog.infrastructure.migration;
 
+import java.util.List;
 import java.util.Properties;
 
 import javax.sql.DataSource;
@@ -25,4 +26,23 @@ public final class MigrationRunner {
                 .load();
         flyway.migrate();
     }
+
+    /**
+     * Migrates every shard. With more than one shard the sharding migrations
+     * ({@code flyway.shardLocations}) are applied on top of the regular ones, and with
+     * {@code db.partitioning.enabled} the partitioning ones ({@code flyway.partitionLocations}).
+     */
+    public static void migrate(List<DataSource> shards, Properties props) {
+        String locations = props.getProperty("flyway.locations", "classpath:db/migration");
+        if (shards.size() > 1) {
+            locations += "," + props.getProperty("flyway.shardLocations", "classpath:db/sharding");
+        }
+        if (Boolean.parseBoolean(props.getProperty("db.partitioning.enabled", "false"))) {
+            locations += "," + props.getProperty("flyway.partitionLocations", "classpath:db/partitioning");
+        }
+        Properties effective = new Properties();
+        effective.putAll(props);
+        effective.setProperty("flyway.locations", locations);
+        for (DataSource shard : shards) migrate(shard, effective);
+    }
 }
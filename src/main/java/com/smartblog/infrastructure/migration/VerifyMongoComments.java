@@ -7,9 +7,12 @@ import org.bson.Document;
 
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.infrastructure.nosql.MongoClientFactory;
 
 public class VerifyMongoComments {
+    private static final AppLogger log = AppLogger.get(VerifyMongoComments.class);
+
     public static void main(String[] args) throws Exception {
         Properties p = new Properties();
         try (InputStream in = VerifyMongoComments.class.getClassLoader().getResourceAsStream("application.properties")) {
@@ -22,9 +25,9 @@ public class VerifyMongoComments {
         MongoDatabase db = MongoClientFactory.getDatabase(uri, dbName);
         MongoCollection<Document> coll = db.getCollection("comments");
 
-        System.out.println("Latest comments in MongoDB (collection: comments):");
+        log.info("Latest comments in MongoDB (collection: comments):");
         for (Document d : coll.find().sort(new Document("createdAt", -1)).limit(5)) {
-            System.out.println(d.toJson());
+            log.info("{}", d.toJson());
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.smartblog.infrastructure.repository.api;
+
+import com.smartblog.core.model.Comment;
+import com.smartblog.core.model.Post;
+import java.util.Optional;
+
+/**
+ * Posts and comments moved out of the hot tables by the archiver. Archived posts keep their comments and
+ * tag links, and restoring a post brings them back with it.
+ */
+public interface ArchiveRepository {
+    Optional<Post> findPost(long id);
+    Optional<Comment> findComment(long id);
+
+    /**
+     * Moves an archived post back to the live tables, with the comments that were live when it was
+     * archived and its tags. The post comes back undeleted. Applies only if {@code actorId} is the
+     * author or {@code admin} is true; false when nothing was restored.
+     */
+    boolean restorePost(long id, Long actorId, boolean admin);
+
+    /**
+     * Moves an archived comment back, undeleted, if its post is live and {@code actorId} wrote it or
+     * {@code admin} is true. False when nothing was restored.
+     */
+    boolean restoreComment(long id, Long actorId, boolean admin);
+}
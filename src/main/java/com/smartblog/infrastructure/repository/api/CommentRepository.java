@@ -2,13 +2,57 @@
 package com.smartblog.infrastructure.repository.api;
 
 import com.smartblog.core.model.Comment;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CommentRepository {
     long create(Comment c);
     Optional<Comment> findById(long id);
     List<Comment> listByPost(long postId, int page, int size);
+
+    /**
+     * The newest {@code n} live comments of every post in {@code postIds}, newest first, read in one
+     * query rather than one per post. Posts without comments have no entry.
+     */
+    Map<Long, List<Comment>> latestByPosts(Collection<Long> postIds, int n);
+
+    /** Number of live comments of each post, in one query. Posts without comments have no entry. */
+    Map<Long, Long> countByPosts(Collection<Long> postIds);
     boolean update(Comment c);
+
+    /**
+     * Replaces the content in one statement, only if the comment is live and {@code actorId} wrote it
+     * or {@code admin} is true. False when nothing matched.
+     */
+    boolean updateIfPermitted(Comment c, Long actorId, boolean admin);
+
+    /**
+     * Compare-and-set form of {@link #updateIfPermitted}: also requires the row to still be at
+     * {@code c.getVersion()}. On success {@code c} carries the new version.
+     */
+    boolean updateIfCurrent(Comment c, Long actorId, boolean admin);
+
+    /**
+     * Soft-deletes the comment if it is live and {@code actorId} wrote it or {@code admin} is true.
+     * Returns the comment's post, taken from the deleted row; empty when nothing matched.
+     */
+    Optional<Long> softDeleteIfPermitted(long id, Long actorId, boolean admin);
+
+    /**
+     * Undoes a soft delete still in the hot table, if {@code actorId} wrote the comment or {@code admin}
+     * is true. False when there is no such deleted comment (it may have been archived).
+     */
+    boolean restoreIfPermitted(long id, Long actorId, boolean admin);
+    List<Long> createAll(List<Comment> comments);
+    int updateAll(List<Comment> comments);
     boolean softDelete(long id);
+
+    /**
+     * Every live comment, read lazily at constant memory. The stream holds a connection until it is
+     * closed, so use it in try-with-resources.
+     */
+    Stream<Comment> streamAll();
 }
@@ -2,18 +2,84 @@
 package com.smartblog.infrastructure.repository.api;
 
 import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PostRepository {
     long create(Post p);
     Optional<Post> findById(long id);
-    List<Post> list(int page, int size);
-    List<Post> search(String keyword, int page, int size);
-    List<Post> listByAuthor(long authorId, int page, int size);
+
+    default List<Post> list(int page, int size) { return list(PostStatus.ANY, page, size); }
+    default List<Post> search(String keyword, int page, int size) { return search(keyword, PostStatus.ANY, page, size); }
+    default List<Post> listByAuthor(long authorId, int page, int size) {
+        return listByAuthor(authorId, PostStatus.ANY, page, size);
+    }
+
+    /** Listings filtered on the published flag in SQL, so every page but the last comes back full. */
+    List<Post> list(PostStatus status, int page, int size);
+    List<Post> search(String keyword, PostStatus status, int page, int size);
+    List<Post> listByAuthor(long authorId, PostStatus status, int page, int size);
+
+    /** Live posts of {@code authorId} with the given status; exact, read from the author index. */
+    long countByAuthor(long authorId, PostStatus status);
     boolean update(Post p);
+
+    /**
+     * Updates title, content and published in one statement, only if the post is live and
+     * {@code actorId} is its author or {@code admin} is true. False when nothing matched; the caller
+     * tells a missing post from a forbidden one only then.
+     */
+    boolean updateIfPermitted(Post p, Long actorId, boolean admin);
+
+    /**
+     * Compare-and-set form of {@link #updateIfPermitted}: also requires the row to still be at
+     * {@code p.getVersion()}. On success {@code p} carries the new version.
+     */
+    boolean updateIfCurrent(Post p, Long actorId, boolean admin);
+
+    /** Soft-deletes the post if it is live and {@code actorId} is its author or {@code admin} is true. */
+    boolean softDeleteIfPermitted(long id, Long actorId, boolean admin);
+
+    /**
+     * Undoes a soft delete still in the hot table, if {@code actorId} is the author or {@code admin} is
+     * true. False when there is no such deleted post (it may have been archived).
+     */
+    boolean restoreIfPermitted(long id, Long actorId, boolean admin);
+
+    /** Marks a live post published without reading it first. */
+    boolean publish(long id);
+
+    /** Compare-and-set form of {@link #publish}: only while the post is still at {@code version}. */
+    boolean publishIfCurrent(long id, long version);
+    List<Long> createAll(List<Post> posts);
+    int updateAll(List<Post> posts);
     boolean softDelete(long id);
     List<Post> searchByTag(String tag, int page, int size);
     List<Post> searchByAuthorName(String authorName, int page, int size);
-    List<Post> searchCombined(String keyword, String tag, String authorName, String sortBy, int page, int size);
+
+    default List<Post> searchCombined(String keyword, String tag, String authorName, String sortBy, int page, int size) {
+        return searchCombined(keyword, tag, authorName, PostStatus.ANY, sortBy, page, size);
+    }
+    List<Post> searchCombined(String keyword, String tag, String authorName, PostStatus status, String sortBy,
+                              int page, int size);
+
+    /**
+     * Number of posts {@link #searchCombined} would return over all pages, counting no further than
+     * {@code limit}: the cost is bounded by {@code limit} rows however many posts match.
+     */
+    long countCombined(String keyword, String tag, String authorName, PostStatus status, int limit);
+
+    /**
+     * Estimate of the same count from table and index statistics, without reading the matching rows.
+     * Cheap, but may be off by a large factor.
+     */
+    long estimateCombined(String keyword, String tag, String authorName, PostStatus status);
+
+    /**
+     * Every live post, read lazily at constant memory. The stream holds a connection until it is
+     * closed, so use it in try-with-resources.
+     */
+    Stream<Post> streamAll();
 }
@@ -0,0 +1,51 @@
+package com.smartblog.infrastructure.repository.api;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.core.model.PostView;
+
+/**
+ * The post_view read model: one denormalized row per live post, read by the list and search screens
+ * without joins. Rows are written by {@code PostViewProjector} next to the writes to the source tables.
+ */
+public interface PostViewRepository {
+    Optional<PostView> findById(long postId);
+    List<PostView> list(PostStatus status, int page, int size);
+    List<PostView> search(String keyword, PostStatus status, int page, int size);
+    List<PostView> listByAuthor(long authorId, PostStatus status, int page, int size);
+    List<PostView> searchByTag(String tag, int page, int size);
+    List<PostView> searchByAuthorName(String authorName, int page, int size);
+    List<PostView> searchCombined(String keyword, String tag, String authorName, PostStatus status, String sortBy,
+                                  int page, int size);
+
+    /** As {@code PostRepository.countCombined}: matches of {@link #searchCombined}, counted no further than {@code limit}. */
+    long countCombined(String keyword, String tag, String authorName, PostStatus status, int limit);
+
+    /** As {@code PostRepository.estimateCombined}: the same count from statistics, possibly off by a large factor. */
+    long estimateCombined(String keyword, String tag, String authorName, PostStatus status);
+
+    /** Inserts or replaces the rows and stamps them as refreshed now. */
+    void upsertAll(List<PostView> views);
+    boolean delete(long postId);
+    boolean updateCommentCount(long postId, long count);
+
+    /** Replaces the title, body and status of the row after an edit of the post, stamping it updated now. */
+    boolean updateContent(long postId, String title, String content, boolean published);
+
+    /** Marks the row published after the post was, stamping it updated now. */
+    boolean markPublished(long postId);
+    boolean updateTags(long postId, List<String> tagNames);
+
+    /** Renames the tag in every row carrying it; returns the number of rows changed. */
+    int renameTag(String oldName, String newName);
+    int removeTag(String name);
+
+    /** The database clock, as compared with by {@link #deleteRefreshedBefore}. */
+    LocalDateTime now();
+
+    /** Removes rows not refreshed since {@code time}: the ones a rebuild started then did not write. */
+    int deleteRefreshedBefore(LocalDateTime time);
+}
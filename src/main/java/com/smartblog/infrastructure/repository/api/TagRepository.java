@@ -2,7 +2,9 @@
 package com.smartblog.infrastructure.repository.api;
 
 import com.smartblog.core.model.Tag;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface TagRepository {
@@ -12,12 +14,23 @@ public interface TagRepository {
     Optional<Tag> findByName(String name);
     List<Tag> listAll();
     boolean update(Tag t);
+    List<Long> createAll(List<Tag> tags);
+    int updateAll(List<Tag> tags);
     boolean delete(long id);
 
     // relations
     boolean addTagToPost(long postId, long tagId);
     boolean removeTagFromPost(long postId, long tagId);
     List<Tag> listByPost(long postId);
+
+    /** Tags of each post, ordered by name, in one query. Posts without tags have no entry. */
+    Map<Long, List<Tag>> listByPosts(Collection<Long> postIds);
+
+    /**
+     * Makes {@code tags} (matched by slug or name, created when missing) the exact tag set of the post.
+     * Returns the resulting tags of the post ordered by name.
+     */
+    List<Tag> setTagsForPost(long postId, Collection<Tag> tags);
 }
 
 
@@ -3,6 +3,7 @@ package com.smartblog.infrastructure.repository.api;
 
 import com.smartblog.core.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,9 +14,14 @@ import java.util.Optional;
 public interface UserRepository {
     long create(User user);
     Optional<User> findById(long id);
+
+    /** The live users among {@code ids}, in one query; missing or deleted ids are left out. */
+    List<User> findByIds(Collection<Long> ids);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     List<User> list(int page, int size);
     boolean update(User user);
+    List<Long> createAll(List<User> users);
+    int updateAll(List<User> users);
     boolean softDelete(long id);
 }
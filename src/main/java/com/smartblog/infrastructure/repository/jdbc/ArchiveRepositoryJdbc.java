@@ -0,0 +1,118 @@
+package com.smartblog.infrastructure.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import com.smartblog.core.model.Comment;
+import com.smartblog.core.model.Post;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.repository.api.ArchiveRepository;
+
+/**
+ * JDBC ArchiveRepository. Archive tables live next to the hot tables: posts_archive and
+ * comments_archive on the post's shard, post_tags_archive with post_tags on the global shard (shard 0).
+ * Archived rows are few and rarely read, so lookups simply ask each shard in turn.
+ */
+public class ArchiveRepositoryJdbc implements ArchiveRepository {
+    private static final SqlQuery<Post> FIND_POST = SqlQuery.of("Archive findPost",
+            "SELECT " + PostRepositoryJdbc.COLUMNS + " FROM posts_archive WHERE id=?", PostRepositoryJdbc.MAPPER);
+    private static final SqlQuery<Comment> FIND_COMMENT = SqlQuery.of("Archive findComment",
+            "SELECT " + CommentRepositoryJdbc.COLUMNS + " FROM comments_archive WHERE id=?", CommentRepositoryJdbc.MAPPER);
+
+    // restored rows come back undeleted and one version on, so editors holding the archived version conflict
+    private static final String RESTORE_POST = """
+            INSERT INTO posts(id, author_id, title, content, published, created_at, updated_at, deleted_at, version,
+                content_format, content_compressed)
+            SELECT id, author_id, title, content, published, created_at, updated_at, NULL, version+1,
+                content_format, content_compressed
+            FROM posts_archive WHERE id=? AND (author_id=? OR ?)
+        """;
+    // comments deleted on their own before the post went stay archived
+    private static final String RESTORE_POST_COMMENTS = """
+            INSERT INTO comments(id, post_id, user_id, content, created_at, deleted_at, version)
+            SELECT id, post_id, user_id, content, created_at, NULL, version+1
+            FROM comments_archive WHERE post_id=? AND deleted_at IS NULL
+        """;
+    private static final String DELETE_POST_COMMENTS = "DELETE FROM comments_archive WHERE post_id=? AND deleted_at IS NULL";
+    private static final String DELETE_POST = "DELETE FROM posts_archive WHERE id=?";
+    // tags deleted since archiving are skipped
+    private static final String RESTORE_TAGS = """
+            INSERT IGNORE INTO post_tags(post_id, tag_id)
+            SELECT a.post_id, a.tag_id FROM post_tags_archive a JOIN tags t ON t.id = a.tag_id WHERE a.post_id=?
+        """;
+    private static final String DELETE_TAGS = "DELETE FROM post_tags_archive WHERE post_id=?";
+    private static final String RESTORE_COMMENT = """
+            INSERT INTO comments(id, post_id, user_id, content, created_at, deleted_at, version)
+            SELECT a.id, a.post_id, a.user_id, a.content, a.created_at, NULL, a.version+1
+            FROM comments_archive a JOIN posts p ON p.id = a.post_id AND p.deleted_at IS NULL
+            WHERE a.id=? AND (a.user_id=? OR ?)
+        """;
+    private static final String DELETE_COMMENT = "DELETE FROM comments_archive WHERE id=?";
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+
+    /** {@code shards} as from {@code DataSourceFactory.shards}: one element when sharding is off. */
+    public ArchiveRepositoryJdbc(List<DataSource> shards) {
+        for (DataSource ds : shards) this.shards.add(new JdbcTemplate(ds));
+    }
+
+    @Override
+    public Optional<Post> findPost(long id) {
+        return find(FIND_POST, id).map(Located::row);
+    }
+
+    @Override
+    public Optional<Comment> findComment(long id) {
+        return find(FIND_COMMENT, id).map(Located::row);
+    }
+
+    @Override
+    public boolean restorePost(long id, Long actorId, boolean admin) {
+        Optional<Located<Post>> archived = find(FIND_POST, id);
+        if (archived.isEmpty()) return false;
+        int s = archived.get().shard();
+        boolean restored = shards.get(s).inTransaction("Archive restorePost", con -> {
+            if (JdbcTemplate.update(con, RESTORE_POST, id, actorId, admin) == 0) return false;
+            JdbcTemplate.update(con, RESTORE_POST_COMMENTS, id);
+            JdbcTemplate.update(con, DELETE_POST_COMMENTS, id);
+            JdbcTemplate.update(con, DELETE_POST, id);
+            if (s == 0) restoreTags(con, id);
+            return true;
+        });
+        // sharded: the links live on the global shard; a failure here leaves a live post without tags
+        if (restored && s != 0) shards.get(0).inTransaction("Archive restorePost tags", con -> restoreTags(con, id));
+        return restored;
+    }
+
+    private static boolean restoreTags(Connection con, long postId) throws SQLException {
+        JdbcTemplate.update(con, RESTORE_TAGS, postId);
+        JdbcTemplate.update(con, DELETE_TAGS, postId);
+        return true;
+    }
+
+    @Override
+    public boolean restoreComment(long id, Long actorId, boolean admin) {
+        Optional<Located<Comment>> archived = find(FIND_COMMENT, id);
+        return archived.isPresent() && shards.get(archived.get().shard()).inTransaction("Archive restoreComment", con -> {
+            if (JdbcTemplate.update(con, RESTORE_COMMENT, id, actorId, admin) == 0) return false;
+            JdbcTemplate.update(con, DELETE_COMMENT, id);
+            return true;
+        });
+    }
+
+    private record Located<T>(int shard, T row) {}
+
+    private <T> Optional<Located<T>> find(SqlQuery<T> q, long id) {
+        for (int s = 0; s < shards.size(); s++) {
+            Optional<T> row = shards.get(s).queryOne(q, id);
+            if (row.isPresent()) return Optional.of(new Located<>(s, row.get()));
+        }
+        return Optional.empty();
+    }
+}
@@ -1,86 +1,187 @@
-
 package com.smartblog.infrastructure.repository.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
 import com.smartblog.core.model.Comment;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.RowMapper;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
 import com.smartblog.infrastructure.repository.api.CommentRepository;
 
 /**
  * JDBC implementation of CommentRepository for MySQL persistence.
  */
 public class CommentRepositoryJdbc implements CommentRepository {
-    private final DataSource ds;
-    public CommentRepositoryJdbc(DataSource ds) { this.ds = ds; }
+    static final String COLUMNS = "id, post_id, user_id, content, created_at, deleted_at, version";
+
+    static final RowMapper<Comment> MAPPER = rs -> {
+        Comment c = new Comment();
+        c.setId(rs.getLong(1));
+        c.setPostId(rs.getLong(2));
+        c.setUserId(rs.getLong(3));
+        c.setContent(rs.getString(4));
+        c.setCreatedAt(JdbcTemplate.getDateTime(rs, 5));
+        c.setDeletedAt(JdbcTemplate.getDateTime(rs, 6));
+        c.setVersion(rs.getLong(7));
+        return c;
+    };
+
+    private static final SqlQuery<Comment> FIND_BY_ID = SqlQuery.of("Comment findById",
+            "SELECT " + COLUMNS + " FROM comments WHERE id=? AND deleted_at IS NULL", MAPPER);
+    private static final SqlQuery<Comment> LIST_BY_POST = SqlQuery.of("Comment listByPost",
+            "SELECT " + COLUMNS + " FROM comments WHERE post_id=? AND deleted_at IS NULL ORDER BY created_at ASC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    // ROW_NUMBER numbers each post's comments newest first while walking idx_comments_post_deleted_created
+    private static final String LATEST_BY_POSTS = """
+            SELECT %s FROM (
+                SELECT %s, ROW_NUMBER() OVER (PARTITION BY post_id ORDER BY created_at DESC, id DESC) AS rn
+                FROM comments WHERE post_id IN (%s) AND deleted_at IS NULL
+            ) c WHERE rn <= ? ORDER BY post_id, rn
+        """;
+    private static final SqlQuery<Comment> STREAM_ALL = SqlQuery.of("Comment streamAll",
+            "SELECT " + COLUMNS + " FROM comments WHERE deleted_at IS NULL ORDER BY id", MAPPER);
+
+    private static final String INSERT = "INSERT INTO comments(post_id,user_id,content,created_at) VALUES(?,?,?,NOW())";
+    private static final String INSERT_WITH_ID =
+            "INSERT INTO comments(id,post_id,user_id,content,created_at) VALUES(?,?,?,?,NOW())";
+    private static final String UPDATE = "UPDATE comments SET content=?, version=version+1 WHERE id=? AND deleted_at IS NULL";
+    private static final String UPDATE_IF_PERMITTED =
+            "UPDATE comments SET content=?, version=version+1 WHERE id=? AND deleted_at IS NULL AND (user_id=? OR ?)";
+    private static final String UPDATE_IF_CURRENT =
+            "UPDATE comments SET content=?, version=version+1 WHERE id=? AND version=? AND deleted_at IS NULL AND (user_id=? OR ?)";
+    // LAST_INSERT_ID(post_id) leaves the deleted row's post in the session, read back without touching the table
+    private static final String SOFT_DELETE_IF_PERMITTED =
+            "UPDATE comments SET deleted_at=NOW(), version=version+1, post_id=LAST_INSERT_ID(post_id) "
+            + "WHERE id=? AND deleted_at IS NULL AND (user_id=? OR ?)";
+
+    private static final SqlQuery<Long> DELETED_POST_ID =
+            SqlQuery.of("Comment deleted post_id", "SELECT LAST_INSERT_ID()", rs -> rs.getLong(1));
+
+    private static final String RESTORE_IF_PERMITTED =
+            "UPDATE comments SET deleted_at=NULL, version=version+1 WHERE id=? AND deleted_at IS NOT NULL AND (user_id=? OR ?)";
+
+    private final JdbcTemplate jdbc;
+    public CommentRepositoryJdbc(DataSource ds) { this.jdbc = new JdbcTemplate(ds); }
 
     @Override
     public long create(Comment c) {
-        String sql = "INSERT INTO comments(post_id,user_id,content,created_at) VALUES(?,?,?,NOW())";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setLong(1, c.getPostId());
-            ps.setLong(2, c.getUserId());
-            ps.setString(3, c.getContent());
-            ps.executeUpdate();
-            try (var rs = ps.getGeneratedKeys()) { return rs.next() ? rs.getLong(1) : -1; }
-        } catch (SQLException e) { throw new RuntimeException("Comment create failed", e); }
+        if (c.getId() != 0) {
+            jdbc.insertAssigned("Comment create", INSERT_WITH_ID, c.getId(), c.getPostId(), c.getUserId(), c.getContent());
+            return c.getId();
+        }
+        return jdbc.insert("Comment create", INSERT, c.getPostId(), c.getUserId(), c.getContent());
     }
 
     @Override
     public Optional<Comment> findById(long id) {
-        String sql = "SELECT * FROM comments WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            try (var rs = ps.executeQuery()) { return rs.next() ? Optional.of(map(rs)) : Optional.empty(); }
-        } catch (SQLException e) { throw new RuntimeException("Comment findById failed", e); }
+        return jdbc.queryOne(FIND_BY_ID, id);
     }
 
     @Override
     public List<Comment> listByPost(long postId, int page, int size) {
-        String sql = "SELECT * FROM comments WHERE post_id=? AND deleted_at IS NULL ORDER BY created_at ASC LIMIT ? OFFSET ?";
-        int offset = Math.max(0, (page-1)*size);
-        List<Comment> list = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, postId); ps.setInt(2, size); ps.setInt(3, offset);
-            try (var rs = ps.executeQuery()) { while (rs.next()) list.add(map(rs)); }
-            return list;
-        } catch (SQLException e) { throw new RuntimeException("Comment listByPost failed", e); }
+        return jdbc.query(LIST_BY_POST, postId, size, JdbcTemplate.offset(page, size));
+    }
+
+    @Override
+    public Map<Long, List<Comment>> latestByPosts(Collection<Long> postIds, int n) {
+        if (postIds.isEmpty() || n <= 0) return Map.of();
+        var latest = SqlQuery.of("Comment latestByPosts",
+                LATEST_BY_POSTS.formatted(COLUMNS, COLUMNS, JdbcTemplate.placeholders(postIds.size())), MAPPER)
+                .withFetchSize(100);
+        Object[] params = new Object[postIds.size() + 1];
+        int i = 0;
+        for (Long id : postIds) params[i++] = id;
+        params[i] = n;
+        return byPost(jdbc.query(latest, params));
+    }
+
+    @Override
+    public Map<Long, Long> countByPosts(Collection<Long> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+        record PostCount(long postId, long count) {}
+        var counts = SqlQuery.of("Comment countByPosts", "SELECT post_id, COUNT(*) FROM comments WHERE post_id IN ("
+                + JdbcTemplate.placeholders(postIds.size()) + ") AND deleted_at IS NULL GROUP BY post_id",
+                rs -> new PostCount(rs.getLong(1), rs.getLong(2)));
+        Map<Long, Long> out = new LinkedHashMap<>();
+        for (PostCount c : jdbc.query(counts, postIds.toArray())) out.put(c.postId(), c.count());
+        return out;
+    }
+
+    /** Groups comments by post, keeping their order within each post. */
+    static Map<Long, List<Comment>> byPost(List<Comment> comments) {
+        Map<Long, List<Comment>> out = new LinkedHashMap<>();
+        for (Comment c : comments) out.computeIfAbsent(c.getPostId(), k -> new ArrayList<>()).add(c);
+        return out;
     }
 
     @Override
     public boolean update(Comment c) {
-        String sql = "UPDATE comments SET content=? WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, c.getContent()); ps.setLong(2, c.getId());
-            return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("Comment update failed", e); }
+        return jdbc.update("Comment update", UPDATE, c.getContent(), c.getId()) == 1;
     }
 
     @Override
-    public boolean softDelete(long id) {
-        String sql = "UPDATE comments SET deleted_at=NOW() WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id); return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("Comment softDelete failed", e); }
+    public boolean updateIfPermitted(Comment c, Long actorId, boolean admin) {
+        return jdbc.update("Comment updateIfPermitted", UPDATE_IF_PERMITTED, c.getContent(), c.getId(), actorId, admin) == 1;
     }
 
-    private Comment map(ResultSet rs) throws SQLException {
-        Comment c = new Comment();
-        c.setId((int) rs.getLong("id"));
-        c.setPostId((int) rs.getLong("post_id"));
-        c.setUserId((int) rs.getLong("user_id"));
-        c.setContent(rs.getString("content"));
-        Timestamp ct = rs.getTimestamp("created_at");
-        Timestamp del = rs.getTimestamp("deleted_at");
-        c.setCreatedAt(ct != null ? ct.toLocalDateTime() : null);
-        c.setDeletedAt(del != null ? del.toLocalDateTime() : null);
-        return c;
+    @Override
+    public boolean updateIfCurrent(Comment c, Long actorId, boolean admin) {
+        boolean applied = jdbc.update("Comment updateIfCurrent", UPDATE_IF_CURRENT,
+                c.getContent(), c.getId(), c.getVersion(), actorId, admin) == 1;
+        if (applied) c.setVersion(c.getVersion() + 1);
+        return applied;
+    }
+
+    @Override
+    public Optional<Long> softDeleteIfPermitted(long id, Long actorId, boolean admin) {
+        // one connection: LAST_INSERT_ID is per session
+        return jdbc.inTransaction("Comment softDeleteIfPermitted", con ->
+                JdbcTemplate.update(con, SOFT_DELETE_IF_PERMITTED, id, actorId, admin) == 1
+                        ? JdbcTemplate.query(con, DELETED_POST_ID).stream().findFirst()
+                        : Optional.<Long>empty());
+    }
+
+    @Override
+    public boolean restoreIfPermitted(long id, Long actorId, boolean admin) {
+        return jdbc.update("Comment restoreIfPermitted", RESTORE_IF_PERMITTED, id, actorId, admin) == 1;
+    }
+
+    @Override
+    public List<Long> createAll(List<Comment> comments) {
+        long assigned = comments.stream().filter(c -> c.getId() != 0).count();
+        if (assigned == comments.size() && assigned > 0) {
+            jdbc.batchUpdate("Comment createAll", INSERT_WITH_ID, comments,
+                    c -> new Object[]{c.getId(), c.getPostId(), c.getUserId(), c.getContent()});
+            return comments.stream().map(Comment::getId).toList();
+        }
+        if (assigned > 0) throw new IllegalArgumentException("Either all or none of the comments may have ids assigned");
+        List<Long> ids = jdbc.batchInsert("Comment createAll", INSERT, comments,
+                c -> new Object[]{c.getPostId(), c.getUserId(), c.getContent()});
+        for (int i = 0; i < ids.size(); i++) comments.get(i).setId(ids.get(i));
+        return ids;
+    }
+
+    @Override
+    public int updateAll(List<Comment> comments) {
+        return jdbc.batchUpdate("Comment updateAll", UPDATE, comments,
+                c -> new Object[]{c.getContent(), c.getId()});
+    }
+
+    @Override
+    public Stream<Comment> streamAll() {
+        return jdbc.stream(STREAM_ALL);
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        return jdbc.update("Comment softDelete", "UPDATE comments SET deleted_at=NOW(), version=version+1 WHERE id=? AND deleted_at IS NULL", id) == 1;
     }
 }
@@ -1,177 +1,287 @@
-
 package com.smartblog.infrastructure.repository.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
 import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.compression.ContentCodec;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.RowMapper;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
 import com.smartblog.infrastructure.repository.api.PostRepository;
 
 public class PostRepositoryJdbc implements PostRepository {
-    private final DataSource ds;
-    public PostRepositoryJdbc(DataSource ds) { this.ds = ds; }
+    static final String COLUMNS = "id, author_id, title, content, published, created_at, updated_at, deleted_at, version, "
+            + "content_format, content_compressed";
+    static final String P_COLUMNS =
+            "p.id, p.author_id, p.title, p.content, p.published, p.created_at, p.updated_at, p.deleted_at, p.version, "
+                    + "p.content_format, p.content_compressed";
+
+    static final RowMapper<Post> MAPPER = rs -> {
+        Post p = new Post();
+        p.setId(rs.getLong(1));
+        p.setAuthorId(rs.getLong(2));
+        p.setTitle(rs.getString(3));
+        p.setContent(ContentCodec.decode(rs.getInt(10), rs.getString(4), rs.getBytes(11)));
+        p.setPublished(rs.getBoolean(5));
+        p.setCreatedAt(JdbcTemplate.getDateTime(rs, 6));
+        p.setUpdatedAt(JdbcTemplate.getDateTime(rs, 7));
+        p.setDeletedAt(JdbcTemplate.getDateTime(rs, 8));
+        p.setVersion(rs.getLong(9));
+        return p;
+    };
+
+    private static final String INSERT = """
+            INSERT INTO posts(author_id,title,content,content_format,content_compressed,published,created_at,updated_at)
+            VALUES (?,?,?,?,?,?,NOW(),NULL)
+        """;
+    private static final String INSERT_WITH_ID = """
+            INSERT INTO posts(id,author_id,title,content,content_format,content_compressed,published,created_at,updated_at)
+            VALUES (?,?,?,?,?,?,?,NOW(),NULL)
+        """;
+    private static final String UPDATE = """
+            UPDATE posts SET author_id=?, title=?, content=?, content_format=?, content_compressed=?, published=?,
+                updated_at=NOW(), version=version+1
+            WHERE id=? AND deleted_at IS NULL
+        """;
+    private static final String SOFT_DELETE =
+            "UPDATE posts SET deleted_at=NOW(), version=version+1 WHERE id=? AND deleted_at IS NULL";
+    // ownership travels in the WHERE clause: no read before the write, no window between check and update
+    private static final String UPDATE_IF_PERMITTED = """
+            UPDATE posts SET title=?, content=?, content_format=?, content_compressed=?, published=?,
+                updated_at=NOW(), version=version+1
+            WHERE id=? AND deleted_at IS NULL AND (author_id=? OR ?)
+        """;
+    // compare-and-set: applies only to the version the editor read
+    private static final String UPDATE_IF_CURRENT = """
+            UPDATE posts SET title=?, content=?, content_format=?, content_compressed=?, published=?,
+                updated_at=NOW(), version=version+1
+            WHERE id=? AND version=? AND deleted_at IS NULL AND (author_id=? OR ?)
+        """;
+    private static final String SOFT_DELETE_IF_PERMITTED =
+            "UPDATE posts SET deleted_at=NOW(), version=version+1 WHERE id=? AND deleted_at IS NULL AND (author_id=? OR ?)";
+    private static final String RESTORE_IF_PERMITTED =
+            "UPDATE posts SET deleted_at=NULL, version=version+1 WHERE id=? AND deleted_at IS NOT NULL AND (author_id=? OR ?)";
+    private static final String PUBLISH =
+            "UPDATE posts SET published=TRUE, updated_at=NOW(), version=version+1 WHERE id=? AND deleted_at IS NULL";
+    private static final String PUBLISH_IF_CURRENT = """
+            UPDATE posts SET published=TRUE, updated_at=NOW(), version=version+1
+            WHERE id=? AND version=? AND deleted_at IS NULL
+        """;
+
+    private static final SqlQuery<Post> FIND_BY_ID = SqlQuery.of("Post findById",
+            "SELECT " + COLUMNS + " FROM posts WHERE id=? AND deleted_at IS NULL", MAPPER);
+    private static final SqlQuery<Post> LIST = SqlQuery.of("Post list",
+            "SELECT " + COLUMNS + " FROM posts WHERE deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<Post> LIST_BY_STATUS = SqlQuery.of("Post listByStatus",
+            "SELECT " + COLUMNS + " FROM posts WHERE published=? AND deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<Post> SEARCH = SqlQuery.of("Post search", """
+            SELECT %s FROM posts
+            WHERE MATCH(title, content) AGAINST(? IN NATURAL LANGUAGE MODE)
+            AND deleted_at IS NULL
+            ORDER BY created_at DESC
+            LIMIT ? OFFSET ?
+        """.formatted(COLUMNS), MAPPER).withFetchSize(100);
+    private static final SqlQuery<Post> SEARCH_BY_STATUS = SqlQuery.of("Post searchByStatus", """
+            SELECT %s FROM posts
+            WHERE MATCH(title, content) AGAINST(? IN NATURAL LANGUAGE MODE)
+            AND published=? AND deleted_at IS NULL
+            ORDER BY created_at DESC
+            LIMIT ? OFFSET ?
+        """.formatted(COLUMNS), MAPPER).withFetchSize(100);
+    private static final SqlQuery<Post> LIST_BY_AUTHOR = SqlQuery.of("Post listByAuthor",
+            "SELECT " + COLUMNS + " FROM posts WHERE author_id=? AND deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    // an author's posts are few: the author index narrows to them and published is checked per row
+    private static final SqlQuery<Post> LIST_BY_AUTHOR_AND_STATUS = SqlQuery.of("Post listByAuthorAndStatus",
+            "SELECT " + COLUMNS + " FROM posts WHERE author_id=? AND published=? AND deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<Long> COUNT_BY_AUTHOR = SqlQuery.of("Post countByAuthor",
+            "SELECT COUNT(*) FROM posts WHERE author_id=? AND deleted_at IS NULL", rs -> rs.getLong(1));
+    private static final SqlQuery<Long> COUNT_BY_AUTHOR_AND_STATUS = SqlQuery.of("Post countByAuthorAndStatus",
+            "SELECT COUNT(*) FROM posts WHERE author_id=? AND published=? AND deleted_at IS NULL", rs -> rs.getLong(1));
+    private static final SqlQuery<Post> SEARCH_BY_TAG = SqlQuery.of("Post searchByTag", """
+            SELECT DISTINCT %s FROM posts p
+            JOIN post_tags pt ON p.id = pt.post_id
+            JOIN tags t ON pt.tag_id = t.id
+            WHERE t.name = ? AND p.deleted_at IS NULL
+            ORDER BY p.created_at DESC
+            LIMIT ? OFFSET ?
+        """.formatted(P_COLUMNS), MAPPER).withFetchSize(100);
+    private static final SqlQuery<Post> SEARCH_BY_AUTHOR_NAME = SqlQuery.of("Post searchByAuthorName", """
+            SELECT %s FROM posts p
+            JOIN users u ON p.author_id = u.id
+            WHERE u.username LIKE ? AND p.deleted_at IS NULL
+            ORDER BY p.created_at DESC
+            LIMIT ? OFFSET ?
+        """.formatted(P_COLUMNS), MAPPER).withFetchSize(100);
+    // InnoDB's row estimate; information_schema caches it (information_schema_stats_expiry), so it lags
+    static final SqlQuery<Long> TABLE_ROWS = SqlQuery.of("Post tableRows",
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'posts'",
+            rs -> rs.getLong(1));
+    private static final SqlQuery<Post> STREAM_ALL = SqlQuery.of("Post streamAll",
+            "SELECT " + COLUMNS + " FROM posts WHERE deleted_at IS NULL ORDER BY id", MAPPER);
+
+    private final JdbcTemplate jdbc;
+
+    public PostRepositoryJdbc(DataSource ds) { this.jdbc = new JdbcTemplate(ds); }
 
     @Override
     public long create(Post p) {
-        String sql = """
-            INSERT INTO posts(author_id,title,content,published,created_at,updated_at)
-            VALUES (?,?,?,?,NOW(),NULL)
-        """;
-        try (var con = ds.getConnection();
-             var ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setLong(1, p.getAuthorId());
-            ps.setString(2, p.getTitle());
-            ps.setString(3, p.getContent());
-            ps.setBoolean(4, p.isPublished());
-            ps.executeUpdate();
-            try (var rs = ps.getGeneratedKeys()) { return rs.next() ? rs.getLong(1) : -1; }
-        } catch (SQLException e) { throw new RuntimeException("Post create failed", e); }
+        var body = ContentCodec.encodeForStorage(p.getContent());
+        if (p.getId() != null) {
+            jdbc.insertAssigned("Post create", INSERT_WITH_ID, p.getId(), p.getAuthorId(), p.getTitle(),
+                    body.text(), body.format(), body.compressed(), p.isPublished());
+            return p.getId();
+        }
+        return jdbc.insert("Post create", INSERT, p.getAuthorId(), p.getTitle(),
+                body.text(), body.format(), body.compressed(), p.isPublished());
     }
 
     @Override
     public Optional<Post> findById(long id) {
-        String sql = "SELECT * FROM posts WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            try (var rs = ps.executeQuery()) { return rs.next() ? Optional.of(map(rs)) : Optional.empty(); }
-        } catch (SQLException e) { throw new RuntimeException("Post findById failed", e); }
+        return jdbc.queryOne(FIND_BY_ID, id);
     }
 
     @Override
-    public List<Post> list(int page, int size) {
-        String sql = "SELECT * FROM posts WHERE deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        int offset = Math.max(0, (page-1)*size);
-        List<Post> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setInt(1, size); ps.setInt(2, offset);
-            try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Post list failed", e); }
+    public List<Post> list(PostStatus status, int page, int size) {
+        int offset = JdbcTemplate.offset(page, size);
+        return status == PostStatus.ANY
+                ? jdbc.query(LIST, size, offset)
+                : jdbc.query(LIST_BY_STATUS, status == PostStatus.PUBLISHED, size, offset);
     }
 
     @Override
-    public List<Post> search(String keyword, int page, int size) {
-        String sql = """
-        SELECT * FROM posts
-        WHERE MATCH(title, content) AGAINST(? IN NATURAL LANGUAGE MODE)
-        AND deleted_at IS NULL
-        ORDER BY created_at DESC
-        LIMIT ? OFFSET ?
-    """;
-        int offset = Math.max(0, (page-1)*size);
-        List<Post> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, keyword); ps.setInt(2, size); ps.setInt(3, offset);
-            try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Post search failed", e); }
+    public List<Post> search(String keyword, PostStatus status, int page, int size) {
+        int offset = JdbcTemplate.offset(page, size);
+        return status == PostStatus.ANY
+                ? jdbc.query(SEARCH, keyword, size, offset)
+                : jdbc.query(SEARCH_BY_STATUS, keyword, status == PostStatus.PUBLISHED, size, offset);
     }
 
     @Override
-    public List<Post> listByAuthor(long authorId, int page, int size) {
-        String sql = "SELECT * FROM posts WHERE author_id=? AND deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        int offset = Math.max(0, (page-1)*size);
-        List<Post> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, authorId); ps.setInt(2, size); ps.setInt(3, offset);
-            try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Post listByAuthor failed", e); }
+    public List<Post> listByAuthor(long authorId, PostStatus status, int page, int size) {
+        int offset = JdbcTemplate.offset(page, size);
+        return status == PostStatus.ANY
+                ? jdbc.query(LIST_BY_AUTHOR, authorId, size, offset)
+                : jdbc.query(LIST_BY_AUTHOR_AND_STATUS, authorId, status == PostStatus.PUBLISHED, size, offset);
+    }
+
+    @Override
+    public long countByAuthor(long authorId, PostStatus status) {
+        return (status == PostStatus.ANY
+                ? jdbc.queryOne(COUNT_BY_AUTHOR, authorId)
+                : jdbc.queryOne(COUNT_BY_AUTHOR_AND_STATUS, authorId, status == PostStatus.PUBLISHED)).orElse(0L);
     }
 
     @Override
     public boolean update(Post p) {
-        String sql = """
-            UPDATE posts SET author_id=?, title=?, content=?, published=?, updated_at=NOW()
-            WHERE id=? AND deleted_at IS NULL
-        """;
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, p.getAuthorId());
-            ps.setString(2, p.getTitle());
-            ps.setString(3, p.getContent());
-            ps.setBoolean(4, p.isPublished());
-            ps.setLong(5, p.getId());
-            return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("Post update failed", e); }
+        var body = ContentCodec.encodeForStorage(p.getContent());
+        return jdbc.update("Post update", UPDATE, p.getAuthorId(), p.getTitle(),
+                body.text(), body.format(), body.compressed(), p.isPublished(), p.getId()) == 1;
+    }
+
+    @Override
+    public boolean updateIfPermitted(Post p, Long actorId, boolean admin) {
+        var body = ContentCodec.encodeForStorage(p.getContent());
+        return jdbc.update("Post updateIfPermitted", UPDATE_IF_PERMITTED, p.getTitle(),
+                body.text(), body.format(), body.compressed(), p.isPublished(), p.getId(), actorId, admin) == 1;
+    }
+
+    @Override
+    public boolean updateIfCurrent(Post p, Long actorId, boolean admin) {
+        var body = ContentCodec.encodeForStorage(p.getContent());
+        boolean applied = jdbc.update("Post updateIfCurrent", UPDATE_IF_CURRENT, p.getTitle(),
+                body.text(), body.format(), body.compressed(), p.isPublished(), p.getId(), p.getVersion(), actorId, admin) == 1;
+        if (applied) p.setVersion(p.getVersion() + 1);
+        return applied;
+    }
+
+    @Override
+    public boolean softDeleteIfPermitted(long id, Long actorId, boolean admin) {
+        return jdbc.update("Post softDeleteIfPermitted", SOFT_DELETE_IF_PERMITTED, id, actorId, admin) == 1;
+    }
+
+    @Override
+    public boolean restoreIfPermitted(long id, Long actorId, boolean admin) {
+        return jdbc.update("Post restoreIfPermitted", RESTORE_IF_PERMITTED, id, actorId, admin) == 1;
+    }
+
+    @Override
+    public boolean publish(long id) {
+        return jdbc.update("Post publish", PUBLISH, id) == 1;
+    }
+
+    @Override
+    public boolean publishIfCurrent(long id, long version) {
+        return jdbc.update("Post publishIfCurrent", PUBLISH_IF_CURRENT, id, version) == 1;
+    }
+
+    @Override
+    public List<Long> createAll(List<Post> posts) {
+        long assigned = posts.stream().filter(p -> p.getId() != null).count();
+        if (assigned == posts.size() && assigned > 0) {
+            jdbc.batchUpdate("Post createAll", INSERT_WITH_ID, posts,
+                    p -> {
+                        var body = ContentCodec.encodeForStorage(p.getContent());
+                        return new Object[]{p.getId(), p.getAuthorId(), p.getTitle(),
+                                body.text(), body.format(), body.compressed(), p.isPublished()};
+                    });
+            return posts.stream().map(Post::getId).toList();
+        }
+        if (assigned > 0) throw new IllegalArgumentException("Either all or none of the posts may have ids assigned");
+        List<Long> ids = jdbc.batchInsert("Post createAll", INSERT, posts,
+                p -> {
+                    var body = ContentCodec.encodeForStorage(p.getContent());
+                    return new Object[]{p.getAuthorId(), p.getTitle(), body.text(), body.format(), body.compressed(), p.isPublished()};
+                });
+        for (int i = 0; i < ids.size(); i++) posts.get(i).setId(ids.get(i));
+        return ids;
+    }
+
+    @Override
+    public int updateAll(List<Post> posts) {
+        return jdbc.batchUpdate("Post updateAll", UPDATE, posts,
+                p -> {
+                    var body = ContentCodec.encodeForStorage(p.getContent());
+                    return new Object[]{p.getAuthorId(), p.getTitle(),
+                            body.text(), body.format(), body.compressed(), p.isPublished(), p.getId()};
+                });
     }
 
     @Override
     public boolean softDelete(long id) {
-        String sql = "UPDATE posts SET deleted_at=NOW() WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id); return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("Post softDelete failed", e); }
+        return jdbc.update("Post softDelete", SOFT_DELETE, id) == 1;
     }
 
     @Override
     public List<Post> searchByTag(String tag, int page, int size) {
-        String sql = """
-        SELECT DISTINCT p.* FROM posts p
-        JOIN post_tags pt ON p.id = pt.post_id
-        JOIN tags t ON pt.tag_id = t.id
-        WHERE t.name = ? AND p.deleted_at IS NULL
-        ORDER BY p.created_at DESC
-        LIMIT ? OFFSET ?
-    """;
-        int offset = Math.max(0, (page-1)*size);
-        List<Post> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, tag); ps.setInt(2, size); ps.setInt(3, offset);
-            try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Post searchByTag failed", e); }
+        return jdbc.query(SEARCH_BY_TAG, tag, size, JdbcTemplate.offset(page, size));
     }
 
     @Override
     public List<Post> searchByAuthorName(String authorName, int page, int size) {
-        String sql = """
-        SELECT p.* FROM posts p
-        JOIN users u ON p.author_id = u.id
-        WHERE u.username LIKE ? AND p.deleted_at IS NULL
-        ORDER BY p.created_at DESC
-        LIMIT ? OFFSET ?
-    """;
-        int offset = Math.max(0, (page-1)*size);
-        List<Post> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, "%" + authorName + "%"); ps.setInt(2, size); ps.setInt(3, offset);
-            try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Post searchByAuthorName failed", e); }
-    }
-
-    @Override
-    public List<Post> searchCombined(String keyword, String tag, String authorName, String sortBy, int page, int size) {
-        StringBuilder sql = new StringBuilder("SELECT DISTINCT p.* FROM posts p ");
-        sql.append("JOIN users u ON p.author_id = u.id ");
-
-        if (tag != null && !tag.isBlank()) {
-            sql.append("JOIN post_tags pt ON p.id = pt.post_id ");
-            sql.append("JOIN tags t ON pt.tag_id = t.id ");
-        }
-
-        sql.append("WHERE p.deleted_at IS NULL ");
+        return jdbc.query(SEARCH_BY_AUTHOR_NAME, "%" + authorName + "%", size, JdbcTemplate.offset(page, size));
+    }
 
-        boolean hasKeyword = keyword != null && !keyword.isBlank();
-        boolean hasTag = tag != null && !tag.isBlank();
-        boolean hasAuthor = authorName != null && !authorName.isBlank();
+    @Override
+    public Stream<Post> streamAll() {
+        return jdbc.stream(STREAM_ALL);
+    }
 
-        if (hasKeyword) {
-            sql.append("AND (p.title LIKE ? OR p.content LIKE ?) ");
-        }
-        if (hasTag) {
-            sql.append("AND t.name = ? ");
-        }
-        if (hasAuthor) {
-            sql.append("AND u.username LIKE ? ");
-        }
+    @Override
+    public List<Post> searchCombined(String keyword, String tag, String authorName, PostStatus status, String sortBy,
+                                     int page, int size) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT DISTINCT ").append(P_COLUMNS)
+                .append(combinedFrom(keyword, tag, authorName, status, params));
 
         // Sorting
         switch (sortBy != null ? sortBy : "date_desc") {
@@ -183,46 +293,66 @@ public class PostRepositoryJdbc implements PostRepository {
         }
 
         sql.append("LIMIT ? OFFSET ?");
+        params.add(size);
+        params.add(JdbcTemplate.offset(page, size));
 
-        int offset = Math.max(0, (page-1)*size);
-        List<Post> out = new ArrayList<>();
-
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql.toString())) {
-            int paramIndex = 1;
-
-            if (hasKeyword) {
-                ps.setString(paramIndex++, "%" + keyword + "%");
-                ps.setString(paramIndex++, "%" + keyword + "%");
-            }
-            if (hasTag) {
-                ps.setString(paramIndex++, tag);
-            }
-            if (hasAuthor) {
-                ps.setString(paramIndex++, "%" + authorName + "%");
-            }
+        var query = SqlQuery.of("Post searchCombined", sql.toString(), MAPPER).withFetchSize(size);
+        return jdbc.query(query, params.toArray());
+    }
 
-            ps.setInt(paramIndex++, size);
-            ps.setInt(paramIndex, offset);
+    @Override
+    public long countCombined(String keyword, String tag, String authorName, PostStatus status, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM (SELECT DISTINCT p.id " + combinedFrom(keyword, tag, authorName, status, params)
+                + "LIMIT ?) c";
+        params.add(limit);
+        return jdbc.queryOne(SqlQuery.of("Post countCombined", sql, rs -> rs.getLong(1)), params.toArray()).orElse(0L);
+    }
 
-            try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Post searchCombined failed", e); }
+    /**
+     * Unfiltered, InnoDB's table row estimate. Filtered, the optimizer's estimate for the count query:
+     * the product over the plan of rows examined times the fraction expected to pass the conditions.
+     */
+    @Override
+    public long estimateCombined(String keyword, String tag, String authorName, PostStatus status) {
+        List<Object> params = new ArrayList<>();
+        String from = combinedFrom(keyword, tag, authorName, status, params);
+        if (params.isEmpty()) return jdbc.queryOne(TABLE_ROWS).orElse(0L);
+        var plan = SqlQuery.of("Post estimateCombined", "EXPLAIN SELECT DISTINCT p.id " + from,
+                rs -> rs.getLong("rows") * rs.getDouble("filtered") / 100);
+        double estimate = 1;
+        for (double rows : jdbc.query(plan, params.toArray())) estimate *= rows;
+        return Math.round(estimate);
     }
 
-    private Post map(ResultSet rs) throws SQLException {
-        Post p = new Post();
-        p.setId(rs.getLong("id"));
-        p.setAuthorId(rs.getLong("author_id"));
-        p.setTitle(rs.getString("title"));
-        p.setContent(rs.getString("content"));
-        p.setPublished(rs.getBoolean("published"));
-        Timestamp c = rs.getTimestamp("created_at");
-        Timestamp u = rs.getTimestamp("updated_at");
-        Timestamp d = rs.getTimestamp("deleted_at");
-        p.setCreatedAt(c != null ? c.toLocalDateTime() : null);
-        p.setUpdatedAt(u != null ? u.toLocalDateTime() : null);
-        p.setDeletedAt(d != null ? d.toLocalDateTime() : null);
-        return p;
+    /** FROM and WHERE shared by searchCombined and its counts; adds the parameters to {@code params}. */
+    private static String combinedFrom(String keyword, String tag, String authorName, PostStatus status,
+                                       List<Object> params) {
+        StringBuilder sql = new StringBuilder(" FROM posts p JOIN users u ON p.author_id = u.id ");
+        boolean hasTag = tag != null && !tag.isBlank();
+        if (hasTag) {
+            sql.append("JOIN post_tags pt ON p.id = pt.post_id ");
+            sql.append("JOIN tags t ON pt.tag_id = t.id ");
+        }
+        sql.append("WHERE p.deleted_at IS NULL ");
+        if (status != PostStatus.ANY) {
+            sql.append("AND p.published = ? ");
+            params.add(status == PostStatus.PUBLISHED);
+        }
+        if (keyword != null && !keyword.isBlank()) {
+            // matches every body: rows are only stored compressed while post_view serves the searches (ContentCodec)
+            sql.append("AND (p.title LIKE ? OR p.content LIKE ?) ");
+            params.add("%" + keyword + "%");
+            params.add("%" + keyword + "%");
+        }
+        if (hasTag) {
+            sql.append("AND t.name = ? ");
+            params.add(tag);
+        }
+        if (authorName != null && !authorName.isBlank()) {
+            sql.append("AND u.username LIKE ? ");
+            params.add("%" + authorName + "%");
+        }
+        return sql.toString();
     }
 }
-
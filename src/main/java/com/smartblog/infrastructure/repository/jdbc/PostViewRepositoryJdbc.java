@@ -0,0 +1,297 @@
+package com.smartblog.infrastructure.repository.jdbc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.core.model.PostView;
+import com.smartblog.infrastructure.compression.ContentCodec;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.Json;
+import com.smartblog.infrastructure.jdbc.RowMapper;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.repository.api.PostViewRepository;
+
+/**
+ * JDBC implementation of the post_view read model. Sharded, it runs on the global shard, so list
+ * screens read one table on one database instead of scattering over the post shards.
+ */
+public class PostViewRepositoryJdbc implements PostViewRepository {
+    // content_text is only searched, never read back
+    static final String COLUMNS = "post_id, author_id, author_username, title, content, excerpt, tag_names, "
+            + "comment_count, published, created_at, updated_at, content_format, content_compressed";
+
+    static final RowMapper<PostView> MAPPER = rs -> new PostView(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getString(3),
+            rs.getString(4),
+            ContentCodec.decode(rs.getInt(12), rs.getString(5), rs.getBytes(13)),
+            rs.getString(6),
+            fromJson(rs.getString(7)),
+            rs.getLong(8),
+            rs.getBoolean(9),
+            JdbcTemplate.getDateTime(rs, 10),
+            JdbcTemplate.getDateTime(rs, 11));
+
+    private static final String UPSERT = """
+            INSERT INTO post_view(post_id, author_id, author_username, title, content, content_format, content_compressed,
+                                  content_text, excerpt, tag_names, comment_count, published, created_at, updated_at,
+                                  refreshed_at)
+            VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,NOW(6))
+            ON DUPLICATE KEY UPDATE author_id=VALUES(author_id), author_username=VALUES(author_username),
+                title=VALUES(title), content=VALUES(content), content_format=VALUES(content_format),
+                content_compressed=VALUES(content_compressed), content_text=VALUES(content_text),
+                excerpt=VALUES(excerpt), tag_names=VALUES(tag_names),
+                comment_count=VALUES(comment_count), published=VALUES(published), created_at=VALUES(created_at),
+                updated_at=VALUES(updated_at), refreshed_at=VALUES(refreshed_at)
+        """;
+    private static final String DELETE = "DELETE FROM post_view WHERE post_id=?";
+    private static final String UPDATE_COMMENT_COUNT =
+            "UPDATE post_view SET comment_count=?, refreshed_at=NOW(6) WHERE post_id=?";
+    // updated_at=NOW() as the post's own UPDATE sets it
+    private static final String UPDATE_CONTENT = """
+            UPDATE post_view SET title=?, content=?, content_format=?, content_compressed=?, content_text=?, excerpt=?,
+                published=?, updated_at=NOW(), refreshed_at=NOW(6)
+            WHERE post_id=?
+        """;
+    private static final String MARK_PUBLISHED =
+            "UPDATE post_view SET published=TRUE, updated_at=NOW(), refreshed_at=NOW(6) WHERE post_id=?";
+    private static final String UPDATE_TAGS = "UPDATE post_view SET tag_names=?, refreshed_at=NOW(6) WHERE post_id=?";
+    // JSON_SEARCH takes LIKE patterns, hence the escaped name; MEMBER OF narrows to the rows on the tag index.
+    // tag_keys is generated from tag_names (V12), so it follows these updates.
+    private static final String RENAME_TAG = """
+            UPDATE post_view SET tag_names=JSON_REPLACE(tag_names, JSON_UNQUOTE(JSON_SEARCH(tag_names, 'one', ?)), ?)
+            WHERE LOWER(?) MEMBER OF(tag_keys->'$')
+        """;
+    private static final String REMOVE_TAG = """
+            UPDATE post_view SET tag_names=JSON_REMOVE(tag_names, JSON_UNQUOTE(JSON_SEARCH(tag_names, 'one', ?)))
+            WHERE LOWER(?) MEMBER OF(tag_keys->'$')
+        """;
+    private static final String DELETE_REFRESHED_BEFORE = "DELETE FROM post_view WHERE refreshed_at < ?";
+
+    private static final SqlQuery<PostView> FIND_BY_ID = SqlQuery.of("PostView findById",
+            "SELECT " + COLUMNS + " FROM post_view WHERE post_id=?", MAPPER);
+    private static final SqlQuery<PostView> LIST = SqlQuery.of("PostView list",
+            "SELECT " + COLUMNS + " FROM post_view ORDER BY created_at DESC LIMIT ? OFFSET ?", MAPPER).withFetchSize(100);
+    private static final SqlQuery<PostView> LIST_BY_STATUS = SqlQuery.of("PostView listByStatus",
+            "SELECT " + COLUMNS + " FROM post_view WHERE published=? ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<PostView> SEARCH = SqlQuery.of("PostView search", """
+            SELECT %s FROM post_view
+            WHERE MATCH(title, content_text) AGAINST(? IN NATURAL LANGUAGE MODE)
+            ORDER BY created_at DESC
+            LIMIT ? OFFSET ?
+        """.formatted(COLUMNS), MAPPER).withFetchSize(100);
+    private static final SqlQuery<PostView> SEARCH_BY_STATUS = SqlQuery.of("PostView searchByStatus", """
+            SELECT %s FROM post_view
+            WHERE MATCH(title, content_text) AGAINST(? IN NATURAL LANGUAGE MODE) AND published=?
+            ORDER BY created_at DESC
+            LIMIT ? OFFSET ?
+        """.formatted(COLUMNS), MAPPER).withFetchSize(100);
+    private static final SqlQuery<PostView> LIST_BY_AUTHOR = SqlQuery.of("PostView listByAuthor",
+            "SELECT " + COLUMNS + " FROM post_view WHERE author_id=? ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<PostView> LIST_BY_AUTHOR_AND_STATUS = SqlQuery.of("PostView listByAuthorAndStatus",
+            "SELECT " + COLUMNS + " FROM post_view WHERE author_id=? AND published=? ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    // tags match whatever their case, as tags.name does on the join path
+    private static final SqlQuery<PostView> SEARCH_BY_TAG = SqlQuery.of("PostView searchByTag",
+            "SELECT " + COLUMNS + " FROM post_view WHERE LOWER(?) MEMBER OF(tag_keys->'$') ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<PostView> SEARCH_BY_AUTHOR_NAME = SqlQuery.of("PostView searchByAuthorName",
+            "SELECT " + COLUMNS + " FROM post_view WHERE author_username LIKE ? ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+    private static final SqlQuery<Long> TABLE_ROWS = SqlQuery.of("PostView tableRows",
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'post_view'",
+            rs -> rs.getLong(1));
+    private static final SqlQuery<LocalDateTime> NOW = SqlQuery.of("PostView now", "SELECT NOW(6)",
+            rs -> JdbcTemplate.getDateTime(rs, 1));
+
+    private final JdbcTemplate jdbc;
+
+    public PostViewRepositoryJdbc(DataSource ds) { this.jdbc = new JdbcTemplate(ds); }
+
+    @Override
+    public Optional<PostView> findById(long postId) {
+        return jdbc.queryOne(FIND_BY_ID, postId);
+    }
+
+    @Override
+    public List<PostView> list(PostStatus status, int page, int size) {
+        int offset = JdbcTemplate.offset(page, size);
+        return status == PostStatus.ANY
+                ? jdbc.query(LIST, size, offset)
+                : jdbc.query(LIST_BY_STATUS, status == PostStatus.PUBLISHED, size, offset);
+    }
+
+    @Override
+    public List<PostView> search(String keyword, PostStatus status, int page, int size) {
+        int offset = JdbcTemplate.offset(page, size);
+        return status == PostStatus.ANY
+                ? jdbc.query(SEARCH, keyword, size, offset)
+                : jdbc.query(SEARCH_BY_STATUS, keyword, status == PostStatus.PUBLISHED, size, offset);
+    }
+
+    @Override
+    public List<PostView> listByAuthor(long authorId, PostStatus status, int page, int size) {
+        int offset = JdbcTemplate.offset(page, size);
+        return status == PostStatus.ANY
+                ? jdbc.query(LIST_BY_AUTHOR, authorId, size, offset)
+                : jdbc.query(LIST_BY_AUTHOR_AND_STATUS, authorId, status == PostStatus.PUBLISHED, size, offset);
+    }
+
+    @Override
+    public List<PostView> searchByTag(String tag, int page, int size) {
+        return jdbc.query(SEARCH_BY_TAG, tag, size, JdbcTemplate.offset(page, size));
+    }
+
+    @Override
+    public List<PostView> searchByAuthorName(String authorName, int page, int size) {
+        return jdbc.query(SEARCH_BY_AUTHOR_NAME, "%" + authorName + "%", size, JdbcTemplate.offset(page, size));
+    }
+
+    /** Same filters and sort orders as {@code PostRepositoryJdbc.searchCombined}, on one table and without DISTINCT. */
+    @Override
+    public List<PostView> searchCombined(String keyword, String tag, String authorName, PostStatus status, String sortBy,
+                                         int page, int size) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                .append(combinedFrom(keyword, tag, authorName, status, params));
+
+        switch (sortBy != null ? sortBy : "date_desc") {
+            case "date_asc" -> sql.append("ORDER BY created_at ASC ");
+            case "title_asc" -> sql.append("ORDER BY title ASC ");
+            case "title_desc" -> sql.append("ORDER BY title DESC ");
+            case "author" -> sql.append("ORDER BY author_username ASC ");
+            default -> sql.append("ORDER BY created_at DESC ");
+        }
+
+        sql.append("LIMIT ? OFFSET ?");
+        params.add(size);
+        params.add(JdbcTemplate.offset(page, size));
+
+        var query = SqlQuery.of("PostView searchCombined", sql.toString(), MAPPER).withFetchSize(size);
+        return jdbc.query(query, params.toArray());
+    }
+
+    @Override
+    public long countCombined(String keyword, String tag, String authorName, PostStatus status, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM (SELECT post_id " + combinedFrom(keyword, tag, authorName, status, params)
+                + "LIMIT ?) c";
+        params.add(limit);
+        return jdbc.queryOne(SqlQuery.of("PostView countCombined", sql, rs -> rs.getLong(1)), params.toArray()).orElse(0L);
+    }
+
+    /** Unfiltered, InnoDB's table row estimate; filtered, the optimizer's, as in {@code PostRepositoryJdbc}. */
+    @Override
+    public long estimateCombined(String keyword, String tag, String authorName, PostStatus status) {
+        List<Object> params = new ArrayList<>();
+        String from = combinedFrom(keyword, tag, authorName, status, params);
+        if (params.isEmpty()) return jdbc.queryOne(TABLE_ROWS).orElse(0L);
+        var plan = SqlQuery.of("PostView estimateCombined", "EXPLAIN SELECT post_id " + from,
+                rs -> rs.getLong("rows") * rs.getDouble("filtered") / 100);
+        double estimate = 1;
+        for (double rows : jdbc.query(plan, params.toArray())) estimate *= rows;
+        return Math.round(estimate);
+    }
+
+    /** FROM and WHERE shared by searchCombined and its counts; adds the parameters to {@code params}. */
+    private static String combinedFrom(String keyword, String tag, String authorName, PostStatus status,
+                                       List<Object> params) {
+        StringBuilder sql = new StringBuilder(" FROM post_view WHERE TRUE ");
+        if (status != PostStatus.ANY) {
+            sql.append("AND published = ? ");
+            params.add(status == PostStatus.PUBLISHED);
+        }
+        if (keyword != null && !keyword.isBlank()) {
+            sql.append("AND (title LIKE ? OR content_text LIKE ?) ");
+            params.add("%" + keyword + "%");
+            params.add("%" + keyword + "%");
+        }
+        if (tag != null && !tag.isBlank()) {
+            sql.append("AND LOWER(?) MEMBER OF(tag_keys->'$') ");
+            params.add(tag);
+        }
+        if (authorName != null && !authorName.isBlank()) {
+            sql.append("AND author_username LIKE ? ");
+            params.add("%" + authorName + "%");
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public void upsertAll(List<PostView> views) {
+        if (views.isEmpty()) return;
+        jdbc.batchUpdate("PostView upsertAll", UPSERT, views, v -> {
+            var body = ContentCodec.encodeForStorage(v.content());
+            return new Object[]{v.postId(), v.authorId(), v.authorUsername(), v.title(), body.text(), body.format(),
+                    body.compressed(), PostView.text(v.content()), v.excerpt(), toJson(v.tagNames()), v.commentCount(),
+                    v.published(), v.createdAt(), v.updatedAt()};
+        });
+    }
+
+    @Override
+    public boolean delete(long postId) {
+        return jdbc.update("PostView delete", DELETE, postId) == 1;
+    }
+
+    @Override
+    public boolean updateCommentCount(long postId, long count) {
+        return jdbc.update("PostView updateCommentCount", UPDATE_COMMENT_COUNT, count, postId) == 1;
+    }
+
+    @Override
+    public boolean updateContent(long postId, String title, String content, boolean published) {
+        var body = ContentCodec.encodeForStorage(content);
+        return jdbc.update("PostView updateContent", UPDATE_CONTENT, title, body.text(), body.format(), body.compressed(),
+                PostView.text(content), PostView.excerpt(content), published, postId) == 1;
+    }
+
+    @Override
+    public boolean markPublished(long postId) {
+        return jdbc.update("PostView markPublished", MARK_PUBLISHED, postId) == 1;
+    }
+
+    @Override
+    public boolean updateTags(long postId, List<String> tagNames) {
+        return jdbc.update("PostView updateTags", UPDATE_TAGS, toJson(tagNames), postId) == 1;
+    }
+
+    @Override
+    public int renameTag(String oldName, String newName) {
+        return jdbc.update("PostView renameTag", RENAME_TAG, likeEscaped(oldName), newName, oldName);
+    }
+
+    @Override
+    public int removeTag(String name) {
+        return jdbc.update("PostView removeTag", REMOVE_TAG, likeEscaped(name), name);
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return jdbc.queryOne(NOW).orElseThrow();
+    }
+
+    @Override
+    public int deleteRefreshedBefore(LocalDateTime time) {
+        return jdbc.update("PostView deleteRefreshedBefore", DELETE_REFRESHED_BEFORE, time);
+    }
+
+    private static String likeEscaped(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    static String toJson(List<String> names) {
+        return Json.stringArray(names);
+    }
+
+    static List<String> fromJson(String json) {
+        return Json.parseStringArray(json);
+    }
+}
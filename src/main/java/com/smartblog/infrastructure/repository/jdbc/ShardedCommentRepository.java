@@ -0,0 +1,152 @@
+package com.smartblog.infrastructure.repository.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.smartblog.core.model.Comment;
+import com.smartblog.infrastructure.repository.api.CommentRepository;
+import com.smartblog.infrastructure.shard.ShardMap;
+
+/**
+ * CommentRepository over the post shards: comments are stored next to their post, i.e. on the
+ * shard of the post's author, so listing a post's comments touches one shard.
+ */
+public class ShardedCommentRepository implements CommentRepository {
+    private final ShardMap shards;
+    private final ShardedPostRepository posts;
+    private final List<CommentRepositoryJdbc> repos = new ArrayList<>();
+
+    public ShardedCommentRepository(ShardMap shards, ShardedPostRepository posts) {
+        this.shards = shards;
+        this.posts = posts;
+        for (int i = 0; i < shards.size(); i++) repos.add(new CommentRepositoryJdbc(shards.shard(i)));
+    }
+
+    @Override
+    public long create(Comment c) {
+        return repos.get(writeShard(c.getPostId(), "Comment create")).create(c);
+    }
+
+    @Override
+    public Optional<Comment> findById(long id) {
+        return shards.scatter(s -> repos.get(s).findById(id)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public List<Comment> listByPost(long postId, int page, int size) {
+        return posts.shardOfPost(postId)
+                .map(s -> repos.get(s).listByPost(postId, page, size))
+                .orElse(List.of());
+    }
+
+    /**
+     * Locating each post's shard would cost a lookup per post, so every shard is asked for all of
+     * them instead. A post's comments are on one shard, except while its author is being moved
+     * (ReshardingTool): then both shards answer for it, and the post's placement picks the answer.
+     */
+    @Override
+    public Map<Long, List<Comment>> latestByPosts(Collection<Long> postIds, int n) {
+        if (postIds.isEmpty() || n <= 0) return Map.of();
+        return byPlacement(shards.scatter(s -> repos.get(s).latestByPosts(postIds, n)));
+    }
+
+    /** Every shard is asked, as for {@link #latestByPosts}. */
+    @Override
+    public Map<Long, Long> countByPosts(Collection<Long> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+        return byPlacement(shards.scatter(s -> repos.get(s).countByPosts(postIds)));
+    }
+
+    /** Merges per-shard answers keyed by post id; a post answered by two shards is looked up. */
+    private <V> Map<Long, V> byPlacement(List<Map<Long, V>> perShard) {
+        Map<Long, V> out = new LinkedHashMap<>();
+        Map<Long, Integer> answeredBy = new HashMap<>();
+        for (int s = 0; s < perShard.size(); s++) {
+            for (var e : perShard.get(s).entrySet()) {
+                Integer first = answeredBy.putIfAbsent(e.getKey(), s);
+                if (first == null) {
+                    out.put(e.getKey(), e.getValue());
+                } else {
+                    V placed = perShard.get(posts.shardOfPost(e.getKey()).orElse(first)).get(e.getKey());
+                    if (placed != null) out.put(e.getKey(), placed);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public boolean update(Comment c) {
+        return repos.get(writeShard(c.getPostId(), "Comment update")).update(c);
+    }
+
+    @Override
+    public List<Long> createAll(List<Comment> comments) {
+        for (var e : groupByShard(comments, "Comment createAll").entrySet()) repos.get(e.getKey()).createAll(e.getValue());
+        return comments.stream().map(Comment::getId).toList();
+    }
+
+    @Override
+    public int updateAll(List<Comment> comments) {
+        int total = 0;
+        for (var e : groupByShard(comments, "Comment updateAll").entrySet()) total += repos.get(e.getKey()).updateAll(e.getValue());
+        return total;
+    }
+
+    @Override
+    public Stream<Comment> streamAll() {
+        return shards.sequential(i -> repos.get(i).streamAll());
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        return findById(id)
+                .map(c -> repos.get(writeShard(c.getPostId(), "Comment softDelete")).softDelete(id))
+                .orElse(false);
+    }
+
+    @Override
+    public boolean updateIfPermitted(Comment c, Long actorId, boolean admin) {
+        return findById(c.getId())
+                .map(found -> repos.get(writeShard(found.getPostId(), "Comment updateIfPermitted")).updateIfPermitted(c, actorId, admin))
+                .orElse(false);
+    }
+
+    @Override
+    public boolean updateIfCurrent(Comment c, Long actorId, boolean admin) {
+        return findById(c.getId())
+                .map(found -> repos.get(writeShard(found.getPostId(), "Comment updateIfCurrent")).updateIfCurrent(c, actorId, admin))
+                .orElse(false);
+    }
+
+    @Override
+    public Optional<Long> softDeleteIfPermitted(long id, Long actorId, boolean admin) {
+        return findById(id)
+                .flatMap(c -> repos.get(writeShard(c.getPostId(), "Comment softDeleteIfPermitted")).softDeleteIfPermitted(id, actorId, admin));
+    }
+
+    /** A deleted comment is invisible to findById, so every shard is asked; at most one holds it. */
+    @Override
+    public boolean restoreIfPermitted(long id, Long actorId, boolean admin) {
+        return shards.scatter(s -> repos.get(s).restoreIfPermitted(id, actorId, admin)).contains(true);
+    }
+
+    private int writeShard(long postId, String op) {
+        return posts.writeShardOfPost(postId)
+                .orElseThrow(() -> new RuntimeException(op + " failed: post " + postId + " not found on any shard"));
+    }
+
+    private Map<Integer, List<Comment>> groupByShard(List<Comment> comments, String op) {
+        Map<Integer, List<Comment>> byShard = new LinkedHashMap<>();
+        for (Comment c : comments) byShard.computeIfAbsent(writeShard(c.getPostId(), op), k -> new ArrayList<>()).add(c);
+        return byShard;
+    }
+}
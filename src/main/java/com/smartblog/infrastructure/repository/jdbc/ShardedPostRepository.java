@@ -0,0 +1,434 @@
+package com.smartblog.infrastructure.repository.jdbc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.repository.api.PostRepository;
+import com.smartblog.infrastructure.shard.KWayMerge;
+import com.smartblog.infrastructure.shard.ShardMap;
+
+/**
+ * PostRepository over several MySQL instances, sharded by author_id.
+ *
+ * Author-scoped calls go to a single shard. Global listings and searches ask every shard for its first
+ * {@code offset + size} rows in the requested order and k-way merge them. Filters that need users or tags
+ * (which live on the global shard) are first resolved there to author / post ids.
+ *
+ * While {@code ReshardingTool} moves an author, the author's posts are on both shards. Every read keeps
+ * only the rows on the shard the directory places their author on, so a moving author's posts are
+ * listed and counted once.
+ */
+public class ShardedPostRepository implements PostRepository {
+    private static final Comparator<Post> NEWEST_FIRST =
+            Comparator.comparing(Post::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()));
+    private static final Comparator<Post> OLDEST_FIRST =
+            Comparator.comparing(Post::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()));
+    private static final Comparator<Post> TITLE =
+            Comparator.comparing(Post::getTitle, String.CASE_INSENSITIVE_ORDER);
+
+    private static final SqlQuery<Long> AUTHORS_BY_NAME = SqlQuery.of("Post shard authorsByName",
+            "SELECT id FROM users WHERE username LIKE ?", rs -> rs.getLong(1));
+    private static final SqlQuery<Long> POSTS_BY_TAG = SqlQuery.of("Post shard postsByTag", """
+            SELECT pt.post_id FROM post_tags pt
+            JOIN tags t ON pt.tag_id = t.id
+            WHERE t.name = ?
+        """, rs -> rs.getLong(1)).withFetchSize(1000);
+    private static final SqlQuery<Long> AUTHORS_BY_USERNAME = SqlQuery.of("Post shard authorsByUsername",
+            "SELECT id FROM users ORDER BY username ASC", rs -> rs.getLong(1)).withFetchSize(1000);
+    private static final SqlQuery<Long> AUTHORS_LIKE_BY_USERNAME = SqlQuery.of("Post shard authorsLikeByUsername",
+            "SELECT id FROM users WHERE username LIKE ? ORDER BY username ASC", rs -> rs.getLong(1)).withFetchSize(1000);
+
+    // authors per scatter round when ordering by username
+    private static final int AUTHOR_BATCH = 100;
+
+    private final ShardMap shards;
+    private final List<PostRepositoryJdbc> repos = new ArrayList<>();
+    private final List<JdbcTemplate> jdbc = new ArrayList<>();
+    private final JdbcTemplate global;
+    // post id -> shard, so findById does not have to ask every shard
+    private final Cache<Long, Integer> located = Caffeine.newBuilder().maximumSize(100_000).build();
+
+    public ShardedPostRepository(ShardMap shards) {
+        this.shards = shards;
+        for (int i = 0; i < shards.size(); i++) {
+            repos.add(new PostRepositoryJdbc(shards.shard(i)));
+            jdbc.add(new JdbcTemplate(shards.shard(i)));
+        }
+        this.global = jdbc.get(0);
+    }
+
+    @Override
+    public long create(Post p) {
+        int s = shards.shardForWrite(p.getAuthorId());
+        long id = repos.get(s).create(p);
+        located.put(id, s);
+        return id;
+    }
+
+    @Override
+    public Optional<Post> findById(long id) {
+        Integer cached = located.getIfPresent(id);
+        if (cached != null) {
+            Optional<Post> hit = repos.get(cached).findById(id);
+            // the directory decides: a copy left on the shard an author moved away from is stale
+            if (hit.isPresent() && shards.shardFor(hit.get().getAuthorId()) == cached) return hit;
+            located.invalidate(id); // moved or deleted
+        }
+        List<Optional<Post>> found = shards.scatter(s -> repos.get(s).findById(id));
+        Optional<Post> any = Optional.empty();
+        for (int s = 0; s < found.size(); s++) {
+            if (found.get(s).isEmpty()) continue;
+            if (shards.shardFor(found.get(s).get().getAuthorId()) == s) {
+                located.put(id, s);
+                return found.get(s);
+            }
+            if (any.isEmpty()) any = found.get(s);
+        }
+        return any;
+    }
+
+    /** Shard to write rows that belong to {@code postId} (the post's author's shard), if the post exists. */
+    Optional<Integer> writeShardOfPost(long postId) {
+        return findById(postId).map(p -> shards.shardForWrite(p.getAuthorId()));
+    }
+
+    /** Shard holding {@code postId}, if the post exists. */
+    Optional<Integer> shardOfPost(long postId) {
+        return findById(postId).map(p -> shards.shardFor(p.getAuthorId()));
+    }
+
+    @Override
+    public List<Post> list(PostStatus status, int page, int size) {
+        int n = JdbcTemplate.offset(page, size) + size;
+        return merge(shards.scatter(s -> placed(s, n, limit -> repos.get(s).list(status, 1, limit))),
+                NEWEST_FIRST, page, size);
+    }
+
+    @Override
+    public List<Post> search(String keyword, PostStatus status, int page, int size) {
+        int n = JdbcTemplate.offset(page, size) + size;
+        return merge(shards.scatter(s -> placed(s, n, limit -> repos.get(s).search(keyword, status, 1, limit))),
+                NEWEST_FIRST, page, size);
+    }
+
+    @Override
+    public List<Post> listByAuthor(long authorId, PostStatus status, int page, int size) {
+        return repos.get(shards.shardFor(authorId)).listByAuthor(authorId, status, page, size);
+    }
+
+    @Override
+    public long countByAuthor(long authorId, PostStatus status) {
+        return repos.get(shards.shardFor(authorId)).countByAuthor(authorId, status);
+    }
+
+    @Override
+    public boolean update(Post p) {
+        return repos.get(shards.shardForWrite(p.getAuthorId())).update(p);
+    }
+
+    @Override
+    public List<Long> createAll(List<Post> posts) {
+        for (var e : groupByShard(posts).entrySet()) {
+            repos.get(e.getKey()).createAll(e.getValue());
+            for (Post p : e.getValue()) located.put(p.getId(), e.getKey());
+        }
+        return posts.stream().map(Post::getId).toList();
+    }
+
+    @Override
+    public int updateAll(List<Post> posts) {
+        int total = 0;
+        for (var e : groupByShard(posts).entrySet()) total += repos.get(e.getKey()).updateAll(e.getValue());
+        return total;
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        return writeShardOfPost(id).map(s -> repos.get(s).softDelete(id)).orElse(false);
+    }
+
+    // locating the post's shard still reads it (usually from the located cache's shard); the write itself stays conditional
+
+    @Override
+    public boolean updateIfPermitted(Post p, Long actorId, boolean admin) {
+        return writeShardOfPost(p.getId()).map(s -> repos.get(s).updateIfPermitted(p, actorId, admin)).orElse(false);
+    }
+
+    @Override
+    public boolean updateIfCurrent(Post p, Long actorId, boolean admin) {
+        return writeShardOfPost(p.getId()).map(s -> repos.get(s).updateIfCurrent(p, actorId, admin)).orElse(false);
+    }
+
+    @Override
+    public boolean softDeleteIfPermitted(long id, Long actorId, boolean admin) {
+        return writeShardOfPost(id).map(s -> repos.get(s).softDeleteIfPermitted(id, actorId, admin)).orElse(false);
+    }
+
+    /** A deleted post is invisible to the shard lookup, so every shard is asked; at most one holds it. */
+    @Override
+    public boolean restoreIfPermitted(long id, Long actorId, boolean admin) {
+        return shards.scatter(s -> repos.get(s).restoreIfPermitted(id, actorId, admin)).contains(true);
+    }
+
+    @Override
+    public boolean publish(long id) {
+        return writeShardOfPost(id).map(s -> repos.get(s).publish(id)).orElse(false);
+    }
+
+    @Override
+    public boolean publishIfCurrent(long id, long version) {
+        return writeShardOfPost(id).map(s -> repos.get(s).publishIfCurrent(id, version)).orElse(false);
+    }
+
+    @Override
+    public List<Post> searchByTag(String tag, int page, int size) {
+        List<Long> ids = global.query(POSTS_BY_TAG, tag);
+        if (ids.isEmpty()) return List.of();
+        return filtered(null, null, ids, PostStatus.ANY, "date_desc", page, size);
+    }
+
+    @Override
+    public List<Post> searchByAuthorName(String authorName, int page, int size) {
+        List<Long> authors = global.query(AUTHORS_BY_NAME, "%" + authorName + "%");
+        if (authors.isEmpty()) return List.of();
+        return filtered(null, authors, null, PostStatus.ANY, "date_desc", page, size);
+    }
+
+    @Override
+    public Stream<Post> streamAll() {
+        return shards.sequential(i -> repos.get(i).streamAll().filter(p -> shards.shardFor(p.getAuthorId()) == i));
+    }
+
+    @Override
+    public List<Post> searchCombined(String keyword, String tag, String authorName, PostStatus status, String sortBy,
+                                     int page, int size) {
+        boolean hasTag = tag != null && !tag.isBlank();
+        boolean hasAuthor = authorName != null && !authorName.isBlank();
+
+        List<Long> postIds = null;
+        if (hasTag) {
+            postIds = global.query(POSTS_BY_TAG, tag);
+            if (postIds.isEmpty()) return List.of();
+        }
+        String sort = sortBy != null ? sortBy : "date_desc";
+        if ("author".equals(sort)) return byUsername(keyword, postIds, hasAuthor ? authorName : null, status, page, size);
+
+        List<Long> authors = null;
+        if (hasAuthor) {
+            authors = global.query(AUTHORS_BY_NAME, "%" + authorName + "%");
+            if (authors.isEmpty()) return List.of();
+        }
+        return filtered(keyword, authors, postIds, status, sort, page, size);
+    }
+
+    @Override
+    public long countCombined(String keyword, String tag, String authorName, PostStatus status, int limit) {
+        return Math.min(limit, perShardTotal(keyword, tag, authorName, status, (s, where, params) -> {
+            params.add(limit);
+            // per author, so the rows of an author placed on another shard (a move in progress) are left out
+            var q = SqlQuery.of("Post shard countCombined",
+                    "SELECT author_id, COUNT(*) FROM (SELECT author_id FROM posts " + where + "LIMIT ?) c GROUP BY author_id",
+                    rs -> new long[]{rs.getLong(1), rs.getLong(2)});
+            return jdbc.get(s).query(q, params.toArray()).stream()
+                    .filter(r -> shards.shardFor(r[0]) == s)
+                    .mapToLong(r -> r[1])
+                    .sum();
+        }));
+    }
+
+    /**
+     * Sum of the per-shard estimates; see {@link PostRepositoryJdbc#estimateCombined}. Statistics cannot
+     * tell the copies of a moving author's posts apart, so during a move they are estimated twice.
+     */
+    @Override
+    public long estimateCombined(String keyword, String tag, String authorName, PostStatus status) {
+        return perShardTotal(keyword, tag, authorName, status, (s, where, params) -> {
+            if (params.isEmpty()) return jdbc.get(s).queryOne(PostRepositoryJdbc.TABLE_ROWS).orElse(0L);
+            var plan = SqlQuery.of("Post shard estimateCombined", "EXPLAIN SELECT id FROM posts " + where,
+                    rs -> rs.getLong("rows") * rs.getDouble("filtered") / 100);
+            double estimate = 1;
+            for (double rows : jdbc.get(s).query(plan, params.toArray())) estimate *= rows;
+            return Math.round(estimate);
+        });
+    }
+
+    @FunctionalInterface
+    private interface ShardCount {
+        long count(int shard, String where, List<Object> params);
+    }
+
+    /**
+     * Resolves the tag and author filters on the global shard like {@link #searchCombined}, then adds
+     * up {@code count} over the shards that can hold matches.
+     */
+    private long perShardTotal(String keyword, String tag, String authorName, PostStatus status, ShardCount count) {
+        List<Long> postIds = null;
+        if (tag != null && !tag.isBlank()) {
+            postIds = global.query(POSTS_BY_TAG, tag);
+            if (postIds.isEmpty()) return 0;
+        }
+        List<Long> authors = null;
+        if (authorName != null && !authorName.isBlank()) {
+            authors = global.query(AUTHORS_BY_NAME, "%" + authorName + "%");
+            if (authors.isEmpty()) return 0;
+        }
+        Map<Integer, List<Long>> authorsByShard = authorsByShard(authors);
+        List<Integer> targets = authors != null ? new ArrayList<>(authorsByShard.keySet()) : shards.allShards();
+        List<Long> ids = postIds;
+        boolean byAuthor = authors != null;
+        return shards.scatter(targets, s -> {
+            List<Object> params = new ArrayList<>();
+            String where = shardWhere(keyword, byAuthor ? authorsByShard.get(s) : null, ids, status, params);
+            return count.count(s, where, params);
+        }).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // ---- scatter-gather helpers -----------------------------------------------
+
+    /** WHERE clause for one shard's share of a filtered search; null filters are left out. */
+    private static String shardWhere(String keyword, List<Long> authors, List<Long> postIds, PostStatus status,
+                                     List<Object> params) {
+        StringBuilder sql = new StringBuilder("WHERE deleted_at IS NULL ");
+        if (status != PostStatus.ANY) {
+            sql.append("AND published = ? ");
+            params.add(status == PostStatus.PUBLISHED);
+        }
+        if (keyword != null && !keyword.isBlank()) {
+            // matches every body: rows are only stored compressed while post_view serves the searches (ContentCodec)
+            sql.append("AND (title LIKE ? OR content LIKE ?) ");
+            params.add("%" + keyword + "%");
+            params.add("%" + keyword + "%");
+        }
+        if (authors != null) {
+            sql.append("AND author_id IN (").append(JdbcTemplate.placeholders(authors.size())).append(") ");
+            params.addAll(authors);
+        }
+        if (postIds != null) {
+            sql.append("AND id IN (").append(JdbcTemplate.placeholders(postIds.size())).append(") ");
+            params.addAll(postIds);
+        }
+        return sql.toString();
+    }
+
+    private Map<Integer, List<Long>> authorsByShard(List<Long> authors) {
+        Map<Integer, List<Long>> byShard = new LinkedHashMap<>();
+        if (authors != null) {
+            for (long a : authors) byShard.computeIfAbsent(shards.shardFor(a), k -> new ArrayList<>()).add(a);
+        }
+        return byShard;
+    }
+
+    /**
+     * Scatter with optional keyword / author / post-id filters. When authors are given only their
+     * shards are asked.
+     */
+    private List<Post> filtered(String keyword, List<Long> authors, List<Long> postIds, PostStatus status, String sort,
+                                int page, int size) {
+        int n = JdbcTemplate.offset(page, size) + size;
+        String orderBy = switch (sort) {
+            case "date_asc" -> "created_at ASC";
+            case "title_asc" -> "title ASC";
+            case "title_desc" -> "title DESC";
+            default -> "created_at DESC";
+        };
+        Comparator<Post> order = switch (sort) {
+            case "date_asc" -> OLDEST_FIRST;
+            case "title_asc" -> TITLE;
+            case "title_desc" -> TITLE.reversed();
+            default -> NEWEST_FIRST;
+        };
+
+        Map<Integer, List<Long>> authorsByShard = authorsByShard(authors);
+        List<Integer> targets = authors != null ? new ArrayList<>(authorsByShard.keySet()) : shards.allShards();
+
+        List<List<Post>> perShard = shards.scatter(targets, s -> placed(s, n, limit -> {
+            List<Object> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("SELECT ").append(PostRepositoryJdbc.COLUMNS).append(" FROM posts ")
+                    .append(shardWhere(keyword, authors != null ? authorsByShard.get(s) : null, postIds, status, params));
+            sql.append("ORDER BY ").append(orderBy).append(" LIMIT ?");
+            params.add(limit);
+            var q = SqlQuery.of("Post shard search", sql.toString(), PostRepositoryJdbc.MAPPER).withFetchSize(limit);
+            return jdbc.get(s).query(q, params.toArray());
+        }));
+        return merge(perShard, order, page, size);
+    }
+
+    /**
+     * "author" sort: walk authors in username order (from the global shard) in batches and let each
+     * shard order its rows by the author's position in the batch.
+     */
+    private List<Post> byUsername(String keyword, List<Long> postIds, String authorName, PostStatus status,
+                                  int page, int size) {
+        List<Long> ordered = authorName != null
+                ? global.query(AUTHORS_LIKE_BY_USERNAME, "%" + authorName + "%")
+                : global.query(AUTHORS_BY_USERNAME);
+        int needed = JdbcTemplate.offset(page, size) + size;
+        List<Post> collected = new ArrayList<>();
+        for (int from = 0; from < ordered.size() && collected.size() < needed; from += AUTHOR_BATCH) {
+            List<Long> batch = ordered.subList(from, Math.min(from + AUTHOR_BATCH, ordered.size()));
+            Map<Long, Integer> rank = new LinkedHashMap<>();
+            for (int i = 0; i < batch.size(); i++) rank.put(batch.get(i), i);
+
+            Map<Integer, List<Long>> byShard = new LinkedHashMap<>();
+            for (long a : batch) byShard.computeIfAbsent(shards.shardFor(a), k -> new ArrayList<>()).add(a);
+            int remaining = needed - collected.size();
+
+            List<List<Post>> perShard = shards.scatter(new ArrayList<>(byShard.keySet()), s -> {
+                List<Long> mine = byShard.get(s);
+                List<Object> params = new ArrayList<>();
+                StringBuilder sql = new StringBuilder("SELECT ").append(PostRepositoryJdbc.COLUMNS).append(" FROM posts ")
+                        .append(shardWhere(keyword, mine, postIds, status, params));
+                sql.append("ORDER BY FIELD(author_id, ").append(JdbcTemplate.placeholders(mine.size())).append(") LIMIT ?");
+                params.addAll(mine);
+                params.add(remaining);
+                var q = SqlQuery.of("Post shard searchByUsername", sql.toString(), PostRepositoryJdbc.MAPPER);
+                return jdbc.get(s).query(q, params.toArray());
+            });
+            collected.addAll(KWayMerge.merge(perShard, Comparator.comparing(p -> rank.get(p.getAuthorId())), 0, remaining));
+        }
+        int offset = JdbcTemplate.offset(page, size);
+        return offset >= collected.size() ? List.of() : collected.subList(offset, Math.min(collected.size(), offset + size));
+    }
+
+    /**
+     * The first {@code n} rows of {@code fetch(limit)} whose author the directory places on shard
+     * {@code s}. Dropping another shard's copies can leave fewer than {@code n}, so the shard is asked
+     * again for as many more rows as were dropped; outside of moves the first fetch is the answer.
+     */
+    private List<Post> placed(int s, int n, IntFunction<List<Post>> fetch) {
+        int limit = n;
+        while (true) {
+            List<Post> rows = fetch.apply(limit);
+            List<Post> mine = rows.stream().filter(p -> shards.shardFor(p.getAuthorId()) == s).toList();
+            if (mine.size() == rows.size() || mine.size() >= n || rows.size() < limit) {
+                return mine.size() > n ? mine.subList(0, n) : mine;
+            }
+            limit = n + rows.size() - mine.size();
+        }
+    }
+
+    private List<Post> merge(List<List<Post>> perShard, Comparator<Post> order, int page, int size) {
+        List<Post> out = KWayMerge.merge(perShard, order, JdbcTemplate.offset(page, size), size);
+        for (Post p : out) located.put(p.getId(), shards.shardFor(p.getAuthorId()));
+        return out;
+    }
+
+    private Map<Integer, List<Post>> groupByShard(List<Post> posts) {
+        Map<Integer, List<Post>> byShard = new LinkedHashMap<>();
+        for (Post p : posts) byShard.computeIfAbsent(shards.shardForWrite(p.getAuthorId()), k -> new ArrayList<>()).add(p);
+        return byShard;
+    }
+}
@@ -1,106 +1,182 @@
-
 package com.smartblog.infrastructure.repository.jdbc;
 
 import com.smartblog.core.model.Tag;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.RowMapper;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
 import com.smartblog.infrastructure.repository.api.TagRepository;
 
 import javax.sql.DataSource;
-import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class TagRepositoryJdbc implements TagRepository {
-    private final DataSource ds;
-    public TagRepositoryJdbc(DataSource ds) { this.ds = ds; }
+    static final String COLUMNS = "id, name, slug";
+
+    static final RowMapper<Tag> MAPPER = rs -> {
+        Tag t = new Tag();
+        t.setId(rs.getLong(1));
+        t.setName(rs.getString(2));
+        t.setSlug(rs.getString(3));
+        return t;
+    };
+
+    private static final SqlQuery<Tag> FIND_BY_ID = SqlQuery.of("Tag findById",
+            "SELECT " + COLUMNS + " FROM tags WHERE id=?", MAPPER);
+    private static final SqlQuery<Tag> FIND_BY_SLUG = SqlQuery.of("Tag findBySlug",
+            "SELECT " + COLUMNS + " FROM tags WHERE slug=?", MAPPER);
+    private static final SqlQuery<Tag> FIND_BY_NAME = SqlQuery.of("Tag findByName",
+            "SELECT " + COLUMNS + " FROM tags WHERE name=?", MAPPER);
+    private static final SqlQuery<Tag> LIST_ALL = SqlQuery.of("Tag listAll",
+            "SELECT " + COLUMNS + " FROM tags ORDER BY name ASC", MAPPER).withFetchSize(256);
+    private static final SqlQuery<Tag> LIST_BY_POST = SqlQuery.of("listByPost", """
+            SELECT t.id, t.name, t.slug FROM tags t
+            JOIN post_tags pt ON t.id=pt.tag_id
+            WHERE pt.post_id=? ORDER BY t.name ASC
+        """, MAPPER);
+
+    private static final String INSERT = "INSERT INTO tags(name,slug) VALUES(?,?)";
+    private static final String UPDATE = "UPDATE tags SET name=?, slug=? WHERE id=?";
+
+    private static final String UPSERT = "INSERT INTO tags(name,slug) VALUES(?,?) ON DUPLICATE KEY UPDATE id=id";
+    private static final String LINK = "INSERT IGNORE INTO post_tags(post_id,tag_id) VALUES(?,?)";
+
+    private record LinkedTag(Tag tag, boolean linked) {}
+
+    private static final RowMapper<LinkedTag> LINKED_MAPPER = rs -> new LinkedTag(MAPPER.map(rs), rs.getBoolean(4));
+
+    private final JdbcTemplate jdbc;
+    public TagRepositoryJdbc(DataSource ds) { this.jdbc = new JdbcTemplate(ds); }
 
     @Override
     public long create(Tag t) {
-        String sql = "INSERT INTO tags(name,slug) VALUES(?,?)";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, t.getName()); ps.setString(2, t.getSlug()); ps.executeUpdate();
-            try (var rs = ps.getGeneratedKeys()) { return rs.next() ? rs.getLong(1) : -1; }
-        } catch (SQLIntegrityConstraintViolationException dup) { throw new RuntimeException("duplicate", dup); }
-        catch (SQLException e) { throw new RuntimeException("Tag create failed", e); }
+        return jdbc.insert("Tag create", INSERT, t.getName(), t.getSlug());
     }
 
-    @Override public Optional<Tag> findById(long id) {
-        String sql = "SELECT * FROM tags WHERE id=?";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id); try (var rs = ps.executeQuery()) { return rs.next()?Optional.of(map(rs)):Optional.empty(); }
-        } catch (SQLException e) { throw new RuntimeException("Tag findById failed", e); }
-    }
+    @Override public Optional<Tag> findById(long id) { return jdbc.queryOne(FIND_BY_ID, id); }
 
-    @Override public Optional<Tag> findBySlug(String slug) {
-        String sql = "SELECT * FROM tags WHERE slug=?";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, slug); try (var rs = ps.executeQuery()) { return rs.next()?Optional.of(map(rs)):Optional.empty(); }
-        } catch (SQLException e) { throw new RuntimeException("Tag findBySlug failed", e); }
-    }
+    @Override public Optional<Tag> findBySlug(String slug) { return jdbc.queryOne(FIND_BY_SLUG, slug); }
+
+    @Override public Optional<Tag> findByName(String name) { return jdbc.queryOne(FIND_BY_NAME, name); }
 
-    @Override public Optional<Tag> findByName(String name) {
-        String sql = "SELECT * FROM tags WHERE name=?";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, name); try (var rs = ps.executeQuery()) { return rs.next()?Optional.of(map(rs)):Optional.empty(); }
-        } catch (SQLException e) { throw new RuntimeException("Tag findByName failed", e); }
+    @Override public List<Tag> listAll() { return jdbc.query(LIST_ALL); }
+
+    @Override public boolean update(Tag t) {
+        return jdbc.update("Tag update", UPDATE, t.getName(), t.getSlug(), t.getId()) == 1;
     }
 
-    @Override public List<Tag> listAll() {
-        String sql = "SELECT * FROM tags ORDER BY name ASC";
-        List<Tag> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql); var rs = ps.executeQuery()) {
-            while (rs.next()) out.add(map(rs));
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("Tag listAll failed", e); }
+    @Override public List<Long> createAll(List<Tag> tags) {
+        List<Long> ids = jdbc.batchInsert("Tag createAll", INSERT, tags, t -> new Object[]{t.getName(), t.getSlug()});
+        for (int i = 0; i < ids.size(); i++) tags.get(i).setId(ids.get(i));
+        return ids;
     }
 
-    @Override public boolean update(Tag t) {
-        String sql = "UPDATE tags SET name=?, slug=? WHERE id=?";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, t.getName()); ps.setString(2, t.getSlug()); ps.setLong(3, t.getId());
-            return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("Tag update failed", e); }
+    @Override public int updateAll(List<Tag> tags) {
+        return jdbc.batchUpdate("Tag updateAll", UPDATE, tags, t -> new Object[]{t.getName(), t.getSlug(), t.getId()});
     }
 
     @Override public boolean delete(long id) {
-        String sql = "DELETE FROM tags WHERE id=?";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id); return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("Tag delete failed", e); }
+        return jdbc.update("Tag delete", "DELETE FROM tags WHERE id=?", id) == 1;
     }
 
     // Relations
     @Override public boolean addTagToPost(long postId, long tagId) {
-        String sql = "INSERT INTO post_tags(post_id,tag_id) VALUES(?,?)";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, postId); ps.setLong(2, tagId); return ps.executeUpdate() == 1;
-        } catch (SQLIntegrityConstraintViolationException dup) { return true; }
-        catch (SQLException e) { throw new RuntimeException("addTagToPost failed", e); }
+        // an existing link counts as success, as before
+        jdbc.update("addTagToPost", "INSERT IGNORE INTO post_tags(post_id,tag_id) VALUES(?,?)", postId, tagId);
+        return true;
     }
     @Override public boolean removeTagFromPost(long postId, long tagId) {
-        String sql = "DELETE FROM post_tags WHERE post_id=? AND tag_id=?";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, postId); ps.setLong(2, tagId); return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("removeTagFromPost failed", e); }
+        return jdbc.update("removeTagFromPost", "DELETE FROM post_tags WHERE post_id=? AND tag_id=?", postId, tagId) == 1;
     }
-    @Override public List<Tag> listByPost(long postId) {
-        String sql = """
-            SELECT t.* FROM tags t
-            JOIN post_tags pt ON t.id=pt.tag_id
-            WHERE pt.post_id=? ORDER BY t.name ASC
-        """;
-        List<Tag> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, postId); try (var rs = ps.executeQuery()) { while (rs.next()) out.add(map(rs)); }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("listByPost failed", e); }
+    @Override public List<Tag> listByPost(long postId) { return jdbc.query(LIST_BY_POST, postId); }
+
+    @Override
+    public Map<Long, List<Tag>> listByPosts(Collection<Long> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+        record PostTag(long postId, Tag tag) {}
+        var byPosts = SqlQuery.of("Tag listByPosts", """
+                SELECT t.id, t.name, t.slug, pt.post_id FROM tags t
+                JOIN post_tags pt ON t.id=pt.tag_id
+                WHERE pt.post_id IN (%s) ORDER BY t.name ASC
+            """.formatted(JdbcTemplate.placeholders(postIds.size())), rs -> new PostTag(rs.getLong(4), MAPPER.map(rs)));
+        Map<Long, List<Tag>> out = new LinkedHashMap<>();
+        for (PostTag pt : jdbc.query(byPosts, postIds.toArray())) {
+            out.computeIfAbsent(pt.postId(), k -> new ArrayList<>()).add(pt.tag());
+        }
+        return out;
     }
 
-    private Tag map(ResultSet rs) throws SQLException {
-        Tag t = new Tag();
-        t.setId(rs.getLong("id"));
-        t.setName(rs.getString("name"));
-        t.setSlug(rs.getString("slug"));
-        return t;
+    /**
+     * One transaction, at most four statements regardless of the number of tags:
+     * a multi-row upsert of the wanted tags, one SELECT resolving their ids together with the
+     * post's current links, then the DELETE and INSERT of the difference.
+     */
+    @Override public List<Tag> setTagsForPost(long postId, Collection<Tag> wanted) {
+        return jdbc.inTransaction("setTagsForPost", con -> {
+            if (wanted.isEmpty()) {
+                JdbcTemplate.update(con, "DELETE FROM post_tags WHERE post_id=?", postId);
+                return List.of();
+            }
+
+            List<Object[]> upserts = new ArrayList<>(wanted.size());
+            for (Tag t : wanted) upserts.add(new Object[]{t.getName(), t.getSlug()});
+            JdbcTemplate.batch(con, UPSERT, upserts);
+
+            String in = JdbcTemplate.placeholders(wanted.size());
+            var resolve = SqlQuery.of("setTagsForPost resolve", """
+                    SELECT t.id, t.name, t.slug, pt.post_id IS NOT NULL FROM tags t
+                    LEFT JOIN post_tags pt ON pt.tag_id=t.id AND pt.post_id=?
+                    WHERE t.slug IN (%s) OR t.name IN (%s)
+                    UNION
+                    SELECT t.id, t.name, t.slug, TRUE FROM tags t
+                    JOIN post_tags pt ON pt.tag_id=t.id
+                    WHERE pt.post_id=?
+                """.formatted(in, in), LINKED_MAPPER);
+            List<Object> params = new ArrayList<>();
+            params.add(postId);
+            for (Tag t : wanted) params.add(t.getSlug());
+            for (Tag t : wanted) params.add(t.getName());
+            params.add(postId);
+
+            Map<Long, LinkedTag> rows = new LinkedHashMap<>();
+            for (LinkedTag row : JdbcTemplate.query(con, resolve, params.toArray())) rows.putIfAbsent(row.tag().getId(), row);
+
+            // match each wanted tag to its row: slug first, then the (case-insensitive) unique name
+            Set<Long> keep = new HashSet<>();
+            List<Tag> result = new ArrayList<>();
+            for (Tag t : wanted) {
+                rows.values().stream()
+                        .filter(r -> r.tag().getSlug().equals(t.getSlug()) || r.tag().getName().equalsIgnoreCase(t.getName()))
+                        .findFirst()
+                        .filter(r -> keep.add(r.tag().getId()))
+                        .ifPresent(r -> result.add(r.tag()));
+            }
+
+            List<Object> unlink = new ArrayList<>();
+            List<Object[]> link = new ArrayList<>();
+            for (LinkedTag r : rows.values()) {
+                boolean keepTag = keep.contains(r.tag().getId());
+                if (r.linked() && !keepTag) unlink.add(r.tag().getId());
+                if (!r.linked() && keepTag) link.add(new Object[]{postId, r.tag().getId()});
+            }
+            if (!unlink.isEmpty()) {
+                List<Object> args = new ArrayList<>();
+                args.add(postId);
+                args.addAll(unlink);
+                JdbcTemplate.update(con, "DELETE FROM post_tags WHERE post_id=? AND tag_id IN ("
+                        + JdbcTemplate.placeholders(unlink.size()) + ")", args.toArray());
+            }
+            JdbcTemplate.batch(con, LINK, link);
+
+            result.sort(Comparator.comparing(Tag::getName, String.CASE_INSENSITIVE_ORDER));
+            return result;
+        });
     }
 }
@@ -1,18 +1,15 @@
-
 package com.smartblog.infrastructure.repository.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.SQLIntegrityConstraintViolationException;
-import java.sql.Statement;
-import java.sql.Timestamp;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.RowMapper;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
 import com.smartblog.infrastructure.repository.api.UserRepository;
 
 /**
@@ -21,124 +18,102 @@ import com.smartblog.infrastructure.repository.api.UserRepository;
  * - Converts between ResultSet and domain model.
  */
 public class UserRepositoryJdbc implements UserRepository {
-    private final DataSource ds;
+    static final String COLUMNS = "id, username, email, password_hash, role, created_at, updated_at, deleted_at";
 
-    public UserRepositoryJdbc(DataSource ds) { this.ds = ds; }
+    static final RowMapper<User> MAPPER = rs -> {
+        User u = new User();
+        u.setId(rs.getLong(1));
+        u.setUsername(rs.getString(2));
+        u.setEmail(rs.getString(3));
+        u.setPasswordHash(rs.getString(4));
+        u.setRole(rs.getString(5));
+        u.setCreatedAt(JdbcTemplate.getDateTime(rs, 6));
+        u.setUpdatedAt(JdbcTemplate.getDateTime(rs, 7));
+        u.setDeletedAt(JdbcTemplate.getDateTime(rs, 8));
+        return u;
+    };
 
-    @Override
-    public long create(User user) {
-        String sql = """
+    private static final String INSERT = """
             INSERT INTO users(username,email,password_hash,role,created_at,updated_at)
             VALUES (?,?,?,?,NOW(),NULL)
         """;
-        try (var con = ds.getConnection();
-             var ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, user.getUsername());
-            ps.setString(2, user.getEmail());
-            ps.setString(3, user.getPasswordHash());
-            ps.setString(4, user.getRole());
-            ps.executeUpdate();
-            try (var rs = ps.getGeneratedKeys()) {
-                if (rs.next()) return rs.getLong(1);
-            }
-            return -1;
-        } catch (SQLIntegrityConstraintViolationException dup) {
-            // bubble up, service will translate to DuplicateException
-            throw new RuntimeException("duplicate", dup);
-        } catch (SQLException e) {
-            throw new RuntimeException("User insert failed", e);
-        }
+    private static final String UPDATE = """
+            UPDATE users SET username=?, email=?, password_hash=?, role=?, updated_at=NOW()
+            WHERE id=? AND deleted_at IS NULL
+        """;
+    private static final String SOFT_DELETE = "UPDATE users SET deleted_at=NOW() WHERE id=? AND deleted_at IS NULL";
+
+    private static final SqlQuery<User> FIND_BY_ID = SqlQuery.of("User findById",
+            "SELECT " + COLUMNS + " FROM users WHERE id=? AND deleted_at IS NULL", MAPPER);
+    private static final SqlQuery<User> FIND_BY_USERNAME = SqlQuery.of("findByUsername",
+            "SELECT " + COLUMNS + " FROM users WHERE username=? AND deleted_at IS NULL", MAPPER);
+    private static final SqlQuery<User> FIND_BY_EMAIL = SqlQuery.of("findByEmail",
+            "SELECT " + COLUMNS + " FROM users WHERE email=? AND deleted_at IS NULL", MAPPER);
+    private static final SqlQuery<User> LIST = SqlQuery.of("User list",
+            "SELECT " + COLUMNS + " FROM users WHERE deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            MAPPER).withFetchSize(100);
+
+    private final JdbcTemplate jdbc;
+
+    public UserRepositoryJdbc(DataSource ds) { this.jdbc = new JdbcTemplate(ds); }
+
+    @Override
+    public long create(User user) {
+        // constraint violations surface as RuntimeException("duplicate"); service translates to DuplicateException
+        return jdbc.insert("User insert", INSERT,
+                user.getUsername(), user.getEmail(), user.getPasswordHash(), user.getRole());
     }
 
     @Override
     public Optional<User> findById(long id) {
-        String sql = "SELECT * FROM users WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection();
-             var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            try (var rs = ps.executeQuery()) {
-                return rs.next() ? Optional.of(map(rs)) : Optional.empty();
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("User findById failed", e);
-        }
+        return jdbc.queryOne(FIND_BY_ID, id);
+    }
+
+    @Override
+    public List<User> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        var byIds = SqlQuery.of("User findByIds", "SELECT " + COLUMNS + " FROM users WHERE id IN ("
+                + JdbcTemplate.placeholders(ids.size()) + ") AND deleted_at IS NULL", MAPPER);
+        return jdbc.query(byIds, ids.toArray());
     }
 
     @Override
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, username);
-            try (var rs = ps.executeQuery()) {
-                return rs.next() ? Optional.of(map(rs)) : Optional.empty();
-            }
-        } catch (SQLException e) { throw new RuntimeException("findByUsername failed", e); }
+        return jdbc.queryOne(FIND_BY_USERNAME, username);
     }
 
     @Override
     public Optional<User> findByEmail(String email) {
-        String sql = "SELECT * FROM users WHERE email=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, email);
-            try (var rs = ps.executeQuery()) {
-                return rs.next() ? Optional.of(map(rs)) : Optional.empty();
-            }
-        } catch (SQLException e) { throw new RuntimeException("findByEmail failed", e); }
+        return jdbc.queryOne(FIND_BY_EMAIL, email);
     }
 
     @Override
     public List<User> list(int page, int size) {
-        String sql = "SELECT * FROM users WHERE deleted_at IS NULL ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        int offset = Math.max(0, (page - 1) * size);
-        List<User> out = new ArrayList<>();
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setInt(1, size);
-            ps.setInt(2, offset);
-            try (var rs = ps.executeQuery()) {
-                while (rs.next()) out.add(map(rs));
-            }
-            return out;
-        } catch (SQLException e) { throw new RuntimeException("User list failed", e); }
+        return jdbc.query(LIST, size, JdbcTemplate.offset(page, size));
     }
 
     @Override
     public boolean update(User user) {
-        String sql = """
-            UPDATE users SET username=?, email=?, password_hash=?, role=?, updated_at=NOW()
-            WHERE id=? AND deleted_at IS NULL
-        """;
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setString(1, user.getUsername());
-            ps.setString(2, user.getEmail());
-            ps.setString(3, user.getPasswordHash());
-            ps.setString(4, user.getRole());
-            ps.setLong(5, user.getId());
-            return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("User update failed", e); }
+        return jdbc.update("User update", UPDATE,
+                user.getUsername(), user.getEmail(), user.getPasswordHash(), user.getRole(), user.getId()) == 1;
     }
 
     @Override
-    public boolean softDelete(long id) {
-        String sql = "UPDATE users SET deleted_at=NOW() WHERE id=? AND deleted_at IS NULL";
-        try (var con = ds.getConnection(); var ps = con.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            return ps.executeUpdate() == 1;
-        } catch (SQLException e) { throw new RuntimeException("User softDelete failed", e); }
+    public List<Long> createAll(List<User> users) {
+        List<Long> ids = jdbc.batchInsert("User createAll", INSERT, users,
+                u -> new Object[]{u.getUsername(), u.getEmail(), u.getPasswordHash(), u.getRole()});
+        for (int i = 0; i < ids.size(); i++) users.get(i).setId(ids.get(i));
+        return ids;
     }
 
-    private User map(ResultSet rs) throws SQLException {
-        User u = new User();
-        u.setId(rs.getLong("id"));
-        u.setUsername(rs.getString("username"));
-        u.setEmail(rs.getString("email"));
-        u.setPasswordHash(rs.getString("password_hash"));
-        u.setRole(rs.getString("role"));
-        Timestamp c = rs.getTimestamp("created_at");
-        Timestamp up = rs.getTimestamp("updated_at");
-        Timestamp del = rs.getTimestamp("deleted_at");
-        u.setCreatedAt(c != null ? c.toLocalDateTime() : null);
-        u.setUpdatedAt(up != null ? up.toLocalDateTime() : null);
-        u.setDeletedAt(del != null ? del.toLocalDateTime() : null);
-        return u;
+    @Override
+    public int updateAll(List<User> users) {
+        return jdbc.batchUpdate("User updateAll", UPDATE, users,
+                u -> new Object[]{u.getUsername(), u.getEmail(), u.getPasswordHash(), u.getRole(), u.getId()});
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        return jdbc.update("User softDelete", SOFT_DELETE, id) == 1;
     }
 }
@@ -0,0 +1,188 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+import com.smartblog.core.model.Comment;
+import com.smartblog.infrastructure.repository.api.CommentRepository;
+
+/**
+ * In-memory CommentRepository over an {@link InMemoryStore}.
+ * Each post's comments are kept oldest first, the order {@code listByPost} pages through.
+ */
+public class CommentRepositoryMemory implements CommentRepository {
+    private final InMemoryStore store;
+
+    public CommentRepositoryMemory(InMemoryStore store) { this.store = store; }
+
+    @Override
+    public long create(Comment c) {
+        synchronized (store.comments) {
+            long id = InMemoryStore.nextId(store.commentSeq, c.getId());
+            if (store.comments.containsKey(id)) throw InMemoryStore.duplicate("comments.id " + id);
+            Comment row = InMemoryStore.copy(c);
+            row.setId(id);
+            row.setCreatedAt(InMemoryStore.now());
+            row.setDeletedAt(null);
+            row.setVersion(0);
+            store.comments.put(id, row);
+            store.commentsByPost.computeIfAbsent(row.getPostId(), p -> new ConcurrentSkipListSet<>(InMemoryStore.OLDEST_FIRST))
+                    .add(new InMemoryStore.Key(row.getCreatedAt(), id));
+            return id;
+        }
+    }
+
+    @Override
+    public Optional<Comment> findById(long id) {
+        Comment c = store.comments.get(id);
+        return c == null || c.getDeletedAt() != null ? Optional.empty() : Optional.of(InMemoryStore.copy(c));
+    }
+
+    @Override
+    public List<Comment> listByPost(long postId, int page, int size) {
+        var byPost = store.commentsByPost.get(postId);
+        if (byPost == null) return List.of();
+        return InMemoryStore.page(byPost.stream()
+                .map(k -> store.comments.get(k.id()))
+                .filter(c -> c != null && c.getDeletedAt() == null)
+                .map(InMemoryStore::copy), page, size);
+    }
+
+    @Override
+    public Map<Long, List<Comment>> latestByPosts(Collection<Long> postIds, int n) {
+        Map<Long, List<Comment>> out = new LinkedHashMap<>();
+        if (n <= 0) return out;
+        for (Long postId : postIds) {
+            var byPost = store.commentsByPost.get(postId);
+            if (byPost == null) continue;
+            List<Comment> latest = byPost.descendingSet().stream()
+                    .map(k -> store.comments.get(k.id()))
+                    .filter(c -> c != null && c.getDeletedAt() == null)
+                    .limit(n)
+                    .map(InMemoryStore::copy)
+                    .toList();
+            if (!latest.isEmpty()) out.put(postId, latest);
+        }
+        return out;
+    }
+
+    @Override
+    public Map<Long, Long> countByPosts(Collection<Long> postIds) {
+        Map<Long, Long> out = new LinkedHashMap<>();
+        for (Long postId : postIds) {
+            var byPost = store.commentsByPost.get(postId);
+            long live = byPost == null ? 0 : byPost.stream()
+                    .map(k -> store.comments.get(k.id()))
+                    .filter(c -> c != null && c.getDeletedAt() == null)
+                    .count();
+            if (live > 0) out.put(postId, live);
+        }
+        return out;
+    }
+
+    @Override
+    public boolean update(Comment c) {
+        synchronized (store.comments) {
+            Comment row = store.comments.get(c.getId());
+            if (row == null || row.getDeletedAt() != null) return false;
+            Comment next = InMemoryStore.copy(row);
+            next.setContent(c.getContent());
+            next.setVersion(row.getVersion() + 1);
+            store.comments.put(next.getId(), next);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean updateIfPermitted(Comment c, Long actorId, boolean admin) {
+        synchronized (store.comments) {
+            Comment row = store.comments.get(c.getId());
+            return row != null && (admin || actorId != null && row.getUserId() == actorId) && update(c);
+        }
+    }
+
+    @Override
+    public boolean updateIfCurrent(Comment c, Long actorId, boolean admin) {
+        synchronized (store.comments) {
+            Comment row = store.comments.get(c.getId());
+            if (row == null || row.getVersion() != c.getVersion() || !updateIfPermitted(c, actorId, admin)) return false;
+            c.setVersion(c.getVersion() + 1);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<Long> softDeleteIfPermitted(long id, Long actorId, boolean admin) {
+        synchronized (store.comments) {
+            Comment row = store.comments.get(id);
+            return row != null && (admin || actorId != null && row.getUserId() == actorId) && softDelete(id)
+                    ? Optional.of(row.getPostId())
+                    : Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean restoreIfPermitted(long id, Long actorId, boolean admin) {
+        synchronized (store.comments) {
+            Comment row = store.comments.get(id);
+            if (row == null || row.getDeletedAt() == null || !(admin || actorId != null && row.getUserId() == actorId)) {
+                return false;
+            }
+            Comment next = InMemoryStore.copy(row);
+            next.setDeletedAt(null);
+            next.setVersion(row.getVersion() + 1);
+            store.comments.put(id, next);
+            store.commentsByPost.computeIfAbsent(row.getPostId(), p -> new ConcurrentSkipListSet<>(InMemoryStore.OLDEST_FIRST))
+                    .add(new InMemoryStore.Key(row.getCreatedAt(), id));
+            return true;
+        }
+    }
+
+    @Override
+    public List<Long> createAll(List<Comment> comments) {
+        long assigned = comments.stream().filter(c -> c.getId() != 0).count();
+        if (assigned > 0 && assigned < comments.size()) {
+            throw new IllegalArgumentException("Either all or none of the comments may have ids assigned");
+        }
+        List<Long> ids = new ArrayList<>(comments.size());
+        for (Comment c : comments) {
+            long id = create(c);
+            c.setId(id);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public int updateAll(List<Comment> comments) {
+        int n = 0;
+        for (Comment c : comments) if (update(c)) n++;
+        return n;
+    }
+
+    @Override
+    public Stream<Comment> streamAll() {
+        return store.comments.values().stream().filter(c -> c.getDeletedAt() == null).map(InMemoryStore::copy);
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        synchronized (store.comments) {
+            Comment row = store.comments.get(id);
+            if (row == null || row.getDeletedAt() != null) return false;
+            Comment next = InMemoryStore.copy(row);
+            next.setDeletedAt(InMemoryStore.now());
+            next.setVersion(row.getVersion() + 1);
+            store.comments.put(id, next);
+            var byPost = store.commentsByPost.get(row.getPostId());
+            if (byPost != null) byPost.remove(new InMemoryStore.Key(row.getCreatedAt(), id));
+            return true;
+        }
+    }
+}
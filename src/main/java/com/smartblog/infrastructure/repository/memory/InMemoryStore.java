@@ -0,0 +1,119 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.smartblog.core.model.Comment;
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.Tag;
+import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+
+/**
+ * Tables and indexes shared by the in-memory repositories.
+ *
+ * Rows live in concurrent hash maps keyed by id; listings are served from concurrent skip-list
+ * indexes of {@link Key}s (created_at, id) in the order the SQL queries use, so a page is a walk from the
+ * head of a sorted set rather than a sort. Soft-deleted rows stay in the id maps (and keep their unique
+ * usernames, emails, names and slugs, as in MySQL) but are dropped from the indexes.
+ *
+ * Writes to one table are serialized on that table's map and replace rows rather than mutate them;
+ * reads never lock. Repositories hand out and store copies, so callers mutating a returned object do not
+ * change stored state until they call update.
+ */
+public final class InMemoryStore {
+
+    /** Index entry: rows sort by creation time, ties broken by id. */
+    record Key(LocalDateTime createdAt, long id) {}
+
+    static final Comparator<Key> NEWEST_FIRST =
+            Comparator.comparing(Key::createdAt).thenComparingLong(Key::id).reversed();
+    static final Comparator<Key> OLDEST_FIRST =
+            Comparator.comparing(Key::createdAt).thenComparingLong(Key::id);
+
+    // AUTO_INCREMENT counters; explicitly assigned ids move them forward like MySQL does
+    final AtomicLong userSeq = new AtomicLong();
+    final AtomicLong postSeq = new AtomicLong();
+    final AtomicLong tagSeq = new AtomicLong();
+    final AtomicLong commentSeq = new AtomicLong();
+
+    final ConcurrentHashMap<Long, User> users = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Long> usersByUsername = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Long> usersByEmail = new ConcurrentHashMap<>();
+    final ConcurrentSkipListSet<Key> usersByCreated = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+
+    final ConcurrentHashMap<Long, Post> posts = new ConcurrentHashMap<>();
+    final ConcurrentSkipListSet<Key> postsByCreated = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    final ConcurrentHashMap<Long, ConcurrentSkipListSet<Key>> postsByAuthor = new ConcurrentHashMap<>();
+
+    final ConcurrentHashMap<Long, Tag> tags = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Long> tagsBySlug = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Long> tagsByName = new ConcurrentHashMap<>();
+    // post_tags in both directions; the tag side is ordered like the searchByTag query
+    final ConcurrentHashMap<Long, ConcurrentSkipListSet<Key>> postsByTag = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<Long, Set<Long>> tagsByPost = new ConcurrentHashMap<>();
+
+    final ConcurrentHashMap<Long, Comment> comments = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<Long, ConcurrentSkipListSet<Key>> commentsByPost = new ConcurrentHashMap<>();
+
+    /** Current time at DATETIME precision. */
+    static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /** Unique keys compare like MySQL's default case-insensitive collation. */
+    static String fold(String s) {
+        return s == null ? null : s.toLowerCase(Locale.ROOT);
+    }
+
+    /** Same page arithmetic as the JDBC repositories ({@code LIMIT size OFFSET (page-1)*size}). */
+    static <T> List<T> page(Stream<T> rows, int page, int size) {
+        return rows.skip(JdbcTemplate.offset(page, size)).limit(Math.max(0, size)).toList();
+    }
+
+    static long nextId(AtomicLong seq, Long assigned) {
+        if (assigned == null || assigned == 0) return seq.incrementAndGet();
+        seq.accumulateAndGet(assigned, Math::max);
+        return assigned;
+    }
+
+    /** Same failure the JDBC layer raises for constraint violations. */
+    static RuntimeException duplicate(String what) {
+        return new RuntimeException("duplicate", new IllegalStateException(what));
+    }
+
+    boolean isLivePost(long id) {
+        Post p = posts.get(id);
+        return p != null && p.getDeletedAt() == null;
+    }
+
+    static User copy(User u) {
+        return new User(u.getId(), u.getUsername(), u.getEmail(), u.getPasswordHash(), u.getRole(),
+                u.getCreatedAt(), u.getUpdatedAt(), u.getDeletedAt());
+    }
+
+    static Post copy(Post p) {
+        Post copy = new Post(p.getId(), p.getAuthorId(), p.getTitle(), p.getContent(), p.isPublished(),
+                p.getCreatedAt(), p.getUpdatedAt(), p.getDeletedAt());
+        copy.setVersion(p.getVersion());
+        return copy;
+    }
+
+    static Tag copy(Tag t) {
+        return new Tag(t.getId(), t.getName(), t.getSlug());
+    }
+
+    static Comment copy(Comment c) {
+        Comment copy = new Comment(c.getId(), c.getPostId(), c.getUserId(), c.getContent(), c.getCreatedAt(), c.getDeletedAt());
+        copy.setVersion(c.getVersion());
+        return copy;
+    }
+}
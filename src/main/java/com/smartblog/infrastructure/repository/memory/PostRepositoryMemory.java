@@ -0,0 +1,332 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.repository.api.PostRepository;
+
+/**
+ * In-memory PostRepository over an {@link InMemoryStore}.
+ *
+ * Listings walk the created_at, author and tag indexes, so they return the same rows in the same order
+ * and pages as {@code PostRepositoryJdbc}. {@link #search} approximates the FULLTEXT natural-language
+ * match: a post matches when its title or content contains any keyword word of at least three characters
+ * (InnoDB's minimum token size), case-insensitively.
+ */
+public class PostRepositoryMemory implements PostRepository {
+    private static final Pattern WORD = Pattern.compile("[^\\p{L}\\p{N}_]+");
+    private static final int MIN_TOKEN = 3;
+
+    private final InMemoryStore store;
+
+    public PostRepositoryMemory(InMemoryStore store) { this.store = store; }
+
+    @Override
+    public long create(Post p) {
+        synchronized (store.posts) {
+            long id = InMemoryStore.nextId(store.postSeq, p.getId());
+            if (store.posts.containsKey(id)) throw InMemoryStore.duplicate("posts.id " + id);
+            Post row = InMemoryStore.copy(p);
+            row.setId(id);
+            row.setCreatedAt(InMemoryStore.now());
+            row.setUpdatedAt(null);
+            row.setDeletedAt(null);
+            row.setVersion(0);
+            store.posts.put(id, row);
+            index(row);
+            return id;
+        }
+    }
+
+    @Override
+    public Optional<Post> findById(long id) {
+        Post p = store.posts.get(id);
+        return p == null || p.getDeletedAt() != null ? Optional.empty() : Optional.of(InMemoryStore.copy(p));
+    }
+
+    @Override
+    public List<Post> list(PostStatus status, int page, int size) {
+        return InMemoryStore.page(withStatus(rows(store.postsByCreated), status), page, size);
+    }
+
+    @Override
+    public List<Post> search(String keyword, PostStatus status, int page, int size) {
+        Set<String> words = words(keyword);
+        if (words.isEmpty()) return List.of();
+        return InMemoryStore.page(withStatus(rows(store.postsByCreated), status)
+                .filter(p -> matchesAny(p.getTitle(), words) || matchesAny(p.getContent(), words)), page, size);
+    }
+
+    @Override
+    public List<Post> listByAuthor(long authorId, PostStatus status, int page, int size) {
+        var byAuthor = store.postsByAuthor.get(authorId);
+        return byAuthor == null ? List.of() : InMemoryStore.page(withStatus(rows(byAuthor), status), page, size);
+    }
+
+    @Override
+    public long countByAuthor(long authorId, PostStatus status) {
+        var byAuthor = store.postsByAuthor.get(authorId);
+        return byAuthor == null ? 0 : withStatus(rows(byAuthor), status).count();
+    }
+
+    @Override
+    public boolean update(Post p) {
+        synchronized (store.posts) {
+            Post row = p.getId() == null ? null : store.posts.get(p.getId());
+            if (row == null || row.getDeletedAt() != null) return false;
+            Post next = InMemoryStore.copy(row);
+            next.setAuthorId(p.getAuthorId());
+            next.setTitle(p.getTitle());
+            next.setContent(p.getContent());
+            next.setPublished(p.isPublished());
+            next.setUpdatedAt(InMemoryStore.now());
+            next.setVersion(row.getVersion() + 1);
+            if (!next.getAuthorId().equals(row.getAuthorId())) unindex(row);
+            store.posts.put(next.getId(), next);
+            index(next);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean updateIfPermitted(Post p, Long actorId, boolean admin) {
+        synchronized (store.posts) {
+            Post row = p.getId() == null ? null : store.posts.get(p.getId());
+            if (row == null || !(admin || row.getAuthorId().equals(actorId))) return false;
+            Post next = InMemoryStore.copy(row);
+            next.setTitle(p.getTitle());
+            next.setContent(p.getContent());
+            next.setPublished(p.isPublished());
+            return update(next);
+        }
+    }
+
+    @Override
+    public boolean updateIfCurrent(Post p, Long actorId, boolean admin) {
+        synchronized (store.posts) {
+            Post row = p.getId() == null ? null : store.posts.get(p.getId());
+            if (row == null || row.getVersion() != p.getVersion() || !updateIfPermitted(p, actorId, admin)) return false;
+            p.setVersion(p.getVersion() + 1);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean softDeleteIfPermitted(long id, Long actorId, boolean admin) {
+        synchronized (store.posts) {
+            Post row = store.posts.get(id);
+            return row != null && (admin || row.getAuthorId().equals(actorId)) && softDelete(id);
+        }
+    }
+
+    @Override
+    public boolean restoreIfPermitted(long id, Long actorId, boolean admin) {
+        synchronized (store.posts) {
+            Post row = store.posts.get(id);
+            if (row == null || row.getDeletedAt() == null || !(admin || row.getAuthorId().equals(actorId))) return false;
+            Post next = InMemoryStore.copy(row);
+            next.setDeletedAt(null);
+            next.setVersion(row.getVersion() + 1);
+            store.posts.put(id, next);
+            index(next);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean publish(long id) {
+        synchronized (store.posts) {
+            Post row = store.posts.get(id);
+            if (row == null) return false;
+            Post next = InMemoryStore.copy(row);
+            next.setPublished(true);
+            return update(next);
+        }
+    }
+
+    @Override
+    public boolean publishIfCurrent(long id, long version) {
+        synchronized (store.posts) {
+            Post row = store.posts.get(id);
+            return row != null && row.getVersion() == version && publish(id);
+        }
+    }
+
+    @Override
+    public List<Long> createAll(List<Post> posts) {
+        long assigned = posts.stream().filter(p -> p.getId() != null).count();
+        if (assigned > 0 && assigned < posts.size()) {
+            throw new IllegalArgumentException("Either all or none of the posts may have ids assigned");
+        }
+        List<Long> ids = new ArrayList<>(posts.size());
+        for (Post p : posts) {
+            long id = create(p);
+            p.setId(id);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public int updateAll(List<Post> posts) {
+        int n = 0;
+        for (Post p : posts) if (update(p)) n++;
+        return n;
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        synchronized (store.posts) {
+            Post row = store.posts.get(id);
+            if (row == null || row.getDeletedAt() != null) return false;
+            Post next = InMemoryStore.copy(row);
+            next.setDeletedAt(InMemoryStore.now());
+            next.setVersion(row.getVersion() + 1);
+            store.posts.put(id, next);
+            unindex(row);
+            return true;
+        }
+    }
+
+    @Override
+    public List<Post> searchByTag(String tag, int page, int size) {
+        Long tagId = store.tagsByName.get(InMemoryStore.fold(tag));
+        var tagged = tagId == null ? null : store.postsByTag.get(tagId);
+        return tagged == null ? List.of() : InMemoryStore.page(rows(tagged), page, size);
+    }
+
+    @Override
+    public List<Post> searchByAuthorName(String authorName, int page, int size) {
+        Set<Long> authors = authorsLike(authorName);
+        return InMemoryStore.page(rows(store.postsByCreated).filter(p -> authors.contains(p.getAuthorId())), page, size);
+    }
+
+    @Override
+    public List<Post> searchCombined(String keyword, String tag, String authorName, PostStatus status, String sortBy,
+                                     int page, int size) {
+        Stream<Post> rows = matching(keyword, tag, authorName, status);
+
+        // rows arrive newest first; the sorts below are stable, so ties keep that order
+        Comparator<Post> order = switch (sortBy != null ? sortBy : "date_desc") {
+            case "date_asc" -> Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId);
+            case "title_asc" -> Comparator.comparing(Post::getTitle, String.CASE_INSENSITIVE_ORDER);
+            case "title_desc" -> Comparator.comparing(Post::getTitle, String.CASE_INSENSITIVE_ORDER).reversed();
+            case "author" -> Comparator.comparing(p -> username(p.getAuthorId()), String.CASE_INSENSITIVE_ORDER);
+            default -> null;
+        };
+        return InMemoryStore.page(order == null ? rows : rows.sorted(order), page, size);
+    }
+
+    @Override
+    public long countCombined(String keyword, String tag, String authorName, PostStatus status, int limit) {
+        return matching(keyword, tag, authorName, status).limit(limit).count();
+    }
+
+    /** Counting in memory is cheap, so the estimate is the exact count. */
+    @Override
+    public long estimateCombined(String keyword, String tag, String authorName, PostStatus status) {
+        return matching(keyword, tag, authorName, status).count();
+    }
+
+    /** Posts passing the searchCombined filters, newest first. */
+    private Stream<Post> matching(String keyword, String tag, String authorName, PostStatus status) {
+        Stream<Post> rows;
+        if (tag != null && !tag.isBlank()) {
+            Long tagId = store.tagsByName.get(InMemoryStore.fold(tag));
+            var tagged = tagId == null ? null : store.postsByTag.get(tagId);
+            if (tagged == null) return Stream.empty();
+            rows = rows(tagged);
+        } else {
+            rows = rows(store.postsByCreated);
+        }
+        // the SQL inner-joins users, so posts whose author row is gone never show up
+        rows = withStatus(rows, status).filter(p -> store.users.containsKey(p.getAuthorId()));
+        if (keyword != null && !keyword.isBlank()) {
+            String k = InMemoryStore.fold(keyword);
+            rows = rows.filter(p -> contains(p.getTitle(), k) || contains(p.getContent(), k));
+        }
+        if (authorName != null && !authorName.isBlank()) {
+            Set<Long> authors = authorsLike(authorName);
+            rows = rows.filter(p -> authors.contains(p.getAuthorId()));
+        }
+        return rows;
+    }
+
+    @Override
+    public Stream<Post> streamAll() {
+        return store.posts.values().stream().filter(p -> p.getDeletedAt() == null).map(InMemoryStore::copy);
+    }
+
+    private static Stream<Post> withStatus(Stream<Post> rows, PostStatus status) {
+        return status == PostStatus.ANY ? rows : rows.filter(p -> status.matches(p.isPublished()));
+    }
+
+    /** Live posts of an index, in index order, as copies. */
+    private Stream<Post> rows(ConcurrentSkipListSet<InMemoryStore.Key> index) {
+        return index.stream()
+                .map(k -> store.posts.get(k.id()))
+                .filter(p -> p != null && p.getDeletedAt() == null)
+                .map(InMemoryStore::copy);
+    }
+
+    private void index(Post p) {
+        var key = new InMemoryStore.Key(p.getCreatedAt(), p.getId());
+        store.postsByCreated.add(key);
+        store.postsByAuthor.computeIfAbsent(p.getAuthorId(), a -> new ConcurrentSkipListSet<>(InMemoryStore.NEWEST_FIRST)).add(key);
+        for (Long tagId : store.tagsByPost.getOrDefault(p.getId(), Set.of())) {
+            store.postsByTag.computeIfAbsent(tagId, t -> new ConcurrentSkipListSet<>(InMemoryStore.NEWEST_FIRST)).add(key);
+        }
+    }
+
+    private void unindex(Post p) {
+        var key = new InMemoryStore.Key(p.getCreatedAt(), p.getId());
+        store.postsByCreated.remove(key);
+        var byAuthor = store.postsByAuthor.get(p.getAuthorId());
+        if (byAuthor != null) byAuthor.remove(key);
+        for (Long tagId : store.tagsByPost.getOrDefault(p.getId(), Set.of())) {
+            var tagged = store.postsByTag.get(tagId);
+            if (tagged != null) tagged.remove(key);
+        }
+    }
+
+    private Set<Long> authorsLike(String authorName) {
+        String needle = InMemoryStore.fold(authorName);
+        return store.users.values().stream()
+                .filter(u -> contains(u.getUsername(), needle))
+                .map(User::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private String username(Long authorId) {
+        User u = store.users.get(authorId);
+        return u == null ? "" : u.getUsername();
+    }
+
+    private static boolean contains(String text, String foldedNeedle) {
+        return text != null && InMemoryStore.fold(text).contains(foldedNeedle);
+    }
+
+    private static Set<String> words(String text) {
+        if (text == null) return Set.of();
+        return Arrays.stream(WORD.split(InMemoryStore.fold(text)))
+                .filter(w -> w.length() >= MIN_TOKEN)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean matchesAny(String text, Set<String> words) {
+        if (text == null) return false;
+        for (String w : WORD.split(InMemoryStore.fold(text))) if (words.contains(w)) return true;
+        return false;
+    }
+}
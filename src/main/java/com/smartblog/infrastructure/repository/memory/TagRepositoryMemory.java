@@ -0,0 +1,177 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.Tag;
+import com.smartblog.infrastructure.repository.api.TagRepository;
+
+/**
+ * In-memory TagRepository over an {@link InMemoryStore}, including the post_tags relation.
+ * Names and slugs are unique; deleting a tag removes its links (ON DELETE CASCADE).
+ */
+public class TagRepositoryMemory implements TagRepository {
+    private static final Comparator<Tag> BY_NAME = Comparator.comparing(Tag::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private final InMemoryStore store;
+
+    public TagRepositoryMemory(InMemoryStore store) { this.store = store; }
+
+    @Override
+    public long create(Tag t) {
+        synchronized (store.tags) {
+            checkUnique(t, null);
+            long id = InMemoryStore.nextId(store.tagSeq, t.getId());
+            if (store.tags.containsKey(id)) throw InMemoryStore.duplicate("tags.id " + id);
+            Tag row = InMemoryStore.copy(t);
+            row.setId(id);
+            store.tags.put(id, row);
+            store.tagsByName.put(InMemoryStore.fold(row.getName()), id);
+            store.tagsBySlug.put(InMemoryStore.fold(row.getSlug()), id);
+            return id;
+        }
+    }
+
+    @Override public Optional<Tag> findById(long id) { return copyOf(store.tags.get(id)); }
+
+    @Override public Optional<Tag> findBySlug(String slug) { return byKey(store.tagsBySlug, slug); }
+
+    @Override public Optional<Tag> findByName(String name) { return byKey(store.tagsByName, name); }
+
+    @Override public List<Tag> listAll() {
+        return store.tags.values().stream().map(InMemoryStore::copy).sorted(BY_NAME).toList();
+    }
+
+    @Override public boolean update(Tag t) {
+        synchronized (store.tags) {
+            Tag row = t.getId() == null ? null : store.tags.get(t.getId());
+            if (row == null) return false;
+            checkUnique(t, row.getId());
+            store.tagsByName.remove(InMemoryStore.fold(row.getName()));
+            store.tagsBySlug.remove(InMemoryStore.fold(row.getSlug()));
+            Tag next = InMemoryStore.copy(t);
+            store.tags.put(next.getId(), next);
+            store.tagsByName.put(InMemoryStore.fold(next.getName()), next.getId());
+            store.tagsBySlug.put(InMemoryStore.fold(next.getSlug()), next.getId());
+            return true;
+        }
+    }
+
+    @Override public List<Long> createAll(List<Tag> tags) {
+        List<Long> ids = new ArrayList<>(tags.size());
+        for (Tag t : tags) {
+            long id = create(t);
+            t.setId(id);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override public int updateAll(List<Tag> tags) {
+        int n = 0;
+        for (Tag t : tags) if (update(t)) n++;
+        return n;
+    }
+
+    @Override public boolean delete(long id) {
+        synchronized (store.tags) {
+            Tag row = store.tags.remove(id);
+            if (row == null) return false;
+            store.tagsByName.remove(InMemoryStore.fold(row.getName()));
+            store.tagsBySlug.remove(InMemoryStore.fold(row.getSlug()));
+            store.postsByTag.remove(id);
+            store.tagsByPost.values().forEach(linked -> linked.remove(id));
+            return true;
+        }
+    }
+
+    // Relations
+    @Override public boolean addTagToPost(long postId, long tagId) {
+        // an existing link counts as success, like the INSERT IGNORE it replaces
+        link(postId, tagId);
+        return true;
+    }
+
+    @Override public boolean removeTagFromPost(long postId, long tagId) {
+        Set<Long> linked = store.tagsByPost.get(postId);
+        if (linked == null || !linked.remove(tagId)) return false;
+        Post p = store.posts.get(postId);
+        var tagged = store.postsByTag.get(tagId);
+        if (p != null && tagged != null) tagged.remove(new InMemoryStore.Key(p.getCreatedAt(), postId));
+        return true;
+    }
+
+    @Override public List<Tag> listByPost(long postId) {
+        return store.tagsByPost.getOrDefault(postId, Set.of()).stream()
+                .map(store.tags::get)
+                .filter(t -> t != null)
+                .map(InMemoryStore::copy)
+                .sorted(BY_NAME)
+                .toList();
+    }
+
+    @Override public Map<Long, List<Tag>> listByPosts(Collection<Long> postIds) {
+        Map<Long, List<Tag>> out = new LinkedHashMap<>();
+        for (Long postId : postIds) {
+            List<Tag> tags = listByPost(postId);
+            if (!tags.isEmpty()) out.put(postId, tags);
+        }
+        return out;
+    }
+
+    /** Same contract as the JDBC version: tags matched by slug, then name; missing ones are created. */
+    @Override public List<Tag> setTagsForPost(long postId, Collection<Tag> wanted) {
+        Set<Long> keep = new HashSet<>();
+        List<Tag> result = new ArrayList<>();
+        synchronized (store.tags) {
+            for (Tag t : wanted) {
+                Long id = store.tagsBySlug.get(InMemoryStore.fold(t.getSlug()));
+                if (id == null) id = store.tagsByName.get(InMemoryStore.fold(t.getName()));
+                if (id == null) id = create(new Tag(null, t.getName(), t.getSlug()));
+                if (keep.add(id)) result.add(InMemoryStore.copy(store.tags.get(id)));
+            }
+        }
+        for (Long tagId : List.copyOf(store.tagsByPost.getOrDefault(postId, Set.of()))) {
+            if (!keep.contains(tagId)) removeTagFromPost(postId, tagId);
+        }
+        for (Long tagId : keep) link(postId, tagId);
+        result.sort(BY_NAME);
+        return result;
+    }
+
+    private void link(long postId, long tagId) {
+        if (!store.tags.containsKey(tagId)) return;
+        store.tagsByPost.computeIfAbsent(postId, p -> ConcurrentHashMap.newKeySet()).add(tagId);
+        Post p = store.posts.get(postId);
+        if (p != null && p.getDeletedAt() == null) {
+            store.postsByTag.computeIfAbsent(tagId, t -> new ConcurrentSkipListSet<>(InMemoryStore.NEWEST_FIRST))
+                    .add(new InMemoryStore.Key(p.getCreatedAt(), postId));
+        }
+    }
+
+    private void checkUnique(Tag t, Long self) {
+        Long byName = store.tagsByName.get(InMemoryStore.fold(t.getName()));
+        if (byName != null && !byName.equals(self)) throw InMemoryStore.duplicate("tags.name " + t.getName());
+        Long bySlug = store.tagsBySlug.get(InMemoryStore.fold(t.getSlug()));
+        if (bySlug != null && !bySlug.equals(self)) throw InMemoryStore.duplicate("tags.slug " + t.getSlug());
+    }
+
+    private Optional<Tag> byKey(ConcurrentHashMap<String, Long> index, String key) {
+        Long id = index.get(InMemoryStore.fold(key));
+        return id == null ? Optional.empty() : copyOf(store.tags.get(id));
+    }
+
+    private static Optional<Tag> copyOf(Tag t) {
+        return t == null ? Optional.empty() : Optional.of(InMemoryStore.copy(t));
+    }
+}
@@ -0,0 +1,130 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.repository.api.UserRepository;
+
+/**
+ * In-memory UserRepository over an {@link InMemoryStore}.
+ * Username and email are unique (case-insensitively, soft-deleted users included) as in the schema.
+ */
+public class UserRepositoryMemory implements UserRepository {
+    private final InMemoryStore store;
+
+    public UserRepositoryMemory(InMemoryStore store) { this.store = store; }
+
+    @Override
+    public long create(User user) {
+        synchronized (store.users) {
+            checkUnique(user, null);
+            long id = InMemoryStore.nextId(store.userSeq, user.getId());
+            if (store.users.containsKey(id)) throw InMemoryStore.duplicate("users.id " + id);
+            User row = InMemoryStore.copy(user);
+            row.setId(id);
+            row.setCreatedAt(InMemoryStore.now());
+            row.setUpdatedAt(null);
+            row.setDeletedAt(null);
+            store.users.put(id, row);
+            store.usersByUsername.put(InMemoryStore.fold(row.getUsername()), id);
+            store.usersByEmail.put(InMemoryStore.fold(row.getEmail()), id);
+            store.usersByCreated.add(new InMemoryStore.Key(row.getCreatedAt(), id));
+            return id;
+        }
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return live(store.users.get(id));
+    }
+
+    @Override
+    public List<User> findByIds(Collection<Long> ids) {
+        return ids.stream().distinct().map(this::findById).flatMap(Optional::stream).toList();
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        Long id = store.usersByUsername.get(InMemoryStore.fold(username));
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Long id = store.usersByEmail.get(InMemoryStore.fold(email));
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public List<User> list(int page, int size) {
+        return InMemoryStore.page(store.usersByCreated.stream()
+                .map(k -> store.users.get(k.id()))
+                .map(InMemoryStore::copy), page, size);
+    }
+
+    @Override
+    public boolean update(User user) {
+        synchronized (store.users) {
+            User row = user.getId() == null ? null : store.users.get(user.getId());
+            if (row == null || row.getDeletedAt() != null) return false;
+            checkUnique(user, row.getId());
+            store.usersByUsername.remove(InMemoryStore.fold(row.getUsername()));
+            store.usersByEmail.remove(InMemoryStore.fold(row.getEmail()));
+            User next = InMemoryStore.copy(row);
+            next.setUsername(user.getUsername());
+            next.setEmail(user.getEmail());
+            next.setPasswordHash(user.getPasswordHash());
+            next.setRole(user.getRole());
+            next.setUpdatedAt(InMemoryStore.now());
+            store.users.put(next.getId(), next);
+            store.usersByUsername.put(InMemoryStore.fold(next.getUsername()), next.getId());
+            store.usersByEmail.put(InMemoryStore.fold(next.getEmail()), next.getId());
+            return true;
+        }
+    }
+
+    @Override
+    public List<Long> createAll(List<User> users) {
+        List<Long> ids = new ArrayList<>(users.size());
+        for (User u : users) {
+            long id = create(u);
+            u.setId(id);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public int updateAll(List<User> users) {
+        int n = 0;
+        for (User u : users) if (update(u)) n++;
+        return n;
+    }
+
+    @Override
+    public boolean softDelete(long id) {
+        synchronized (store.users) {
+            User row = store.users.get(id);
+            if (row == null || row.getDeletedAt() != null) return false;
+            User next = InMemoryStore.copy(row);
+            next.setDeletedAt(InMemoryStore.now());
+            store.users.put(id, next);
+            store.usersByCreated.remove(new InMemoryStore.Key(row.getCreatedAt(), id));
+            return true;
+        }
+    }
+
+    private void checkUnique(User u, Long self) {
+        Long byName = store.usersByUsername.get(InMemoryStore.fold(u.getUsername()));
+        if (byName != null && !byName.equals(self)) throw InMemoryStore.duplicate("users.username " + u.getUsername());
+        Long byEmail = store.usersByEmail.get(InMemoryStore.fold(u.getEmail()));
+        if (byEmail != null && !byEmail.equals(self)) throw InMemoryStore.duplicate("users.email " + u.getEmail());
+    }
+
+    private static Optional<User> live(User u) {
+        return u == null || u.getDeletedAt() != null ? Optional.empty() : Optional.of(InMemoryStore.copy(u));
+    }
+}
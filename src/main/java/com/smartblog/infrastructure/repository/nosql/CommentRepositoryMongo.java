@@ -4,14 +4,27 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.bson.Document;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
 import com.smartblog.core.model.Comment;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.infrastructure.nosql.MongoClientFactory;
 
 /**
@@ -19,6 +32,8 @@ import com.smartblog.infrastructure.nosql.MongoClientFactory;
  * Stores mysqlId field for reference tracking when MySQL is the primary source.
  */
 public class CommentRepositoryMongo {
+    private static final AppLogger log = AppLogger.get(CommentRepositoryMongo.class);
+
     private final MongoCollection<Document> col;
 
     public CommentRepositoryMongo(String uri, String dbName) {
@@ -50,7 +65,7 @@ public class CommentRepositoryMongo {
             if (idObj != null) oid = idObj.toString();
             if (oid != null) {
                 c.setMongoId(oid);
-                System.out.println("[Mongo] inserted comment _id=" + oid + " mysqlId=" + d.get("mysqlId"));
+                log.debug("inserted comment _id={} mysqlId={}", oid, d.get("mysqlId"));
             }
         } catch (Exception ignored) {}
     }
@@ -71,39 +86,108 @@ public class CommentRepositoryMongo {
                 .limit(size)
                 .iterator();
         try (cursor) {
+            while (cursor.hasNext()) out.add(toComment(cursor.next()));
+        }
+        return out;
+    }
+
+    /**
+     * The newest {@code n} comments of each post, newest first, from one aggregation. {@code $topN}
+     * (MongoDB 5.2+) keeps only {@code n} documents per post while grouping, instead of gathering
+     * every comment of the post and slicing afterwards.
+     *
+     * @param postIds posts to read
+     * @param n comments per post
+     * @return comments by post id; posts without comments have no entry
+     */
+    public Map<Long, List<Comment>> latestByPosts(Collection<Long> postIds, int n) {
+        Map<Long, List<Comment>> out = new HashMap<>();
+        if (postIds.isEmpty() || n <= 0) return out;
+        var pipeline = List.of(
+                Aggregates.match(Filters.in("postId", postIds)),
+                Aggregates.group("$postId", Accumulators.topN("comments", Sorts.descending("createdAt"), "$$ROOT", n)));
+        try (var cursor = col.aggregate(pipeline).iterator()) {
+            while (cursor.hasNext()) {
+                Document group = cursor.next();
+                List<Comment> latest = group.getList("comments", Document.class).stream()
+                        .map(CommentRepositoryMongo::toComment)
+                        .toList();
+                out.put(((Number) group.get("_id")).longValue(), latest);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Comments per post from one aggregation over the postId index.
+     *
+     * @param postIds posts to count
+     * @return counts by post id; posts without comments have no entry
+     */
+    public Map<Long, Long> countByPosts(Collection<Long> postIds) {
+        Map<Long, Long> out = new HashMap<>();
+        if (postIds.isEmpty()) return out;
+        var pipeline = List.of(
+                Aggregates.match(Filters.in("postId", postIds)),
+                Aggregates.group("$postId", Accumulators.sum("count", 1L)));
+        try (var cursor = col.aggregate(pipeline).iterator()) {
             while (cursor.hasNext()) {
-                Document doc = cursor.next();
-                Comment c = new Comment();
-                if (doc.containsKey("mysqlId")) {
-                    Object mid = doc.get("mysqlId");
-                    if (mid instanceof Number) c.setId(((Number) mid).intValue());
-                }
-                if (doc.containsKey("_id")) {
-                    var o = doc.get("_id");
-                    if (o != null) c.setMongoId(o.toString());
-                }
-                if (doc.containsKey("postId")) {
-                    Object pidObj = doc.get("postId");
-                    if (pidObj instanceof Number) c.setPostId(((Number) pidObj).intValue());
-                }
-                if (doc.containsKey("userId")) {
-                    Object uidObj = doc.get("userId");
-                    if (uidObj instanceof Number) c.setUserId(((Number) uidObj).intValue());
-                }
-                if (doc.containsKey("content")) c.setContent(doc.getString("content"));
-                if (doc.containsKey("createdAt")) {
-                    Object msObj = doc.get("createdAt");
-                    long ms = 0L;
-                    if (msObj instanceof Number) ms = ((Number) msObj).longValue();
-                    else if (msObj instanceof String) {
-                        try { ms = Long.parseLong((String) msObj); } catch (Exception ignored) {}
-                    }
-                    LocalDateTime dt = LocalDateTime.ofInstant(Instant.ofEpochMilli(ms), ZoneId.systemDefault());
-                    c.setCreatedAt(dt);
-                }
-                out.add(c);
+                Document group = cursor.next();
+                out.put(((Number) group.get("_id")).longValue(), ((Number) group.get("count")).longValue());
             }
         }
         return out;
     }
+
+    /**
+     * Streams every comment document through a cursor that fetches {@code batchSize} documents per
+     * round trip as the stream is consumed. Close the stream (try-with-resources) to release the cursor.
+     *
+     * @param batchSize documents per getMore round trip
+     * @return lazily read comments, in natural order
+     */
+    public Stream<Comment> streamAll(int batchSize) {
+        MongoCursor<Document> cursor = col.find().batchSize(batchSize).iterator();
+        var rows = new Spliterators.AbstractSpliterator<Comment>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Comment> action) {
+                if (!cursor.hasNext()) return false;
+                action.accept(toComment(cursor.next()));
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(cursor::close);
+    }
+
+    private static Comment toComment(Document doc) {
+        Comment c = new Comment();
+        if (doc.containsKey("mysqlId")) {
+            Object mid = doc.get("mysqlId");
+            if (mid instanceof Number) c.setId(((Number) mid).longValue());
+        }
+        if (doc.containsKey("_id")) {
+            var o = doc.get("_id");
+            if (o != null) c.setMongoId(o.toString());
+        }
+        if (doc.containsKey("postId")) {
+            Object pidObj = doc.get("postId");
+            if (pidObj instanceof Number) c.setPostId(((Number) pidObj).longValue());
+        }
+        if (doc.containsKey("userId")) {
+            Object uidObj = doc.get("userId");
+            if (uidObj instanceof Number) c.setUserId(((Number) uidObj).longValue());
+        }
+        if (doc.containsKey("content")) c.setContent(doc.getString("content"));
+        if (doc.containsKey("createdAt")) {
+            Object msObj = doc.get("createdAt");
+            long ms = 0L;
+            if (msObj instanceof Number) ms = ((Number) msObj).longValue();
+            else if (msObj instanceof String) {
+                try { ms = Long.parseLong((String) msObj); } catch (Exception ignored) {}
+            }
+            LocalDateTime dt = LocalDateTime.ofInstant(Instant.ofEpochMilli(ms), ZoneId.systemDefault());
+            c.setCreatedAt(dt);
+        }
+        return c;
+    }
 }
\ No newline at end of file
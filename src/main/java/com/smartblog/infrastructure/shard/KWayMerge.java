@@ -0,0 +1,38 @@
+package com.smartblog.infrastructure.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges per-shard result lists that are each already sorted into one page of a global ordering.
+ */
+public final class KWayMerge {
+    private KWayMerge() {}
+
+    private record Cursor(int list, int pos) {}
+
+    /**
+     * @param sorted one list per shard, each sorted by {@code order}
+     * @param offset rows of the merged order to skip
+     * @param limit maximum number of rows to return
+     */
+    public static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, int offset, int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(sorted.get(a.list()).get(a.pos()), sorted.get(b.list()).get(b.pos())));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) heads.add(new Cursor(i, 0));
+        }
+        List<T> out = new ArrayList<>(Math.max(0, limit));
+        int skipped = 0;
+        while (!heads.isEmpty() && out.size() < limit) {
+            Cursor c = heads.poll();
+            List<T> src = sorted.get(c.list());
+            if (skipped < offset) skipped++;
+            else out.add(src.get(c.pos()));
+            if (c.pos() + 1 < src.size()) heads.add(new Cursor(c.list(), c.pos() + 1));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,202 @@
+package com.smartblog.infrastructure.shard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.smartblog.bootstrap.AppBootstrap;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Moves one author's posts (and the comments on them) to another shard while the application keeps running.
+ *
+ * <ol>
+ *   <li>Copy: posts and comments are copied in id order with idempotent upserts; reads and writes
+ *       keep going to the source shard.</li>
+ *   <li>Cut-over: the author is marked LOCKED, so writes for that author wait
+ *       ({@link ShardMap#shardForWrite(long)}). After a grace period covering in-flight writes and the
+ *       directory refresh of other instances, rows whose fingerprint differs between the shards are
+ *       copied again, and target rows no longer on the source (hard-deleted by the Archiver meanwhile)
+ *       are deleted.</li>
+ *   <li>Flip: the directory points the author at the target shard (ACTIVE). After another grace period,
+ *       in which every instance picks up the new placement, the source rows are deleted.</li>
+ * </ol>
+ *
+ * Instances that located one of the author's posts on the source shard stop using that copy as soon
+ * as their directory shows the author on the target (ShardedPostRepository.findById).
+ *
+ * Usage: {@code ReshardingTool <authorId> <targetShard>}
+ */
+public final class ReshardingTool {
+    private static final AppLogger log = AppLogger.get(ReshardingTool.class);
+
+    private static final int CHUNK = 500;
+
+    private static final String POST_COLUMNS = "id, author_id, title, content, published, created_at, updated_at, deleted_at, version, "
+            + "content_format, content_compressed";
+    private static final String COMMENT_COLUMNS = "c.id, c.post_id, c.user_id, c.content, c.created_at, c.deleted_at, c.version";
+
+    private static final SqlQuery<Object[]> POSTS_AFTER = SqlQuery.of("Reshard posts",
+            "SELECT " + POST_COLUMNS + " FROM posts WHERE author_id=? AND id>? ORDER BY id LIMIT " + CHUNK,
+            rs -> row(rs, 11)).withFetchSize(CHUNK);
+    private static final SqlQuery<Object[]> COMMENTS_AFTER = SqlQuery.of("Reshard comments",
+            "SELECT " + COMMENT_COLUMNS + " FROM comments c JOIN posts p ON c.post_id=p.id "
+                    + "WHERE p.author_id=? AND c.id>? ORDER BY c.id LIMIT " + CHUNK,
+            rs -> row(rs, 7)).withFetchSize(CHUNK);
+    private static final SqlQuery<Object[]> POST_FINGERPRINTS = SqlQuery.of("Reshard post fingerprints",
+            "SELECT id, MD5(CONCAT_WS('|', title, content, content_format, IFNULL(content_compressed,''), published, "
+                    + "IFNULL(updated_at,''), IFNULL(deleted_at,''), version)) "
+                    + "FROM posts WHERE author_id=?",
+            rs -> row(rs, 2)).withFetchSize(1000);
+    private static final SqlQuery<Object[]> COMMENT_FINGERPRINTS = SqlQuery.of("Reshard comment fingerprints",
+            "SELECT c.id, MD5(CONCAT_WS('|', c.content, IFNULL(c.deleted_at,''), c.version)) "
+                    + "FROM comments c JOIN posts p ON c.post_id=p.id WHERE p.author_id=?",
+            rs -> row(rs, 2)).withFetchSize(1000);
+
+    private static final String UPSERT_POST = """
+            INSERT INTO posts(id, author_id, title, content, published, created_at, updated_at, deleted_at, version,
+                content_format, content_compressed)
+            VALUES (?,?,?,?,?,?,?,?,?,?,?)
+            ON DUPLICATE KEY UPDATE title=VALUES(title), content=VALUES(content), published=VALUES(published),
+                content_format=VALUES(content_format), content_compressed=VALUES(content_compressed),
+                updated_at=VALUES(updated_at), deleted_at=VALUES(deleted_at), version=VALUES(version)
+        """;
+    private static final String UPSERT_COMMENT = """
+            INSERT INTO comments(id, post_id, user_id, content, created_at, deleted_at, version)
+            VALUES (?,?,?,?,?,?,?)
+            ON DUPLICATE KEY UPDATE content=VALUES(content), deleted_at=VALUES(deleted_at), version=VALUES(version)
+        """;
+
+    private final ShardMap shards;
+    private final long graceMs;
+
+    public ReshardingTool(ShardMap shards) {
+        this(shards, shards.getRefreshMs() + 500);
+    }
+
+    public ReshardingTool(ShardMap shards, long graceMs) {
+        this.shards = shards;
+        this.graceMs = graceMs;
+    }
+
+    public void moveAuthor(long authorId, int target) {
+        if (target < 0 || target >= shards.size()) throw new IllegalArgumentException("No shard " + target);
+        int source = shards.shardFor(authorId);
+        if (source == target) {
+            log.info("Author {} already on shard {}", authorId, target);
+            return;
+        }
+        JdbcTemplate from = new JdbcTemplate(shards.shard(source));
+        JdbcTemplate to = new JdbcTemplate(shards.shard(target));
+
+        long start = System.currentTimeMillis();
+        int copiedPosts = copyAll(from, to, POSTS_AFTER, UPSERT_POST, authorId);
+        int copiedComments = copyAll(from, to, COMMENTS_AFTER, UPSERT_COMMENT, authorId);
+        log.info("Author {}: copied {} posts and {} comments from shard {} to {} in {} ms",
+                authorId, copiedPosts, copiedComments, source, target, System.currentTimeMillis() - start);
+
+        shards.place(authorId, source, ShardMap.State.LOCKED);
+        Synced posts;
+        Synced comments;
+        try {
+            sleep(graceMs);
+            posts = syncChanged(from, to, POST_FINGERPRINTS, "posts", POST_COLUMNS, UPSERT_POST, 11, authorId);
+            comments = syncChanged(from, to, COMMENT_FINGERPRINTS, "comments c", COMMENT_COLUMNS, UPSERT_COMMENT, 7, authorId);
+            // comments first: they reference posts
+            deleteByIds(to, "comments", comments.gone());
+            deleteByIds(to, "posts", posts.gone());
+            shards.place(authorId, target, ShardMap.State.ACTIVE);
+        } catch (RuntimeException e) {
+            shards.place(authorId, source, ShardMap.State.ACTIVE);
+            throw e;
+        }
+
+        // instances still reading the source until their directory refresh find it intact
+        sleep(graceMs);
+        deleteByIds(from, "comments", comments.source());
+        deleteByIds(from, "posts", posts.source());
+        log.info("Author {} moved to shard {} ({} ms total)", authorId, target, System.currentTimeMillis() - start);
+    }
+
+    private static int copyAll(JdbcTemplate from, JdbcTemplate to, SqlQuery<Object[]> page, String upsert, long authorId) {
+        int copied = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Object[]> rows = from.query(page, authorId, after);
+            if (rows.isEmpty()) return copied;
+            to.batchUpdate("Reshard upsert", upsert, rows, r -> r);
+            copied += rows.size();
+            after = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        }
+    }
+
+    /** Ids of the source rows, and of the target rows that are not on the source any more. */
+    private record Synced(List<Long> source, List<Long> gone) {}
+
+    /** Re-copies rows whose fingerprint differs between the shards. */
+    private static Synced syncChanged(JdbcTemplate from, JdbcTemplate to, SqlQuery<Object[]> fingerprints,
+                                          String table, String columns, String upsert, int width, long authorId) {
+        Map<Long, Object> targetPrints = new HashMap<>();
+        for (Object[] r : to.query(fingerprints, authorId)) targetPrints.put(((Number) r[0]).longValue(), r[1]);
+
+        List<Long> all = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (Object[] r : from.query(fingerprints, authorId)) {
+            long id = ((Number) r[0]).longValue();
+            all.add(id);
+            if (!Objects.equals(targetPrints.remove(id), r[1])) changed.add(id);
+        }
+        List<Long> gone = new ArrayList<>(targetPrints.keySet());
+        String idColumn = table.endsWith(" c") ? "c.id" : "id";
+        for (int i = 0; i < changed.size(); i += CHUNK) {
+            List<Long> ids = changed.subList(i, Math.min(i + CHUNK, changed.size()));
+            var q = SqlQuery.of("Reshard fetch changed", "SELECT " + columns + " FROM " + table
+                    + " WHERE " + idColumn + " IN (" + JdbcTemplate.placeholders(ids.size()) + ")", rs -> row(rs, width));
+            to.batchUpdate("Reshard upsert", upsert, from.query(q, ids.toArray()), r -> r);
+        }
+        log.info("Cut-over re-copied {} of {} rows from {}, {} gone from the source", changed.size(), all.size(),
+                table, gone.size());
+        return new Synced(all, gone);
+    }
+
+    private static void deleteByIds(JdbcTemplate jdbc, String table, List<Long> ids) {
+        for (int i = 0; i < ids.size(); i += CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(i + CHUNK, ids.size()));
+            jdbc.update("Reshard delete", "DELETE FROM " + table + " WHERE id IN (" + JdbcTemplate.placeholders(chunk.size()) + ")",
+                    chunk.toArray());
+        }
+    }
+
+    private static Object[] row(java.sql.ResultSet rs, int width) throws java.sql.SQLException {
+        Object[] r = new Object[width];
+        for (int i = 0; i < width; i++) r[i] = rs.getObject(i + 1);
+        return r;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during shard cut-over", e);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            log.error("Usage: ReshardingTool <authorId> <targetShard>");
+            return;
+        }
+        var ctx = AppBootstrap.start(WorkClass.BACKGROUND);
+        if (ctx.shardMap == null) {
+            log.error("Sharding is not configured (db.shards.urls is empty)");
+            return;
+        }
+        new ReshardingTool(ctx.shardMap).moveAuthor(Long.parseLong(args[0]), Integer.parseInt(args[1]));
+    }
+}
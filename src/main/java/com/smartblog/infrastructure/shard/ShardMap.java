@@ -0,0 +1,222 @@
+package com.smartblog.infrastructure.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+import com.smartblog.infrastructure.jdbc.JdbcTemplate;
+import com.smartblog.infrastructure.jdbc.SqlQuery;
+import com.smartblog.infrastructure.logging.AppLogger;
+
+/**
+ * Maps authors to shards.
+ *
+ * Shard 0 is the global shard: it also holds users, tags, post_tags and the author_shard directory.
+ * An author lives on {@code hash(authorId) mod shards} unless the directory places it elsewhere
+ * (see {@link ReshardingTool}). While an author is being cut over to another shard its placement is
+ * LOCKED and {@link #shardForWrite(long)} waits for the move to finish.
+ *
+ * The directory is cached in memory and reloaded periodically so other running instances pick up moves.
+ * {@link #withPools} gives the same directory over another class of work's connection pools.
+ */
+public final class ShardMap implements AutoCloseable {
+    private static final AppLogger log = AppLogger.get(ShardMap.class);
+
+    public enum State { ACTIVE, LOCKED }
+
+    public record Placement(int shard, State state) {}
+
+    private static final SqlQuery<Object[]> LOAD = SqlQuery.of("ShardMap load",
+            "SELECT author_id, shard, state FROM author_shard",
+            rs -> new Object[]{rs.getLong(1), rs.getInt(2), rs.getString(3)});
+    private static final String PLACE = """
+            INSERT INTO author_shard(author_id, shard, state) VALUES(?,?,?)
+            ON DUPLICATE KEY UPDATE shard=VALUES(shard), state=VALUES(state)
+        """;
+
+    // scatter-gather fan-out; virtual threads so a slow shard never starves the others
+    private static final ExecutorService SCATTER = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final List<DataSource> shards;
+    private final JdbcTemplate directory;
+    private final Map<Long, Placement> placements;
+    private final long lockWaitMs;
+    private final long refreshMs;
+    /** null for a {@link #withPools} view: the map it was made from reloads the shared placements */
+    private final ScheduledExecutorService refresher;
+
+    public ShardMap(List<DataSource> shards, long refreshMs, long lockWaitMs) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("at least one shard required");
+        this.shards = List.copyOf(shards);
+        this.directory = new JdbcTemplate(shards.get(0));
+        this.placements = new ConcurrentHashMap<>();
+        this.refreshMs = refreshMs;
+        this.lockWaitMs = lockWaitMs;
+        reload();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SmartBlog-ShardDirectory");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            try { reload(); } catch (RuntimeException e) { log.warn("Shard directory reload failed: {}", e.getMessage()); }
+        }, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    private ShardMap(ShardMap source, List<DataSource> pools) {
+        if (pools.size() != source.size()) throw new IllegalArgumentException("expected " + source.size() + " shards");
+        this.shards = List.copyOf(pools);
+        this.directory = new JdbcTemplate(pools.get(0));
+        this.placements = source.placements;
+        this.refreshMs = source.refreshMs;
+        this.lockWaitMs = source.lockWaitMs;
+        this.refresher = null;
+    }
+
+    /**
+     * The same shards and placements reached through {@code pools} (e.g. a class of work's pools from
+     * {@code DataSourceFactory.shards(props, work)}). Placements made through either map are seen by both.
+     */
+    public ShardMap withPools(List<DataSource> pools) {
+        return new ShardMap(this, pools);
+    }
+
+    public int size() { return shards.size(); }
+
+    public DataSource shard(int index) { return shards.get(index); }
+
+    public DataSource global() { return shards.get(0); }
+
+    /** How long other instances may keep using a stale directory entry. */
+    public long getRefreshMs() { return refreshMs; }
+
+    /** Hash placement, ignoring directory overrides. */
+    public int homeShard(long authorId) {
+        return Math.floorMod(Long.hashCode(authorId * 0x9E3779B97F4A7C15L), shards.size());
+    }
+
+    /** Shard that currently holds the author's posts and their comments; used for reads. */
+    public int shardFor(long authorId) {
+        Placement p = placements.get(authorId);
+        return p != null ? p.shard() : homeShard(authorId);
+    }
+
+    /** Like {@link #shardFor(long)}, but waits while the author is being moved between shards. */
+    public int shardForWrite(long authorId) {
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+        while (true) {
+            Placement p = placements.get(authorId);
+            if (p == null) return homeShard(authorId);
+            if (p.state() == State.ACTIVE) return p.shard();
+            if (System.currentTimeMillis() > deadline) {
+                throw new RuntimeException("Author " + authorId + " is being moved between shards, try again");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for shard move", e);
+            }
+        }
+    }
+
+    /** Records a placement in the directory and applies it locally right away. */
+    public void place(long authorId, int shard, State state) {
+        directory.update("ShardMap place", PLACE, authorId, shard, state.name());
+        placements.put(authorId, new Placement(shard, state));
+    }
+
+    public void reload() {
+        Map<Long, Placement> fresh = new ConcurrentHashMap<>();
+        for (Object[] row : directory.query(LOAD)) {
+            fresh.put((Long) row[0], new Placement((Integer) row[1], State.valueOf((String) row[2])));
+        }
+        placements.keySet().retainAll(fresh.keySet());
+        placements.putAll(fresh);
+    }
+
+    /** Runs {@code work} for every shard index in parallel; results are in shard order. */
+    public <R> List<R> scatter(IntFunction<R> work) {
+        return scatter(allShards(), work);
+    }
+
+    /** Runs {@code work} for the given shard indexes in parallel; results follow {@code indexes}. */
+    public <R> List<R> scatter(List<Integer> indexes, IntFunction<R> work) {
+        if (indexes.size() == 1) return List.of(work.apply(indexes.get(0)));
+        List<Future<R>> futures = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            Callable<R> task = () -> work.apply(i);
+            futures.add(SCATTER.submit(task));
+        }
+        List<R> out = new ArrayList<>(indexes.size());
+        for (Future<R> f : futures) {
+            try {
+                out.add(f.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new RuntimeException("Shard query failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted during shard query", e);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Concatenates one stream per shard, opening each only after the previous one is exhausted and
+     * closed, so at most one shard's cursor (and connection) is held at a time.
+     */
+    public <T> Stream<T> sequential(IntFunction<Stream<T>> perShard) {
+        var walk = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            int next = 0;
+            Stream<T> open;
+            Spliterator<T> current;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (true) {
+                    if (current != null && current.tryAdvance(action)) return true;
+                    closeCurrent();
+                    if (next >= shards.size()) return false;
+                    open = perShard.apply(next++);
+                    current = open.spliterator();
+                }
+            }
+
+            void closeCurrent() {
+                if (open != null) open.close();
+                open = null;
+                current = null;
+            }
+        };
+        return StreamSupport.stream(walk, false).onClose(walk::closeCurrent);
+    }
+
+    public List<Integer> allShards() {
+        List<Integer> all = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) all.add(i);
+        return all;
+    }
+
+    @Override
+    public void close() {
+        if (refresher != null) refresher.shutdownNow();
+    }
+}
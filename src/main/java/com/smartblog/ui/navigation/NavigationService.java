@@ -1,11 +1,21 @@
-
 package com.smartblog.ui.navigation;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.smartblog.application.security.SecurityContext;
+import com.smartblog.core.model.Role;
+import com.smartblog.infrastructure.datasource.NPlusOneDetector;
+import com.smartblog.infrastructure.logging.AppLogger;
 
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
@@ -13,19 +23,38 @@ import javafx.stage.Stage;
 /**
  * Central navigation helper for the JavaFX application.
  * Manages view loading, history and optional debug fallback handlers.
+ *
+ * A single Scene is kept for the lifetime of the stage and only its root is swapped.
+ * Views flagged as {@link View#cached} are loaded once per session (optionally pre-warmed
+ * after login) and re-shown without re-parsing their FXML.
+ * Set {@code -Dsmartblog.ui.debug=true} to enable the controller/click diagnostics.
  */
 public final class NavigationService {
+    private static final AppLogger log = AppLogger.get(NavigationService.class);
+
+    static final boolean DEBUG = Boolean.getBoolean("smartblog.ui.debug");
+
     private static Stage primaryStage;
+    private static Scene scene;
     private static boolean dark = false;
 
     private static View currentView = null;
     private static ViewParams currentParams = null;
     private static final Deque<ViewEntry> history = new ArrayDeque<>();
 
+    private static final Map<View, LoadedView> cache = new ConcurrentHashMap<>();
+    // bumped on clearCache() so preloads started for a previous session are discarded
+    private static final AtomicInteger cacheGeneration = new AtomicInteger();
+
     private static record ViewEntry(View view, ViewParams params) {}
+    private static record LoadedView(Parent root, Object controller) {}
 
     public static void init(Stage stage) { primaryStage = stage; }
-    public static void setDark(boolean darkTheme) { dark = darkTheme; }
+
+    public static void setDark(boolean darkTheme) {
+        dark = darkTheme;
+        if (scene != null) SceneManager.applyTheme(scene, dark);
+    }
 
     public static void navigate(View view) {
         navigate(view, null);
@@ -34,60 +63,7 @@ public final class NavigationService {
     public static void navigate(View view, ViewParams params) {
         if (currentView != null) history.push(new ViewEntry(currentView, currentParams));
         try {
-            System.out.println("[Navigation] Loading view: " + view + " -> " + view.fxml);
-            javafx.fxml.FXMLLoader loader = new javafx.fxml.FXMLLoader(ViewLoader.class.getResource(view.fxml));
-            Parent root = loader.load();
-            Object controller = loader.getController();
-            if (controller != null) {
-                System.out.println("[Navigation] Controller: " + controller.getClass().getName());
-                try {
-                    var cs = controller.getClass().getProtectionDomain().getCodeSource();
-                    System.out.println("[Navigation] Controller code source: " + (cs != null ? cs.getLocation() : "(unknown)"));
-                } catch (Exception ex) {
-                    System.out.println("[Navigation] Could not determine controller code source: " + ex.getMessage());
-                }
-                try {
-                    var methods = controller.getClass().getDeclaredMethods();
-                    System.out.print("[Navigation] Controller methods: ");
-                    for (var m : methods) System.out.print(m.getName() + ",");
-                    System.out.println();
-                } catch (Exception ex) {
-                    System.out.println("[Navigation] Could not list controller methods: " + ex.getMessage());
-                }
-            } else {
-                System.out.println("[Navigation] Controller: null");
-            }
-            // If this is the PerformanceController, inject services so benchmarks can run
-            try {
-                if (controller instanceof com.smartblog.ui.view.performance.PerformanceController perfCtrl) {
-                    var ctx = com.smartblog.bootstrap.AppBootstrap.start();
-                    perfCtrl.setServices(ctx.postService, ctx.commentService, ctx.tagService);
-                    System.out.println("[Navigation] Injected services into PerformanceController");
-                }
-            } catch (Exception ex) {
-                System.out.println("[Navigation] Could not inject services into controller: " + ex.getMessage());
-            }
-            if (controller instanceof ParamReceiver && params != null) {
-                ((ParamReceiver) controller).setParams(params);
-            }
-            primaryStage.setScene(SceneManager.create(root, dark));
-            primaryStage.show();
-            // fallback: if a button with fx:id/viewPerformanceBtn exists, attach a diagnostic handler
-            try {
-                Node n = root.lookup("#viewPerformanceBtn");
-                if (n instanceof Button b) {
-                    System.out.println("[Navigation] Found viewPerformanceBtn via lookup, attaching fallback handlers. getOnAction=" + b.getOnAction());
-                    b.addEventHandler(MouseEvent.MOUSE_CLICKED, ev -> System.out.println("[Fallback] viewPerformanceBtn mouse clicked (NavigationService)"));
-                    b.setOnAction(ev -> {
-                        System.out.println("[Fallback] viewPerformanceBtn action fired (NavigationService)");
-                        NavigationService.navigate(View.PERFORMANCE);
-                    });
-                }
-            } catch (Exception ex) {
-                System.out.println("[Navigation] Could not attach fallback handler: " + ex.getMessage());
-            }
-            currentView = view;
-            currentParams = params;
+            show(view, params);
         } catch (Exception e) {
             throw new RuntimeException("Failed to navigate to " + view, e);
         }
@@ -98,49 +74,157 @@ public final class NavigationService {
         ViewEntry entry = history.pop();
         // load without pushing current onto history
         try {
-            javafx.fxml.FXMLLoader loader = new javafx.fxml.FXMLLoader(ViewLoader.class.getResource(entry.view().fxml));
-            Parent root = loader.load();
-            Object controller = loader.getController();
-            if (controller instanceof ParamReceiver && entry.params() != null) {
-                ((ParamReceiver) controller).setParams(entry.params());
-            }
+            show(entry.view(), entry.params());
+            return true;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to navigate back to " + entry.view(), e);
+        }
+    }
 
-            // If this is the PerformanceController, inject services so benchmarks can run
-            try {
-                if (controller instanceof com.smartblog.ui.view.performance.PerformanceController perfCtrl) {
-                    var ctx = com.smartblog.bootstrap.AppBootstrap.start();
-                    perfCtrl.setServices(ctx.postService, ctx.commentService, ctx.tagService);
-                    System.out.println("[Navigation] Injected services into PerformanceController (navigateBack)");
+    public static void clearHistory() { history.clear(); }
+
+    /**
+     * Drops all cached views. Call on logout so the next user gets freshly initialized controllers.
+     */
+    public static void clearCache() {
+        cacheGeneration.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * Loads the cacheable views meant for the logged-in user's role that are not cached yet, one per
+     * FX pulse so input stays responsive. Loading builds nodes, so it runs on the FX thread; it only
+     * parses and wires the view, and its data is loaded by the {@link Refreshable#refresh()} of the first show.
+     */
+    public static void preloadCachedViews() {
+        Role role = SecurityContext.role();
+        Deque<View> pending = new ArrayDeque<>();
+        for (View v : View.values()) {
+            if (v.cached && v.isFor(role)) pending.add(v);
+        }
+        preloadNext(pending, cacheGeneration.get());
+    }
+
+    private static void preloadNext(Deque<View> pending, int generation) {
+        View v = pending.poll();
+        if (v == null) return;
+        Platform.runLater(() -> {
+            // a logout in between drops the rest
+            if (generation != cacheGeneration.get()) return;
+            if (!cache.containsKey(v)) {
+                try {
+                    cache.putIfAbsent(v, load(v));
+                } catch (Exception ex) {
+                    log.warn("Preload failed for {}: {}", v, ex.getMessage());
                 }
-            } catch (Exception ex) {
-                System.out.println("[Navigation] Could not inject services into controller (navigateBack): " + ex.getMessage());
             }
+            preloadNext(pending, generation);
+        });
+    }
 
-            primaryStage.setScene(SceneManager.create(root, dark));
-            primaryStage.show();
-
-            // fallback: if a button with fx:id/viewPerformanceBtn exists, attach a diagnostic handler
-            try {
-                Node n = root.lookup("#viewPerformanceBtn");
-                if (n instanceof javafx.scene.control.Button b) {
-                    System.out.println("[Navigation] Found viewPerformanceBtn via lookup (navigateBack), attaching fallback handlers. getOnAction=" + b.getOnAction());
-                    b.addEventHandler(MouseEvent.MOUSE_CLICKED, ev -> System.out.println("[Fallback] viewPerformanceBtn mouse clicked (NavigationService navigateBack)"));
-                    b.setOnAction(ev -> {
-                        System.out.println("[Fallback] viewPerformanceBtn action fired (NavigationService navigateBack)");
-                        NavigationService.navigate(View.PERFORMANCE);
-                    });
-                }
-            } catch (Exception ex) {
-                System.out.println("[Navigation] Could not attach fallback handler (navigateBack): " + ex.getMessage());
+    private static void show(View view, ViewParams params) throws Exception {
+        // loading or refreshing a view is one UI action for the N+1 detector; service calls inside it join
+        var op = NPlusOneDetector.begin("show " + view);
+        try {
+            showView(view, params);
+        } finally {
+            op.close();
+        }
+    }
+
+    private static void showView(View view, ViewParams params) throws Exception {
+        long start = System.nanoTime();
+        LoadedView loaded = view.cached ? cache.get(view) : null;
+        boolean reused = loaded != null;
+        if (!reused) {
+            loaded = load(view);
+            if (view.cached) cache.put(view, loaded);
+        }
+
+        Object controller = loaded.controller();
+        if (controller instanceof ParamReceiver && params != null) {
+            ((ParamReceiver) controller).setParams(params);
+        }
+        if (controller instanceof Refreshable r) {
+            r.refresh();
+        }
+
+        if (scene == null) {
+            scene = SceneManager.create(loaded.root(), dark);
+            primaryStage.setScene(scene);
+        } else if (scene.getRoot() != loaded.root()) {
+            scene.setRoot(loaded.root());
+        }
+        primaryStage.show();
+
+        currentView = view;
+        currentParams = params;
+        if (DEBUG) {
+            log.info("Showed {}{} in {} ms", view, reused ? " (cached)" : "", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static LoadedView load(View view) throws Exception {
+        if (DEBUG) log.info("Loading view: {} -> {}", view, view.fxml);
+        FXMLLoader loader = new FXMLLoader(ViewLoader.class.getResource(view.fxml));
+        Parent root = loader.load();
+        Object controller = loader.getController();
+        if (DEBUG) describeController(controller);
+
+        // If this is the PerformanceController, inject services so benchmarks can run
+        try {
+            if (controller instanceof com.smartblog.ui.view.performance.PerformanceController perfCtrl) {
+                var ctx = com.smartblog.bootstrap.AppBootstrap.start(
+                        com.smartblog.infrastructure.datasource.WorkClass.REPORTING);
+                perfCtrl.setServices(ctx.postService, ctx.commentService, ctx.tagService);
+                if (DEBUG) log.info("Injected services into PerformanceController");
             }
+        } catch (Exception ex) {
+            log.warn("Could not inject services into controller: {}", ex.getMessage());
+        }
 
-            currentView = entry.view();
-            currentParams = entry.params();
-            return true;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to navigate back to " + entry.view(), e);
+        attachPerformanceFallback(root);
+        return new LoadedView(root, controller);
+    }
+
+    private static void describeController(Object controller) {
+        if (controller == null) {
+            log.info("Controller: null");
+            return;
+        }
+        log.info("Controller: {}", controller.getClass().getName());
+        try {
+            var cs = controller.getClass().getProtectionDomain().getCodeSource();
+            log.info("Controller code source: {}", cs != null ? cs.getLocation() : "(unknown)");
+        } catch (Exception ex) {
+            log.info("Could not determine controller code source: {}", ex.getMessage());
+        }
+        try {
+            var methods = controller.getClass().getDeclaredMethods();
+            StringBuilder names = new StringBuilder();
+            for (var m : methods) names.append(m.getName()).append(',');
+            log.info("Controller methods: {}", names);
+        } catch (Exception ex) {
+            log.info("Could not list controller methods: {}", ex.getMessage());
         }
     }
 
-    public static void clearHistory() { history.clear(); }
+    // fallback: if a button with fx:id/viewPerformanceBtn exists, route it to the performance view
+    private static void attachPerformanceFallback(Parent root) {
+        try {
+            Node n = root.lookup("#viewPerformanceBtn");
+            if (n instanceof Button b) {
+                if (DEBUG) {
+                    log.info("Found viewPerformanceBtn via lookup, attaching fallback handlers. getOnAction={}", b.getOnAction());
+                    b.addEventHandler(MouseEvent.MOUSE_CLICKED, ev -> log.info("[Fallback] viewPerformanceBtn mouse clicked"));
+                }
+                b.setOnAction(ev -> {
+                    if (DEBUG) log.info("[Fallback] viewPerformanceBtn action fired");
+                    NavigationService.navigate(View.PERFORMANCE);
+                });
+            }
+        } catch (Exception ex) {
+            log.warn("Could not attach fallback handler: {}", ex.getMessage());
+        }
+    }
 }
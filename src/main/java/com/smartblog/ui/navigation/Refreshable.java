@@ -0,0 +1,11 @@
+package com.smartblog.ui.navigation;
+
+/**
+ * Implemented by controllers of cached views. NavigationService calls {@link #refresh()} on the FX
+ * thread every time it shows the view, the first time included, so the data is loaded there and not
+ * in {@code initialize()}: a view preloaded after login is only parsed and wired, and loads its data
+ * once, when first shown.
+ */
+public interface Refreshable {
+    void refresh();
+}
@@ -1,19 +1,30 @@
 package com.smartblog.ui.navigation;
 
+import java.util.Set;
+
+import com.smartblog.core.model.Role;
+
 public enum View {
     LOGIN("/com/smartblog/ui/view/login/LoginView.fxml"),
-    MAIN("/com/smartblog/ui/view/main/MainView.fxml"),
-    POSTS("/com/smartblog/ui/view/posts/PostListView.fxml"),
+    MAIN("/com/smartblog/ui/view/main/MainView.fxml", true),
+    POSTS("/com/smartblog/ui/view/posts/PostListView.fxml", true),
     POST_DIALOG("/com/smartblog/ui/view/posts/dialog/PostDialog.fxml"),
     POST_EDITOR("/com/smartblog/ui/view/posts/editor/PostEditorView.fxml"),
     COMMENTS("/com/smartblog/ui/view/comments/CommentListView.fxml"),
     TAG_MANAGER("/com/smartblog/ui/view/tags/TagManagerView.fxml"),
     USERS("/com/smartblog/ui/view/users/UserListView.fxml"),
-    AUTHOR("/com/smartblog/ui/view/authors/AuthorDashboardView.fxml"),
-    ADMIN("/com/smartblog/ui/view/admin/AdminDashboardView.fxml"),
+    AUTHOR("/com/smartblog/ui/view/authors/AuthorDashboardView.fxml", true, Role.AUTHOR),
+    ADMIN("/com/smartblog/ui/view/admin/AdminDashboardView.fxml", true, Role.ADMIN),
     ANALYTICS("/com/smartblog/ui/view/analytics/AnalyticsView.fxml"),
     PERFORMANCE("/com/smartblog/ui/view/performance/PerformanceView.fxml");
 
     public final String fxml;
-    View(String fxml) { this.fxml = fxml; }
-}
\ No newline at end of file
+    /** Frequently used screens are loaded once per session and reused by NavigationService. */
+    public final boolean cached;
+    /** Roles the screen is for; empty for every role. Decides which cached views are preloaded after login. */
+    public final Set<Role> roles;
+    View(String fxml) { this(fxml, false); }
+    View(String fxml, boolean cached, Role... roles) { this.fxml = fxml; this.cached = cached; this.roles = Set.of(roles); }
+
+    public boolean isFor(Role role) { return roles.isEmpty() || roles.contains(role); }
+}
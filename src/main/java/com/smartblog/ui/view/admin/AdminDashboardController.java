@@ -7,8 +7,13 @@ import java.util.Map;
 
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.PostDTO;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.datasource.NPlusOneDetector;
+import com.smartblog.infrastructure.datasource.WorkClass;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.ui.components.UiExceptionHandler;
 import com.smartblog.ui.navigation.NavigationService;
+import com.smartblog.ui.navigation.Refreshable;
 import com.smartblog.ui.navigation.View;
 
 import javafx.collections.FXCollections;
@@ -26,7 +31,9 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 
-public class AdminDashboardController {
+public class AdminDashboardController implements Refreshable {
+    private static final AppLogger log = AppLogger.get(AdminDashboardController.class);
+
     @FXML private Label statsLabel;
     @FXML private Label draftCountLabel;
     @FXML private ListView<String> topTagsList;
@@ -48,6 +55,8 @@ public class AdminDashboardController {
     
     private final ObservableList<String> topTags = FXCollections.observableArrayList();
     private final ObservableList<PostDTO> drafts = FXCollections.observableArrayList();
+    /** comments per listed draft, counted in one query when the drafts are loaded */
+    private final Map<Long, Long> draftCommentCounts = new HashMap<>();
 
     @FXML
     public void initialize() {
@@ -132,8 +141,9 @@ public class AdminDashboardController {
             
             private String getCommentCount(PostDTO post) {
                 try {
-                    int count = AppBootstrap.start().commentService.listForPost(post.id(), 0, 1000).size();
-                    return String.valueOf(count);
+                    // posts read from post_view carry their count
+                    if (post.commentCount() != null) return String.valueOf(post.commentCount());
+                    return String.valueOf(draftCommentCounts.getOrDefault(post.id(), 0L));
                 } catch (Exception e) {
                     return "0";
                 }
@@ -141,7 +151,6 @@ public class AdminDashboardController {
         });
         
         setupSearchControls();
-        loadData();
     }
     
     private void setupSearchControls() {
@@ -168,7 +177,7 @@ public class AdminDashboardController {
             searchTagCombo.getItems().addAll(tagNames);
             searchTagCombo.getSelectionModel().selectFirst();
         } catch (Exception e) {
-            System.err.println("Failed to load tags: " + e.getMessage());
+            log.warn("Failed to load tags: {}", e.getMessage());
         }
         
         // Wire search button
@@ -210,23 +219,27 @@ public class AdminDashboardController {
                 200
             );
             
-            System.out.println("Admin search completed. Found " + results.size() + " posts.");
+            log.debug("Admin search completed. Found {} posts.", results.size());
             
             // Update drafts list with search results
-            List<PostDTO> draftResults = results.stream()
-                .filter(p -> !p.published())
-                .toList();
-            drafts.setAll(draftResults);
+            List<PostDTO> draftResults = ctx.postService.searchCombined(
+                keyword.isEmpty() ? null : keyword,
+                author.isEmpty() ? null : author,
+                tag,
+                PostStatus.DRAFT,
+                sortBy,
+                1,
+                200
+            );
+            setDrafts(ctx, draftResults);
             
             // Update stats
-            int totalComments = results.stream()
-                .mapToInt(p -> ctx.commentService.listForPost(p.id(), 0, 1000).size())
-                .sum();
+            long totalComments = countComments(ctx, results).values().stream().mapToLong(Long::longValue).sum();
             statsLabel.setText("Posts: " + results.size() + "    Comments: " + totalComments);
             
         } catch (Exception ex) {
             UiExceptionHandler.showError("Search Error", ex.getMessage());
-            ex.printStackTrace();
+            log.error("Admin search failed", ex);
         }
     }
     
@@ -269,11 +282,27 @@ public class AdminDashboardController {
         }
     }
 
+    @Override
+    public void refresh() {
+        loadData();
+    }
+
     private void loadData() {
-        var ctx = AppBootstrap.start();
+        // one UI action for the N+1 detector (refresh button, post actions), also outside navigation
+        var op = NPlusOneDetector.begin("AdminDashboard refresh");
+        try {
+            loadDashboard();
+        } finally {
+            op.close();
+        }
+    }
+
+    private void loadDashboard() {
+        // aggregates over every post: keep them off the interactive pool
+        var ctx = AppBootstrap.start(WorkClass.REPORTING);
         List<PostDTO> posts = ctx.postService.list(0, 1000);
         int totalPosts = posts.size();
-        int totalComments = posts.stream().mapToInt(p -> ctx.commentService.listForPost(p.id(), 0, 1000).size()).sum();
+        long totalComments = countComments(ctx, posts).values().stream().mapToLong(Long::longValue).sum();
 
         statsLabel.setText("Posts: " + totalPosts + "    Comments: " + totalComments);
 
@@ -288,16 +317,23 @@ public class AdminDashboardController {
                 .map(e -> e.getKey() + " (" + e.getValue() + ")")
                 .toList());
 
-        // Recent drafts
-        List<PostDTO> draftPosts = posts.stream()
-                .filter(p -> !p.published())
-                .sorted(Comparator.comparing(PostDTO::id).reversed())
-                .limit(50)
-                .toList();
-        
-        drafts.setAll(draftPosts);
+        // Recent drafts: the newest 50 from the database, counted there too rather than out of the 1000 above
+        List<PostDTO> draftPosts = ctx.postService.list(PostStatus.DRAFT, 0, 50);
+        setDrafts(ctx, draftPosts);
         if (draftCountLabel != null) {
-            draftCountLabel.setText(draftPosts.size() + " draft" + (draftPosts.size() == 1 ? "" : "s"));
+            var draftTotal = ctx.countService.countPosts(null, null, null, PostStatus.DRAFT);
+            draftCountLabel.setText(draftTotal.display() + " draft" + (draftTotal.value() == 1 ? "" : "s"));
         }
     }
-}
\ No newline at end of file
+
+    private void setDrafts(AppBootstrap.Context ctx, List<PostDTO> draftPosts) {
+        draftCommentCounts.clear();
+        draftCommentCounts.putAll(countComments(ctx, draftPosts));
+        drafts.setAll(draftPosts);
+    }
+
+    /** Comments per post in one query for all of them, instead of listing the comments of every post. */
+    private static Map<Long, Long> countComments(AppBootstrap.Context ctx, List<PostDTO> posts) {
+        return ctx.commentService.countForPosts(posts.stream().map(PostDTO::id).toList());
+    }
+}
@@ -1,14 +1,20 @@
 package com.smartblog.ui.view.authors;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.smartblog.application.security.SecurityContext;
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.CommentDTO;
 import com.smartblog.core.dto.PostDTO;
+import com.smartblog.core.model.PostStatus;
 import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.datasource.NPlusOneDetector;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.ui.components.UiExceptionHandler;
 import com.smartblog.ui.navigation.NavigationService;
+import com.smartblog.ui.navigation.Refreshable;
 import com.smartblog.ui.navigation.View;
 import com.smartblog.ui.navigation.ViewParams;
 
@@ -29,7 +35,8 @@ import javafx.scene.layout.VBox;
  * Controller for the Author Dashboard view.
  * Provides listing, searching and inline comment interactions for authors.
  */
-public class AuthorDashboardController {
+public class AuthorDashboardController implements Refreshable {
+    private static final AppLogger log = AppLogger.get(AuthorDashboardController.class);
 
     @FXML private Label heading;
     @FXML private ListView<PostDTO> postsList;
@@ -44,6 +51,7 @@ public class AuthorDashboardController {
     @FXML private ComboBox<String> searchSortCombo;
     @FXML private Button searchExecuteBtn;
     @FXML private Button searchClearBtn;
+    @FXML private Label searchResultCount;
 
     // UI bindings
     @FXML private Label selectedTitle;
@@ -56,17 +64,24 @@ public class AuthorDashboardController {
     private final ObservableList<PostDTO> data = FXCollections.observableArrayList();
     private final ObservableList<CommentDTO> comments = FXCollections.observableArrayList();
 
+    // newest comments of every listed post, loaded with the list; the inline comment panels show these
+    private static final int PREVIEW_COMMENTS = 5;
+    private final Map<Long, List<CommentDTO>> commentPreviews = new HashMap<>();
+    /** comments per listed post, for posts not read from post_view */
+    private final Map<Long, Long> commentCounts = new HashMap<>();
+
     @FXML
     public void initialize() {
         heading.setText("Author Dashboard — your posts & reviews");
-        // Load author-specific stylesheet once the scene is ready
+        // Load author-specific stylesheet on this view's root; the scene is shared with other views
         heading.sceneProperty().addListener((obs, oldScene, newScene) -> {
             if (newScene != null) {
                 try {
                     String css = getClass().getResource("/com/smartblog/ui/themes/author-overrides.css").toExternalForm();
-                    newScene.getStylesheets().add(css);
+                    var rootSheets = newScene.getRoot().getStylesheets();
+                    if (!rootSheets.contains(css)) rootSheets.add(css);
                 } catch (Exception ex) {
-                    System.err.println("Failed to load author-overrides.css: " + ex.getMessage());
+                    log.warn("Failed to load author-overrides.css: {}", ex.getMessage());
                 }
             }
         });
@@ -81,7 +96,8 @@ public class AuthorDashboardController {
                 super.updateItem(item, empty);
                 if (empty || item == null) setText(null);
                 else {
-                    int commentsCount = AppBootstrap.start().commentService.listForPost(item.id(), 0, 100).size();
+                    long commentsCount = item.commentCount() != null ? item.commentCount()
+                            : commentCounts.getOrDefault(item.id(), 0L);
                     setText((item.published() ? "[P] " : "[D] ") + item.title() + " — " + commentsCount + " comments");
                 }
             }
@@ -229,7 +245,8 @@ public class AuthorDashboardController {
                         commentTextArea.clear();
                         commentInputArea.setVisible(false);
                         commentInputArea.setManaged(false);
-                        updateCommentCount(p);
+                        updateCommentCount(p, true);
+                        loadCommentPreviews(ctx, List.of(p));
                         if (commentsDisplayArea.isVisible()) loadCommentsForPost(p);
                     } catch (Exception ex) {
                         UiExceptionHandler.showError("Comment Error", ex.getMessage());
@@ -244,16 +261,23 @@ public class AuthorDashboardController {
                 });
             }
             
-            private void updateCommentCount(PostDTO p) {
+            /** {@code recount} after a new comment, when the count the post was listed with is out of date. */
+            private void updateCommentCount(PostDTO p, boolean recount) {
                 try {
-                    int count = AppBootstrap.start().commentService.listForPost(p.id(), 0, 1000).size();
+                    long count;
+                    if (recount) {
+                        count = AppBootstrap.start().commentService.countForPosts(List.of(p.id())).getOrDefault(p.id(), 0L);
+                        commentCounts.put(p.id(), count);
+                    } else {
+                        count = p.commentCount() != null ? p.commentCount() : commentCounts.getOrDefault(p.id(), 0L);
+                    }
                     commentCountLbl.setText(count + (count == 1 ? " comment" : " comments"));
                 } catch (Exception ignored) {}
             }
 
             private void loadCommentsForPost(PostDTO p) {
                 try {
-                    var list = AppBootstrap.start().commentService.listForPost(p.id(), 0, 200);
+                    var list = commentPreviews.getOrDefault(p.id(), List.of());
                     commentsBox.getChildren().clear();
                     if (list.isEmpty()) {
                         Label noComments = new Label("No comments yet. Be the first to comment!");
@@ -321,7 +345,7 @@ public class AuthorDashboardController {
                     } catch (Exception ex) {
                         contentView.getEngine().loadContent("<pre>" + safe.replaceAll("<", "&lt;") + "</pre>", "text/html");
                     }
-                    updateCommentCount(item);
+                    updateCommentCount(item, false);
                     
                     // Show edit button only for posts owned by current user
                     User currentUser = SecurityContext.getUser();
@@ -353,8 +377,6 @@ public class AuthorDashboardController {
         refreshBtn.setOnAction(e -> loadData());
 
         // inline comment controls live inside each post cell; no global comment input
-
-        loadData();
     }
 
     private void setupSearchControls() {
@@ -377,7 +399,7 @@ public class AuthorDashboardController {
                 .toList();
             searchTagCombo.setItems(FXCollections.observableArrayList(tagNames));
         } catch (Exception e) {
-            System.err.println("Failed to load tags for search: " + e.getMessage());
+            log.warn("Failed to load tags for search: {}", e.getMessage());
         }
         
         // Wire up buttons
@@ -405,22 +427,24 @@ public class AuthorDashboardController {
                 results = ctx.postService.searchCombined(keyword, author, tag, sortBy, 1, 200);
             }
             
+            loadCommentPreviews(ctx, results);
             data.setAll(results);
+            if (searchResultCount != null) {
+                var total = ctx.countService.countPosts(keyword, author, tag);
+                searchResultCount.setText("Showing " + results.size() + " of " + total.display() + " results");
+            }
             
-            System.out.println("Search completed. Found " + results.size() + " posts.");
+            log.debug("Search completed. Found {} posts.", results.size());
             
             // Update stats for current user
             User cur = SecurityContext.getUser();
             if (cur != null && draftsCount != null && publishedCount != null) {
-                List<PostDTO> myPosts = results.stream()
-                    .filter(p -> p.authorUsername().equals(cur.getUsername()))
-                    .toList();
-                draftsCount.setText(String.valueOf(myPosts.stream().filter(p -> !p.published()).count()));
-                publishedCount.setText(String.valueOf(myPosts.stream().filter(PostDTO::published).count()));
+                draftsCount.setText(ctx.countService.countPostsByAuthor(cur.getId(), PostStatus.DRAFT).display());
+                publishedCount.setText(ctx.countService.countPostsByAuthor(cur.getId(), PostStatus.PUBLISHED).display());
             }
         } catch (Exception ex) {
             UiExceptionHandler.showError("Search Error", ex.getMessage());
-            ex.printStackTrace();
+            log.error("Author search failed", ex);
         }
     }
 
@@ -439,6 +463,7 @@ public class AuthorDashboardController {
         searchTagCombo.setValue(null);
         searchAuthorField.clear();
         searchSortCombo.setValue("Newest First");
+        if (searchResultCount != null) searchResultCount.setText("");
         loadData(); // Reload all posts
     }
 
@@ -459,7 +484,33 @@ public class AuthorDashboardController {
         if (selectedMeta != null) selectedMeta.setText(sel.published() ? "Published" : "Draft");
     }
 
+    /** One batch query each for the previews and the counts of all the posts instead of one per post card. */
+    private void loadCommentPreviews(AppBootstrap.Context ctx, List<PostDTO> posts) {
+        List<Long> ids = posts.stream().map(PostDTO::id).toList();
+        var latest = ctx.commentService.latestForPosts(ids, PREVIEW_COMMENTS);
+        var counts = ctx.commentService.countForPosts(ids);
+        for (Long id : ids) {
+            commentPreviews.put(id, latest.getOrDefault(id, List.of()));
+            commentCounts.put(id, counts.getOrDefault(id, 0L));
+        }
+    }
+
+    @Override
+    public void refresh() {
+        loadData();
+    }
+
     private void loadData() {
+        // one UI action for the N+1 detector (refresh button, post actions), also outside navigation
+        var op = NPlusOneDetector.begin("AuthorDashboard refresh");
+        try {
+            loadDashboard();
+        } finally {
+            op.close();
+        }
+    }
+
+    private void loadDashboard() {
         var ctx = AppBootstrap.start();
         User cur = SecurityContext.getUser();
         if (cur == null) {
@@ -468,12 +519,11 @@ public class AuthorDashboardController {
         }
         // Load ALL posts (not just current author's) so users can see all content
         List<PostDTO> allPosts = ctx.postService.list(0, 200);
+        commentPreviews.clear();
+        commentCounts.clear();
+        loadCommentPreviews(ctx, allPosts);
         data.setAll(allPosts);
-        
-        // Get current user's posts for stats
-        List<PostDTO> myPosts = allPosts.stream()
-            .filter(p -> p.authorUsername().equals(cur.getUsername()))
-            .toList();
+
         // select first post to show preview
         if (!allPosts.isEmpty()) {
             postsList.getSelectionModel().select(0);
@@ -483,9 +533,13 @@ public class AuthorDashboardController {
             if (selectedMeta != null) selectedMeta.setText(first.published() ? "Published" : "Draft");
         }
 
-        // quick stats
-        if (draftsCount != null) draftsCount.setText("Drafts: " + myPosts.stream().filter(p -> !p.published()).count());
-        if (publishedCount != null) publishedCount.setText("Published: " + myPosts.stream().filter(PostDTO::published).count());
+        // quick stats, counted by the database over all of the author's posts, not just the 200 loaded
+        if (draftsCount != null) {
+            draftsCount.setText("Drafts: " + ctx.countService.countPostsByAuthor(cur.getId(), PostStatus.DRAFT).display());
+        }
+        if (publishedCount != null) {
+            publishedCount.setText("Published: " + ctx.countService.countPostsByAuthor(cur.getId(), PostStatus.PUBLISHED).display());
+        }
 
         // top tags (simple aggregate)
         if (topTagsList != null) {
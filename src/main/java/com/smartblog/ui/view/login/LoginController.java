@@ -6,6 +6,7 @@ import com.smartblog.application.security.SecurityContext;
 import com.smartblog.application.service.UserService;
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.ui.navigation.NavigationService;
 import com.smartblog.ui.navigation.View;
 
@@ -18,6 +19,7 @@ import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 
 public class LoginController {
+    private static final AppLogger log = AppLogger.get(LoginController.class);
 
     @FXML private TextField usernameField;
     @FXML private PasswordField passwordField;
@@ -44,18 +46,19 @@ public class LoginController {
         var ctx = AppBootstrap.start();
         UserService userService = ctx.userService;
         try {
-            System.out.println("[login] attempting login for '" + username + "'");
+            log.debug("attempting login for '{}'", username);
             Optional<User> maybe = userService.authenticate(username, password);
-            System.out.println("[login] authenticate returned present=" + maybe.isPresent());
+            log.debug("authenticate returned present={}", maybe.isPresent());
             if (maybe.isPresent()) {
                 User u = maybe.get();
                 SecurityContext.login(u);
                 routeAfterLogin();
+                NavigationService.preloadCachedViews();
             } else {
                 showError("Invalid username or password.");
             }
         } catch (Exception ex) {
-            ex.printStackTrace();
+            log.error("Login failed", ex);
             showError("Login failed: " + ex.getMessage());
         }
     }
@@ -3,6 +3,7 @@ package com.smartblog.ui.view.main;
 
 import com.smartblog.application.security.SecurityContext;
 import com.smartblog.ui.navigation.NavigationService;
+import com.smartblog.ui.navigation.Refreshable;
 import com.smartblog.ui.navigation.View;
 
 import javafx.fxml.FXML;
@@ -10,7 +11,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 
-public class MainController {
+public class MainController implements Refreshable {
     @FXML private Label userLabel;
     @FXML private Button logoutBtn, newPostBtn, backBtn;
     @FXML private Button dashboardBtn, postsBtn, commentsBtn, tagsBtn, usersBtn, analyticsBtn;
@@ -20,11 +21,7 @@ public class MainController {
 
     @FXML
     public void initialize() {
-        var user = SecurityContext.getUser();
-        if (user != null) {
-            vm.setUser(user);
-            userLabel.textProperty().bind(vm.welcome);
-        }
+        userLabel.textProperty().bind(vm.welcome);
 
         // Back button (navigate based on user role)
         if (backBtn != null) {
@@ -48,8 +45,16 @@ public class MainController {
         logoutBtn.setOnAction(e -> logout());
     }
 
+    @Override
+    public void refresh() {
+        var user = SecurityContext.getUser();
+        if (user != null) vm.setUser(user);
+    }
+
     private void logout() {
         SecurityContext.logout();
+        NavigationService.clearCache();
+        NavigationService.clearHistory();
         NavigationService.navigate(View.LOGIN);
     }
 }
@@ -9,8 +9,10 @@ import com.smartblog.application.service.CommentService;
 import com.smartblog.application.service.PostService;
 import com.smartblog.application.service.TagService;
 import com.smartblog.application.util.PerformanceBenchmark.BenchmarkResult;
+import com.smartblog.infrastructure.datasource.StatementStats;
 
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -29,6 +31,14 @@ public class PerformanceController {
     @FXML private TableColumn<BenchmarkResult, String> testNameColumn;
     @FXML private TableColumn<BenchmarkResult, Double> durationColumn;
 
+    @FXML private TableView<StatementStats> sqlTable;
+    @FXML private TableColumn<StatementStats, String> sqlColumn;
+    @FXML private TableColumn<StatementStats, Number> sqlCountColumn;
+    @FXML private TableColumn<StatementStats, Number> sqlAvgColumn;
+    @FXML private TableColumn<StatementStats, Number> sqlP95Column;
+    @FXML private TableColumn<StatementStats, Number> sqlRowsColumn;
+    @FXML private TableColumn<StatementStats, Number> sqlPoolWaitColumn;
+
     @FXML private Label totalTestsLbl;
     @FXML private Label totalDurationLbl;
     @FXML private Label avgDurationLbl;
@@ -88,6 +98,13 @@ public class PerformanceController {
             }
         });
 
+        sqlColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getSql()));
+        sqlCountColumn.setCellValueFactory(cell -> new SimpleLongProperty(cell.getValue().getCount()));
+        sqlAvgColumn.setCellValueFactory(cell -> new SimpleDoubleProperty(cell.getValue().getAverageMs()));
+        sqlP95Column.setCellValueFactory(cell -> new SimpleDoubleProperty(cell.getValue().getPercentileMs(95)));
+        sqlRowsColumn.setCellValueFactory(cell -> new SimpleLongProperty(cell.getValue().getRows()));
+        sqlPoolWaitColumn.setCellValueFactory(cell -> new SimpleDoubleProperty(cell.getValue().getPoolWaitMs()));
+
         exportBtn.setDisable(true);
         progressIndicator.setVisible(false);
         statusLbl.setText("Ready to run benchmarks");
@@ -132,6 +149,7 @@ public class PerformanceController {
 
     private void updateResults() {
         resultsTable.setItems(vm.getResults());
+        sqlTable.setItems(vm.getSqlStats());
 
         totalTestsLbl.setText(String.valueOf(vm.getTotalTests()));
         totalDurationLbl.setText(String.format("%.3f ms", vm.getTotalDuration()));
@@ -177,6 +195,7 @@ public class PerformanceController {
             // Build observable list
             javafx.collections.ObservableList<BenchmarkResult> items = javafx.collections.FXCollections.observableArrayList(lastCombinedResults);
             resultsTable.setItems(items);
+            sqlTable.setItems(vm.getSqlStats());
 
             // Update summary based on combined
             double total = lastCombinedResults.stream().mapToDouble(BenchmarkResult::durationMs).sum();
@@ -8,6 +8,10 @@ import com.smartblog.application.service.TagService;
 import com.smartblog.application.util.PerformanceBenchmark;
 import com.smartblog.application.util.PerformanceBenchmark.BenchmarkResult;
 import com.smartblog.infrastructure.caching.CacheManager;
+import com.smartblog.infrastructure.datasource.DataSourceFactory;
+import com.smartblog.infrastructure.datasource.PoolMetrics;
+import com.smartblog.infrastructure.datasource.SqlMetrics;
+import com.smartblog.infrastructure.datasource.StatementStats;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -36,6 +40,7 @@ public class PerformanceViewModel {
      */
     public void runBenchmarks() {
         benchmark.reset();
+        SqlMetrics.reset();
         runTestsInto(benchmark, "");
     }
 
@@ -115,7 +120,29 @@ public class PerformanceViewModel {
         return benchmark.generateReport().getFastest();
     }
 
+    /** Connection pool saturation, one entry per pool (interactive, background, reporting, replicas, shards). */
+    public List<PoolMetrics> getPoolMetrics() {
+        return List.copyOf(DataSourceFactory.poolMetrics().values());
+    }
+
+    /** SQL statements executed so far, by total time spent, slowest first. */
+    public ObservableList<StatementStats> getSqlStats() {
+        return FXCollections.observableArrayList(SqlMetrics.snapshot().values());
+    }
+
+    public List<SqlMetrics.SlowQuery> getSlowQueries() {
+        return SqlMetrics.slowQueries();
+    }
+
     public String exportReport() {
-        return benchmark.generateReport().toFormattedString();
+        StringBuilder sb = new StringBuilder(benchmark.generateReport().toFormattedString());
+        sb.append("\nSQL statements (by total time):\n");
+        getSqlStats().forEach(s -> sb.append("  ").append(s).append('\n'));
+        sb.append("\nSlow queries (over ").append(SqlMetrics.getSlowQueryThresholdMs()).append(" ms):\n");
+        getSlowQueries().forEach(q -> sb.append(String.format("  %s %.1f ms rows=%d params=%s %s%n",
+                q.at(), q.ms(), q.rows(), q.params(), q.sql())));
+        sb.append("\nConnection pools:\n");
+        getPoolMetrics().forEach(m -> sb.append("  ").append(m).append('\n'));
+        return sb.toString();
     }
 }
\ No newline at end of file
@@ -3,12 +3,15 @@ package com.smartblog.ui.view.posts;
 import java.io.IOException;
 import java.util.List;
 
+import com.smartblog.application.security.SecurityContext;
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.PostDTO;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.logging.AppLogger;
+import com.smartblog.ui.components.UiExceptionHandler;
 import com.smartblog.ui.navigation.NavigationService;
+import com.smartblog.ui.navigation.Refreshable;
 import com.smartblog.ui.view.posts.dialog.PostDialogController;
-import com.smartblog.application.security.SecurityContext;
-import com.smartblog.ui.components.UiExceptionHandler;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,7 +27,8 @@ import javafx.scene.layout.HBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-public class PostListController {
+public class PostListController implements Refreshable {
+    private static final AppLogger log = AppLogger.get(PostListController.class);
 
     @FXML private TextField searchField;
     @FXML private Button newBtn;
@@ -108,15 +112,15 @@ public class PostListController {
         backBtn.setOnAction(e -> NavigationService.navigateBack());
 
         searchField.setOnAction(e -> refresh());
-
-        refresh();
     }
 
-    private void refresh() {
+    @Override
+    public void refresh() {
         var ctx = AppBootstrap.start();
         String q = searchField.getText();
-        List<PostDTO> list = (q == null || q.isBlank()) ? ctx.postService.list(0, 100) : ctx.postService.search(q, 0, 100);
-        List<PostDTO> published = list.stream().filter(PostDTO::published).toList();
+        List<PostDTO> published = (q == null || q.isBlank())
+                ? ctx.postService.list(PostStatus.PUBLISHED, 0, 100)
+                : ctx.postService.search(q, PostStatus.PUBLISHED, 0, 100);
         data.setAll(published);
     }
 
@@ -134,7 +138,7 @@ public class PostListController {
             dialog.showAndWait();
             refresh();
         } catch (IOException ex) {
-            ex.printStackTrace();
+            log.error("Could not open post dialog", ex);
         }
     }
 }
\ No newline at end of file
@@ -128,10 +128,12 @@ public class PostEditorController implements com.smartblog.ui.navigation.ParamRe
         vm.assignedTags.addListener((javafx.collections.ListChangeListener<String>) c -> renderAssignedTags());
         renderAssignedTags();
 
-        // Add Ctrl+S accelerator for quick save (register when scene is available)
+        // Add Ctrl+S accelerator for quick save (register when scene is available).
+        // The scene outlives this view, so drop the accelerator again when the editor is swapped out.
+        KeyCombination kc = new KeyCodeCombination(KeyCode.S, KeyCombination.CONTROL_DOWN);
         titleField.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null) oldScene.getAccelerators().remove(kc);
             if (newScene != null) {
-                KeyCombination kc = new KeyCodeCombination(KeyCode.S, KeyCombination.CONTROL_DOWN);
                 newScene.getAccelerators().put(kc, () -> safe(() -> {
                     vm.htmlContent.set(htmlEditor.getHtmlText());
                     vm.saveDraft();
@@ -1,13 +1,17 @@
 
 package com.smartblog.ui.view.posts.editor;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.smartblog.application.security.SecurityContext;
 import com.smartblog.application.service.PostService;
 import com.smartblog.application.service.TagService;
 import com.smartblog.core.dto.TagDTO;
+import com.smartblog.core.exceptions.ConcurrentEditException;
 import com.smartblog.core.exceptions.ValidationException;
 import com.smartblog.core.model.Post;
 
@@ -27,6 +31,12 @@ public class PostEditorViewModel {
 
     private Long postId = null;
     private final Long authorId;
+    // version this window last read or wrote; saves are compare-and-set against it
+    private long version;
+    private String savedTitle;
+    private String savedContent;
+    // newer version saved from elsewhere while this window has unsaved edits
+    private Post conflict;
 
     public final StringProperty title = new SimpleStringProperty();
     public final StringProperty htmlContent = new SimpleStringProperty();
@@ -47,8 +57,11 @@ public class PostEditorViewModel {
 
     public void loadPost(Post p) {
         this.postId = p.getId();
+        this.version = p.getVersion();
+        this.conflict = null;
         title.set(p.getTitle());
         htmlContent.set(p.getContent());
+        markSaved();
         // load assigned tags for this post
         try {
             assignedTags.setAll(tagService.listForPost(postId).stream().map(TagDTO::name).collect(Collectors.toList()));
@@ -61,30 +74,79 @@ public class PostEditorViewModel {
         );
     }
 
+    /**
+     * Saves with compare-and-set. An explicit save after a conflict was reported keeps this window's
+     * text: it is written over the version that was saved elsewhere.
+     */
     public void saveDraft() {
+        save();
+    }
+
+    /** False when a conflict kept the draft from being written. */
+    private boolean save() {
         validate();
 
         if (postId == null) {
             postId = postService.createDraft(authorId, title.get(), htmlContent.get());
+            version = 0;
         } else {
-            postService.update(postId, title.get(), htmlContent.get(), false);
+            if (conflict != null) {
+                version = conflict.getVersion();
+                conflict = null;
+            }
+            try {
+                version = postService.update(postId, version, title.get(), htmlContent.get(), false);
+            } catch (ConcurrentEditException ex) {
+                onConflict(ex.getCurrent(Post.class));
+                return false;
+            }
         }
-
+        markSaved();
         autosaveMessage.set("Draft saved");
+        return true;
+    }
+
+    /** Without local edits the other window's version is simply taken; otherwise autosave pauses. */
+    private void onConflict(Post current) {
+        if (!hasUnsavedEdits()) {
+            loadPost(current);
+            autosaveMessage.set("Reloaded: the post was changed elsewhere");
+            return;
+        }
+        conflict = current;
+        autosaveMessage.set("Changed elsewhere (version " + current.getVersion()
+                + "). Autosave paused; save again to keep your text.");
+    }
+
+    private boolean hasUnsavedEdits() {
+        return !Objects.equals(title.get(), savedTitle) || !Objects.equals(htmlContent.get(), savedContent);
+    }
+
+    private void markSaved() {
+        savedTitle = title.get();
+        savedContent = htmlContent.get();
     }
 
     public void publishPost() {
         if (postId == null)
             saveDraft();
 
-        postService.publish(postId);
+        // publishing bumps the version: keep it, or this window's next save would conflict with itself
+        try {
+            version = postService.publish(postId, version);
+        } catch (ConcurrentEditException ex) {
+            onConflict(ex.getCurrent(Post.class));
+            return;
+        }
         autosaveMessage.set("Post published");
     }
 
     private void autosave() {
+        // nothing new to write (an idle window must not bump the version under an active one),
+        // or a conflict waits for the user
+        if (postId != null && (conflict != null || !hasUnsavedEdits())) return;
         try {
-            saveDraft();
-            autosaveMessage.set("Autosaved at " + java.time.LocalTime.now());
+            if (save()) autosaveMessage.set("Autosaved at " + java.time.LocalTime.now());
         } catch (Exception ignored) {}
     }
 
@@ -104,28 +166,33 @@ public class PostEditorViewModel {
 
     public void addTagByName(String name) {
         if (name == null || name.isBlank()) return;
-        if (postId == null) saveDraft();
-
-        // find existing tag
-        var tags = tagService.listAll();
-        var existing = tags.stream().filter(t -> t.name().equalsIgnoreCase(name)).findFirst();
-        long tagId = existing.map(TagDTO::id).orElseGet(() -> tagService.create(name));
 
-        tagService.assignToPost(postId, tagId);
-        if (!assignedTags.contains(name)) assignedTags.add(name);
+        Set<String> names = new LinkedHashSet<>(assignedTags);
+        if (names.stream().noneMatch(s -> s.equalsIgnoreCase(name.trim()))) names.add(name.trim());
+        if (postId == null) {
+            // first tag on an unsaved post: draft and tags are written in one transaction
+            validate();
+            postId = postService.createDraft(authorId, title.get(), htmlContent.get(), names);
+            assignedTags.setAll(tagService.listForPost(postId).stream().map(TagDTO::name).collect(Collectors.toList()));
+        } else {
+            applyTags(names);
+        }
         autosaveMessage.set("Tag added: " + name);
     }
 
     public void removeTagByName(String name) {
         if (name == null || name.isBlank() || postId == null) return;
         try {
-            var tags = tagService.listAll();
-            var existing = tags.stream().filter(t -> t.name().equalsIgnoreCase(name)).findFirst();
-            if (existing.isPresent()) {
-                tagService.removeFromPost(postId, existing.get().id());
-                assignedTags.removeIf(s -> s.equalsIgnoreCase(name));
+            Set<String> names = new LinkedHashSet<>(assignedTags);
+            if (names.removeIf(s -> s.equalsIgnoreCase(name))) {
+                applyTags(names);
                 autosaveMessage.set("Tag removed: " + name);
             }
         } catch (Exception ignored) {}
     }
+
+    // the whole tag set is sent in one call; the service upserts and diffs it in a single transaction
+    private void applyTags(Set<String> names) {
+        assignedTags.setAll(tagService.setTagsForPost(postId, names).stream().map(TagDTO::name).collect(Collectors.toList()));
+    }
 }
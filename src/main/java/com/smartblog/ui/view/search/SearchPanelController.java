@@ -2,6 +2,7 @@ package com.smartblog.ui.view.search;
 
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.PostDTO;
+import com.smartblog.infrastructure.logging.AppLogger;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,6 +14,8 @@ import java.util.List;
 import java.util.function.Consumer;
 
 public class SearchPanelController {
+    private static final AppLogger log = AppLogger.get(SearchPanelController.class);
+
     @FXML private TextField keywordField;
     @FXML private ComboBox<String> tagCombo;
     @FXML private TextField authorField;
@@ -51,7 +54,7 @@ public class SearchPanelController {
                     .toList();
             tagCombo.setItems(FXCollections.observableArrayList(tags));
         } catch (Exception e) {
-            System.err.println("Failed to load tags: " + e.getMessage());
+            log.warn("Failed to load tags: {}", e.getMessage());
         }
     }
 
@@ -80,8 +83,7 @@ public class SearchPanelController {
                 onSearchResultsCallback.accept(results);
             }
         } catch (Exception e) {
-            System.err.println("Search failed: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Search failed", e);
         }
     }
 
@@ -3,6 +3,7 @@ package com.smartblog.ui.view.tags;
 
 import com.smartblog.bootstrap.AppBootstrap;
 import com.smartblog.core.dto.TagDTO;
+import com.smartblog.infrastructure.logging.AppLogger;
 import com.smartblog.ui.navigation.NavigationService;
 
 import javafx.fxml.FXML;
@@ -12,6 +13,8 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 
 public class TagManagerController implements com.smartblog.ui.navigation.ParamReceiver {
+    private static final AppLogger log = AppLogger.get(TagManagerController.class);
+
     @FXML private TextField newTagField, postIdField;
     @FXML private Button createBtn, assignBtn, removeBtn, backBtn;
     @FXML private ListView<TagDTO> allTags, postTags;
@@ -44,7 +47,7 @@ public class TagManagerController implements com.smartblog.ui.navigation.ParamRe
 
         vm.loadAll();
 
-        System.out.println("TagManagerController.initialize - vm.postId=" + vm.postId.get());
+        log.debug("initialize - vm.postId={}", vm.postId.get());
 
         // disable assign/remove when no post selected or no selection
         assignBtn.disableProperty().bind(vm.postId.lessThanOrEqualTo(0).or(javafx.beans.binding.Bindings.isNull(allTags.getSelectionModel().selectedItemProperty())));
@@ -68,23 +71,23 @@ public class TagManagerController implements com.smartblog.ui.navigation.ParamRe
         assignBtn.setOnAction(e -> {
             var sel = allTags.getSelectionModel().getSelectedItem();
             if (sel == null || vm.postId.get() <= 0) return;
-            System.out.println("TagManager.assign -> postId=" + vm.postId.get() + " tagId=" + sel.id());
+            log.debug("assign -> postId={} tagId={}", vm.postId.get(), sel.id());
             boolean ok = vm.assign(sel.id());
-            System.out.println("TagManager.assign result=" + ok);
+            log.debug("assign result={}", ok);
             vm.loadForPost();
         });
 
         removeBtn.setOnAction(e -> {
             var sel = postTags.getSelectionModel().getSelectedItem();
             if (sel == null || vm.postId.get() <= 0) return;
-            System.out.println("TagManager.remove -> postId=" + vm.postId.get() + " tagId=" + sel.id());
+            log.debug("remove -> postId={} tagId={}", vm.postId.get(), sel.id());
             boolean ok = vm.remove(sel.id());
-            System.out.println("TagManager.remove result=" + ok);
+            log.debug("remove result={}", ok);
             vm.loadForPost();
         });
 
         backBtn.setOnAction(e -> {
-            System.out.println("TagManager.back pressed");
+            log.debug("back pressed");
             NavigationService.navigateBack();
         });
     }
@@ -0,0 +1,11 @@
+-- V11__id_worker_leases.sql
+-- Snowflake worker ids (SnowflakeIdGenerator) leased by running instances that have no id.workerId
+-- configured: one row per worker id, held by owner until expires_at. Instances renew their lease
+-- while they run; an expired row is free to be taken by the next instance that starts.
+
+CREATE TABLE IF NOT EXISTS id_worker_leases (
+    worker_id SMALLINT PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    expires_at DATETIME(3) NOT NULL,
+    INDEX idx_worker_leases_expires (expires_at)
+) ENGINE=InnoDB;
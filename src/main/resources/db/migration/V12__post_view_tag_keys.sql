@@ -0,0 +1,11 @@
+-- V12__post_view_tag_keys.sql
+-- Tag search on post_view compared the tag as typed with tag_names, and JSON values compare
+-- case-sensitively, so "java" missed posts tagged "Java" while the posts/post_tags path (tags.name is
+-- case-insensitive) found them. tag_keys holds the lower-cased names, derived from tag_names so every
+-- write keeps it in step; searches compare LOWER(?) against it. tag_names stays as shown on screen.
+
+ALTER TABLE post_view
+    ADD COLUMN tag_keys JSON AS (CAST(LOWER(tag_names) AS JSON)) STORED,
+    DROP INDEX idx_post_view_tags,
+    -- search by tag: LOWER(?) MEMBER OF(tag_keys->'$')
+    ADD INDEX idx_post_view_tag_keys ((CAST(tag_keys->'$' AS CHAR(100) ARRAY)));
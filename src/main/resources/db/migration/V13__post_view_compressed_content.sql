@@ -0,0 +1,20 @@
+-- V13__post_view_compressed_content.sql
+-- post_view stores bodies like posts does (see V10 and ContentCodec): content_format 1 means the body
+-- is in content_compressed, in the format of COMPRESS(), and content is ''. Without this post_view
+-- kept a plain copy of every body that posts had just compressed.
+--
+-- Searches no longer read content: content_text is the body with markup stripped and whitespace
+-- collapsed (PostView.text), plain whatever the body's format, and the FULLTEXT index moves to it.
+-- Rows are converted as the projector rewrites them; run PostViewRebuild once to convert them all.
+ALTER TABLE post_view
+    ADD COLUMN content_format TINYINT NOT NULL DEFAULT 0,
+    ADD COLUMN content_compressed MEDIUMBLOB NULL,
+    ADD COLUMN content_text MEDIUMTEXT NULL;
+
+-- every post_view body is plain until now; same text as PostView.text
+UPDATE post_view
+SET content_text = TRIM(REGEXP_REPLACE(REGEXP_REPLACE(content, '<[^>]*>', ' '), '[[:space:]]+', ' '));
+
+ALTER TABLE post_view MODIFY COLUMN content_text MEDIUMTEXT NOT NULL;
+ALTER TABLE post_view DROP INDEX ft_post_view;
+ALTER TABLE post_view ADD FULLTEXT INDEX ft_post_view_text (title, content_text);
@@ -0,0 +1,19 @@
+-- V4__composite_indexes.sql
+-- Composite indexes for the listing queries (proposed by IndexAdvisor). V2 shipped empty and is
+-- already recorded in flyway_schema_history, so the indexes are added here rather than by editing it.
+--
+-- Every listing filters on deleted_at IS NULL and orders by created_at, so both go into the index
+-- after the equality column: rows come back in order and the LIMIT stops early instead of filesorting.
+
+-- Post list / User list: WHERE deleted_at IS NULL ORDER BY created_at DESC
+CREATE INDEX idx_posts_deleted_created ON posts(deleted_at, created_at);
+CREATE INDEX idx_users_deleted_created ON users(deleted_at, created_at);
+
+-- Post listByAuthor; also serves fk_posts_author, whose implicit index InnoDB then drops
+CREATE INDEX idx_posts_author_deleted_created ON posts(author_id, deleted_at, created_at);
+
+-- Comment listByPost: WHERE post_id=? AND deleted_at IS NULL ORDER BY created_at ASC
+CREATE INDEX idx_comments_post_deleted_created ON comments(post_id, deleted_at, created_at);
+
+-- V3 re-created the FULLTEXT index V1 already has (ft_posts); every write paid for both
+DROP INDEX idx_posts_fulltext ON posts;
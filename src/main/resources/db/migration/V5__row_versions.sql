@@ -0,0 +1,6 @@
+-- V5__row_versions.sql
+-- Row versions for optimistic concurrency: every UPDATE bumps version, and edits that must not
+-- overwrite someone else's change are compare-and-set (WHERE id=? AND version=?).
+
+ALTER TABLE posts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
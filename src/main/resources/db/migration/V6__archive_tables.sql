@@ -0,0 +1,38 @@
+-- V6__archive_tables.sql
+-- Cold storage for rows soft-deleted longer than archive.retentionDays (see Archiver). Archived posts
+-- take their comments and tag links along, so restoring a post brings all three back.
+
+CREATE TABLE IF NOT EXISTS posts_archive (
+    id BIGINT PRIMARY KEY,
+    author_id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    content TEXT NOT NULL,
+    published BOOLEAN NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME NULL,
+    deleted_at DATETIME NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_posts_archive_author (author_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS comments_archive (
+    id BIGINT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    created_at DATETIME NOT NULL,
+    deleted_at DATETIME NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_comments_archive_post (post_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS post_tags_archive (
+    post_id BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL,
+    PRIMARY KEY (post_id, tag_id)
+) ENGINE=InnoDB;
+
+-- the archiver finds expired comments by deletion time (posts use idx_posts_deleted_created)
+CREATE INDEX idx_comments_deleted ON comments(deleted_at);
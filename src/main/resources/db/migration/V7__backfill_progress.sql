@@ -0,0 +1,13 @@
+-- V7__backfill_progress.sql
+-- Checkpoints of online backfills (BackfillRunner): one row per backfill, updated in the same
+-- transaction as each chunk, so a restarted backfill resumes right after the last committed chunk.
+
+CREATE TABLE IF NOT EXISTS backfill_progress (
+    name VARCHAR(100) PRIMARY KEY,
+    table_name VARCHAR(64) NOT NULL,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    rows_done BIGINT NOT NULL DEFAULT 0,
+    started_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    completed_at DATETIME NULL
+) ENGINE=InnoDB;
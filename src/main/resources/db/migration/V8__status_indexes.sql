@@ -0,0 +1,9 @@
+-- V8__status_indexes.sql
+-- Index for the status-filtered post listings (Post listByStatus, and the status filter of the
+-- combined search): WHERE published=? AND deleted_at IS NULL ORDER BY created_at DESC.
+--
+-- published is the equality column, so it leads; drafts are a small slice of posts and the draft
+-- listing then reads only them, in created_at order, instead of walking idx_posts_deleted_created
+-- and discarding every published row. Per-author listings keep idx_posts_author_deleted_created:
+-- one author's posts are few enough that checking published on each row is cheap.
+CREATE INDEX idx_posts_published_deleted_created ON posts(published, deleted_at, created_at);
@@ -0,0 +1,45 @@
+-- V9__post_view.sql
+-- post_view: denormalized read model behind PostService's list and search methods. One row per live
+-- post with what the list screens show (author username, tag names, comment count, excerpt, status),
+-- so listings read one table: no joins to users, post_tags and tags, and no DISTINCT.
+--
+-- Maintained by PostViewProjector next to each write; PostViewRebuild regenerates it. refreshed_at is
+-- the last time a row was written, which lets a rebuild run online and then drop the rows it did not
+-- write. Sharded, only the global shard's post_view is used; this migration fills it with that shard's
+-- posts only, so run PostViewRebuild once after it.
+
+CREATE TABLE IF NOT EXISTS post_view (
+    post_id BIGINT PRIMARY KEY,
+    author_id BIGINT NOT NULL,
+    author_username VARCHAR(100) NULL,
+    title VARCHAR(255) NOT NULL,
+    content TEXT NOT NULL,
+    excerpt VARCHAR(200) NOT NULL,
+    tag_names JSON NOT NULL,
+    comment_count INT NOT NULL DEFAULT 0,
+    published BOOLEAN NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME NULL,
+    refreshed_at DATETIME(6) NOT NULL,
+    -- list / list by status / list by author, newest first
+    INDEX idx_post_view_created (created_at),
+    INDEX idx_post_view_published_created (published, created_at),
+    INDEX idx_post_view_author_created (author_id, created_at),
+    -- search by tag: ? MEMBER OF(tag_names->'$')
+    INDEX idx_post_view_tags ((CAST(tag_names->'$' AS CHAR(100) ARRAY))),
+    INDEX idx_post_view_refreshed (refreshed_at),
+    FULLTEXT INDEX ft_post_view (title, content)
+) ENGINE=InnoDB;
+
+-- same excerpt as PostView.excerpt: markup stripped, whitespace collapsed, first 200 characters
+INSERT IGNORE INTO post_view(post_id, author_id, author_username, title, content, excerpt, tag_names,
+                             comment_count, published, created_at, updated_at, refreshed_at)
+SELECT p.id, p.author_id, u.username, p.title, p.content,
+       LEFT(TRIM(REGEXP_REPLACE(REGEXP_REPLACE(p.content, '<[^>]*>', ' '), '[[:space:]]+', ' ')), 200),
+       COALESCE((SELECT JSON_ARRAYAGG(t.name) FROM post_tags pt JOIN tags t ON t.id = pt.tag_id
+                 WHERE pt.post_id = p.id), JSON_ARRAY()),
+       (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id AND c.deleted_at IS NULL),
+       p.published, p.created_at, p.updated_at, NOW(6)
+FROM posts p
+LEFT JOIN users u ON u.id = p.author_id
+WHERE p.deleted_at IS NULL;
@@ -0,0 +1,22 @@
+-- V6_1__partition_comments.sql
+-- Applied only when db.partitioning.enabled=true (flyway.partitionLocations), and not together with
+-- sharding: both drop fk_comments_user.
+--
+-- comments is range-partitioned by created_at, one partition per year; Archiver splits a new year
+-- out of pmax ahead of time. MySQL does not allow foreign keys on partitioned tables and needs the
+-- partitioning column in every unique key, so the foreign keys go and the primary key becomes
+-- (id, created_at). Ids stay unique: they come from the id generator.
+--
+-- posts is not partitioned: InnoDB partitioned tables cannot carry the FULLTEXT index that keyword
+-- search runs on.
+
+ALTER TABLE comments DROP FOREIGN KEY fk_comments_post;
+ALTER TABLE comments DROP FOREIGN KEY fk_comments_user;
+ALTER TABLE comments DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE comments PARTITION BY RANGE COLUMNS(created_at) (
+    PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,16 @@
+-- V3_1__author_sharding.sql
+-- Applied to every shard, and only when db.shards.urls is configured.
+-- Posts and comments are spread over shards by author, while users, tags and post_tags stay on the
+-- global shard (shard 0), so foreign keys that would cross shards are dropped.
+
+ALTER TABLE posts DROP FOREIGN KEY fk_posts_author;
+ALTER TABLE comments DROP FOREIGN KEY fk_comments_user;
+ALTER TABLE post_tags DROP FOREIGN KEY fk_post_tags_post;
+
+-- Authors placed away from their hash shard (written by ReshardingTool; read from the global shard)
+CREATE TABLE IF NOT EXISTS author_shard (
+    author_id BIGINT PRIMARY KEY,
+    shard INT NOT NULL,
+    state VARCHAR(16) NOT NULL DEFAULT 'ACTIVE',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
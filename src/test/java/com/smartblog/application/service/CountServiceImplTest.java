@@ -0,0 +1,69 @@
+package com.smartblog.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.core.dto.ResultCount;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.repository.api.PostRepository;
+import com.smartblog.infrastructure.repository.api.PostViewRepository;
+
+class CountServiceImplTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void countsPostsWhenPostViewIsDisabled() {
+        var counts = new CountServiceImpl(repo(PostRepository.class, "posts", 7, 0));
+        assertEquals(new ResultCount(7, false), counts.countPosts("java", null, null, PostStatus.ANY));
+        assertEquals(List.of("posts.countCombined"), calls);
+    }
+
+    @Test
+    void countsPostViewWhenEnabled() {
+        var counts = new CountServiceImpl(repo(PostRepository.class, "posts", 7, 0),
+                repo(PostViewRepository.class, "views", 5, 0), 1000, Duration.ofSeconds(30));
+        assertEquals(new ResultCount(5, false), counts.countPosts("java", "Java", null, PostStatus.PUBLISHED));
+        assertEquals(List.of("views.countCombined"), calls);
+    }
+
+    @Test
+    void estimatesFromPostViewPastTheExactLimit() {
+        var counts = new CountServiceImpl(repo(PostRepository.class, "posts", 7, 0),
+                repo(PostViewRepository.class, "views", 11, 123_456), 10, Duration.ofSeconds(30));
+        ResultCount total = counts.countPosts(null, null, null, PostStatus.ANY);
+        assertTrue(total.approximate());
+        assertEquals(123_000, total.value());
+        assertEquals(List.of("views.countCombined", "views.estimateCombined"), calls);
+    }
+
+    @Test
+    void estimateNeverFallsBelowTheExactLimit() {
+        var counts = new CountServiceImpl(repo(PostRepository.class, "posts", 7, 0),
+                repo(PostViewRepository.class, "views", 11, 3), 10, Duration.ofSeconds(30));
+        ResultCount total = counts.countPosts(null, null, null, PostStatus.ANY);
+        assertEquals(11, total.value());
+        assertFalse(total.display().isEmpty());
+    }
+
+    /** A repository answering countCombined with {@code count} and estimateCombined with {@code estimate}. */
+    @SuppressWarnings("unchecked")
+    private <T> T repo(Class<T> type, String name, long count, long estimate) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            calls.add(name + "." + m.getName());
+            return switch (m.getName()) {
+                case "countCombined" -> Math.min(count, (int) args[4]);
+                case "estimateCombined" -> estimate;
+                default -> throw new UnsupportedOperationException(m.getName());
+            };
+        });
+    }
+}
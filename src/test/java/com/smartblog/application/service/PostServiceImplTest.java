@@ -0,0 +1,102 @@
+package com.smartblog.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.application.security.SecurityContext;
+import com.smartblog.core.exceptions.ConcurrentEditException;
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.User;
+import com.smartblog.infrastructure.caching.CacheManager;
+import com.smartblog.infrastructure.id.SnowflakeIdGenerator;
+import com.smartblog.infrastructure.jdbc.TransactionManager;
+import com.smartblog.infrastructure.repository.api.PostViewRepository;
+import com.smartblog.infrastructure.repository.memory.CommentRepositoryMemory;
+import com.smartblog.infrastructure.repository.memory.InMemoryStore;
+import com.smartblog.infrastructure.repository.memory.PostRepositoryMemory;
+import com.smartblog.infrastructure.repository.memory.TagRepositoryMemory;
+import com.smartblog.infrastructure.repository.memory.UserRepositoryMemory;
+
+/** The versioned editor flow (PostEditorViewModel): create, save, publish and save again in one window. */
+class PostServiceImplTest {
+
+    private final List<String> viewWrites = new ArrayList<>();
+    private PostServiceImpl service;
+    private long admin;
+
+    @BeforeEach
+    void wire() {
+        InMemoryStore store = new InMemoryStore();
+        var users = new UserRepositoryMemory(store);
+        var posts = new PostRepositoryMemory(store);
+        var tags = new TagRepositoryMemory(store);
+        admin = users.create(new User(null, "root", "root@example.com", "hash", "ADMIN", null, null, null));
+        var projector = new PostViewProjector(recordingViews(), posts, users, tags, new CommentRepositoryMemory(store));
+        service = new PostServiceImpl(posts, users, tags, TransactionManager.none(), new SnowflakeIdGenerator(0),
+                null, projector);
+        SecurityContext.login(users.findById(admin).orElseThrow());
+        CacheManager.clearAll();
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContext.logout();
+        CacheManager.clearAll();
+    }
+
+    @Test
+    void saveAfterPublishInTheSameWindowDoesNotConflict() {
+        long id = service.createDraft(admin, "Title", "<p>first</p>");
+        long version = 0;
+        version = service.update(id, version, "Title", "<p>second</p>", false);
+        version = service.publish(id, version);
+        version = service.update(id, version, "Title", "<p>third</p>", false);
+
+        Post saved = service.getDomain(id).orElseThrow();
+        assertEquals(version, saved.getVersion());
+        assertEquals("<p>third</p>", saved.getContent());
+    }
+
+    @Test
+    void publishReturnsTheVersionItWrote() {
+        long id = service.createDraft(admin, "Title", "<p>body</p>");
+        assertEquals(1, service.publish(id, 0));
+        assertTrue(service.getDomain(id).orElseThrow().isPublished());
+    }
+
+    @Test
+    void publishOverAnEditFromElsewhereIsAConflict() {
+        long id = service.createDraft(admin, "Title", "<p>body</p>");
+        service.update(id, 0, "Title", "<p>other window</p>", false);
+
+        var e = assertThrows(ConcurrentEditException.class, () -> service.publish(id, 0));
+        assertEquals("<p>other window</p>", e.getCurrent(Post.class).getContent());
+    }
+
+    @Test
+    void editsAndPublishingUpdateOnlyWhatChangedInPostView() {
+        long id = service.createDraft(admin, "Title", "<p>body</p>");
+        long version = service.update(id, 0, "Title", "<p>edited</p>", false);
+        service.publish(id, version);
+        service.softDelete(id);
+        assertEquals(List.of("upsertAll", "updateContent", "markPublished", "delete"), viewWrites);
+    }
+
+    /** A post_view that records the writes it is asked for. */
+    private PostViewRepository recordingViews() {
+        return (PostViewRepository) Proxy.newProxyInstance(PostViewRepository.class.getClassLoader(),
+                new Class<?>[]{PostViewRepository.class}, (p, m, args) -> {
+                    viewWrites.add(m.getName());
+                    return m.getReturnType() == boolean.class ? true : null;
+                });
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartblog.infrastructure.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ContentCodecTest {
+
+    // SELECT HEX(COMPRESS('hello')) on MySQL 8: length 5 little-endian, then zlib at the default level
+    private static final byte[] MYSQL_HELLO = HexFormat.of().parseHex("05000000789CCB48CDC9C90700062C0215");
+
+    private static String body(int bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < bytes; i++) {
+            sb.append("Paragraph ").append(i).append(": compressed post bodies read back unchanged. ");
+        }
+        return sb.substring(0, bytes);
+    }
+
+    @AfterEach
+    void resetThreshold() {
+        ContentCodec.setThreshold(2048);
+        ContentCodec.setStoreCompressed(true);
+    }
+
+    @Test
+    void readsWhatMysqlCompressWrote() {
+        assertEquals("hello", ContentCodec.decode(ContentCodec.COMPRESSED, "", MYSQL_HELLO));
+    }
+
+    @Test
+    void writesWhatMysqlUncompressReads() {
+        assertArrayEquals(MYSQL_HELLO, ContentCodec.compress("hello".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void ignoresTheDotMysqlAppendsAfterATrailingSpace() {
+        byte[] dotted = Arrays.copyOf(MYSQL_HELLO, MYSQL_HELLO.length + 1);
+        dotted[dotted.length - 1] = '.';
+        assertEquals("hello", new String(ContentCodec.uncompress(dotted), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void emptyCompressedValueIsAnEmptyBody() {
+        // COMPRESS('') is the empty string, without a length word
+        assertEquals("", ContentCodec.decode(ContentCodec.COMPRESSED, "", new byte[0]));
+    }
+
+    @Test
+    void largeBodiesRoundTripCompressed() {
+        String text = body(50_000) + " non-ASCII: é ü 漢字 😀";
+        ContentCodec.Encoded e = ContentCodec.encode(text);
+        assertEquals(ContentCodec.COMPRESSED, e.format());
+        assertEquals("", e.text());
+        assertTrue(e.storedBytes() < text.getBytes(StandardCharsets.UTF_8).length / 4);
+        assertEquals(text, e.decode());
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length,
+                (e.compressed()[0] & 0xFF) | (e.compressed()[1] & 0xFF) << 8 | (e.compressed()[2] & 0xFF) << 16,
+                "length word is little-endian");
+    }
+
+    @Test
+    void shortBodiesStayPlain() {
+        ContentCodec.Encoded e = ContentCodec.encode(body(2047));
+        assertEquals(ContentCodec.PLAIN, e.format());
+        assertNull(e.compressed());
+        assertEquals(body(2047), e.decode());
+        assertEquals(ContentCodec.COMPRESSED, ContentCodec.encode(body(2048)).format());
+    }
+
+    @Test
+    void thresholdZeroTurnsCompressionOff() {
+        ContentCodec.setThreshold(0);
+        assertEquals(ContentCodec.PLAIN, ContentCodec.encode(body(100_000)).format());
+        assertThrows(IllegalArgumentException.class, () -> ContentCodec.setThreshold(-1));
+    }
+
+    @Test
+    void rowsAreWrittenPlainWhileStoringCompressedIsOff() {
+        String big = body(10_000);
+        ContentCodec.setStoreCompressed(false);
+        assertFalse(ContentCodec.storesCompressed());
+        assertEquals(new ContentCodec.Encoded(ContentCodec.PLAIN, big, null), ContentCodec.encodeForStorage(big));
+        // the post cache still compresses
+        assertEquals(ContentCodec.COMPRESSED, ContentCodec.encode(big).format());
+
+        ContentCodec.setStoreCompressed(true);
+        assertTrue(ContentCodec.storesCompressed());
+        assertEquals(ContentCodec.COMPRESSED, ContentCodec.encodeForStorage(big).format());
+    }
+
+    @Test
+    void nullBodyStaysNull() {
+        assertNull(ContentCodec.encode(null).decode());
+    }
+
+    @Test
+    void truncatedValueIsRejected() {
+        byte[] stored = ContentCodec.encode(body(10_000)).compressed();
+        assertThrows(RuntimeException.class,
+                () -> ContentCodec.uncompress(Arrays.copyOf(stored, stored.length / 2)));
+    }
+}
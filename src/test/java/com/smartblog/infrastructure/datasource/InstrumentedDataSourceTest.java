@@ -0,0 +1,109 @@
+package com.smartblog.infrastructure.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** The slow-query log over a database whose queries return three rows and whose updates change two. */
+class InstrumentedDataSourceTest {
+
+    private long threshold;
+    private InstrumentedDataSource ds;
+
+    @BeforeEach
+    void everyStatementIsSlow() {
+        threshold = SqlMetrics.getSlowQueryThresholdMs();
+        SqlMetrics.setSlowQueryThresholdMs(0);
+        SqlMetrics.reset();
+        ds = new InstrumentedDataSource(database());
+    }
+
+    @AfterEach
+    void restore() {
+        SqlMetrics.setSlowQueryThresholdMs(threshold);
+        SqlMetrics.reset();
+    }
+
+    @Test
+    void aSlowQueryIsLoggedWithTheRowsItReturned() throws Exception {
+        try (Connection con = ds.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT id FROM posts WHERE author_id=?")) {
+            ps.setLong(1, 7);
+            try (ResultSet rs = ps.executeQuery()) {
+                int read = 0;
+                while (rs.next()) read++;
+                assertEquals(3, read);
+                assertTrue(SqlMetrics.slowQueries().isEmpty(), "logged once the rows are read");
+            }
+        }
+        assertEquals(1, SqlMetrics.slowQueries().size());
+        assertEquals(3, SqlMetrics.slowQueries().get(0).rows());
+    }
+
+    @Test
+    void aResultSetLeftOpenIsLoggedWhenItsStatementCloses() throws Exception {
+        try (Connection con = ds.getConnection(); Statement st = con.createStatement()) {
+            st.execute("SELECT id FROM posts");
+            ResultSet rs = st.getResultSet();
+            rs.next();
+        }
+        assertEquals(1, SqlMetrics.slowQueries().get(0).rows());
+    }
+
+    @Test
+    void aSlowUpdateIsLoggedWithTheRowsItChanged() throws Exception {
+        try (Connection con = ds.getConnection();
+             PreparedStatement ps = con.prepareStatement("UPDATE posts SET title=? WHERE author_id=?")) {
+            ps.executeUpdate();
+        }
+        assertEquals(2, SqlMetrics.slowQueries().get(0).rows());
+    }
+
+    private static DataSource database() {
+        PreparedStatement ps = proxy(PreparedStatement.class, (m, args) -> switch (m) {
+            case "executeQuery", "getResultSet" -> resultSet(3);
+            case "execute" -> true;
+            case "executeUpdate" -> 2;
+            default -> null;
+        });
+        Connection con = proxy(Connection.class, (m, args) -> switch (m) {
+            case "prepareStatement", "createStatement" -> ps;
+            default -> null;
+        });
+        return proxy(DataSource.class, (m, args) -> m.equals("getConnection") ? con : null);
+    }
+
+    private static ResultSet resultSet(int rows) {
+        int[] row = {0};
+        return proxy(ResultSet.class, (m, args) -> m.equals("next") ? row[0]++ < rows : null);
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args) throws Exception;
+    }
+
+    // methods without a scripted answer return null, or zero / false where a primitive is expected
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            Object result = answer.answer(m.getName(), args);
+            if (result != null || !m.getReturnType().isPrimitive()) return result;
+            Class<?> r = m.getReturnType();
+            if (r == boolean.class) return false;
+            if (r == long.class) return 0L;
+            if (r == int.class) return 0;
+            return null;
+        });
+    }
+}
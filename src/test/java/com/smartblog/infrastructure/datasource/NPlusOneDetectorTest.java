@@ -0,0 +1,167 @@
+package com.smartblog.infrastructure.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.application.service.CommentServiceImpl;
+import com.smartblog.application.service.CountServiceImpl;
+import com.smartblog.application.service.PostServiceImpl;
+import com.smartblog.core.dto.PostDTO;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.caching.CacheManager;
+import com.smartblog.infrastructure.id.SnowflakeIdGenerator;
+import com.smartblog.infrastructure.jdbc.TransactionManager;
+import com.smartblog.infrastructure.repository.jdbc.CommentRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.PostRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.TagRepositoryJdbc;
+import com.smartblog.infrastructure.repository.jdbc.UserRepositoryJdbc;
+
+/**
+ * Runs the post list and the admin dashboard totals over the JDBC repositories and an
+ * {@link InstrumentedDataSource}, whose database is a scripted stand-in returning {@link #POSTS} posts
+ * per listing, so the detector sees the statements the services really issue.
+ */
+class NPlusOneDetectorTest {
+
+    private static final int POSTS = 20;
+
+    private PostServiceImpl postService;
+    private CommentServiceImpl commentService;
+    private CountServiceImpl countService;
+
+    @BeforeEach
+    void wire() {
+        configure("nplusone-baseline.txt");
+        DataSource ds = new InstrumentedDataSource(scriptedDatabase());
+        var posts = new PostRepositoryJdbc(ds);
+        var users = new UserRepositoryJdbc(ds);
+        var tags = new TagRepositoryJdbc(ds);
+        var ids = new SnowflakeIdGenerator(0);
+        postService = new PostServiceImpl(posts, users, tags, TransactionManager.none(), ids);
+        commentService = new CommentServiceImpl(new CommentRepositoryJdbc(ds), posts, users, null, ids);
+        countService = new CountServiceImpl(posts);
+        CacheManager.clearAll();
+    }
+
+    @AfterEach
+    void restore() {
+        configure("nplusone-baseline.txt");
+        CacheManager.clearAll();
+    }
+
+    @Test
+    void postListHasNoNewNPlusOne() {
+        List<PostDTO> page = NPlusOneDetector.assertNoNewNPlusOne("PostService.list",
+                () -> postService.list(PostStatus.ANY, 0, 50));
+        assertEquals(POSTS, page.size());
+    }
+
+    @Test
+    void adminDashboardTotalsHaveNoNewNPlusOne() {
+        long comments = NPlusOneDetector.assertNoNewNPlusOne("AdminDashboard refresh", this::dashboardTotals);
+        assertEquals(1, comments); // the scripted count row: post 1 has one comment
+    }
+
+    @Test
+    void patternMissingFromTheBaselineFails() {
+        configure("nplusone-baseline-without-users.txt");
+        AssertionError e = assertThrows(AssertionError.class, () -> NPlusOneDetector.assertNoNewNPlusOne(
+                "PostService.list", () -> postService.list(PostStatus.ANY, 0, 50)));
+        assertTrue(e.getMessage().contains("FROM users WHERE id=?"), e.getMessage());
+        assertFalse(e.getMessage().contains("FROM tags"), "tag lookups are still in the baseline");
+    }
+
+    // what AdminDashboardController.loadDashboard asks the services for
+    private long dashboardTotals() {
+        List<PostDTO> posts = postService.list(0, 1000);
+        long comments = commentService.countForPosts(posts.stream().map(PostDTO::id).toList())
+                .values().stream().mapToLong(Long::longValue).sum();
+        countService.countPosts(null, null, null, PostStatus.DRAFT);
+        return comments;
+    }
+
+    private static void configure(String baseline) {
+        Properties props = new Properties();
+        props.setProperty("dev.nplusone.enabled", "false");
+        props.setProperty("dev.nplusone.baseline", baseline);
+        NPlusOneDetector.configure(props);
+    }
+
+    /**
+     * A database answering every SELECT from its text: post listings get {@link #POSTS} rows, user
+     * lookups and counts one, anything else none. Every numeric column of row n reads as n + 1.
+     */
+    private static DataSource scriptedDatabase() {
+        Connection con = proxy(Connection.class, (m, args) -> switch (m) {
+            case "prepareStatement" -> statement((String) args[0]);
+            case "getAutoCommit" -> true;
+            default -> null;
+        });
+        return proxy(DataSource.class, (m, args) -> switch (m) {
+            case "getConnection" -> con;
+            case "getLogWriter" -> new PrintWriter(System.out);
+            case "getParentLogger" -> Logger.getGlobal();
+            default -> null;
+        });
+    }
+
+    private static PreparedStatement statement(String sql) {
+        int rows = sql.contains("COUNT(") || sql.contains("FROM users WHERE id=?") ? 1
+                : sql.contains("FROM posts") && sql.contains("LIMIT") ? POSTS
+                : 0;
+        return proxy(PreparedStatement.class, (m, args) -> switch (m) {
+            case "executeQuery" -> resultSet(rows);
+            case "executeUpdate" -> 0;
+            default -> null;
+        });
+    }
+
+    private static ResultSet resultSet(int rows) {
+        int[] row = {-1};
+        return proxy(ResultSet.class, (m, args) -> switch (m) {
+            case "next" -> ++row[0] < rows;
+            case "getLong" -> row[0] + 1L;
+            case "getInt" -> 0;
+            case "getString" -> "text";
+            case "getBoolean" -> false;
+            default -> null;
+        });
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args) throws Exception;
+    }
+
+    // methods without a scripted answer return null, or zero / false where a primitive is expected
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getName().equals("close") || m.getName().equals("setFetchSize")) return null;
+            Object result = answer.answer(m.getName(), args);
+            if (result != null || !m.getReturnType().isPrimitive()) return result;
+            Class<?> r = m.getReturnType();
+            if (r == boolean.class) return false;
+            if (r == long.class) return 0L;
+            if (r == int.class) return 0;
+            if (r == void.class) return null;
+            return 0;
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartblog.infrastructure.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/** Read-your-writes: which reads stay on the primary after what. */
+class RoutingDataSourceTest {
+
+    private final Connection replicaConnection = connection();
+    private RoutingDataSource routing;
+
+    @BeforeEach
+    void wire() {
+        routing = new RoutingDataSource(pool(connection()), List.of(pool(replicaConnection)),
+                RoutingDataSource.Balance.ROUND_ROBIN, 60_000, 5, 60_000);
+    }
+
+    @AfterEach
+    void close() {
+        routing.close();
+    }
+
+    @Test
+    void checkingOutThePrimaryWithoutWritingKeepsReadsOnTheReplica() throws Exception {
+        try (Connection con = routing.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT 1")) {
+            ps.executeQuery();
+            con.commit();
+        }
+        assertSame(replicaConnection, routing.getReadConnection());
+    }
+
+    @Test
+    void aWritePinsThisThreadsReadsToThePrimary() throws Exception {
+        try (Connection con = routing.getConnection();
+             PreparedStatement ps = con.prepareStatement("UPDATE posts SET title=? WHERE id=?")) {
+            ps.executeUpdate();
+        }
+        assertNotSame(replicaConnection, routing.getReadConnection());
+        assertSame(replicaConnection, CompletableFuture.supplyAsync(() -> {
+            try {
+                return routing.getReadConnection();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).get(), "other threads did not write");
+    }
+
+    @Test
+    void executeCountsAsAWriteUnlessItIsAQuery() throws Exception {
+        try (Connection con = routing.getConnection(); Statement st = con.createStatement()) {
+            st.execute("SELECT GET_LOCK('x', 0)");
+            assertSame(replicaConnection, routing.getReadConnection());
+            st.execute("DELETE FROM post_view WHERE refreshed_at < NOW()");
+        }
+        assertNotSame(replicaConnection, routing.getReadConnection());
+    }
+
+    private static HikariDataSource pool(Connection con) {
+        return new HikariDataSource() {
+            @Override
+            public Connection getConnection() {
+                return con;
+            }
+        };
+    }
+
+    // statements that run and return empty results; close and commit do nothing
+    private static Connection connection() {
+        ResultSet rs = stub(ResultSet.class);
+        return stub(Connection.class, stub(PreparedStatement.class, rs));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Object... returns) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            for (Object r : returns) if (m.getReturnType().isInstance(r)) return r;
+            Class<?> t = m.getReturnType();
+            if (t == boolean.class) return false;
+            if (t == int.class) return 0;
+            if (t == long.class) return 0L;
+            return null;
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.smartblog.infrastructure.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long T0 = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+    private static long workerOf(long id) { return (id >>> 12) & SnowflakeIdGenerator.MAX_WORKER_ID; }
+
+    private static long sequenceOf(long id) { return id & 0xFFF; }
+
+    @Test
+    void idsIncreaseAndCarryTheWorkerId() {
+        var ids = new SnowflakeIdGenerator(42);
+        long prev = ids.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = ids.nextId();
+            assertTrue(next > prev, "ids must increase");
+            assertEquals(42, workerOf(next));
+            prev = next;
+        }
+    }
+
+    @Test
+    void idEncodesItsCreationTime() {
+        var ids = new SnowflakeIdGenerator(1, () -> T0);
+        assertEquals(Instant.ofEpochMilli(T0), SnowflakeIdGenerator.timestampOf(ids.nextId()));
+    }
+
+    @Test
+    void sameMillisecondCountsTheSequenceUp() {
+        var ids = new SnowflakeIdGenerator(3, () -> T0);
+        assertEquals(0, sequenceOf(ids.nextId()));
+        assertEquals(1, sequenceOf(ids.nextId()));
+        assertEquals(2, sequenceOf(ids.nextId()));
+    }
+
+    @Test
+    void clockSteppingBackDoesNotRepeatOrReorderIds() {
+        AtomicLong now = new AtomicLong(T0);
+        var ids = new SnowflakeIdGenerator(7, now::get);
+        long before = ids.nextId();
+        now.set(T0 - 5_000);
+        long during = ids.nextId();
+        long later = ids.nextId();
+        assertTrue(during > before && later > during, "ids keep increasing while the clock is behind");
+        // the generator kept its own time instead of going back with the clock
+        assertEquals(Instant.ofEpochMilli(T0), SnowflakeIdGenerator.timestampOf(later));
+
+        now.set(T0 + 10);
+        long recovered = ids.nextId();
+        assertTrue(recovered > later);
+        assertEquals(Instant.ofEpochMilli(T0 + 10), SnowflakeIdGenerator.timestampOf(recovered));
+    }
+
+    @Test
+    void sequenceOverflowBorrowsTheNextMillisecond() {
+        var ids = new SnowflakeIdGenerator(9, () -> T0);
+        long prev = -1;
+        for (int i = 0; i < 4096; i++) prev = ids.nextId();
+        assertEquals(4095, sequenceOf(prev));
+        long next = ids.nextId();
+        assertTrue(next > prev);
+        assertEquals(0, sequenceOf(next));
+        assertEquals(9, workerOf(next));
+        assertEquals(Instant.ofEpochMilli(T0 + 1), SnowflakeIdGenerator.timestampOf(next));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws Exception {
+        var ids = new SnowflakeIdGenerator(5);
+        Callable<List<Long>> draw = () -> {
+            List<Long> out = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) out.add(ids.nextId());
+            return out;
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Long>>> parts = new ArrayList<>();
+            for (int t = 0; t < 4; t++) parts.add(pool.submit(draw));
+            Set<Long> all = new HashSet<>();
+            for (Future<List<Long>> part : parts) all.addAll(part.get());
+            assertEquals(80_000, all.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void workerIdMustFitTenBits() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+        assertEquals(SnowflakeIdGenerator.MAX_WORKER_ID,
+                workerOf(new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID).nextId()));
+    }
+
+    @Test
+    void configuredWorkerIdIsUsed() {
+        Properties props = new Properties();
+        props.setProperty("id.workerId", " 17 ");
+        assertEquals(17, SnowflakeIdGenerator.fromProperties(props, null).getWorkerId());
+    }
+
+    @Test
+    void startupFailsWithoutAWorkerIdOrADatabaseToLeaseOne() {
+        assertThrows(IllegalStateException.class, () -> SnowflakeIdGenerator.fromProperties(new Properties(), null));
+    }
+}
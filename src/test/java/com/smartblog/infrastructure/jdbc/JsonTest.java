@@ -0,0 +1,51 @@
+package com.smartblog.infrastructure.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class JsonTest {
+
+    @Test
+    void stringArraysRoundTrip() {
+        List<String> names = List.of("java", "C \"sharp\"", "back\\slash", "line\nbreak", "naïve", "");
+        String json = Json.stringArray(names);
+        assertEquals(names, Json.parseStringArray(json));
+        assertEquals("[]", Json.stringArray(List.of()));
+        assertEquals(List.of(), Json.parseStringArray(null));
+    }
+
+    @Test
+    void readsWhatMySqlWrites() {
+        // JSON columns come back with spaces after the separators
+        assertEquals(List.of("Java", "SQL"), Json.parseStringArray("[\"Java\", \"SQL\"]"));
+        assertEquals(List.of("é"), Json.parseStringArray("[\"\\u00e9\"]"));
+    }
+
+    @Test
+    void parsesAPlan() {
+        Object plan = Json.parse("""
+                {"query_block": {"select_id": 1, "cost_info": {"query_cost": "1.20"},
+                  "ordering_operation": {"using_filesort": true,
+                    "table": {"table_name": "posts", "access_type": "ALL", "rows_examined_per_scan": 42,
+                              "key": null, "filtered": 10.5}}}}
+                """);
+        var table = (Map<?, ?>) ((Map<?, ?>) ((Map<?, ?>) ((Map<?, ?>) plan).get("query_block"))
+                .get("ordering_operation")).get("table");
+        assertEquals("ALL", table.get("access_type"));
+        assertEquals(42L, table.get("rows_examined_per_scan"));
+        assertEquals(10.5, table.get("filtered"));
+        assertEquals(null, table.get("key"));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[\"open"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1] 2"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseStringArray("{\"a\": 1}"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartblog.infrastructure.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.infrastructure.jdbc.RetryPolicy.Failure;
+
+class RetryPolicyTest {
+
+    private static RuntimeException wrapped(SQLException e) {
+        return new RuntimeException("Post update failed", e);
+    }
+
+    @Test
+    void deadlocksAndLockWaitTimeoutsAreRolledBack() {
+        assertEquals(Failure.ROLLED_BACK, RetryPolicy.classify(wrapped(new SQLException("deadlock", "40001", 1213))));
+        assertEquals(Failure.ROLLED_BACK, RetryPolicy.classify(wrapped(new SQLException("lock wait", "HY000", 1205))));
+        assertEquals(Failure.ROLLED_BACK, RetryPolicy.classify(wrapped(new SQLTransactionRollbackException("rolled back"))));
+    }
+
+    @Test
+    void linkFailuresAreConnectionFailures() {
+        assertEquals(Failure.CONNECTION, RetryPolicy.classify(wrapped(new SQLException("link failure", "08S01", 0))));
+        assertEquals(Failure.CONNECTION, RetryPolicy.classify(wrapped(new SQLRecoverableException("reset"))));
+    }
+
+    @Test
+    void otherErrorsArePermanent() {
+        assertEquals(Failure.PERMANENT, RetryPolicy.classify(wrapped(new SQLException("duplicate", "23000", 1062))));
+        assertEquals(Failure.PERMANENT, RetryPolicy.classify(new IllegalStateException("no SQL cause")));
+        assertEquals(Failure.PERMANENT, RetryPolicy.classify(null));
+    }
+
+    @Test
+    void nextExceptionsOfABatchAreClassifiedToo() {
+        BatchUpdateException batch = new BatchUpdateException("batch", "HY000", 0, new int[0], null);
+        batch.setNextException(new SQLException("deadlock", "40001", 1213));
+        assertEquals(Failure.ROLLED_BACK, RetryPolicy.classify(wrapped(batch)));
+    }
+
+    @Test
+    void rolledBackWorkIsRetriedUntilItSucceeds() {
+        RetryPolicy policy = new RetryPolicy(3, 0, 0, 10);
+        AtomicInteger calls = new AtomicInteger();
+        String result = policy.execute("test rolledBack", false, () -> {
+            if (calls.incrementAndGet() < 3) throw wrapped(new SQLException("deadlock", "40001", 1213));
+            return "done";
+        });
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void connectionFailuresAreRetriedOnlyWhenIdempotent() {
+        RetryPolicy policy = new RetryPolicy(3, 0, 0, 10);
+        AtomicInteger calls = new AtomicInteger();
+        RuntimeException reset = wrapped(new SQLException("link failure", "08S01", 0));
+        assertSame(reset, assertThrows(RuntimeException.class, () -> policy.execute("test write", false, () -> {
+            calls.incrementAndGet();
+            throw reset;
+        })));
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        assertThrows(RuntimeException.class, () -> policy.execute("test read", true, () -> {
+            calls.incrementAndGet();
+            throw reset;
+        }));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void permanentFailuresAreNotRetried() {
+        RetryPolicy policy = new RetryPolicy(3, 0, 0, 10);
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(RuntimeException.class, () -> policy.execute("test permanent", true, () -> {
+            calls.incrementAndGet();
+            throw wrapped(new SQLException("syntax", "42000", 1064));
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void budgetCapsRetriesAcrossCalls() {
+        // room for one retry; each later call earns a tenth of one
+        RetryPolicy policy = new RetryPolicy(5, 0, 0, 1);
+        AtomicInteger calls = new AtomicInteger();
+        Runnable deadlocking = () -> assertThrows(RuntimeException.class, () -> policy.execute("test budget", false, () -> {
+            calls.incrementAndGet();
+            throw wrapped(new SQLException("deadlock", "40001", 1213));
+        }));
+
+        deadlocking.run();
+        assertEquals(2, calls.get(), "the one budgeted retry");
+
+        calls.set(0);
+        for (int i = 0; i < 9; i++) deadlocking.run();
+        assertEquals(9, calls.get(), "no retries until ten calls have refilled the budget");
+
+        calls.set(0);
+        deadlocking.run();
+        assertEquals(2, calls.get(), "the tenth call may retry once more");
+    }
+
+    @Test
+    void noneNeverRetries() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(RuntimeException.class, () -> RetryPolicy.none().execute("test none", true, () -> {
+            calls.incrementAndGet();
+            throw wrapped(new SQLException("deadlock", "40001", 1213));
+        }));
+        assertEquals(1, calls.get());
+    }
+}
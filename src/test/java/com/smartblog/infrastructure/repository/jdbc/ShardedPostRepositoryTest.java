@@ -0,0 +1,169 @@
+package com.smartblog.infrastructure.repository.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.infrastructure.shard.ShardMap;
+
+/**
+ * Global reads over two scripted shards while ReshardingTool moves an author from shard 0 to shard 1:
+ * the author's posts are on both shards, and each must still be listed and counted once.
+ */
+class ShardedPostRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final List<List<Object[]>> rows = List.of(new ArrayList<>(), new ArrayList<>());
+    private ShardMap map;
+    private ShardedPostRepository posts;
+    private long mover, stayer;
+
+    @BeforeEach
+    void wire() {
+        map = new ShardMap(List.of(shard(0), shard(1)), 60_000, 50);
+        posts = new ShardedPostRepository(map);
+        mover = authorHomedOn(0);
+        stayer = authorHomedOn(1);
+        // the mover's three newest posts, copied to shard 1 and not yet deleted from shard 0
+        for (int i = 0; i < 3; i++) {
+            Object[] post = post(100 + i, mover, T0.plusMinutes(10 + i));
+            rows.get(0).add(post);
+            rows.get(1).add(post);
+        }
+        for (int i = 0; i < 3; i++) rows.get(1).add(post(200 + i, stayer, T0.plusMinutes(i)));
+    }
+
+    @AfterEach
+    void close() {
+        map.close();
+    }
+
+    @Test
+    void listDuringTheCopyPhaseShowsTheMoversPostsOnce() {
+        assertEquals(List.of(102L, 101L, 100L, 202L, 201L, 200L), ids(posts.list(PostStatus.ANY, 1, 10)));
+        // shard 1's first three rows are all copies: it is asked again for the stayer's posts
+        assertEquals(List.of(102L, 101L, 100L), ids(posts.list(PostStatus.ANY, 1, 3)));
+        assertEquals(List.of(202L, 201L, 200L), ids(posts.list(PostStatus.ANY, 2, 3)));
+    }
+
+    @Test
+    void listAfterTheFlipReadsTheTargetCopies() {
+        map.place(mover, 1, ShardMap.State.ACTIVE);
+        assertEquals(List.of(102L, 101L, 100L, 202L, 201L, 200L), ids(posts.list(PostStatus.ANY, 1, 10)));
+    }
+
+    @Test
+    void searchAndCountSeeEachPostOnce() {
+        assertEquals(6, posts.searchCombined("post", null, null, PostStatus.ANY, "date_desc", 1, 10).size());
+        assertEquals(6, posts.countCombined("post", null, null, PostStatus.ANY, 1000));
+        assertEquals(6, posts.countCombined(null, null, null, PostStatus.ANY, 1000));
+    }
+
+    @Test
+    void streamAllSkipsTheCopies() {
+        try (Stream<Post> all = posts.streamAll()) {
+            assertEquals(6, all.count());
+        }
+    }
+
+    private long authorHomedOn(int shard) {
+        for (long a = 1; ; a++) if (map.homeShard(a) == shard) return a;
+    }
+
+    private static List<Long> ids(List<Post> page) {
+        return page.stream().map(Post::getId).toList();
+    }
+
+    private static Object[] post(long id, long authorId, LocalDateTime createdAt) {
+        return new Object[]{id, authorId, "post " + id, "body", true, createdAt, null, null, 1L, 0, null};
+    }
+
+    // ---- a shard answering the statements the repository issues ----------------
+
+    private DataSource shard(int index) {
+        Connection con = proxy(Connection.class, (m, args) -> switch (m) {
+            case "prepareStatement" -> statement(index, (String) args[0]);
+            case "getAutoCommit" -> true;
+            default -> null;
+        });
+        return proxy(DataSource.class, (m, args) -> m.equals("getConnection") ? con : null);
+    }
+
+    private PreparedStatement statement(int shard, String sql) {
+        Map<Integer, Object> params = new HashMap<>();
+        return proxy(PreparedStatement.class, (m, args) -> switch (m) {
+            case "setObject" -> params.put((Integer) args[0], args[1]);
+            case "executeQuery" -> resultSet(answer(shard, sql, params));
+            default -> null;
+        });
+    }
+
+    /** Newest first, capped by the LIMIT parameter; COUNT queries grouped by author as asked. */
+    private List<Object[]> answer(int shard, String sql, Map<Integer, Object> params) {
+        if (!sql.contains("FROM posts")) return List.of(); // author_shard directory: no placements yet
+        List<Object[]> matching = new ArrayList<>(rows.get(shard));
+        matching.sort(Comparator.comparing((Object[] r) -> (LocalDateTime) r[5]).reversed());
+        if (sql.contains("LIMIT ?")) {
+            int limitParam = (int) sql.substring(0, sql.indexOf("LIMIT ?")).chars().filter(c -> c == '?').count() + 1;
+            int limit = ((Number) params.get(limitParam)).intValue();
+            matching = matching.subList(0, Math.min(limit, matching.size()));
+        }
+        if (!sql.contains("COUNT(*)")) return matching;
+        Map<Long, Long> byAuthor = new LinkedHashMap<>();
+        for (Object[] r : matching) byAuthor.merge((Long) r[1], 1L, Long::sum);
+        return byAuthor.entrySet().stream().map(e -> new Object[]{e.getKey(), e.getValue()}).toList();
+    }
+
+    private static ResultSet resultSet(List<Object[]> data) {
+        int[] row = {-1};
+        return proxy(ResultSet.class, (m, args) -> switch (m) {
+            case "next" -> ++row[0] < data.size();
+            case "getObject" -> data.get(row[0])[(Integer) args[0] - 1];
+            case "getLong" -> ((Number) data.get(row[0])[(Integer) args[0] - 1]).longValue();
+            case "getInt" -> ((Number) data.get(row[0])[(Integer) args[0] - 1]).intValue();
+            case "getString" -> (String) data.get(row[0])[(Integer) args[0] - 1];
+            case "getBoolean" -> (Boolean) data.get(row[0])[(Integer) args[0] - 1];
+            case "getBytes" -> (byte[]) data.get(row[0])[(Integer) args[0] - 1];
+            default -> null;
+        });
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args) throws Exception;
+    }
+
+    // methods without a scripted answer return null, or zero / false where a primitive is expected
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getName().equals("close") || m.getName().equals("setFetchSize")) return null;
+            Object result = answer.answer(m.getName(), args);
+            if (result != null || !m.getReturnType().isPrimitive()) return result;
+            Class<?> r = m.getReturnType();
+            if (r == boolean.class) return false;
+            if (r == long.class) return 0L;
+            if (r == int.class) return 0;
+            return null;
+        });
+    }
+}
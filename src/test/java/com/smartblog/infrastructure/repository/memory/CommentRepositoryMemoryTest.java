@@ -0,0 +1,97 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.core.model.Comment;
+import com.smartblog.core.model.Post;
+
+class CommentRepositoryMemoryTest {
+
+    private static final long USER = 5;
+
+    private CommentRepositoryMemory comments;
+    private long postId;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryStore store = new InMemoryStore();
+        comments = new CommentRepositoryMemory(store);
+        postId = new PostRepositoryMemory(store).create(new Post(1L, "post", "body"));
+    }
+
+    private long comment(String text) {
+        return comments.create(new Comment(postId, USER, text));
+    }
+
+    private static List<Long> ids(List<Comment> page) {
+        return page.stream().map(Comment::getId).toList();
+    }
+
+    @Test
+    void pagesAreOldestFirstAndDoNotOverlap() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) created.add(comment("comment " + i));
+
+        assertEquals(created.subList(0, 2), ids(comments.listByPost(postId, 1, 2)));
+        assertEquals(created.subList(2, 4), ids(comments.listByPost(postId, 2, 2)));
+        assertEquals(created.subList(4, 5), ids(comments.listByPost(postId, 3, 2)));
+        assertEquals(List.of(), comments.listByPost(postId, 4, 2));
+        assertEquals(List.of(), comments.listByPost(postId + 1, 1, 2));
+    }
+
+    @Test
+    void latestAreNewestFirstPerPost() {
+        comment("first");
+        long second = comment("second");
+        long third = comment("third");
+        assertEquals(List.of(third, second), ids(comments.latestByPosts(List.of(postId), 2).get(postId)));
+        assertEquals(Map.of(), comments.latestByPosts(List.of(postId), 0));
+    }
+
+    @Test
+    void softDeletedCommentsDisappearFromEveryRead() {
+        long kept = comment("kept");
+        long deleted = comment("deleted");
+
+        assertTrue(comments.softDelete(deleted));
+        assertFalse(comments.softDelete(deleted), "already deleted");
+        assertTrue(comments.findById(deleted).isEmpty());
+        assertEquals(List.of(kept), ids(comments.listByPost(postId, 1, 10)));
+        assertEquals(List.of(kept), ids(comments.latestByPosts(List.of(postId), 10).get(postId)));
+        assertEquals(Map.of(postId, 1L), comments.countByPosts(List.of(postId)));
+        assertEquals(1, comments.streamAll().count());
+
+        Comment edit = new Comment(postId, USER, "edited");
+        edit.setId(deleted);
+        assertFalse(comments.update(edit), "a deleted comment cannot be updated");
+    }
+
+    @Test
+    void restoreBringsACommentBackInItsPlace() {
+        long first = comment("first");
+        long second = comment("second");
+        assertTrue(comments.softDeleteIfPermitted(first, USER, false).isPresent());
+        assertFalse(comments.restoreIfPermitted(first, USER + 1, false), "only the commenter or an admin restores");
+        assertTrue(comments.restoreIfPermitted(first, USER, false));
+        assertEquals(List.of(first, second), ids(comments.listByPost(postId, 1, 10)));
+    }
+
+    @Test
+    void softDeleteIfPermittedChecksTheActor() {
+        long id = comment("comment");
+        assertTrue(comments.softDeleteIfPermitted(id, USER + 1, false).isEmpty());
+        assertTrue(comments.softDeleteIfPermitted(id, null, false).isEmpty());
+        assertTrue(comments.findById(id).isPresent());
+        assertEquals(Optional.of(postId), comments.softDeleteIfPermitted(id, null, true), "admins may delete any comment");
+    }
+}
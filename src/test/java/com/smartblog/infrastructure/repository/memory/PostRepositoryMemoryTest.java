@@ -0,0 +1,129 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.core.model.Post;
+import com.smartblog.core.model.PostStatus;
+import com.smartblog.core.model.User;
+
+class PostRepositoryMemoryTest {
+
+    private InMemoryStore store;
+    private PostRepositoryMemory posts;
+    private long author;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryStore();
+        posts = new PostRepositoryMemory(store);
+        author = new UserRepositoryMemory(store).create(new User(null, "ada", "ada@example.com", "hash", "AUTHOR",
+                null, null, null));
+    }
+
+    private long post(String title, boolean published) {
+        Post p = new Post(author, title, "body of " + title);
+        p.setPublished(published);
+        return posts.create(p);
+    }
+
+    private static List<Long> ids(List<Post> page) {
+        return page.stream().map(Post::getId).toList();
+    }
+
+    @Test
+    void pagesAreNewestFirstAndDoNotOverlap() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) created.add(post("post " + i, true));
+        // created within the same second: ties go to the higher id, as ORDER BY created_at DESC, id DESC
+        List<Long> newestFirst = created.reversed();
+
+        assertEquals(newestFirst.subList(0, 3), ids(posts.list(PostStatus.ANY, 1, 3)));
+        assertEquals(newestFirst.subList(3, 6), ids(posts.list(PostStatus.ANY, 2, 3)));
+        assertEquals(newestFirst.subList(6, 7), ids(posts.list(PostStatus.ANY, 3, 3)));
+        assertEquals(List.of(), posts.list(PostStatus.ANY, 4, 3));
+    }
+
+    @Test
+    void pageZeroIsTheFirstPageLikeTheJdbcOffset() {
+        for (int i = 0; i < 4; i++) post("post " + i, true);
+        assertEquals(ids(posts.list(PostStatus.ANY, 1, 2)), ids(posts.list(PostStatus.ANY, 0, 2)));
+        assertEquals(List.of(), posts.list(PostStatus.ANY, 1, 0));
+    }
+
+    @Test
+    void statusFiltersBeforePaging() {
+        long draft = post("draft", false);
+        long published = post("published", true);
+        post("another draft", false);
+
+        assertEquals(List.of(published), ids(posts.list(PostStatus.PUBLISHED, 1, 10)));
+        assertEquals(2, posts.list(PostStatus.DRAFT, 1, 10).size());
+        assertEquals(List.of(draft), ids(posts.list(PostStatus.DRAFT, 2, 1)));
+        assertEquals(2, posts.countByAuthor(author, PostStatus.DRAFT));
+    }
+
+    @Test
+    void softDeletedPostsDisappearFromEveryRead() {
+        long kept = post("kept", true);
+        long deleted = post("deleted", true);
+
+        assertTrue(posts.softDelete(deleted));
+        assertTrue(posts.findById(deleted).isEmpty());
+        assertEquals(List.of(kept), ids(posts.list(PostStatus.ANY, 1, 10)));
+        assertEquals(List.of(kept), ids(posts.listByAuthor(author, PostStatus.ANY, 1, 10)));
+        assertEquals(List.of(), posts.search("deleted", PostStatus.ANY, 1, 10));
+        assertEquals(1, posts.countByAuthor(author, PostStatus.ANY));
+        assertEquals(1, posts.countCombined(null, null, null, PostStatus.ANY, 100));
+        assertEquals(1, posts.streamAll().count());
+    }
+
+    @Test
+    void softDeleteIsOneWayUntilRestored() {
+        long id = post("post", true);
+        assertTrue(posts.softDelete(id));
+        assertFalse(posts.softDelete(id), "already deleted");
+
+        Post edit = new Post(id, author, "edited", "edited", true, null, null, null);
+        assertFalse(posts.update(edit), "a deleted post cannot be updated");
+
+        assertFalse(posts.restoreIfPermitted(id, author + 1, false), "only the author or an admin restores");
+        assertTrue(posts.restoreIfPermitted(id, author, false));
+        assertEquals("post", posts.findById(id).orElseThrow().getTitle());
+        assertEquals(List.of(id), ids(posts.list(PostStatus.ANY, 1, 10)));
+        assertEquals(2, posts.findById(id).orElseThrow().getVersion(), "delete and restore each bump the version");
+    }
+
+    @Test
+    void softDeleteIfPermittedChecksTheActor() {
+        long id = post("post", true);
+        assertFalse(posts.softDeleteIfPermitted(id, author + 1, false));
+        assertTrue(posts.findById(id).isPresent());
+        assertTrue(posts.softDeleteIfPermitted(id, author + 1, true), "admins may delete any post");
+    }
+
+    @Test
+    void returnedPostsAreCopies() {
+        long id = post("title", true);
+        posts.findById(id).orElseThrow().setTitle("changed without update");
+        assertEquals("title", posts.findById(id).orElseThrow().getTitle());
+    }
+
+    @Test
+    void assignedIdsAreKeptAndCannotRepeat() {
+        Post p = new Post(author, "assigned", "body");
+        p.setId(1_000L);
+        assertEquals(1_000L, posts.create(p));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> posts.create(p));
+        assertEquals("duplicate", e.getMessage());
+        assertEquals(1_001L, posts.create(new Post(author, "next", "body")), "AUTO_INCREMENT moves past assigned ids");
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartblog.infrastructure.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartblog.core.model.User;
+
+class UserRepositoryMemoryTest {
+
+    private UserRepositoryMemory users;
+
+    @BeforeEach
+    void setUp() {
+        users = new UserRepositoryMemory(new InMemoryStore());
+    }
+
+    private long user(String name) {
+        return users.create(new User(null, name, name + "@example.com", "hash", "READER", null, null, null));
+    }
+
+    @Test
+    void pagesAreNewestFirst() {
+        long a = user("a"), b = user("b"), c = user("c");
+        assertEquals(List.of(c, b), users.list(1, 2).stream().map(User::getId).toList());
+        assertEquals(List.of(a), users.list(2, 2).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void softDeletedUsersAreHiddenButKeepTheirUniqueKeys() {
+        long id = user("grace");
+        assertTrue(users.softDelete(id));
+        assertFalse(users.softDelete(id), "already deleted");
+
+        assertTrue(users.findById(id).isEmpty());
+        assertTrue(users.findByUsername("grace").isEmpty());
+        assertEquals(List.of(), users.list(1, 10));
+        assertEquals(List.of(), users.findByIds(List.of(id)));
+
+        // as in MySQL, the soft-deleted row still holds its username and email
+        RuntimeException e = assertThrows(RuntimeException.class, () -> user("GRACE"));
+        assertEquals("duplicate", e.getMessage());
+    }
+
+    @Test
+    void usernamesAndEmailsAreUniqueIgnoringCase() {
+        user("linus");
+        assertThrows(RuntimeException.class,
+                () -> users.create(new User(null, "LINUS", "other@example.com", "hash", "READER", null, null, null)));
+        assertThrows(RuntimeException.class,
+                () -> users.create(new User(null, "other", "Linus@Example.com", "hash", "READER", null, null, null)));
+        assertTrue(users.findByEmail("LINUS@example.com").isPresent());
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartblog.infrastructure.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class KWayMergeTest {
+
+    private static final List<List<Integer>> SHARDS = List.of(
+            List.of(1, 4, 7, 10),
+            List.of(2, 5, 8),
+            List.of(),
+            List.of(3, 6, 9, 11, 12));
+
+    @Test
+    void mergesSortedListsIntoOneOrder() {
+        assertEquals(IntStream.rangeClosed(1, 12).boxed().toList(),
+                KWayMerge.merge(SHARDS, Comparator.naturalOrder(), 0, 100));
+    }
+
+    @Test
+    void offsetAndLimitSelectAPageOfTheMergedOrder() {
+        assertEquals(List.of(1, 2, 3, 4, 5), KWayMerge.merge(SHARDS, Comparator.naturalOrder(), 0, 5));
+        assertEquals(List.of(6, 7, 8, 9, 10), KWayMerge.merge(SHARDS, Comparator.naturalOrder(), 5, 5));
+        assertEquals(List.of(11, 12), KWayMerge.merge(SHARDS, Comparator.naturalOrder(), 10, 5));
+    }
+
+    @Test
+    void pagesPastTheEndAreEmpty() {
+        assertEquals(List.of(), KWayMerge.merge(SHARDS, Comparator.naturalOrder(), 12, 5));
+        assertEquals(List.of(), KWayMerge.merge(SHARDS, Comparator.naturalOrder(), 0, 0));
+        assertEquals(List.of(), KWayMerge.merge(List.of(), Comparator.<Integer>naturalOrder(), 0, 5));
+    }
+
+    @Test
+    void pagesMatchSortingEverything() {
+        // what ShardedPostRepository does: each shard returns its first offset + size rows, newest first
+        List<List<Integer>> shards = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            int shard = s;
+            shards.add(IntStream.range(0, 40).map(i -> 1000 - (i * 3 + shard) * 7 % 997).boxed()
+                    .sorted(Comparator.reverseOrder()).toList());
+        }
+        List<Integer> all = shards.stream().flatMap(List::stream).sorted(Comparator.reverseOrder()).toList();
+        for (int offset = 0; offset < 60; offset += 10) {
+            int o = offset;
+            List<List<Integer>> heads = shards.stream().map(l -> l.subList(0, Math.min(l.size(), o + 10))).toList();
+            assertEquals(all.subList(offset, offset + 10), KWayMerge.merge(heads, Comparator.reverseOrder(), offset, 10));
+        }
+    }
+
+    @Test
+    void equalKeysAreAllKept() {
+        assertEquals(List.of(1, 1, 2, 2, 2), KWayMerge.merge(List.of(List.of(1, 2), List.of(1, 2, 2)),
+                Comparator.naturalOrder(), 0, 10));
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartblog.infrastructure.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ShardMapTest {
+
+    private final List<ShardMap> maps = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        maps.forEach(ShardMap::close);
+    }
+
+    // an empty author_shard directory; statements succeed and return no rows
+    private static DataSource emptyDatabase() {
+        ResultSet rs = stub(ResultSet.class);
+        PreparedStatement ps = stub(PreparedStatement.class, rs);
+        Connection con = stub(Connection.class, ps);
+        return stub(DataSource.class, con);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Object... returns) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            for (Object r : returns) if (m.getReturnType().isInstance(r)) return r;
+            Class<?> t = m.getReturnType();
+            if (t == boolean.class) return false;
+            if (t == int.class) return 0;
+            if (t == long.class) return 0L;
+            return null;
+        });
+    }
+
+    private ShardMap map(int shards) {
+        List<DataSource> all = new ArrayList<>();
+        for (int i = 0; i < shards; i++) all.add(emptyDatabase());
+        ShardMap map = new ShardMap(all, 60_000, 50);
+        maps.add(map);
+        return map;
+    }
+
+    @Test
+    void homeShardIsStableAndInRange() {
+        ShardMap map = map(4);
+        ShardMap otherInstance = map(4);
+        for (long author = -1000; author < 1000; author++) {
+            int home = map.homeShard(author);
+            assertTrue(home >= 0 && home < 4, "shard " + home + " for author " + author);
+            assertEquals(home, otherInstance.homeShard(author), "every instance places an author alike");
+        }
+    }
+
+    @Test
+    void homeShardSpreadsSequentialAuthorIds() {
+        ShardMap map = map(4);
+        int[] perShard = new int[4];
+        for (long author = 1; author <= 4000; author++) perShard[map.homeShard(author)]++;
+        for (int n : perShard) assertTrue(n > 800 && n < 1200, "uneven spread " + Arrays.toString(perShard));
+    }
+
+    @Test
+    void singleShardHoldsEveryone() {
+        ShardMap map = map(1);
+        for (long author = 0; author < 100; author++) assertEquals(0, map.homeShard(author));
+    }
+
+    @Test
+    void directoryPlacementOverridesTheHomeShard() {
+        ShardMap map = map(3);
+        long author = 12345;
+        int home = map.homeShard(author);
+        int other = (home + 1) % 3;
+        assertEquals(home, map.shardFor(author));
+
+        map.place(author, other, ShardMap.State.ACTIVE);
+        assertEquals(other, map.shardFor(author));
+        assertEquals(other, map.shardForWrite(author));
+        assertEquals(home, map.homeShard(author), "the hash placement itself never changes");
+    }
+
+    @Test
+    void writesWaitForALockedAuthorAndThenGiveUp() {
+        ShardMap map = map(2);
+        long author = 77;
+        map.place(author, map.homeShard(author), ShardMap.State.LOCKED);
+        assertEquals(map.homeShard(author), map.shardFor(author), "reads keep going to the source");
+        assertThrows(RuntimeException.class, () -> map.shardForWrite(author));
+    }
+
+    @Test
+    void aViewOverOtherPoolsSharesThePlacements() {
+        ShardMap map = map(2);
+        List<DataSource> reporting = List.of(emptyDatabase(), emptyDatabase());
+        ShardMap view = map.withPools(reporting);
+        long author = 42;
+        int other = 1 - map.homeShard(author);
+
+        map.place(author, other, ShardMap.State.ACTIVE);
+        assertEquals(other, view.shardFor(author));
+        assertSame(reporting.get(other), view.shard(view.shardFor(author)));
+        view.place(author, 1 - other, ShardMap.State.ACTIVE);
+        assertEquals(1 - other, map.shardFor(author));
+
+        view.close();
+        assertThrows(IllegalArgumentException.class, () -> map.withPools(List.of(emptyDatabase())));
+    }
+}